@@ -55,4 +55,50 @@ create index ACT_IDX_JOB_HANDLER on ACT_RU_JOB(HANDLER_TYPE_,HANDLER_CFG_);
 
 -- CAM-5284
 ALTER TABLE ACT_RU_EXT_TASK
-  ADD ERROR_DETAILS_ID_ varchar(64);
\ No newline at end of file
+  ADD ERROR_DETAILS_ID_ varchar(64);
+
+-- compressed byte arrays --
+ALTER TABLE ACT_GE_BYTEARRAY
+  ADD COMPRESSED_ smallint check(COMPRESSED_ in (1,0));
+
+-- pre-aggregated historic process instance durations --
+create table ACT_HI_DURATION_AGG (
+    ID_ varchar(64) not null,
+    REV_ integer,
+    PROC_DEF_ID_ varchar(64) not null,
+    PROC_DEF_KEY_ varchar(255),
+    TENANT_ID_ varchar(64),
+    YEAR_ integer not null,
+    MONTH_ integer not null,
+    COUNT_ bigint,
+    SUM_ bigint,
+    MIN_ bigint,
+    MAX_ bigint,
+    SKETCH_ BLOB,
+    primary key (ID_)
+);
+
+create table ACT_HI_DURATION_QUEUE (
+    ID_ varchar(64) not null,
+    REV_ integer,
+    primary key (ID_)
+);
+
+create index ACT_IDX_HI_DUR_AGG_PROCDEF on ACT_HI_DURATION_AGG(PROC_DEF_ID_, YEAR_, MONTH_);
+
+-- transactional outbox of the asynchronous history event writer --
+INSERT INTO ACT_GE_PROPERTY
+  VALUES ('history.outbox.seq', '0', 1);
+
+create table ACT_RU_HIST_OUTBOX (
+  ID_ varchar(64) not null,
+  REV_ integer not null,
+  CREATE_TIME_ timestamp not null,
+  SEQ_ bigint,
+  EVENT_COUNT_ integer,
+  BYTES_ BLOB,
+  ATTEMPTS_ integer,
+  QUARANTINED_ smallint check(QUARANTINED_ in (1,0)),
+  EXCEPTION_MSG_ varchar(4000),
+  primary key (ID_)
+);
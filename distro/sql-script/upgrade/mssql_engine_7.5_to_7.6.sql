@@ -55,4 +55,50 @@ create index ACT_IDX_JOB_HANDLER on ACT_RU_JOB(HANDLER_TYPE_,HANDLER_CFG_);
 
 -- CAM-5284
 ALTER TABLE ACT_RU_EXT_TASK
-  ADD ERROR_DETAILS_ID_ nvarchar(64);
\ No newline at end of file
+  ADD ERROR_DETAILS_ID_ nvarchar(64);
+
+-- compressed byte arrays --
+ALTER TABLE ACT_GE_BYTEARRAY
+  ADD COMPRESSED_ tinyint;
+
+-- pre-aggregated historic process instance durations --
+create table ACT_HI_DURATION_AGG (
+    ID_ nvarchar(64) not null,
+    REV_ int,
+    PROC_DEF_ID_ nvarchar(64) not null,
+    PROC_DEF_KEY_ nvarchar(255),
+    TENANT_ID_ nvarchar(64),
+    YEAR_ int not null,
+    MONTH_ int not null,
+    COUNT_ numeric(19,0),
+    SUM_ numeric(19,0),
+    MIN_ numeric(19,0),
+    MAX_ numeric(19,0),
+    SKETCH_ image,
+    primary key (ID_)
+);
+
+create table ACT_HI_DURATION_QUEUE (
+    ID_ nvarchar(64) not null,
+    REV_ int,
+    primary key (ID_)
+);
+
+create index ACT_IDX_HI_DUR_AGG_PROCDEF on ACT_HI_DURATION_AGG(PROC_DEF_ID_, YEAR_, MONTH_);
+
+-- transactional outbox of the asynchronous history event writer --
+INSERT INTO ACT_GE_PROPERTY
+  VALUES ('history.outbox.seq', '0', 1);
+
+create table ACT_RU_HIST_OUTBOX (
+  ID_ nvarchar(64) not null,
+  REV_ int not null,
+  CREATE_TIME_ datetime2 not null,
+  SEQ_ bigint,
+  EVENT_COUNT_ int,
+  BYTES_ image,
+  ATTEMPTS_ int,
+  QUARANTINED_ tinyint,
+  EXCEPTION_MSG_ nvarchar(4000),
+  primary key (ID_)
+);
@@ -54,4 +54,52 @@ create index ACT_IDX_JOB_EXECUTION_ID on ACT_RU_JOB(EXECUTION_ID_);
 
 -- CAM-5284
 ALTER TABLE ACT_RU_EXT_TASK
-  ADD ERROR_DETAILS_ID_ varchar(64);
\ No newline at end of file
+  ADD ERROR_DETAILS_ID_ varchar(64);
+
+-- compressed byte arrays --
+ALTER TABLE ACT_GE_BYTEARRAY
+  ADD COMPRESSED_ TINYINT;
+
+-- pre-aggregated historic process instance durations --
+create table ACT_HI_DURATION_AGG (
+    ID_ varchar(64) not null,
+    REV_ integer,
+    PROC_DEF_ID_ varchar(64) not null,
+    PROC_DEF_KEY_ varchar(255),
+    TENANT_ID_ varchar(64),
+    YEAR_ integer not null,
+    MONTH_ integer not null,
+    COUNT_ bigint,
+    SUM_ bigint,
+    MIN_ bigint,
+    MAX_ bigint,
+    SKETCH_ LONGBLOB,
+    primary key (ID_)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE utf8_bin;
+
+create table ACT_HI_DURATION_QUEUE (
+    ID_ varchar(64) not null,
+    REV_ integer,
+    primary key (ID_)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE utf8_bin;
+
+create index ACT_IDX_HI_PRO_INST_END on ACT_HI_PROCINST(END_TIME_);
+
+create index ACT_IDX_HI_DUR_AGG_PROCDEF on ACT_HI_DURATION_AGG(PROC_DEF_ID_, YEAR_, MONTH_);
+
+-- transactional outbox of the asynchronous history event writer --
+INSERT INTO ACT_GE_PROPERTY
+  VALUES ('history.outbox.seq', '0', 1);
+
+create table ACT_RU_HIST_OUTBOX (
+  ID_ varchar(64) not null,
+  REV_ integer not null,
+  CREATE_TIME_ datetime not null,
+  SEQ_ bigint,
+  EVENT_COUNT_ integer,
+  BYTES_ LONGBLOB,
+  ATTEMPTS_ integer,
+  QUARANTINED_ TINYINT,
+  EXCEPTION_MSG_ varchar(4000),
+  primary key (ID_)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE utf8_bin;
@@ -55,4 +55,50 @@ create index ACT_IDX_JOB_HANDLER on ACT_RU_JOB(HANDLER_TYPE_,HANDLER_CFG_);
 
 -- CAM-5284
 ALTER TABLE ACT_RU_EXT_TASK
-  ADD ERROR_DETAILS_ID_ NVARCHAR2(64);
\ No newline at end of file
+  ADD ERROR_DETAILS_ID_ NVARCHAR2(64);
+
+-- compressed byte arrays --
+ALTER TABLE ACT_GE_BYTEARRAY
+  ADD COMPRESSED_ NUMBER(1,0) CHECK (COMPRESSED_ IN (1,0));
+
+-- pre-aggregated historic process instance durations --
+create table ACT_HI_DURATION_AGG (
+    ID_ NVARCHAR2(64) not null,
+    REV_ INTEGER,
+    PROC_DEF_ID_ NVARCHAR2(64) not null,
+    PROC_DEF_KEY_ NVARCHAR2(255),
+    TENANT_ID_ NVARCHAR2(64),
+    YEAR_ INTEGER not null,
+    MONTH_ INTEGER not null,
+    COUNT_ NUMBER(19,0),
+    SUM_ NUMBER(19,0),
+    MIN_ NUMBER(19,0),
+    MAX_ NUMBER(19,0),
+    SKETCH_ BLOB,
+    primary key (ID_)
+);
+
+create table ACT_HI_DURATION_QUEUE (
+    ID_ NVARCHAR2(64) not null,
+    REV_ INTEGER,
+    primary key (ID_)
+);
+
+create index ACT_IDX_HI_DUR_AGG_PROCDEF on ACT_HI_DURATION_AGG(PROC_DEF_ID_, YEAR_, MONTH_);
+
+-- transactional outbox of the asynchronous history event writer --
+INSERT INTO ACT_GE_PROPERTY
+  VALUES ('history.outbox.seq', '0', 1);
+
+create table ACT_RU_HIST_OUTBOX (
+  ID_ NVARCHAR2(64) not null,
+  REV_ INTEGER not null,
+  CREATE_TIME_ TIMESTAMP(6) not null,
+  SEQ_ NUMBER(19,0),
+  EVENT_COUNT_ INTEGER,
+  BYTES_ BLOB,
+  ATTEMPTS_ INTEGER,
+  QUARANTINED_ NUMBER(1,0) CHECK (QUARANTINED_ IN (1,0)),
+  EXCEPTION_MSG_ NVARCHAR2(2000),
+  primary key (ID_)
+);
@@ -63,6 +63,15 @@ public class LdapConfiguration {
 
   protected boolean authorizationCheckEnabled = true;
 
+  protected boolean connectionPoolEnabled = false;
+  protected int connectionPoolMaxSize = 0;
+  protected int connectionPoolPreferredSize = 0;
+  protected long connectionPoolTimeout = 0;
+
+  protected boolean searchResultCacheEnabled = false;
+  protected int searchResultCacheMaxSize = 1000;
+  protected long searchResultCacheTimeToLive = 60000;
+
   // getters / setters //////////////////////////////////////
 
   public String getInitialContextFactory() {
@@ -280,4 +289,81 @@ public class LdapConfiguration {
     this.authorizationCheckEnabled = authorizationCheckEnabled;
   }
 
+  public boolean isConnectionPoolEnabled() {
+    return connectionPoolEnabled;
+  }
+
+  /**
+   * Enables JNDI connection pooling for the connections opened with the manager credentials.
+   * Connections used to verify the password of a user are never pooled.
+   */
+  public void setConnectionPoolEnabled(boolean connectionPoolEnabled) {
+    this.connectionPoolEnabled = connectionPoolEnabled;
+  }
+
+  public int getConnectionPoolMaxSize() {
+    return connectionPoolMaxSize;
+  }
+
+  /**
+   * Maximum number of pooled connections per connection identity. Since the JNDI
+   * connection pool is configured JVM wide, the value is applied as system property
+   * and only takes effect if the pool was not used before. Values &lt;= 0 keep the JNDI default.
+   */
+  public void setConnectionPoolMaxSize(int connectionPoolMaxSize) {
+    this.connectionPoolMaxSize = connectionPoolMaxSize;
+  }
+
+  public int getConnectionPoolPreferredSize() {
+    return connectionPoolPreferredSize;
+  }
+
+  /**
+   * Preferred number of pooled connections per connection identity, see {@link #setConnectionPoolMaxSize(int)}.
+   */
+  public void setConnectionPoolPreferredSize(int connectionPoolPreferredSize) {
+    this.connectionPoolPreferredSize = connectionPoolPreferredSize;
+  }
+
+  public long getConnectionPoolTimeout() {
+    return connectionPoolTimeout;
+  }
+
+  /**
+   * Time in milliseconds an idle connection may remain in the pool, see {@link #setConnectionPoolMaxSize(int)}.
+   */
+  public void setConnectionPoolTimeout(long connectionPoolTimeout) {
+    this.connectionPoolTimeout = connectionPoolTimeout;
+  }
+
+  public boolean isSearchResultCacheEnabled() {
+    return searchResultCacheEnabled;
+  }
+
+  /**
+   * Enables caching of user and group lookups by id as well as group membership lookups.
+   */
+  public void setSearchResultCacheEnabled(boolean searchResultCacheEnabled) {
+    this.searchResultCacheEnabled = searchResultCacheEnabled;
+  }
+
+  public int getSearchResultCacheMaxSize() {
+    return searchResultCacheMaxSize;
+  }
+
+  public void setSearchResultCacheMaxSize(int searchResultCacheMaxSize) {
+    this.searchResultCacheMaxSize = searchResultCacheMaxSize;
+  }
+
+  public long getSearchResultCacheTimeToLive() {
+    return searchResultCacheTimeToLive;
+  }
+
+  /**
+   * Time in milliseconds a cached search result is used before the directory is queried again.
+   */
+  public void setSearchResultCacheTimeToLive(long searchResultCacheTimeToLive) {
+    this.searchResultCacheTimeToLive = searchResultCacheTimeToLive;
+  }
+
 }
@@ -23,13 +23,22 @@ import org.camunda.bpm.engine.impl.interceptor.SessionFactory;
 public class LdapIdentityProviderFactory implements SessionFactory {
 
   protected LdapConfiguration ldapConfiguration;
+  protected LdapSearchResultCache searchResultCache;
   
   public Class<?> getSessionType() {
     return ReadOnlyIdentityProvider.class;
   }
 
   public Session openSession() {
-    return new LdapIdentityProviderSession(ldapConfiguration);
+    return new LdapIdentityProviderSession(ldapConfiguration, getSearchResultCache());
+  }
+
+  public synchronized LdapSearchResultCache getSearchResultCache() {
+    if (searchResultCache == null && ldapConfiguration.isSearchResultCacheEnabled()) {
+      searchResultCache = new LdapSearchResultCache(ldapConfiguration.getSearchResultCacheMaxSize(),
+          ldapConfiguration.getSearchResultCacheTimeToLive());
+    }
+    return searchResultCache;
   }
   
   public LdapConfiguration getLdapConfiguration() {
@@ -18,6 +18,8 @@ import static org.camunda.bpm.engine.authorization.Resources.USER;
 
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +32,7 @@ import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
 import javax.naming.directory.Attribute;
 import javax.naming.directory.Attributes;
+import javax.naming.directory.SearchControls;
 import javax.naming.directory.SearchResult;
 import javax.naming.ldap.Control;
 import javax.naming.ldap.InitialLdapContext;
@@ -64,11 +67,19 @@ public class LdapIdentityProviderSession implements ReadOnlyIdentityProvider {
 
   private final static Logger LOG = Logger.getLogger(LdapIdentityProviderSession.class.getName());
 
+  public static final String JNDI_CONNECTION_POOL_PROPERTY = "com.sun.jndi.ldap.connect.pool";
+
   protected LdapConfiguration ldapConfiguration;
+  protected LdapSearchResultCache searchResultCache;
   protected LdapContext initialContext;
 
   public LdapIdentityProviderSession(LdapConfiguration ldapConfiguration) {
+    this(ldapConfiguration, null);
+  }
+
+  public LdapIdentityProviderSession(LdapConfiguration ldapConfiguration, LdapSearchResultCache searchResultCache) {
     this.ldapConfiguration = ldapConfiguration;
+    this.searchResultCache = searchResultCache;
   }
 
   // Session Lifecycle //////////////////////////////////
@@ -79,16 +90,30 @@ public class LdapIdentityProviderSession implements ReadOnlyIdentityProvider {
 
   public void close() {
     if (initialContext != null) {
-      try {
-        initialContext.close();
-      } catch (Exception e) {
-        // ignore
-        LOG.log(Level.FINE, "exception while closing LDAP DIR CTX", e);
-      }
+      closeContext(initialContext);
+      initialContext = null;
+    }
+  }
+
+  protected void closeContext(LdapContext context) {
+    try {
+      // returns the connection to the pool if connection pooling is enabled
+      context.close();
+    } catch (Exception e) {
+      // ignore
+      LOG.log(Level.FINE, "exception while closing LDAP DIR CTX", e);
     }
   }
 
   protected InitialLdapContext openContext(String userDn, String password) {
+    return openContext(userDn, password, false);
+  }
+
+  /**
+   * @param pooled whether the connection should be taken from the JNDI connection pool. Should only
+   * be used for the manager connection, since the JNDI pool is partitioned by credentials.
+   */
+  protected InitialLdapContext openContext(String userDn, String password, boolean pooled) {
     Hashtable<String, String> env = new Hashtable<String, String>();
     env.put(Context.INITIAL_CONTEXT_FACTORY, ldapConfiguration.getInitialContextFactory());
     env.put(Context.SECURITY_AUTHENTICATION, ldapConfiguration.getSecurityAuthentication());
@@ -105,6 +130,10 @@ public class LdapIdentityProviderSession implements ReadOnlyIdentityProvider {
       env.put(Context.SECURITY_PROTOCOL, "ssl");
     }
 
+    if(pooled) {
+      env.put(JNDI_CONNECTION_POOL_PROPERTY, "true");
+    }
+
     // add additional properties
     Map<String, String> contextProperties = ldapConfiguration.getContextProperties();
     if(contextProperties != null) {
@@ -125,7 +154,58 @@ public class LdapIdentityProviderSession implements ReadOnlyIdentityProvider {
 
   protected void ensureContextInitialized() {
     if(initialContext == null) {
-      initialContext = openContext(ldapConfiguration.getManagerDn(), ldapConfiguration.getManagerPassword());
+      initialContext = openContext(ldapConfiguration.getManagerDn(), ldapConfiguration.getManagerPassword(), ldapConfiguration.isConnectionPoolEnabled());
+    }
+  }
+
+  /**
+   * Performs a search using the manager connection. If the search is cacheable and the
+   * search result cache is enabled, the results are served from the cache if possible.
+   * Only searches which are expected to return a small number of results should be
+   * cacheable since their result is fully read.
+   */
+  protected Enumeration<SearchResult> search(String baseDn, String filter, boolean cacheable) throws NamingException {
+    SearchControls searchControls = ldapConfiguration.getSearchControls();
+
+    if(!cacheable || searchResultCache == null) {
+      ensureContextInitialized();
+      return initialContext.search(baseDn, filter, searchControls);
+    }
+
+    // the request controls (e.g. sorting) remain set on the context and influence the results
+    Control[] requestControls = null;
+    if(initialContext != null) {
+      requestControls = initialContext.getRequestControls();
+    }
+
+    List<SearchResult> results = searchResultCache.get(baseDn, filter, searchControls, requestControls);
+
+    if(results == null) {
+      ensureContextInitialized();
+      results = new ArrayList<SearchResult>();
+
+      NamingEnumeration<SearchResult> enumeration = initialContext.search(baseDn, filter, searchControls);
+      try {
+        while (enumeration.hasMoreElements()) {
+          results.add(enumeration.nextElement());
+        }
+      } finally {
+        closeEnumeration(enumeration);
+      }
+
+      searchResultCache.put(baseDn, filter, searchControls, requestControls, results);
+    }
+
+    return Collections.enumeration(results);
+  }
+
+  protected void closeEnumeration(Enumeration<?> enumeration) {
+    try {
+      if (enumeration instanceof NamingEnumeration) {
+        ((NamingEnumeration<?>) enumeration).close();
+      }
+    } catch (Exception e) {
+      // ignore silently
     }
   }
 
@@ -146,12 +226,10 @@ public class LdapIdentityProviderSession implements ReadOnlyIdentityProvider {
   }
 
   public long findUserCountByQueryCriteria(LdapUserQueryImpl query) {
-    ensureContextInitialized();
     return findUserByQueryCriteria(query).size();
   }
 
   public List<User> findUserByQueryCriteria(LdapUserQueryImpl query) {
-    ensureContextInitialized();
     if(query.getGroupId() != null) {
       // if restriction on groupId is provided, we need to search in group tree first, look for the group and then further restrict on the members
       return findUsersByGroupId(query);
@@ -167,9 +245,10 @@ public class LdapIdentityProviderSession implements ReadOnlyIdentityProvider {
     // compose group search filter
     String groupSearchFilter = "(& " + ldapConfiguration.getGroupSearchFilter() + ")";
 
-    NamingEnumeration<SearchResult> enumeration = null;
+    Enumeration<SearchResult> enumeration = null;
     try {
-      enumeration = initialContext.search(baseDn, groupSearchFilter, ldapConfiguration.getSearchControls());
+      // the group lookup is only cacheable if the group was found
+      enumeration = search(baseDn, groupSearchFilter, baseDn.length() > 0);
 
       List<String> groupMemberList = new ArrayList<String>();
 
@@ -205,13 +284,7 @@ public class LdapIdentityProviderSession implements ReadOnlyIdentityProvider {
       throw new IdentityProviderException("Could not query for users", e);
 
     } finally {
-      try {
-        if (enumeration != null) {
-          enumeration.close();
-        }
-      } catch (Exception e) {
-        // ignore silently
-      }
+      closeEnumeration(enumeration);
     }
   }
 
@@ -221,11 +294,11 @@ public class LdapIdentityProviderSession implements ReadOnlyIdentityProvider {
       applyRequestControls(query);
     }
 
-    NamingEnumeration<SearchResult> enumeration = null;
+    Enumeration<SearchResult> enumeration = null;
     try {
 
       String filter = getUserSearchFilter(query);
-      enumeration = initialContext.search(userBaseDn, filter, ldapConfiguration.getSearchControls());
+      enumeration = search(userBaseDn, filter, isCacheableUserSearch(query, userBaseDn));
 
       // perform client-side paging
       int resultCount = 0;
@@ -251,13 +324,7 @@ public class LdapIdentityProviderSession implements ReadOnlyIdentityProvider {
       throw new IdentityProviderException("Could not query for users", e);
 
     } finally {
-      try {
-        if (enumeration != null) {
-          enumeration.close();
-        }
-      } catch (Exception e) {
-        // ignore silently
-      }
+      closeEnumeration(enumeration);
     }
   }
 
@@ -292,7 +359,7 @@ public class LdapIdentityProviderSession implements ReadOnlyIdentityProvider {
 
       try {
         // bind authenticate for user + supplied password
-        openContext(user.getDn(), password);
+        closeContext(openContext(user.getDn(), password));
         return true;
 
       } catch(LdapAuthenticationException e) {
@@ -365,24 +432,21 @@ public class LdapIdentityProviderSession implements ReadOnlyIdentityProvider {
   }
 
   public long findGroupCountByQueryCriteria(LdapGroupQuery ldapGroupQuery) {
-    ensureContextInitialized();
     return findGroupByQueryCriteria(ldapGroupQuery).size();
   }
 
   public List<Group> findGroupByQueryCriteria(LdapGroupQuery query) {
-    ensureContextInitialized();
-
     String groupBaseDn = composeDn(ldapConfiguration.getGroupSearchBase(),ldapConfiguration.getBaseDn());
 
     if(ldapConfiguration.isSortControlSupported()) {
       applyRequestControls(query);
     }
 
-    NamingEnumeration<SearchResult> enumeration = null;
+    Enumeration<SearchResult> enumeration = null;
     try {
 
       String filter = getGroupSearchFilter(query);
-      enumeration = initialContext.search(groupBaseDn, filter, ldapConfiguration.getSearchControls());
+      enumeration = search(groupBaseDn, filter, isCacheableGroupSearch(query));
 
       // perform client-side paging
       int resultCount = 0;
@@ -409,13 +473,7 @@ public class LdapIdentityProviderSession implements ReadOnlyIdentityProvider {
       throw new IdentityProviderException("Could not query for users", e);
 
     } finally {
-      try {
-        if (enumeration != null) {
-          enumeration.close();
-        }
-      } catch (Exception e) {
-        // ignore silently
-      }
+      closeEnumeration(enumeration);
     }
   }
 
@@ -453,6 +511,21 @@ public class LdapIdentityProviderSession implements ReadOnlyIdentityProvider {
 
   // Utils ////////////////////////////////////////////
 
+  /**
+   * @return true if the user search is a lookup of a single user, either by id or by dn
+   */
+  protected boolean isCacheableUserSearch(LdapUserQueryImpl query, String userBaseDn) {
+    String defaultUserBaseDn = composeDn(ldapConfiguration.getUserSearchBase(), ldapConfiguration.getBaseDn());
+    return query.getId() != null || !defaultUserBaseDn.equals(userBaseDn);
+  }
+
+  /**
+   * @return true if the group search is a lookup of a single group or of the groups of a user
+   */
+  protected boolean isCacheableGroupSearch(LdapGroupQuery query) {
+    return query.getId() != null || query.getUserId() != null;
+  }
+
   protected String getDnForUser(String userId) {
     LdapUserEntity user = (LdapUserEntity) createUserQuery(org.camunda.bpm.engine.impl.context.Context.getCommandContext())
       .userId(userId)
@@ -515,6 +588,7 @@ public class LdapIdentityProviderSession implements ReadOnlyIdentityProvider {
 
   @SuppressWarnings("rawtypes")
   protected void applyRequestControls(AbstractQuery query) {
+    ensureContextInitialized();
 
     try {
       List<Control> controls = new ArrayList<Control>();
@@ -0,0 +1,172 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.identity.impl.ldap;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.naming.directory.SearchControls;
+import javax.naming.directory.SearchResult;
+import javax.naming.ldap.Control;
+
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+
+/**
+ * <p>Bounded, time based cache for the results of LDAP searches which is shared
+ * by all {@link LdapIdentityProviderSession}s of a process engine.</p>
+ *
+ * <p>Only the raw search results are cached. Authorization checks and paging are
+ * still applied by the session whenever a cached result is used, so the cache can
+ * safely be shared between different authenticated users.</p>
+ *
+ * <p>Changes in the directory become visible after the configured time to live at the latest.</p>
+ *
+ */
+public class LdapSearchResultCache {
+
+  protected final int maxSize;
+  protected final long timeToLive;
+
+  protected final Map<String, CacheEntry> entries;
+
+  protected final AtomicLong hitCount = new AtomicLong();
+  protected final AtomicLong missCount = new AtomicLong();
+
+  public LdapSearchResultCache(final int maxSize, long timeToLive) {
+    this.maxSize = maxSize;
+    this.timeToLive = timeToLive;
+
+    // access ordered map to evict the least recently used search first
+    this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * @return the cached results of the search or null if the search is not cached
+   */
+  public List<SearchResult> get(String baseDn, String filter, SearchControls searchControls, Control[] requestControls) {
+    String key = createKey(baseDn, filter, searchControls, requestControls);
+
+    synchronized (entries) {
+      CacheEntry entry = entries.get(key);
+
+      if (entry != null) {
+        if (ClockUtil.getCurrentTime().getTime() < entry.expirationTime) {
+          hitCount.incrementAndGet();
+          return entry.results;
+        }
+        entries.remove(key);
+      }
+    }
+
+    missCount.incrementAndGet();
+    return null;
+  }
+
+  public void put(String baseDn, String filter, SearchControls searchControls, Control[] requestControls, List<SearchResult> results) {
+    CacheEntry entry = new CacheEntry(ClockUtil.getCurrentTime().getTime() + timeToLive, Collections.unmodifiableList(results));
+
+    synchronized (entries) {
+      entries.put(createKey(baseDn, filter, searchControls, requestControls), entry);
+    }
+  }
+
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * The key contains everything which influences the results of a search: the request controls
+   * (e.g. the sort keys or the page size) are part of the key by their encoded value.
+   */
+  protected String createKey(String baseDn, String filter, SearchControls searchControls, Control[] requestControls) {
+    // base dn must not contain a line feed, so it can be used as separator
+    StringBuilder key = new StringBuilder()
+      .append(baseDn).append("\n")
+      .append(filter).append("\n");
+
+    if (searchControls != null) {
+      key.append(searchControls.getSearchScope())
+        .append(",").append(searchControls.getCountLimit())
+        .append(",").append(searchControls.getDerefLinkFlag())
+        .append(",").append(searchControls.getReturningObjFlag());
+
+      String[] returningAttributes = searchControls.getReturningAttributes();
+      if (returningAttributes != null) {
+        key.append(",").append(Arrays.toString(returningAttributes));
+      }
+    }
+
+    if (requestControls != null) {
+      for (Control control : requestControls) {
+        key.append("\n")
+          .append(control.getID())
+          .append(",").append(control.isCritical())
+          .append(",").append(encodeHex(control.getEncodedValue()));
+      }
+    }
+
+    return key.toString();
+  }
+
+  protected String encodeHex(byte[] value) {
+    if (value == null) {
+      return "";
+    }
+
+    StringBuilder hex = new StringBuilder(value.length * 2);
+    for (byte b : value) {
+      hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+        .append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+
+  protected static class CacheEntry {
+
+    protected final long expirationTime;
+    protected final List<SearchResult> results;
+
+    public CacheEntry(long expirationTime, List<SearchResult> results) {
+      this.expirationTime = expirationTime;
+      this.results = results;
+    }
+  }
+
+}
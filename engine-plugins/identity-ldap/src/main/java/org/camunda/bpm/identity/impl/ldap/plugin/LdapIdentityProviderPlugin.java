@@ -47,12 +47,43 @@ public class LdapIdentityProviderPlugin extends LdapConfiguration implements Pro
       LOG.log(Level.WARNING, "Enabling accept of untrusted certificates. Use at own risk.");
     }
     
+    if(connectionPoolEnabled) {
+      configureConnectionPool();
+    }
+
     LdapIdentityProviderFactory ldapIdentityProviderFactory = new LdapIdentityProviderFactory();
     ldapIdentityProviderFactory.setLdapConfiguration(this);
     processEngineConfiguration.setIdentityProviderSessionFactory(ldapIdentityProviderFactory);
     
   }
 
+  /**
+   * The JNDI connection pool is configured by JVM wide system properties which are
+   * read once. Properties which are already set are not overridden.
+   */
+  protected void configureConnectionPool() {
+    if(useSsl) {
+      setSystemPropertyIfAbsent("com.sun.jndi.ldap.connect.pool.protocol", "plain ssl");
+    }
+    if(connectionPoolMaxSize > 0) {
+      setSystemPropertyIfAbsent("com.sun.jndi.ldap.connect.pool.maxsize", String.valueOf(connectionPoolMaxSize));
+    }
+    if(connectionPoolPreferredSize > 0) {
+      setSystemPropertyIfAbsent("com.sun.jndi.ldap.connect.pool.prefsize", String.valueOf(connectionPoolPreferredSize));
+    }
+    if(connectionPoolTimeout > 0) {
+      setSystemPropertyIfAbsent("com.sun.jndi.ldap.connect.pool.timeout", String.valueOf(connectionPoolTimeout));
+    }
+  }
+
+  protected void setSystemPropertyIfAbsent(String name, String value) {
+    if(System.getProperty(name) == null) {
+      System.setProperty(name, value);
+    } else {
+      LOG.log(Level.INFO, "System property {0} is already set, ignoring configured value {1}", new String[]{name, value});
+    }
+  }
+
   public void postInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
     // nothing to do    
   }
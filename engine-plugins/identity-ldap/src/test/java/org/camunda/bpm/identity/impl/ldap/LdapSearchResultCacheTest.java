@@ -0,0 +1,115 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.identity.impl.ldap;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.naming.directory.SearchControls;
+import javax.naming.directory.SearchResult;
+import javax.naming.ldap.Control;
+import javax.naming.ldap.SortControl;
+
+import org.camunda.bpm.engine.identity.Group;
+import org.camunda.bpm.engine.identity.User;
+import org.camunda.bpm.engine.impl.test.ResourceProcessEngineTestCase;
+
+/**
+ * Represents a test case where connection pooling and the search result cache are enabled.
+ */
+public class LdapSearchResultCacheTest extends ResourceProcessEngineTestCase {
+
+  public LdapSearchResultCacheTest() {
+    super("camunda.ldap.search.result.cache.cfg.xml");
+  }
+
+  protected static LdapTestEnvironment ldapTestEnvironment;
+
+  protected LdapSearchResultCache searchResultCache;
+
+  @Override
+  protected void setUp() throws Exception {
+    if(ldapTestEnvironment == null) {
+      ldapTestEnvironment = new LdapTestEnvironment();
+      ldapTestEnvironment.init();
+    }
+    super.setUp();
+
+    LdapIdentityProviderFactory sessionFactory = (LdapIdentityProviderFactory) processEngineConfiguration.getIdentityProviderSessionFactory();
+    searchResultCache = sessionFactory.getSearchResultCache();
+    searchResultCache.clear();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    if(ldapTestEnvironment != null) {
+      ldapTestEnvironment.shutdown();
+      ldapTestEnvironment = null;
+    }
+    super.tearDown();
+  }
+
+  public void testFindUserByIdIsCached() {
+    User user = identityService.createUserQuery().userId("oscar").singleResult();
+    assertNotNull(user);
+    assertEquals(1, searchResultCache.size());
+
+    long hitCount = searchResultCache.getHitCount();
+
+    User cachedUser = identityService.createUserQuery().userId("oscar").singleResult();
+    assertEquals(user.getId(), cachedUser.getId());
+    assertEquals(user.getEmail(), cachedUser.getEmail());
+    assertEquals(hitCount + 1, searchResultCache.getHitCount());
+  }
+
+  public void testGroupMembershipIsCached() {
+    List<Group> groups = identityService.createGroupQuery().groupMember("daniel").list();
+    assertEquals(2, groups.size());
+
+    long hitCount = searchResultCache.getHitCount();
+
+    groups = identityService.createGroupQuery().groupMember("daniel").list();
+    assertEquals(2, groups.size());
+    assertTrue(searchResultCache.getHitCount() > hitCount);
+  }
+
+  public void testUnrestrictedQueryIsNotCached() {
+    List<User> users = identityService.createUserQuery().list();
+    assertFalse(users.isEmpty());
+    assertEquals(0, searchResultCache.size());
+  }
+
+  public void testSearchesAreCachedPerRequestControls() throws Exception {
+    SearchControls searchControls = new SearchControls();
+    Control[] sortById = new Control[] { new SortControl("uid", Control.CRITICAL) };
+    Control[] sortByMail = new Control[] { new SortControl("mail", Control.CRITICAL) };
+    List<SearchResult> results = Collections.emptyList();
+
+    searchResultCache.put("ou=people", "(uid=oscar)", searchControls, sortById, results);
+
+    assertNotNull(searchResultCache.get("ou=people", "(uid=oscar)", searchControls, sortById));
+    assertNull(searchResultCache.get("ou=people", "(uid=oscar)", searchControls, sortByMail));
+    assertNull(searchResultCache.get("ou=people", "(uid=oscar)", searchControls, null));
+
+    SearchControls otherAttributes = new SearchControls();
+    otherAttributes.setReturningAttributes(new String[] { "uid" });
+    assertNull(searchResultCache.get("ou=people", "(uid=oscar)", otherAttributes, sortById));
+  }
+
+  public void testCheckPassword() {
+    assertTrue(identityService.checkPassword("roman", "roman"));
+    assertFalse(identityService.checkPassword("roman", "ro"));
+    assertTrue(identityService.checkPassword("roman", "roman"));
+  }
+
+}
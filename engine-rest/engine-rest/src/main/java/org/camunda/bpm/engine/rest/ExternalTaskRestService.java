@@ -26,7 +26,11 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.UriInfo;
 
 import org.camunda.bpm.engine.rest.dto.CountResultDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTasksDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExtendLockOnExternalTasksDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailuresDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskOperationResultDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskQueryDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto;
@@ -70,6 +74,24 @@ public interface ExternalTaskRestService {
   @Produces(MediaType.APPLICATION_JSON)
   List<LockedExternalTaskDto> fetchAndLock(FetchExternalTasksDto fetchingDto);
 
+  @POST
+  @Path("/complete")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  List<ExternalTaskOperationResultDto> completeAll(CompleteExternalTasksDto dto);
+
+  @POST
+  @Path("/failure")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  List<ExternalTaskOperationResultDto> handleFailures(ExternalTaskFailuresDto dto);
+
+  @POST
+  @Path("/extendLock")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  List<ExternalTaskOperationResultDto> extendLocks(ExtendLockOnExternalTasksDto dto);
+
   @Path("/{id}")
   ExternalTaskResource getExternalTask(@PathParam("id") String externalTaskId);
 }
@@ -12,11 +12,13 @@
  */
 package org.camunda.bpm.engine.rest;
 
+import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 
+import org.camunda.bpm.engine.rest.dto.metrics.SqlStatementProfileDto;
 import org.camunda.bpm.engine.rest.sub.metrics.MetricsResource;
 
 /**
@@ -32,4 +34,9 @@ public interface MetricsRestService {
   @Path("/{name}")
   MetricsResource getMetrics(@PathParam("name") String name);
 
+  @GET
+  @Path("/sql-statements")
+  @Produces(MediaType.APPLICATION_JSON)
+  SqlStatementProfileDto getSqlStatementProfile();
+
 }
@@ -0,0 +1,55 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.rest.dto.externaltask;
+
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.rest.dto.VariableValueDto;
+
+public class CompleteExternalTasksDto {
+
+  protected String workerId;
+  protected List<CompleteExternalTaskItemDto> externalTasks;
+
+  public String getWorkerId() {
+    return workerId;
+  }
+  public void setWorkerId(String workerId) {
+    this.workerId = workerId;
+  }
+  public List<CompleteExternalTaskItemDto> getExternalTasks() {
+    return externalTasks;
+  }
+  public void setExternalTasks(List<CompleteExternalTaskItemDto> externalTasks) {
+    this.externalTasks = externalTasks;
+  }
+
+  public static class CompleteExternalTaskItemDto {
+    protected String externalTaskId;
+    protected Map<String, VariableValueDto> variables;
+
+    public String getExternalTaskId() {
+      return externalTaskId;
+    }
+    public void setExternalTaskId(String externalTaskId) {
+      this.externalTaskId = externalTaskId;
+    }
+    public Map<String, VariableValueDto> getVariables() {
+      return variables;
+    }
+    public void setVariables(Map<String, VariableValueDto> variables) {
+      this.variables = variables;
+    }
+  }
+}
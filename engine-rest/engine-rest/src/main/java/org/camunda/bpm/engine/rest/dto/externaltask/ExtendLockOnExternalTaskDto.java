@@ -0,0 +1,32 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.rest.dto.externaltask;
+
+public class ExtendLockOnExternalTaskDto {
+
+  protected String workerId;
+  protected long newDuration;
+
+  public String getWorkerId() {
+    return workerId;
+  }
+  public void setWorkerId(String workerId) {
+    this.workerId = workerId;
+  }
+  public long getNewDuration() {
+    return newDuration;
+  }
+  public void setNewDuration(long newDuration) {
+    this.newDuration = newDuration;
+  }
+}
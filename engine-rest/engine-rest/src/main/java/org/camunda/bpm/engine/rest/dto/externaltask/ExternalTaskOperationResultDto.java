@@ -0,0 +1,51 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.rest.dto.externaltask;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.externaltask.ExternalTaskOperationResult;
+
+public class ExternalTaskOperationResultDto {
+
+  protected String externalTaskId;
+  protected boolean successful;
+  protected String errorMessage;
+
+  public String getExternalTaskId() {
+    return externalTaskId;
+  }
+  public boolean isSuccessful() {
+    return successful;
+  }
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  public static ExternalTaskOperationResultDto fromResult(ExternalTaskOperationResult result) {
+    ExternalTaskOperationResultDto dto = new ExternalTaskOperationResultDto();
+    dto.externalTaskId = result.getExternalTaskId();
+    dto.successful = result.isSuccessful();
+    dto.errorMessage = result.getErrorMessage();
+    return dto;
+  }
+
+  public static List<ExternalTaskOperationResultDto> fromResults(List<ExternalTaskOperationResult> results) {
+    List<ExternalTaskOperationResultDto> dtos = new ArrayList<ExternalTaskOperationResultDto>();
+    for (ExternalTaskOperationResult result : results) {
+      dtos.add(fromResult(result));
+    }
+    return dtos;
+  }
+}
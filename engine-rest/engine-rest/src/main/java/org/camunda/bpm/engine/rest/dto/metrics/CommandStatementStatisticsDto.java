@@ -0,0 +1,57 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.rest.dto.metrics;
+
+import org.camunda.bpm.engine.impl.db.sql.profiler.CommandStatementStatistics;
+
+public class CommandStatementStatisticsDto {
+
+  protected String commandName;
+  protected long commandCount;
+  protected long statementCount;
+  protected long maxStatementCount;
+  protected double averageStatementCount;
+
+  public String getCommandName() {
+    return commandName;
+  }
+
+  public long getCommandCount() {
+    return commandCount;
+  }
+
+  public long getStatementCount() {
+    return statementCount;
+  }
+
+  public long getMaxStatementCount() {
+    return maxStatementCount;
+  }
+
+  public double getAverageStatementCount() {
+    return averageStatementCount;
+  }
+
+  public static CommandStatementStatisticsDto fromStatistics(CommandStatementStatistics statistics) {
+    CommandStatementStatisticsDto dto = new CommandStatementStatisticsDto();
+
+    dto.commandName = statistics.getCommandName();
+    dto.commandCount = statistics.getCommandCount();
+    dto.statementCount = statistics.getStatementCount();
+    dto.maxStatementCount = statistics.getMaxStatementCount();
+    dto.averageStatementCount = statistics.getAverageStatementCount();
+
+    return dto;
+  }
+
+}
@@ -0,0 +1,58 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.rest.dto.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.db.sql.profiler.CommandStatementStatistics;
+import org.camunda.bpm.engine.impl.db.sql.profiler.SqlStatementProfiler;
+import org.camunda.bpm.engine.impl.db.sql.profiler.SqlStatementStatistics;
+
+public class SqlStatementProfileDto {
+
+  protected int sampleRate;
+  protected List<SqlStatementStatisticsDto> statements;
+  protected List<CommandStatementStatisticsDto> commands;
+
+  public int getSampleRate() {
+    return sampleRate;
+  }
+
+  public List<SqlStatementStatisticsDto> getStatements() {
+    return statements;
+  }
+
+  public List<CommandStatementStatisticsDto> getCommands() {
+    return commands;
+  }
+
+  public static SqlStatementProfileDto fromProfiler(SqlStatementProfiler profiler) {
+    SqlStatementProfileDto dto = new SqlStatementProfileDto();
+
+    dto.sampleRate = profiler.getSampleRate();
+
+    dto.statements = new ArrayList<SqlStatementStatisticsDto>();
+    for (SqlStatementStatistics statistics : profiler.getStatementStatistics()) {
+      dto.statements.add(SqlStatementStatisticsDto.fromStatistics(statistics));
+    }
+
+    dto.commands = new ArrayList<CommandStatementStatisticsDto>();
+    for (CommandStatementStatistics statistics : profiler.getCommandStatistics()) {
+      dto.commands.add(CommandStatementStatisticsDto.fromStatistics(statistics));
+    }
+
+    return dto;
+  }
+
+}
@@ -0,0 +1,69 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.rest.dto.metrics;
+
+import org.camunda.bpm.engine.impl.db.sql.profiler.SqlStatementStatistics;
+
+public class SqlStatementStatisticsDto {
+
+  protected String statementId;
+  protected long executionCount;
+  protected long totalDurationInMicros;
+  protected long averageDurationInMicros;
+  protected long maxDurationInMicros;
+  protected long rowCount;
+  protected long[] latencyHistogram;
+
+  public String getStatementId() {
+    return statementId;
+  }
+
+  public long getExecutionCount() {
+    return executionCount;
+  }
+
+  public long getTotalDurationInMicros() {
+    return totalDurationInMicros;
+  }
+
+  public long getAverageDurationInMicros() {
+    return averageDurationInMicros;
+  }
+
+  public long getMaxDurationInMicros() {
+    return maxDurationInMicros;
+  }
+
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  public long[] getLatencyHistogram() {
+    return latencyHistogram;
+  }
+
+  public static SqlStatementStatisticsDto fromStatistics(SqlStatementStatistics statistics) {
+    SqlStatementStatisticsDto dto = new SqlStatementStatisticsDto();
+
+    dto.statementId = statistics.getStatementId();
+    dto.executionCount = statistics.getExecutionCount();
+    dto.totalDurationInMicros = statistics.getTotalDurationInMicros();
+    dto.averageDurationInMicros = statistics.getAverageDurationInMicros();
+    dto.maxDurationInMicros = statistics.getMaxDurationInMicros();
+    dto.rowCount = statistics.getRowCount();
+    dto.latencyHistogram = statistics.getLatencyHistogram();
+
+    return dto;
+  }
+
+}
@@ -13,23 +13,36 @@
 package org.camunda.bpm.engine.rest.impl;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
 
+import org.camunda.bpm.engine.BadUserRequestException;
 import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.externaltask.ExternalTask;
+import org.camunda.bpm.engine.externaltask.ExternalTaskOperationResult;
 import org.camunda.bpm.engine.externaltask.ExternalTaskQuery;
 import org.camunda.bpm.engine.externaltask.ExternalTaskQueryBuilder;
 import org.camunda.bpm.engine.externaltask.ExternalTaskQueryTopicBuilder;
 import org.camunda.bpm.engine.externaltask.LockedExternalTask;
 import org.camunda.bpm.engine.rest.ExternalTaskRestService;
 import org.camunda.bpm.engine.rest.dto.CountResultDto;
+import org.camunda.bpm.engine.rest.dto.VariableValueDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTasksDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTasksDto.CompleteExternalTaskItemDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExtendLockOnExternalTasksDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailuresDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskOperationResultDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskQueryDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksDto.FetchExternalTaskTopicDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto;
+import org.camunda.bpm.engine.rest.exception.InvalidRequestException;
+import org.camunda.bpm.engine.rest.exception.RestException;
 import org.camunda.bpm.engine.rest.sub.externaltask.ExternalTaskResource;
 import org.camunda.bpm.engine.rest.sub.externaltask.impl.ExternalTaskResourceImpl;
 
@@ -125,6 +138,69 @@ public class ExternalTaskRestServiceImpl extends AbstractRestProcessEngineAware
     return LockedExternalTaskDto.fromLockedExternalTasks(tasks);
   }
 
+  @Override
+  public List<ExternalTaskOperationResultDto> completeAll(CompleteExternalTasksDto dto) {
+    if (dto.getExternalTasks() == null) {
+      throw new InvalidRequestException(Status.BAD_REQUEST, "External tasks to complete must be provided");
+    }
+
+    ProcessEngine engine = getProcessEngine();
+    Map<String, Map<String, Object>> variablesByExternalTaskId = new LinkedHashMap<String, Map<String, Object>>();
+    for (CompleteExternalTaskItemDto externalTask : dto.getExternalTasks()) {
+      String externalTaskId = externalTask.getExternalTaskId();
+      // the tasks are passed as map, so a duplicate would silently replace the variables of the first entry
+      if (variablesByExternalTaskId.containsKey(externalTaskId)) {
+        throw new InvalidRequestException(Status.BAD_REQUEST, "External task " + externalTaskId + " must not be completed more than once");
+      }
+
+      Map<String, Object> variables = VariableValueDto.toMap(externalTask.getVariables(), engine, getObjectMapper());
+      variablesByExternalTaskId.put(externalTaskId, variables);
+    }
+
+    try {
+      List<ExternalTaskOperationResult> results = engine.getExternalTaskService()
+          .completeAll(variablesByExternalTaskId, dto.getWorkerId());
+      return ExternalTaskOperationResultDto.fromResults(results);
+    } catch (BadUserRequestException e) {
+      throw new RestException(Status.BAD_REQUEST, e, e.getMessage());
+    }
+  }
+
+  @Override
+  public List<ExternalTaskOperationResultDto> handleFailures(ExternalTaskFailuresDto dto) {
+    if (dto.getExternalTaskIds() == null) {
+      throw new InvalidRequestException(Status.BAD_REQUEST, "External task ids must be provided");
+    }
+
+    try {
+      List<ExternalTaskOperationResult> results = getProcessEngine().getExternalTaskService()
+          .handleFailures(dto.getExternalTaskIds(),
+              dto.getWorkerId(),
+              dto.getErrorMessage(),
+              dto.getErrorDetails(),
+              dto.getRetries(),
+              dto.getRetryTimeout());
+      return ExternalTaskOperationResultDto.fromResults(results);
+    } catch (BadUserRequestException e) {
+      throw new RestException(Status.BAD_REQUEST, e, e.getMessage());
+    }
+  }
+
+  @Override
+  public List<ExternalTaskOperationResultDto> extendLocks(ExtendLockOnExternalTasksDto dto) {
+    if (dto.getExternalTaskIds() == null) {
+      throw new InvalidRequestException(Status.BAD_REQUEST, "External task ids must be provided");
+    }
+
+    try {
+      List<ExternalTaskOperationResult> results = getProcessEngine().getExternalTaskService()
+          .extendLocks(dto.getExternalTaskIds(), dto.getWorkerId(), dto.getNewDuration());
+      return ExternalTaskOperationResultDto.fromResults(results);
+    } catch (BadUserRequestException e) {
+      throw new RestException(Status.BAD_REQUEST, e, e.getMessage());
+    }
+  }
+
   @Override
   public ExternalTaskResource getExternalTask(String externalTaskId) {
     return new ExternalTaskResourceImpl(getProcessEngine(), externalTaskId, getObjectMapper());
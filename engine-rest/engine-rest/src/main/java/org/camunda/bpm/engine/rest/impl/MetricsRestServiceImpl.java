@@ -12,7 +12,14 @@
  */
 package org.camunda.bpm.engine.rest.impl;
 
+import javax.ws.rs.core.Response.Status;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.db.sql.profiler.SqlStatementProfiler;
 import org.camunda.bpm.engine.rest.MetricsRestService;
+import org.camunda.bpm.engine.rest.dto.metrics.SqlStatementProfileDto;
+import org.camunda.bpm.engine.rest.exception.InvalidRequestException;
 import org.camunda.bpm.engine.rest.sub.metrics.MetricsResource;
 import org.camunda.bpm.engine.rest.sub.metrics.MetricsResourceImpl;
 
@@ -32,4 +39,19 @@ public class MetricsRestServiceImpl extends AbstractRestProcessEngineAware imple
     return new MetricsResourceImpl(name, processEngine, objectMapper);
   }
 
+  public SqlStatementProfileDto getSqlStatementProfile() {
+    ProcessEngineConfiguration configuration = getProcessEngine().getProcessEngineConfiguration();
+
+    SqlStatementProfiler profiler = null;
+    if (configuration instanceof ProcessEngineConfigurationImpl) {
+      profiler = ((ProcessEngineConfigurationImpl) configuration).getSqlStatementProfiler();
+    }
+
+    if (profiler == null) {
+      throw new InvalidRequestException(Status.NOT_FOUND, "SQL statements are not profiled by the process engine");
+    }
+
+    return SqlStatementProfileDto.fromProfiler(profiler);
+  }
+
 }
@@ -0,0 +1,340 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.rest.security.auth;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+
+/**
+ * <p>
+ * Bounded cache for authentication results of the {@link ProcessEngineAuthenticationFilter}.
+ * Caches verified credentials as well as the group and tenant memberships of a user
+ * for a limited time, so that not every request hits the identity provider.
+ * </p>
+ *
+ * <p>
+ * Passwords are never kept in clear text: only a salted SHA-256 hash of successfully
+ * verified credentials is stored. The salt is generated randomly per cache instance.
+ * </p>
+ *
+ * <p>
+ * Note that changes to a user's password or memberships become visible only after
+ * the cached entry expired or was {@link #invalidate(String, String) invalidated}.
+ * </p>
+ */
+public class AuthenticationCache {
+
+  public static final int DEFAULT_MAX_SIZE = 1000;
+  public static final long DEFAULT_TIME_TO_LIVE = 60 * 1000;
+
+  protected static final String HASH_ALGORITHM = "SHA-256";
+  protected static final int SALT_LENGTH = 16;
+
+  protected final int maxSize;
+  protected final long timeToLive;
+  protected final byte[] salt;
+
+  protected final Map<String, CacheEntry> entries;
+
+  protected final AtomicLong credentialsHitCount = new AtomicLong();
+  protected final AtomicLong credentialsMissCount = new AtomicLong();
+  protected final AtomicLong groupsHitCount = new AtomicLong();
+  protected final AtomicLong groupsMissCount = new AtomicLong();
+  protected final AtomicLong tenantsHitCount = new AtomicLong();
+  protected final AtomicLong tenantsMissCount = new AtomicLong();
+  protected final AtomicLong evictionCount = new AtomicLong();
+
+  public AuthenticationCache() {
+    this(DEFAULT_MAX_SIZE, DEFAULT_TIME_TO_LIVE);
+  }
+
+  /**
+   * @param maxSize the maximum number of users for which authentication results are cached
+   * @param timeToLive the time in milliseconds after which a cached entry expires
+   */
+  public AuthenticationCache(final int maxSize, long timeToLive) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Authentication cache size must be greater than 0");
+    }
+    if (timeToLive <= 0) {
+      throw new IllegalArgumentException("Authentication cache time to live must be greater than 0");
+    }
+
+    this.maxSize = maxSize;
+    this.timeToLive = timeToLive;
+
+    this.salt = new byte[SALT_LENGTH];
+    new SecureRandom().nextBytes(salt);
+
+    // access ordered map to evict the least recently used entry first
+    this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+        boolean evict = size() > maxSize;
+        if (evict) {
+          evictionCount.incrementAndGet();
+        }
+        return evict;
+      }
+    };
+  }
+
+  /**
+   * @return true if the given credentials were successfully verified before and
+   * the corresponding entry has not expired yet
+   */
+  public boolean hasValidCredentials(String engineName, String userId, String password) {
+    byte[] credentialsHash = hashCredentials(engineName, userId, password);
+
+    synchronized (entries) {
+      CacheEntry entry = getEntry(engineName, userId);
+      if (entry != null && entry.credentialsHash != null
+          && MessageDigest.isEqual(entry.credentialsHash, credentialsHash)) {
+        credentialsHitCount.incrementAndGet();
+        return true;
+      }
+    }
+
+    credentialsMissCount.incrementAndGet();
+    return false;
+  }
+
+  /**
+   * Caches the given credentials. Must only be invoked after the credentials have been
+   * verified against the identity service.
+   */
+  public void putCredentials(String engineName, String userId, String password) {
+    byte[] credentialsHash = hashCredentials(engineName, userId, password);
+
+    synchronized (entries) {
+      getOrCreateEntry(engineName, userId).credentialsHash = credentialsHash;
+    }
+  }
+
+  /**
+   * @return the cached group ids of the user or null if no valid entry exists
+   */
+  public List<String> getGroupIds(String engineName, String userId) {
+    List<String> groupIds = null;
+
+    synchronized (entries) {
+      CacheEntry entry = getEntry(engineName, userId);
+      if (entry != null) {
+        groupIds = entry.groupIds;
+      }
+    }
+
+    countLookup(groupIds, groupsHitCount, groupsMissCount);
+    return groupIds;
+  }
+
+  /**
+   * @return the cached tenant ids of the user or null if no valid entry exists
+   */
+  public List<String> getTenantIds(String engineName, String userId) {
+    List<String> tenantIds = null;
+
+    synchronized (entries) {
+      CacheEntry entry = getEntry(engineName, userId);
+      if (entry != null) {
+        tenantIds = entry.tenantIds;
+      }
+    }
+
+    countLookup(tenantIds, tenantsHitCount, tenantsMissCount);
+    return tenantIds;
+  }
+
+  public void putMemberships(String engineName, String userId, List<String> groupIds, List<String> tenantIds) {
+    List<String> cachedGroupIds = Collections.unmodifiableList(new ArrayList<String>(groupIds));
+    List<String> cachedTenantIds = Collections.unmodifiableList(new ArrayList<String>(tenantIds));
+
+    synchronized (entries) {
+      CacheEntry entry = getOrCreateEntry(engineName, userId);
+      entry.groupIds = cachedGroupIds;
+      entry.tenantIds = cachedTenantIds;
+    }
+  }
+
+  /**
+   * Removes the cached credentials and memberships of the given user. Must not be invoked
+   * for failed authentication attempts, since anybody could evict the entry of a user then.
+   */
+  public void invalidate(String engineName, String userId) {
+    synchronized (entries) {
+      entries.remove(createKey(engineName, userId));
+    }
+  }
+
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  // metrics //////////////////////////////////////////
+
+  public long getCredentialsHitCount() {
+    return credentialsHitCount.get();
+  }
+
+  public long getCredentialsMissCount() {
+    return credentialsMissCount.get();
+  }
+
+  public long getGroupsHitCount() {
+    return groupsHitCount.get();
+  }
+
+  public long getGroupsMissCount() {
+    return groupsMissCount.get();
+  }
+
+  public long getTenantsHitCount() {
+    return tenantsHitCount.get();
+  }
+
+  public long getTenantsMissCount() {
+    return tenantsMissCount.get();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  public double getCredentialsHitRatio() {
+    return hitRatio(credentialsHitCount, credentialsMissCount);
+  }
+
+  public double getGroupsHitRatio() {
+    return hitRatio(groupsHitCount, groupsMissCount);
+  }
+
+  public double getTenantsHitRatio() {
+    return hitRatio(tenantsHitCount, tenantsMissCount);
+  }
+
+  public int getSize() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public long getTimeToLive() {
+    return timeToLive;
+  }
+
+  // helpers //////////////////////////////////////////
+
+  protected void countLookup(Object cachedValue, AtomicLong hitCount, AtomicLong missCount) {
+    if (cachedValue != null) {
+      hitCount.incrementAndGet();
+    } else {
+      missCount.incrementAndGet();
+    }
+  }
+
+  protected double hitRatio(AtomicLong hitCount, AtomicLong missCount) {
+    long hits = hitCount.get();
+    long requests = hits + missCount.get();
+    return requests == 0 ? 0.0 : (double) hits / requests;
+  }
+
+  /**
+   * Must be invoked while holding the lock on {@link #entries}.
+   */
+  protected CacheEntry getEntry(String engineName, String userId) {
+    String key = createKey(engineName, userId);
+    CacheEntry entry = entries.get(key);
+
+    if (entry != null && entry.isExpired(now())) {
+      entries.remove(key);
+      evictionCount.incrementAndGet();
+      return null;
+    }
+
+    return entry;
+  }
+
+  /**
+   * Must be invoked while holding the lock on {@link #entries}.
+   */
+  protected CacheEntry getOrCreateEntry(String engineName, String userId) {
+    CacheEntry entry = getEntry(engineName, userId);
+
+    if (entry == null) {
+      entry = new CacheEntry(now() + timeToLive);
+      entries.put(createKey(engineName, userId), entry);
+    }
+
+    return entry;
+  }
+
+  protected String createKey(String engineName, String userId) {
+    return engineName + ":" + userId;
+  }
+
+  protected byte[] hashCredentials(String engineName, String userId, String password) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+      digest.update(salt);
+      digest.update(createKey(engineName, userId).getBytes("UTF-8"));
+      digest.update((byte) 0);
+      digest.update(String.valueOf(password).getBytes("UTF-8"));
+      return digest.digest();
+
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Cannot hash credentials: algorithm " + HASH_ALGORITHM + " not available", e);
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException("Cannot hash credentials: encoding UTF-8 not supported", e);
+    }
+  }
+
+  protected long now() {
+    return ClockUtil.getCurrentTime().getTime();
+  }
+
+  protected static class CacheEntry {
+
+    protected final long expirationTime;
+
+    protected byte[] credentialsHash;
+    protected List<String> groupIds;
+    protected List<String> tenantIds;
+
+    public CacheEntry(long expirationTime) {
+      this.expirationTime = expirationTime;
+    }
+
+    public boolean isExpired(long now) {
+      return now >= expirationTime;
+    }
+  }
+
+}
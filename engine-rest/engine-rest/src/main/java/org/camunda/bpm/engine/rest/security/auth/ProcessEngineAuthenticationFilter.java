@@ -35,6 +35,7 @@ import org.camunda.bpm.engine.identity.Tenant;
 import org.camunda.bpm.engine.rest.dto.ExceptionDto;
 import org.camunda.bpm.engine.rest.exception.InvalidRequestException;
 import org.camunda.bpm.engine.rest.impl.NamedProcessEngineRestServiceImpl;
+import org.camunda.bpm.engine.rest.security.auth.impl.HttpBasicAuthenticationProvider;
 import org.camunda.bpm.engine.rest.util.EngineUtil;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -56,6 +57,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  *      <td>no</td>
  *      <td>The expected servlet path. Should only be set, if the underlying JAX-RS application is not deployed as a servlet (e.g. Resteasy allows deployments
  *      as a servlet filter). Value has to match what would be the {@link HttpServletRequest#getServletPath()} if it was deployed as a servlet.</td></tr>
+ *    <tr>
+ *      <td>{@value #AUTHENTICATION_CACHE_MAX_SIZE_PARAM}</td>
+ *      <td>no</td>
+ *      <td>Enables the {@link AuthenticationCache} if set. The maximum number of users whose verified credentials and
+ *      group/tenant memberships are cached.</td></tr>
+ *    <tr>
+ *      <td>{@value #AUTHENTICATION_CACHE_TTL_PARAM}</td>
+ *      <td>no</td>
+ *      <td>Enables the {@link AuthenticationCache} if set. The time in milliseconds a cached entry is valid. Defaults to
+ *      {@value AuthenticationCache#DEFAULT_TIME_TO_LIVE}.</td></tr>
  * </tbody>
  * </table>
  *
@@ -74,9 +85,12 @@ public class ProcessEngineAuthenticationFilter implements Filter {
   // init params
   public static final String AUTHENTICATION_PROVIDER_PARAM = "authentication-provider";
   public static final String SERVLET_PATH_PREFIX = "rest-url-pattern-prefix";
+  public static final String AUTHENTICATION_CACHE_MAX_SIZE_PARAM = "authentication-cache-max-size";
+  public static final String AUTHENTICATION_CACHE_TTL_PARAM = "authentication-cache-ttl";
 
   protected AuthenticationProvider authenticationProvider;
   protected String servletPathPrefix;
+  protected AuthenticationCache authenticationCache;
 
   @Override
   public void init(FilterConfig filterConfig) throws ServletException {
@@ -101,6 +115,31 @@ public class ProcessEngineAuthenticationFilter implements Filter {
     }
 
     servletPathPrefix = filterConfig.getInitParameter(SERVLET_PATH_PREFIX);
+
+    authenticationCache = createAuthenticationCache(filterConfig);
+    if (authenticationCache != null && authenticationProvider instanceof HttpBasicAuthenticationProvider) {
+      ((HttpBasicAuthenticationProvider) authenticationProvider).setAuthenticationCache(authenticationCache);
+    }
+  }
+
+  protected AuthenticationCache createAuthenticationCache(FilterConfig filterConfig) throws ServletException {
+    String maxSizeParam = filterConfig.getInitParameter(AUTHENTICATION_CACHE_MAX_SIZE_PARAM);
+    String timeToLiveParam = filterConfig.getInitParameter(AUTHENTICATION_CACHE_TTL_PARAM);
+
+    if (maxSizeParam == null && timeToLiveParam == null) {
+      return null;
+    }
+
+    try {
+      int maxSize = maxSizeParam != null ? Integer.parseInt(maxSizeParam.trim()) : AuthenticationCache.DEFAULT_MAX_SIZE;
+      long timeToLive = timeToLiveParam != null ? Long.parseLong(timeToLiveParam.trim()) : AuthenticationCache.DEFAULT_TIME_TO_LIVE;
+
+      return new AuthenticationCache(maxSize, timeToLive);
+    } catch (NumberFormatException e) {
+      throw new ServletException("Cannot instantiate authentication filter: invalid authentication cache configuration", e);
+    } catch (IllegalArgumentException e) {
+      throw new ServletException("Cannot instantiate authentication filter: " + e.getMessage(), e);
+    }
   }
 
   @Override
@@ -158,12 +197,35 @@ public class ProcessEngineAuthenticationFilter implements Filter {
 
   @Override
   public void destroy() {
+    if (authenticationCache != null) {
+      authenticationCache.clear();
+    }
+  }
 
+  /**
+   * @return the cache used by this filter or null if caching is not enabled
+   */
+  public AuthenticationCache getAuthenticationCache() {
+    return authenticationCache;
   }
 
   protected void setAuthenticatedUser(ProcessEngine engine, String userId) {
-    List<String> groupIds = getGroupsOfUser(engine, userId);
-    List<String> tenantIds = getTenantsOfUser(engine, userId);
+    List<String> groupIds = null;
+    List<String> tenantIds = null;
+
+    if (authenticationCache != null) {
+      groupIds = authenticationCache.getGroupIds(engine.getName(), userId);
+      tenantIds = authenticationCache.getTenantIds(engine.getName(), userId);
+    }
+
+    if (groupIds == null || tenantIds == null) {
+      groupIds = getGroupsOfUser(engine, userId);
+      tenantIds = getTenantsOfUser(engine, userId);
+
+      if (authenticationCache != null) {
+        authenticationCache.putMemberships(engine.getName(), userId, groupIds, tenantIds);
+      }
+    }
 
     engine.getIdentityService().setAuthentication(userId, groupIds, tenantIds);
   }
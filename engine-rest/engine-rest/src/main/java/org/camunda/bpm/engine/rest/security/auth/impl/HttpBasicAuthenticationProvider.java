@@ -14,6 +14,7 @@ package org.camunda.bpm.engine.rest.security.auth.impl;
 
 import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.impl.digest._apacheCommonsCodec.Base64;
+import org.camunda.bpm.engine.rest.security.auth.AuthenticationCache;
 import org.camunda.bpm.engine.rest.security.auth.AuthenticationProvider;
 import org.camunda.bpm.engine.rest.security.auth.AuthenticationResult;
 
@@ -26,12 +27,19 @@ import javax.ws.rs.core.HttpHeaders;
  * Authenticates a request against the provided process engine's identity service by applying http basic authentication.
  * </p>
  *
+ * <p>
+ * If an {@link AuthenticationCache} is set, successfully verified credentials are cached so that
+ * subsequent requests with the same credentials do not hit the identity service.
+ * </p>
+ *
  * @author Thorben Lindhauer
  */
 public class HttpBasicAuthenticationProvider implements AuthenticationProvider {
 
   protected static final String BASIC_AUTH_HEADER_PREFIX = "Basic ";
 
+  protected AuthenticationCache authenticationCache;
+
   @Override
   public AuthenticationResult extractAuthenticatedUser(HttpServletRequest request,
       ProcessEngine engine) {
@@ -59,7 +67,29 @@ public class HttpBasicAuthenticationProvider implements AuthenticationProvider {
   }
 
   protected boolean isAuthenticated(ProcessEngine engine, String userName, String password) {
-    return engine.getIdentityService().checkPassword(userName, password);
+    if (authenticationCache == null) {
+      return engine.getIdentityService().checkPassword(userName, password);
+    }
+
+    String engineName = engine.getName();
+    if (authenticationCache.hasValidCredentials(engineName, userName, password)) {
+      return true;
+    }
+
+    // failed attempts must not invalidate the cached entry, otherwise anybody could evict it
+    boolean isAuthenticated = engine.getIdentityService().checkPassword(userName, password);
+    if (isAuthenticated) {
+      authenticationCache.putCredentials(engineName, userName, password);
+    }
+    return isAuthenticated;
+  }
+
+  public AuthenticationCache getAuthenticationCache() {
+    return authenticationCache;
+  }
+
+  public void setAuthenticationCache(AuthenticationCache authenticationCache) {
+    this.authenticationCache = authenticationCache;
   }
 
   @Override
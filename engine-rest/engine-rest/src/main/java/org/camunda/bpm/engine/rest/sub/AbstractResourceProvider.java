@@ -85,18 +85,30 @@ public abstract class AbstractResourceProvider<T extends Query<?, U>, U, DTO> {
     if (fileValue.getEncoding() != null) {
       type += "; charset=" + fileValue.getEncoding();
     }
-    return Response.ok(fileValue.getValue(), type).header("Content-Disposition", "attachment; filename=" + fileValue.getFilename()).build();
+    return Response.ok(getBinaryContent(fileValue), type).header("Content-Disposition", "attachment; filename=" + fileValue.getFilename()).build();
   }
 
   /**
    * Creates a response for a variable of type {@link ValueType#BYTES}.
    */
   protected Response responseForByteVariable(TypedValue variableInstance) {
+    return Response.ok(getBinaryContent(variableInstance), MediaType.APPLICATION_OCTET_STREAM).build();
+  }
+
+  /**
+   * Returns the entity of the response for a binary variable. Subclasses can override this
+   * method to stream the content instead of returning the value fetched by the query.
+   */
+  protected Object getBinaryContent(TypedValue variableInstance) {
+    if (ValueType.FILE.equals(variableInstance.getType())) {
+      return ((FileValue) variableInstance).getValue();
+    }
+
     byte[] valueBytes = (byte[]) variableInstance.getValue();
     if (valueBytes == null) {
       valueBytes = new byte[0];
     }
-    return Response.ok(new ByteArrayInputStream(valueBytes), MediaType.APPLICATION_OCTET_STREAM).build();
+    return new ByteArrayInputStream(valueBytes);
   }
 
   protected String getId() {
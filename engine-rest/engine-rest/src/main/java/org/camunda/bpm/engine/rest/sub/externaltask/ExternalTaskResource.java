@@ -21,6 +21,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 
 import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExtendLockOnExternalTaskDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskBpmnError;
 import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailureDto;
@@ -68,6 +69,11 @@ public interface ExternalTaskResource {
   @Consumes(MediaType.APPLICATION_JSON)
   void handleBpmnError(ExternalTaskBpmnError dto);
 
+  @POST
+  @Path("/extendLock")
+  @Consumes(MediaType.APPLICATION_JSON)
+  void extendLock(ExtendLockOnExternalTaskDto dto);
+
   @POST
   @Path("/unlock")
   void unlock();
@@ -12,11 +12,17 @@
  */
 package org.camunda.bpm.engine.rest.sub.runtime;
 
+import java.io.InputStream;
+
+import javax.ws.rs.Consumes;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
@@ -40,4 +46,9 @@ public interface VariableInstanceResource {
   @Path("/data")
   public Response getResourceBinary();
 
+  @PUT
+  @Path("/data")
+  @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+  public void setResourceBinary(@HeaderParam(HttpHeaders.CONTENT_LENGTH) Long contentLength, InputStream content);
+
 }
@@ -12,13 +12,24 @@
  */
 package org.camunda.bpm.engine.rest.sub.runtime.impl;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+
 import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.exception.NotFoundException;
 import org.camunda.bpm.engine.query.Query;
 import org.camunda.bpm.engine.rest.dto.runtime.VariableInstanceDto;
+import org.camunda.bpm.engine.rest.exception.InvalidRequestException;
 import org.camunda.bpm.engine.rest.sub.AbstractResourceProvider;
 import org.camunda.bpm.engine.rest.sub.runtime.VariableInstanceResource;
 import org.camunda.bpm.engine.runtime.VariableInstance;
 import org.camunda.bpm.engine.runtime.VariableInstanceQuery;
+import org.camunda.bpm.engine.variable.type.ValueType;
 import org.camunda.bpm.engine.variable.value.TypedValue;
 
 /**
@@ -39,7 +50,43 @@ public class VariableInstanceResourceImpl extends AbstractResourceProvider<Varia
 
   @Override
   protected Query<VariableInstanceQuery, VariableInstance> baseQueryForBinaryVariable() {
-    return baseQuery().disableCustomObjectDeserialization();
+    // the content is streamed by the response, so only fetch the metadata of the variable
+    return baseQuery().disableBinaryFetching().disableCustomObjectDeserialization();
+  }
+
+  @Override
+  protected Object getBinaryContent(TypedValue variableInstance) {
+    return new StreamingOutput() {
+      public void write(OutputStream output) throws IOException, WebApplicationException {
+        getEngine().getRuntimeService().writeVariableInstanceBinaryValue(getId(), output);
+      }
+    };
+  }
+
+  public void setResourceBinary(Long contentLength, InputStream content) {
+    if (contentLength == null || contentLength > Integer.MAX_VALUE) {
+      throw new InvalidRequestException(Status.BAD_REQUEST, "The content of a binary variable must be sent with a Content-Length of at most " + Integer.MAX_VALUE + " bytes.");
+    }
+
+    VariableInstance variableInstance = baseQuery()
+      .disableBinaryFetching()
+      .disableCustomObjectDeserialization()
+      .singleResult();
+
+    if (variableInstance == null) {
+      throw new InvalidRequestException(Status.NOT_FOUND, getResourceNameForErrorMessage() + " with Id '" + getId() + "' does not exist.");
+    }
+
+    ValueType type = variableInstance.getTypedValue().getType();
+    if (!ValueType.BYTES.equals(type) && !ValueType.FILE.equals(type)) {
+      throw new InvalidRequestException(Status.BAD_REQUEST, String.format("Value of %s %s is not a binary value.", getResourceNameForErrorMessage(), getId()));
+    }
+
+    try {
+      getEngine().getRuntimeService().setVariableInstanceBinaryValue(getId(), content, contentLength.intValue());
+    } catch (NotFoundException e) {
+      throw new InvalidRequestException(Status.NOT_FOUND, e, getResourceNameForErrorMessage() + " with Id '" + getId() + "' does not exist.");
+    }
   }
 
   @Override
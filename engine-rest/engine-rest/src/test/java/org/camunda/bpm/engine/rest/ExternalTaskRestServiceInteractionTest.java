@@ -44,6 +44,7 @@ import org.camunda.bpm.engine.externaltask.ExternalTask;
 import org.camunda.bpm.engine.externaltask.ExternalTaskQuery;
 import org.camunda.bpm.engine.externaltask.ExternalTaskQueryTopicBuilder;
 import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.camunda.bpm.engine.rest.exception.InvalidRequestException;
 import org.camunda.bpm.engine.rest.exception.RestException;
 import org.camunda.bpm.engine.rest.helper.EqualsVariableMap;
 import org.camunda.bpm.engine.rest.helper.MockProvider;
@@ -71,6 +72,9 @@ public class ExternalTaskRestServiceInteractionTest extends AbstractRestServiceT
   protected static final String FETCH_EXTERNAL_TASK_URL = EXTERNAL_TASK_URL + "/fetchAndLock";
   protected static final String SINGLE_EXTERNAL_TASK_URL = EXTERNAL_TASK_URL + "/{id}";
   protected static final String COMPLETE_EXTERNAL_TASK_URL = SINGLE_EXTERNAL_TASK_URL + "/complete";
+  protected static final String COMPLETE_EXTERNAL_TASKS_URL = EXTERNAL_TASK_URL + "/complete";
+  protected static final String HANDLE_EXTERNAL_TASK_FAILURES_URL = EXTERNAL_TASK_URL + "/failure";
+  protected static final String EXTEND_LOCK_ON_EXTERNAL_TASKS_URL = EXTERNAL_TASK_URL + "/extendLock";
   protected static final String GET_EXTERNAL_TASK_ERROR_DETAILS_URL = SINGLE_EXTERNAL_TASK_URL + "/errorDetails";
   protected static final String HANDLE_EXTERNAL_TASK_FAILURE_URL = SINGLE_EXTERNAL_TASK_URL + "/failure";
   protected static final String HANDLE_EXTERNAL_TASK_BPMN_ERROR_URL = SINGLE_EXTERNAL_TASK_URL + "/bpmnError";
@@ -256,6 +260,71 @@ public class ExternalTaskRestServiceInteractionTest extends AbstractRestServiceT
     verifyNoMoreInteractions(externalTaskService);
   }
 
+  @Test
+  public void testCompleteAllWithDuplicateTask() {
+    Map<String, Object> externalTask = new HashMap<String, Object>();
+    externalTask.put("externalTaskId", "anExternalTaskId");
+
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("workerId", "aWorkerId");
+    parameters.put("externalTasks", Arrays.asList(externalTask, externalTask));
+
+    given()
+      .contentType(POST_JSON_CONTENT_TYPE)
+      .body(parameters)
+    .then()
+      .expect()
+      .statusCode(Status.BAD_REQUEST.getStatusCode())
+      .body("type", equalTo(InvalidRequestException.class.getSimpleName()))
+      .body("message", equalTo("External task anExternalTaskId must not be completed more than once"))
+    .when()
+      .post(COMPLETE_EXTERNAL_TASKS_URL);
+
+    verifyNoMoreInteractions(externalTaskService);
+  }
+
+  @Test
+  public void testHandleFailuresWithoutTaskIds() {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("workerId", "aWorkerId");
+    parameters.put("errorMessage", "anErrorMessage");
+    parameters.put("retries", 5);
+    parameters.put("retryTimeout", 12345);
+
+    given()
+      .contentType(POST_JSON_CONTENT_TYPE)
+      .body(parameters)
+    .then()
+      .expect()
+      .statusCode(Status.BAD_REQUEST.getStatusCode())
+      .body("type", equalTo(InvalidRequestException.class.getSimpleName()))
+      .body("message", equalTo("External task ids must be provided"))
+    .when()
+      .post(HANDLE_EXTERNAL_TASK_FAILURES_URL);
+
+    verifyNoMoreInteractions(externalTaskService);
+  }
+
+  @Test
+  public void testExtendLocksWithoutTaskIds() {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("workerId", "aWorkerId");
+    parameters.put("newDuration", 1000);
+
+    given()
+      .contentType(POST_JSON_CONTENT_TYPE)
+      .body(parameters)
+    .then()
+      .expect()
+      .statusCode(Status.BAD_REQUEST.getStatusCode())
+      .body("type", equalTo(InvalidRequestException.class.getSimpleName()))
+      .body("message", equalTo("External task ids must be provided"))
+    .when()
+      .post(EXTEND_LOCK_ON_EXTERNAL_TASKS_URL);
+
+    verifyNoMoreInteractions(externalTaskService);
+  }
+
   @Test
   public void testCompleteNonExistingTask() {
     doThrow(new NotFoundException())
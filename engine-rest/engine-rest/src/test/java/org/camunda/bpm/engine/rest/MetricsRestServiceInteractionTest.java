@@ -27,6 +27,9 @@ import java.util.Date;
 import javax.ws.rs.core.Response.Status;
 
 import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.db.sql.profiler.SqlStatementProfiler;
 import org.camunda.bpm.engine.management.Metrics;
 import org.camunda.bpm.engine.management.MetricsQuery;
 import org.camunda.bpm.engine.rest.helper.MockProvider;
@@ -46,6 +49,7 @@ public class MetricsRestServiceInteractionTest extends AbstractRestServiceTest {
   public static final String METRICS_URL = TEST_RESOURCE_ROOT_PATH + MetricsRestService.PATH;
   public static final String SINGLE_METER_URL = METRICS_URL + "/{name}";
   public static final String SUM_URL = SINGLE_METER_URL + "/sum";
+  public static final String SQL_STATEMENTS_URL = METRICS_URL + "/sql-statements";
 
   protected ManagementService managementServiceMock;
   private MetricsQuery meterQueryMock;
@@ -116,5 +120,41 @@ public class MetricsRestServiceInteractionTest extends AbstractRestServiceTest {
 
   }
 
+  @Test
+  public void testGetSqlStatementProfile() {
+    SqlStatementProfiler profiler = new SqlStatementProfiler();
+    profiler.recordStatement("selectProperties", 2000000, 3);
+    profiler.recordStatement("selectProperties", 4000000, 1);
+
+    ProcessEngineConfigurationImpl configurationMock = mock(ProcessEngineConfigurationImpl.class);
+    when(configurationMock.getSqlStatementProfiler()).thenReturn(profiler);
+    when(processEngine.getProcessEngineConfiguration()).thenReturn(configurationMock);
+
+    given()
+    .then().expect()
+      .statusCode(Status.OK.getStatusCode())
+      .body("sampleRate", equalTo(1))
+      .body("statements.size()", equalTo(1))
+      .body("statements[0].statementId", equalTo("selectProperties"))
+      .body("statements[0].executionCount", equalTo(2))
+      .body("statements[0].averageDurationInMicros", equalTo(3000))
+      .body("statements[0].maxDurationInMicros", equalTo(4000))
+      .body("statements[0].rowCount", equalTo(4))
+      .body("statements[0].latencyHistogram[2]", equalTo(2))
+      .body("commands.size()", equalTo(0))
+    .when()
+      .get(SQL_STATEMENTS_URL);
+  }
+
+  @Test
+  public void testGetSqlStatementProfileNotEnabled() {
+    when(processEngine.getProcessEngineConfiguration()).thenReturn(mock(ProcessEngineConfiguration.class));
+
+    given()
+    .then().expect()
+      .statusCode(Status.NOT_FOUND.getStatusCode())
+    .when()
+      .get(SQL_STATEMENTS_URL);
+  }
 
 }
@@ -19,15 +19,25 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
 import javax.ws.rs.core.Response.Status;
 
 import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.util.IoUtil;
 import org.camunda.bpm.engine.rest.helper.MockObjectValue;
 import org.camunda.bpm.engine.rest.helper.MockProvider;
 import org.camunda.bpm.engine.rest.helper.MockVariableInstanceBuilder;
@@ -44,6 +54,8 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.jayway.restassured.http.ContentType;
 import com.jayway.restassured.response.Response;
@@ -231,8 +243,10 @@ public class VariableInstanceRestServiceInteractionTest extends AbstractRestServ
         MockProvider.mockVariableInstance()
           .typedValue(Variables.byteArrayValue(byteContent))
           .build();
+    mockBinaryContent(byteContent);
 
     when(variableInstanceQueryMock.variableId(variableInstanceMock.getId())).thenReturn(variableInstanceQueryMock);
+    when(variableInstanceQueryMock.disableBinaryFetching()).thenReturn(variableInstanceQueryMock);
     when(variableInstanceQueryMock.disableCustomObjectDeserialization()).thenReturn(variableInstanceQueryMock);
     when(variableInstanceQueryMock.singleResult()).thenReturn(variableInstanceMock);
 
@@ -244,7 +258,7 @@ public class VariableInstanceRestServiceInteractionTest extends AbstractRestServ
 
     byte[] responseBytes = response.getBody().asByteArray();
     Assert.assertEquals(new String(byteContent), new String(responseBytes));
-    verify(variableInstanceQueryMock, never()).disableBinaryFetching();
+    verify(variableInstanceQueryMock).disableBinaryFetching();
     verify(variableInstanceQueryMock).disableCustomObjectDeserialization();
 
   }
@@ -254,6 +268,7 @@ public class VariableInstanceRestServiceInteractionTest extends AbstractRestServ
     VariableInstance variableInstanceMock = MockProvider.createMockVariableInstance();
 
     when(variableInstanceQueryMock.variableId(variableInstanceMock.getId())).thenReturn(variableInstanceQueryMock);
+    when(variableInstanceQueryMock.disableBinaryFetching()).thenReturn(variableInstanceQueryMock);
     when(variableInstanceQueryMock.disableCustomObjectDeserialization()).thenReturn(variableInstanceQueryMock);
     when(variableInstanceQueryMock.singleResult()).thenReturn(variableInstanceMock);
 
@@ -263,7 +278,7 @@ public class VariableInstanceRestServiceInteractionTest extends AbstractRestServ
       .body(containsString("Value of Variable instance aVariableInstanceId is not a binary value"))
     .when().get(VARIABLE_INSTANCE_BINARY_DATA_URL);
 
-    verify(variableInstanceQueryMock, never()).disableBinaryFetching();
+    verify(variableInstanceQueryMock).disableBinaryFetching();
     verify(variableInstanceQueryMock).disableCustomObjectDeserialization();
 
   }
@@ -274,6 +289,7 @@ public class VariableInstanceRestServiceInteractionTest extends AbstractRestServ
     String nonExistingId = "nonExistingId";
 
     when(variableInstanceQueryMock.variableId(nonExistingId)).thenReturn(variableInstanceQueryMock);
+    when(variableInstanceQueryMock.disableBinaryFetching()).thenReturn(variableInstanceQueryMock);
     when(variableInstanceQueryMock.disableCustomObjectDeserialization()).thenReturn(variableInstanceQueryMock);
     when(variableInstanceQueryMock.singleResult()).thenReturn(null);
 
@@ -282,7 +298,7 @@ public class VariableInstanceRestServiceInteractionTest extends AbstractRestServ
     .body(containsString("Variable instance with Id 'nonExistingId' does not exist."))
     .when().get(VARIABLE_INSTANCE_BINARY_DATA_URL);
 
-    verify(variableInstanceQueryMock, never()).disableBinaryFetching();
+    verify(variableInstanceQueryMock).disableBinaryFetching();
     verify(variableInstanceQueryMock).disableCustomObjectDeserialization();
   }
 
@@ -298,6 +314,7 @@ public class VariableInstanceRestServiceInteractionTest extends AbstractRestServ
         builder
           .typedValue(variableValue)
           .build();
+    mockBinaryContent(byteContent);
 
     when(variableInstanceQueryMock.variableId(variableInstanceMock.getId())).thenReturn(variableInstanceQueryMock);
     when(variableInstanceQueryMock.disableBinaryFetching()).thenReturn(variableInstanceQueryMock);
@@ -343,4 +360,94 @@ public class VariableInstanceRestServiceInteractionTest extends AbstractRestServ
 
   }
 
+  @Test
+  public void testSetBinaryDataForBinaryVariable() {
+    final byte[] byteContent = "some bytes".getBytes();
+
+    VariableInstance variableInstanceMock =
+        MockProvider.mockVariableInstance()
+          .typedValue(Variables.byteArrayValue(null))
+          .build();
+
+    when(variableInstanceQueryMock.variableId(variableInstanceMock.getId())).thenReturn(variableInstanceQueryMock);
+    when(variableInstanceQueryMock.disableBinaryFetching()).thenReturn(variableInstanceQueryMock);
+    when(variableInstanceQueryMock.disableCustomObjectDeserialization()).thenReturn(variableInstanceQueryMock);
+    when(variableInstanceQueryMock.singleResult()).thenReturn(variableInstanceMock);
+
+    final ByteArrayOutputStream receivedContent = new ByteArrayOutputStream();
+    doAnswer(new Answer<Void>() {
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        InputStream inputStream = (InputStream) invocation.getArguments()[1];
+        receivedContent.write(IoUtil.readInputStream(inputStream, "content"));
+        return null;
+      }
+    }).when(runtimeServiceMock).setVariableInstanceBinaryValue(eq(MockProvider.EXAMPLE_VARIABLE_INSTANCE_ID), any(InputStream.class), eq(byteContent.length));
+
+    given()
+      .pathParam("id", MockProvider.EXAMPLE_VARIABLE_INSTANCE_ID)
+      .contentType(ContentType.BINARY)
+      .body(byteContent)
+    .then().expect()
+      .statusCode(Status.NO_CONTENT.getStatusCode())
+    .when().put(VARIABLE_INSTANCE_BINARY_DATA_URL);
+
+    Assert.assertEquals(new String(byteContent), new String(receivedContent.toByteArray()));
+  }
+
+  @Test
+  public void testSetBinaryDataForNonBinaryVariable() {
+    VariableInstance variableInstanceMock = MockProvider.createMockVariableInstance();
+
+    when(variableInstanceQueryMock.variableId(variableInstanceMock.getId())).thenReturn(variableInstanceQueryMock);
+    when(variableInstanceQueryMock.disableBinaryFetching()).thenReturn(variableInstanceQueryMock);
+    when(variableInstanceQueryMock.disableCustomObjectDeserialization()).thenReturn(variableInstanceQueryMock);
+    when(variableInstanceQueryMock.singleResult()).thenReturn(variableInstanceMock);
+
+    given()
+      .pathParam("id", MockProvider.EXAMPLE_VARIABLE_INSTANCE_ID)
+      .contentType(ContentType.BINARY)
+      .body("some bytes".getBytes())
+    .then().expect()
+      .statusCode(Status.BAD_REQUEST.getStatusCode())
+      .body(containsString("Value of Variable instance aVariableInstanceId is not a binary value"))
+    .when().put(VARIABLE_INSTANCE_BINARY_DATA_URL);
+
+    verify(runtimeServiceMock, never()).setVariableInstanceBinaryValue(anyString(), any(InputStream.class), anyInt());
+  }
+
+  @Test
+  public void testSetBinaryDataForNonExistingVariableInstance() {
+    String nonExistingId = "nonExistingId";
+
+    when(variableInstanceQueryMock.variableId(nonExistingId)).thenReturn(variableInstanceQueryMock);
+    when(variableInstanceQueryMock.disableBinaryFetching()).thenReturn(variableInstanceQueryMock);
+    when(variableInstanceQueryMock.disableCustomObjectDeserialization()).thenReturn(variableInstanceQueryMock);
+    when(variableInstanceQueryMock.singleResult()).thenReturn(null);
+
+    given()
+      .pathParam("id", nonExistingId)
+      .contentType(ContentType.BINARY)
+      .body("some bytes".getBytes())
+    .then().expect()
+      .statusCode(Status.NOT_FOUND.getStatusCode())
+      .body(containsString("Variable instance with Id 'nonExistingId' does not exist."))
+    .when().put(VARIABLE_INSTANCE_BINARY_DATA_URL);
+
+    verify(runtimeServiceMock, never()).setVariableInstanceBinaryValue(anyString(), any(InputStream.class), anyInt());
+  }
+
+  protected void mockBinaryContent(final byte[] content) {
+    when(runtimeServiceMock.writeVariableInstanceBinaryValue(eq(MockProvider.EXAMPLE_VARIABLE_INSTANCE_ID), any(OutputStream.class)))
+      .thenAnswer(new Answer<Boolean>() {
+        public Boolean answer(InvocationOnMock invocation) throws Throwable {
+          if (content == null) {
+            return false;
+          }
+          OutputStream outputStream = (OutputStream) invocation.getArguments()[1];
+          outputStream.write(content);
+          return true;
+        }
+      });
+  }
+
 }
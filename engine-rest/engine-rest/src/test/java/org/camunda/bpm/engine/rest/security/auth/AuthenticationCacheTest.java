@@ -0,0 +1,152 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.rest.security.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.core.HttpHeaders;
+
+import org.camunda.bpm.engine.IdentityService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.digest._apacheCommonsCodec.Base64;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.rest.security.auth.impl.HttpBasicAuthenticationProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AuthenticationCacheTest {
+
+  protected static final String ENGINE_NAME = "default";
+
+  protected AuthenticationCache cache;
+
+  @Before
+  public void setUp() {
+    ClockUtil.setCurrentTime(new Date(0));
+    cache = new AuthenticationCache(2, 1000);
+  }
+
+  @After
+  public void tearDown() {
+    ClockUtil.reset();
+  }
+
+  @Test
+  public void testCachedCredentials() {
+    assertFalse(cache.hasValidCredentials(ENGINE_NAME, "kermit", "secret"));
+
+    cache.putCredentials(ENGINE_NAME, "kermit", "secret");
+
+    assertTrue(cache.hasValidCredentials(ENGINE_NAME, "kermit", "secret"));
+    assertFalse(cache.hasValidCredentials(ENGINE_NAME, "kermit", "wrong"));
+    assertFalse(cache.hasValidCredentials("otherEngine", "kermit", "secret"));
+
+    assertEquals(1, cache.getCredentialsHitCount());
+    assertEquals(3, cache.getCredentialsMissCount());
+    assertEquals(0, cache.getGroupsHitCount());
+    assertEquals(0, cache.getGroupsMissCount());
+  }
+
+  @Test
+  public void testFailedAuthenticationKeepsCachedCredentials() {
+    IdentityService identityService = mock(IdentityService.class);
+    when(identityService.checkPassword("kermit", "secret")).thenReturn(true);
+
+    ProcessEngine engine = mock(ProcessEngine.class);
+    when(engine.getName()).thenReturn(ENGINE_NAME);
+    when(engine.getIdentityService()).thenReturn(identityService);
+
+    HttpBasicAuthenticationProvider provider = new HttpBasicAuthenticationProvider();
+    provider.setAuthenticationCache(cache);
+
+    assertTrue(provider.extractAuthenticatedUser(basicAuthRequest("kermit", "secret"), engine).isAuthenticated());
+    assertFalse(provider.extractAuthenticatedUser(basicAuthRequest("kermit", "wrong"), engine).isAuthenticated());
+
+    assertTrue(cache.hasValidCredentials(ENGINE_NAME, "kermit", "secret"));
+    assertFalse(cache.hasValidCredentials(ENGINE_NAME, "kermit", "wrong"));
+  }
+
+  @Test
+  public void testCachedMemberships() {
+    assertNull(cache.getGroupIds(ENGINE_NAME, "kermit"));
+
+    cache.putMemberships(ENGINE_NAME, "kermit", Arrays.asList("group1", "group2"), Collections.singletonList("tenant1"));
+
+    assertEquals(Arrays.asList("group1", "group2"), cache.getGroupIds(ENGINE_NAME, "kermit"));
+    assertEquals(Collections.singletonList("tenant1"), cache.getTenantIds(ENGINE_NAME, "kermit"));
+
+    assertEquals(1, cache.getGroupsHitCount());
+    assertEquals(1, cache.getGroupsMissCount());
+    assertEquals(1, cache.getTenantsHitCount());
+    assertEquals(0, cache.getTenantsMissCount());
+    assertEquals(0, cache.getCredentialsHitCount());
+    assertEquals(0, cache.getCredentialsMissCount());
+  }
+
+  @Test
+  public void testEntryExpires() {
+    cache.putCredentials(ENGINE_NAME, "kermit", "secret");
+
+    ClockUtil.setCurrentTime(new Date(999));
+    assertTrue(cache.hasValidCredentials(ENGINE_NAME, "kermit", "secret"));
+
+    ClockUtil.setCurrentTime(new Date(1000));
+    assertFalse(cache.hasValidCredentials(ENGINE_NAME, "kermit", "secret"));
+    assertEquals(0, cache.getSize());
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEntryIsEvicted() {
+    cache.putCredentials(ENGINE_NAME, "kermit", "secret");
+    cache.putCredentials(ENGINE_NAME, "gonzo", "secret");
+
+    // access kermit so that gonzo becomes the eldest entry
+    assertTrue(cache.hasValidCredentials(ENGINE_NAME, "kermit", "secret"));
+
+    cache.putCredentials(ENGINE_NAME, "fozzie", "secret");
+
+    assertEquals(2, cache.getSize());
+    assertEquals(1, cache.getEvictionCount());
+    assertTrue(cache.hasValidCredentials(ENGINE_NAME, "kermit", "secret"));
+    assertFalse(cache.hasValidCredentials(ENGINE_NAME, "gonzo", "secret"));
+  }
+
+  @Test
+  public void testInvalidate() {
+    cache.putCredentials(ENGINE_NAME, "kermit", "secret");
+    cache.invalidate(ENGINE_NAME, "kermit");
+
+    assertFalse(cache.hasValidCredentials(ENGINE_NAME, "kermit", "secret"));
+  }
+
+  protected HttpServletRequest basicAuthRequest(String userName, String password) {
+    String credentials = new String(Base64.encodeBase64((userName + ":" + password).getBytes()));
+
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Basic " + credentials);
+    return request;
+  }
+
+}
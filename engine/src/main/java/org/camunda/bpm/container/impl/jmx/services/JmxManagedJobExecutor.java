@@ -12,9 +12,17 @@
  */
 package org.camunda.bpm.container.impl.jmx.services;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.camunda.bpm.container.impl.spi.PlatformService;
 import org.camunda.bpm.container.impl.spi.PlatformServiceContainer;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquireJobsRunnable;
+import org.camunda.bpm.engine.impl.jobexecutor.AdaptiveJobAcquisitionStrategy;
+import org.camunda.bpm.engine.impl.jobexecutor.JobAcquisitionDecision;
+import org.camunda.bpm.engine.impl.jobexecutor.JobAcquisitionStrategy;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.SequentialJobAcquisitionRunnable;
 
 /**
  * @author Daniel Meyer
@@ -78,6 +86,58 @@ public class JmxManagedJobExecutor implements PlatformService<JobExecutor>, JmxM
     jobExecutor.setMaxJobsPerAcquisition(maxJobsPerAcquisition);
   }
 
+  public boolean isAdaptiveJobAcquisitionEnabled() {
+    return jobExecutor.isAdaptiveJobAcquisitionEnabled();
+  }
+
+  public void setAdaptiveJobAcquisitionEnabled(boolean adaptiveJobAcquisitionEnabled) {
+    jobExecutor.setAdaptiveJobAcquisitionEnabled(adaptiveJobAcquisitionEnabled);
+  }
+
+  public int getMinJobsPerAcquisition() {
+    return jobExecutor.getMinJobsPerAcquisition();
+  }
+
+  public void setMinJobsPerAcquisition(int minJobsPerAcquisition) {
+    jobExecutor.setMinJobsPerAcquisition(minJobsPerAcquisition);
+  }
+
+  public int getMaxAdaptiveJobsPerAcquisition() {
+    return jobExecutor.getMaxAdaptiveJobsPerAcquisition();
+  }
+
+  public void setMaxAdaptiveJobsPerAcquisition(int maxAdaptiveJobsPerAcquisition) {
+    jobExecutor.setMaxAdaptiveJobsPerAcquisition(maxAdaptiveJobsPerAcquisition);
+  }
+
+  public long getAcquisitionWaitTimeInMillis() {
+    JobAcquisitionStrategy acquisitionStrategy = getAcquisitionStrategy();
+    return acquisitionStrategy != null ? acquisitionStrategy.getWaitTime() : 0;
+  }
+
+  public String[] getJobAcquisitionDecisions() {
+    JobAcquisitionStrategy acquisitionStrategy = getAcquisitionStrategy();
+    if (!(acquisitionStrategy instanceof AdaptiveJobAcquisitionStrategy)) {
+      return new String[0];
+    }
+
+    List<String> decisions = new ArrayList<String>();
+    for (JobAcquisitionDecision decision : ((AdaptiveJobAcquisitionStrategy) acquisitionStrategy).getDecisions().values()) {
+      decisions.add(decision.toString());
+    }
+    return decisions.toArray(new String[decisions.size()]);
+  }
+
+  protected JobAcquisitionStrategy getAcquisitionStrategy() {
+    AcquireJobsRunnable acquireJobsRunnable = jobExecutor.getAcquireJobsRunnable();
+    if (acquireJobsRunnable instanceof SequentialJobAcquisitionRunnable) {
+      return ((SequentialJobAcquisitionRunnable) acquireJobsRunnable).getAcquisitionStrategy();
+    }
+    else {
+      return null;
+    }
+  }
+
   public String getName() {
     return jobExecutor.getName();
   }
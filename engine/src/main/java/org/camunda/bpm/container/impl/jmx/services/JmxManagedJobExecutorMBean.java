@@ -39,6 +39,31 @@ public interface JmxManagedJobExecutorMBean {
 
   public int getWaitTimeInMillis();
 
+  /**
+   * Changes take effect when the job executor is restarted.
+   */
+  public void setAdaptiveJobAcquisitionEnabled(boolean adaptiveJobAcquisitionEnabled);
+
+  public boolean isAdaptiveJobAcquisitionEnabled();
+
+  public void setMinJobsPerAcquisition(int minJobsPerAcquisition);
+
+  public int getMinJobsPerAcquisition();
+
+  public void setMaxAdaptiveJobsPerAcquisition(int maxAdaptiveJobsPerAcquisition);
+
+  public int getMaxAdaptiveJobsPerAcquisition();
+
+  /**
+   * @return the time the job acquisition waits before the next acquisition cycle
+   */
+  public long getAcquisitionWaitTimeInMillis();
+
+  /**
+   * @return the latest decisions of the adaptive job acquisition, one per process engine
+   */
+  public String[] getJobAcquisitionDecisions();
+
   public void shutdown();
 
   public void start();
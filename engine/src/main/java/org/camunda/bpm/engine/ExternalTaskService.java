@@ -12,12 +12,14 @@
  */
 package org.camunda.bpm.engine;
 
+import java.util.List;
 import java.util.Map;
 
 import org.camunda.bpm.engine.authorization.Permissions;
 import org.camunda.bpm.engine.authorization.Resources;
 import org.camunda.bpm.engine.exception.NotFoundException;
 import org.camunda.bpm.engine.externaltask.ExternalTask;
+import org.camunda.bpm.engine.externaltask.ExternalTaskOperationResult;
 import org.camunda.bpm.engine.externaltask.ExternalTaskQuery;
 import org.camunda.bpm.engine.externaltask.ExternalTaskQueryBuilder;
 
@@ -200,6 +202,94 @@ public interface ExternalTaskService {
    */
   public void handleBpmnError(String externalTaskId, String workerId, String errorCode);
   
+  /**
+   * <p>Completes the external tasks with the given ids in a single transaction. Every
+   * task must be assigned to the given worker.</p>
+   *
+   * <p>A task which does not exist, is assigned to a different worker, is suspended or
+   * may not be updated by the current user is not completed and reported as failed
+   * in the returned results. All other tasks are completed.</p>
+   *
+   * @param externalTaskIds the ids of the external tasks to complete
+   * @param workerId the id of the worker that completes the tasks
+   * @return a result for every given external task id, in the given order
+   * @since 7.6
+   */
+  public List<ExternalTaskOperationResult> completeAll(List<String> externalTaskIds, String workerId);
+
+  /**
+   * <p>Completes the external tasks with the given ids in a single transaction and sets the
+   * given variables on the executions of the tasks before they are signalled. Every task
+   * must be assigned to the given worker.</p>
+   *
+   * <p>A task which does not exist, is assigned to a different worker, is suspended or
+   * may not be updated by the current user is not completed and reported as failed
+   * in the returned results. All other tasks are completed.</p>
+   *
+   * @param variablesByExternalTaskId the variables to set by the ids of the external tasks
+   *   to complete. The variables of a task may be <code>null</code>.
+   * @param workerId the id of the worker that completes the tasks
+   * @return a result for every given external task id, in the iteration order of the map
+   * @since 7.6
+   */
+  public List<ExternalTaskOperationResult> completeAll(Map<String, Map<String, Object>> variablesByExternalTaskId, String workerId);
+
+  /**
+   * <p>Signals that the external tasks with the given ids could not be successfully executed,
+   * for example because a system they depend on is not available. The failure is handled in a
+   * single transaction as described in {@link #handleFailure(String, String, String, String, int, long)}
+   * for every task.</p>
+   *
+   * <p>A task which does not exist, is assigned to a different worker, is suspended or
+   * may not be updated by the current user is reported as failed in the returned results.</p>
+   *
+   * @param externalTaskIds the ids of the external tasks to report a failure for
+   * @param workerId the id of the worker that reports the failure
+   * @param errorMessage short error message related to this failure. May be <code>null</code>.
+   * @param errorDetails full error message related to this failure. May be <code>null</code>.
+   * @param retries the number of retries left. Must be >= 0.
+   * @param retryTimeout the timeout before the tasks can be fetched again. Must be >= 0.
+   * @return a result for every given external task id, in the given order
+   * @since 7.6
+   */
+  public List<ExternalTaskOperationResult> handleFailures(List<String> externalTaskIds, String workerId, String errorMessage, String errorDetails, int retries, long retryTimeout);
+
+  /**
+   * Extends the lock of an external task, such that it cannot be fetched by another
+   * worker before <code>now + newLockDuration</code>. The task must be locked by the
+   * given worker and its lock must not have expired yet.
+   *
+   * @param externalTaskId the id of the external task
+   * @param workerId the id of the worker that holds the lock
+   * @param newLockDuration the new duration of the lock in milliseconds, starting now. Must be > 0.
+   *
+   * @throws NotFoundException if no external task with the given id exists
+   * @throws BadUserRequestException if the task is locked by a different worker or its lock has expired
+   * @throws AuthorizationException thrown if the current user does not possess any of the following permissions:
+   *   <ul>
+   *     <li>{@link Permissions#UPDATE} on {@link Resources#PROCESS_INSTANCE}</li>
+   *     <li>{@link Permissions#UPDATE_INSTANCE} on {@link Resources#PROCESS_DEFINITION}</li>
+   *   </ul>
+   * @since 7.6
+   */
+  public void extendLock(String externalTaskId, String workerId, long newLockDuration);
+
+  /**
+   * <p>Extends the locks of the external tasks with the given ids in a single transaction,
+   * as described in {@link #extendLock(String, String, long)}.</p>
+   *
+   * <p>A task which does not exist, is locked by a different worker, has an expired lock, is
+   * suspended or may not be updated by the current user is reported as failed in the returned
+   * results.</p>
+   *
+   * @param externalTaskIds the ids of the external tasks
+   * @param workerId the id of the worker that holds the locks
+   * @param newLockDuration the new duration of the locks in milliseconds, starting now. Must be > 0.
+   * @return a result for every given external task id, in the given order
+   * @since 7.6
+   */
+  public List<ExternalTaskOperationResult> extendLocks(List<String> externalTaskIds, String workerId, long newLockDuration);
+
   /**
    * Unlocks an external task instance.
    *
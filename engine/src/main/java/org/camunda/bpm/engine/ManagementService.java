@@ -14,6 +14,7 @@ package org.camunda.bpm.engine;
 
 import java.sql.Connection;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -1056,6 +1057,56 @@ public interface ManagementService {
    */
   void deleteMetrics(Date timestamp, String reporter);
 
+  /**
+   * Creates the monthly partitions of the partitioned history tables up to and including
+   * the month of the given date. Requires the history tables to be created with
+   * the process engine configuration property <code>historyPartitioningEnabled</code>.
+   *
+   * @param until the date whose month is the last one to be partitioned
+   * @return the names of the created partitions
+   *
+   * @throws AuthorizationException
+   *          If the user is not a member of the group {@link Groups#CAMUNDA_ADMIN}.
+   * @throws ProcessEngineException
+   *          If history partitioning is not supported by the database.
+   *
+   * @since 7.6
+   */
+  List<String> createHistoryPartitions(Date until);
+
+  /**
+   * Detaches the monthly partitions of the partitioned history tables which only contain
+   * rows older than the given date. The detached partitions are kept as standalone tables
+   * named after the partition, so that they can be exported and dropped afterwards.
+   *
+   * @param expiredBefore the date before which history is expired
+   * @return the names of the detached partitions
+   *
+   * @throws AuthorizationException
+   *          If the user is not a member of the group {@link Groups#CAMUNDA_ADMIN}.
+   * @throws ProcessEngineException
+   *          If history partitioning is not supported by the database.
+   *
+   * @since 7.6
+   */
+  List<String> archiveHistoryPartitions(Date expiredBefore);
+
+  /**
+   * Drops the monthly partitions of the partitioned history tables which only contain
+   * rows older than the given date.
+   *
+   * @param expiredBefore the date before which history is expired
+   * @return the names of the dropped partitions
+   *
+   * @throws AuthorizationException
+   *          If the user is not a member of the group {@link Groups#CAMUNDA_ADMIN}.
+   * @throws ProcessEngineException
+   *          If history partitioning is not supported by the database.
+   *
+   * @since 7.6
+   */
+  List<String> deleteHistoryPartitions(Date expiredBefore);
+
   /**
    * Forces this engine to commit its pending collected metrics to the database.
    *
@@ -12,6 +12,8 @@
  */
 package org.camunda.bpm.engine;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +22,7 @@ import org.camunda.bpm.engine.authorization.Permissions;
 import org.camunda.bpm.engine.authorization.Resources;
 import org.camunda.bpm.engine.batch.Batch;
 import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.camunda.bpm.engine.exception.NotFoundException;
 import org.camunda.bpm.engine.migration.MigrationPlan;
 import org.camunda.bpm.engine.migration.MigrationPlanBuilder;
 import org.camunda.bpm.engine.migration.MigrationPlanExecutionBuilder;
@@ -1133,6 +1136,53 @@ public interface RuntimeService {
    */
   void removeVariablesLocal(String executionId, Collection<String> variableNames);
 
+  /**
+   * Writes the content of a binary variable (of type bytes or file) to the given
+   * output stream. The content is streamed from the database without loading
+   * it into memory. The output stream is not closed.
+   *
+   * @param variableInstanceId id of the variable instance, cannot be null.
+   * @param outputStream the stream to write the content to, cannot be null.
+   *
+   * @return false if the variable has no content, i.e. its value is null.
+   *
+   * @throws NotFoundException
+   *          when no variable instance exists with the given id.
+   * @throws ProcessEngineException
+   *          when the variable instance is not binary.
+   * @throws AuthorizationException
+   *          if the user has no {@link Permissions#READ} permission on {@link Resources#PROCESS_INSTANCE}
+   *          or no {@link Permissions#READ_INSTANCE} permission on {@link Resources#PROCESS_DEFINITION}
+   *          (or the corresponding permissions on the task if the variable is a task variable).
+   */
+  boolean writeVariableInstanceBinaryValue(String variableInstanceId, OutputStream outputStream);
+
+  /**
+   * Replaces the content of a binary variable (of type bytes or file) by the content
+   * of the given input stream. The content is streamed to the database without loading
+   * it into memory. The input stream is not closed.
+   *
+   * The length of the content must be known in advance, since not all database drivers
+   * support streams of unknown length. The stream must provide exactly that number of bytes.
+   *
+   * A variable update history event is produced as for any other variable update, which
+   * contains the new content if the history level is full.
+   *
+   * @param variableInstanceId id of the variable instance, cannot be null.
+   * @param inputStream the stream to read the content from, cannot be null.
+   * @param length the number of bytes to read from the stream, cannot be negative.
+   *
+   * @throws NotFoundException
+   *          when no variable instance exists with the given id.
+   * @throws ProcessEngineException
+   *          when the variable instance is not binary.
+   * @throws AuthorizationException
+   *          if the user has no {@link Permissions#UPDATE} permission on {@link Resources#PROCESS_INSTANCE}
+   *          or no {@link Permissions#UPDATE_INSTANCE} permission on {@link Resources#PROCESS_DEFINITION}
+   *          (or the corresponding permissions on the task if the variable is a task variable).
+   */
+  void setVariableInstanceBinaryValue(String variableInstanceId, InputStream inputStream, int length);
+
   // Queries ////////////////////////////////////////////////////////
 
   /** Creates a new {@link ExecutionQuery} instance,
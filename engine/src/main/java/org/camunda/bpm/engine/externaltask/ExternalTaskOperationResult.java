@@ -0,0 +1,40 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.externaltask;
+
+/**
+ * Result of an operation on a single external task which was executed together
+ * with operations on other external tasks, for example by
+ * {@link org.camunda.bpm.engine.ExternalTaskService#completeAll(java.util.List, String)}.
+ *
+ * @since 7.6
+ */
+public interface ExternalTaskOperationResult {
+
+  /**
+   * @return the id of the external task
+   */
+  String getExternalTaskId();
+
+  /**
+   * @return true if the operation was executed on the external task
+   */
+  boolean isSuccessful();
+
+  /**
+   * @return the reason why the operation was not executed on the external task or
+   * <code>null</code> if it was successful
+   */
+  String getErrorMessage();
+
+}
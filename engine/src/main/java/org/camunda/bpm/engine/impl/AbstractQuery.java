@@ -57,6 +57,8 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
 
   protected ResultType resultType;
 
+  protected boolean readOnly;
+
   protected List<QueryOrderingProperty> orderingProperties = new ArrayList<QueryOrderingProperty>();
 
   protected Map<String, String> expressions = new HashMap<String, String>();
@@ -123,6 +125,16 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
     }
   }
 
+  @SuppressWarnings("unchecked")
+  public T readOnly() {
+    this.readOnly = true;
+    return (T) this;
+  }
+
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+
   @SuppressWarnings("unchecked")
   public U singleResult() {
     this.resultType = ResultType.SINGLE_RESULT;
@@ -12,9 +12,11 @@
  */
 package org.camunda.bpm.engine.impl;
 
+import java.util.List;
 import java.util.Map;
 
 import org.camunda.bpm.engine.ExternalTaskService;
+import org.camunda.bpm.engine.externaltask.ExternalTaskOperationResult;
 import org.camunda.bpm.engine.externaltask.ExternalTaskQuery;
 import org.camunda.bpm.engine.externaltask.ExternalTaskQueryBuilder;
 import org.camunda.bpm.engine.impl.cmd.*;
@@ -58,6 +60,26 @@ public class ExternalTaskServiceImpl extends ServiceImpl implements ExternalTask
     commandExecutor.execute(new HandleExternalTaskBpmnErrorCmd(externalTaskId, workerId, errorCode));
   }
 
+  public List<ExternalTaskOperationResult> completeAll(List<String> externalTaskIds, String workerId) {
+    return commandExecutor.execute(new CompleteExternalTasksCmd(externalTaskIds, workerId));
+  }
+
+  public List<ExternalTaskOperationResult> completeAll(Map<String, Map<String, Object>> variablesByExternalTaskId, String workerId) {
+    return commandExecutor.execute(new CompleteExternalTasksCmd(variablesByExternalTaskId, workerId));
+  }
+
+  public List<ExternalTaskOperationResult> handleFailures(List<String> externalTaskIds, String workerId, String errorMessage, String errorDetails, int retries, long retryTimeout) {
+    return commandExecutor.execute(new HandleExternalTaskFailuresCmd(externalTaskIds, workerId, errorMessage, errorDetails, retries, retryTimeout));
+  }
+
+  public void extendLock(String externalTaskId, String workerId, long newLockDuration) {
+    commandExecutor.execute(new ExtendLockOnExternalTaskCmd(externalTaskId, workerId, newLockDuration));
+  }
+
+  public List<ExternalTaskOperationResult> extendLocks(List<String> externalTaskIds, String workerId, long newLockDuration) {
+    return commandExecutor.execute(new ExtendLockOnExternalTasksCmd(externalTaskIds, workerId, newLockDuration));
+  }
+
   public void unlock(String externalTaskId) {
     commandExecutor.execute(new UnlockExternalTaskCmd(externalTaskId));
   }
@@ -15,6 +15,7 @@ package org.camunda.bpm.engine.impl;
 import java.sql.Connection;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -27,6 +28,8 @@ import org.camunda.bpm.engine.impl.batch.BatchQueryImpl;
 import org.camunda.bpm.engine.impl.batch.BatchStatisticsQueryImpl;
 import org.camunda.bpm.engine.impl.batch.DeleteBatchCmd;
 import org.camunda.bpm.engine.impl.cmd.ActivateBatchCmd;
+import org.camunda.bpm.engine.impl.cmd.ArchiveHistoryPartitionsCmd;
+import org.camunda.bpm.engine.impl.cmd.CreateHistoryPartitionsCmd;
 import org.camunda.bpm.engine.impl.cmd.DeleteJobCmd;
 import org.camunda.bpm.engine.impl.cmd.DeleteMetricsCmd;
 import org.camunda.bpm.engine.impl.cmd.DeletePropertyCmd;
@@ -412,6 +415,18 @@ public class ManagementServiceImpl extends ServiceImpl implements ManagementServ
 
   }
 
+  public List<String> createHistoryPartitions(Date until) {
+    return commandExecutor.execute(new CreateHistoryPartitionsCmd(until));
+  }
+
+  public List<String> archiveHistoryPartitions(Date expiredBefore) {
+    return commandExecutor.execute(new ArchiveHistoryPartitionsCmd(expiredBefore, false));
+  }
+
+  public List<String> deleteHistoryPartitions(Date expiredBefore) {
+    return commandExecutor.execute(new ArchiveHistoryPartitionsCmd(expiredBefore, true));
+  }
+
   public void reportDbMetricsNow() {
     commandExecutor.execute(new ReportDbMetricsCmd());
   }
@@ -75,6 +75,10 @@ public class ProcessDefinitionStatisticsQueryImpl extends AbstractQuery<ProcessD
     return includeIncidents || includeIncidentsForType != null;
   }
 
+  public String getIncludeIncidentsForType() {
+    return includeIncidentsForType;
+  }
+
   protected void checkQueryOk() {
     super.checkQueryOk();
     if (includeIncidents && includeIncidentsForType != null) {
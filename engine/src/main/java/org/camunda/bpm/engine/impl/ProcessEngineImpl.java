@@ -120,6 +120,18 @@ public class ProcessEngineImpl implements ProcessEngine {
       }
     }
 
+    if (processEngineConfiguration.getAsyncHistoryEventWriter() != null) {
+      processEngineConfiguration.getAsyncHistoryEventWriter().start();
+    }
+
+    if (processEngineConfiguration.getHistoricDurationAggregator() != null) {
+      processEngineConfiguration.getHistoricDurationAggregator().start();
+    }
+
+    if (processEngineConfiguration.getSharedEntityCacheRevisionPoller() != null) {
+      processEngineConfiguration.getSharedEntityCacheRevisionPoller().start();
+    }
+
   }
 
   protected void executeSchemaOperations() {
@@ -140,6 +152,23 @@ public class ProcessEngineImpl implements ProcessEngine {
       jobExecutor.unregisterProcessEngine(this);
     }
 
+    if (processEngineConfiguration.getHistoricDurationAggregator() != null) {
+      processEngineConfiguration.getHistoricDurationAggregator().stop();
+    }
+
+    if (processEngineConfiguration.getSharedEntityCacheRevisionPoller() != null) {
+      processEngineConfiguration.getSharedEntityCacheRevisionPoller().stop();
+    }
+
+    if (processEngineConfiguration.getSqlStatementProfiler() != null) {
+      processEngineConfiguration.getSqlStatementProfiler().unregisterMBean();
+    }
+
+    if (processEngineConfiguration.getAsyncHistoryEventWriter() != null) {
+      // write the remaining history events after the job executor has been unregistered
+      processEngineConfiguration.getAsyncHistoryEventWriter().stop();
+    }
+
     commandExecutorSchemaOperations.execute(new SchemaOperationProcessEngineClose());
 
     processEngineConfiguration.close();
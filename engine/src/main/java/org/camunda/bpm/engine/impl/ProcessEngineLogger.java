@@ -29,6 +29,7 @@ import org.camunda.bpm.engine.impl.core.CoreLogger;
 import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
 import org.camunda.bpm.engine.impl.dmn.DecisionLogger;
 import org.camunda.bpm.engine.impl.externaltask.ExternalTaskLogger;
+import org.camunda.bpm.engine.impl.history.HistoryLogger;
 import org.camunda.bpm.engine.impl.interceptor.ContextLogger;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorLogger;
 import org.camunda.bpm.engine.impl.metrics.MetricsLogger;
@@ -122,6 +123,9 @@ public class ProcessEngineLogger extends BaseLogger {
   public static final ExternalTaskLogger EXTERNAL_TASK_LOGGER = BaseLogger.createLogger(
     ExternalTaskLogger.class, PROJECT_CODE, "org.camunda.bpm.engine.externaltask", "24");
 
+  public static final HistoryLogger HISTORY_LOGGER = BaseLogger.createLogger(
+      HistoryLogger.class, PROJECT_CODE, "org.camunda.bpm.engine.history", "25");
+
   public void processEngineCreated(String name) {
     logInfo("001", "Process Engine {} created.", name);
   }
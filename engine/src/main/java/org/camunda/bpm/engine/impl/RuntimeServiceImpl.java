@@ -14,6 +14,8 @@ package org.camunda.bpm.engine.impl;
 
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -29,10 +31,12 @@ import org.camunda.bpm.engine.impl.cmd.GetExecutionVariableCmd;
 import org.camunda.bpm.engine.impl.cmd.GetExecutionVariableTypedCmd;
 import org.camunda.bpm.engine.impl.cmd.GetExecutionVariablesCmd;
 import org.camunda.bpm.engine.impl.cmd.GetStartFormCmd;
+import org.camunda.bpm.engine.impl.cmd.GetVariableInstanceBinaryValueCmd;
 import org.camunda.bpm.engine.impl.cmd.MessageEventReceivedCmd;
 import org.camunda.bpm.engine.impl.cmd.PatchExecutionVariablesCmd;
 import org.camunda.bpm.engine.impl.cmd.RemoveExecutionVariablesCmd;
 import org.camunda.bpm.engine.impl.cmd.SetExecutionVariablesCmd;
+import org.camunda.bpm.engine.impl.cmd.SetVariableInstanceBinaryValueCmd;
 import org.camunda.bpm.engine.impl.cmd.SignalCmd;
 import org.camunda.bpm.engine.impl.migration.MigrationPlanBuilderImpl;
 import org.camunda.bpm.engine.impl.migration.MigrationPlanExecutionBuilderImpl;
@@ -281,6 +285,14 @@ public class RuntimeServiceImpl extends ServiceImpl implements RuntimeService {
     commandExecutor.execute(new RemoveExecutionVariablesCmd(executionId, variableNames, true));
   }
 
+  public boolean writeVariableInstanceBinaryValue(String variableInstanceId, OutputStream outputStream) {
+    return commandExecutor.execute(new GetVariableInstanceBinaryValueCmd(variableInstanceId, outputStream));
+  }
+
+  public void setVariableInstanceBinaryValue(String variableInstanceId, InputStream inputStream, int length) {
+    commandExecutor.execute(new SetVariableInstanceBinaryValueCmd(variableInstanceId, inputStream, length));
+  }
+
   public void updateVariables(String executionId, Map<String, ? extends Object> modifications, Collection<String> deletions) {
     commandExecutor.execute(new PatchExecutionVariablesCmd(executionId, modifications, deletions, false));
   }
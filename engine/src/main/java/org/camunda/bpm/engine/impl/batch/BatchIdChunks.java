@@ -0,0 +1,165 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.batch;
+
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+import org.camunda.bpm.engine.impl.util.JsonUtil;
+import org.camunda.bpm.engine.impl.util.StringUtil;
+import org.camunda.bpm.engine.impl.util.json.JSONObject;
+import org.camunda.bpm.engine.impl.util.json.JSONTokener;
+
+/**
+ * <p>Stores the ids a batch operates on as a linked list of byte arrays (chunks),
+ * each containing the ids processed by one run of the batch seed job.</p>
+ *
+ * <p>A batch configuration then only references the head chunk. Every seed job
+ * run reads and deletes the head chunk and replaces the reference with the next chunk,
+ * so that the cost of a run only depends on the chunk size and not on the size of the
+ * batch. Without chunks, every run has to read and rewrite all remaining ids.</p>
+ */
+public class BatchIdChunks {
+
+  public static final String IDS = "ids";
+  public static final String NEXT_CHUNK_ID = "nextChunkId";
+
+  /**
+   * Writes the given ids to chunks of the size processed by one seed job run of the batch.
+   * The chunks are named after the batch, so the batch must have an id already.
+   *
+   * @return the id of the first chunk or null if no ids are given
+   */
+  public static String writeChunks(BatchEntity batch, List<String> ids) {
+    ensureNotNull("batch id", batch.getId());
+
+    int chunkSize = getChunkSize(batch);
+    DbEntityManager dbEntityManager = Context.getCommandContext().getDbEntityManager();
+
+    // write chunks in reverse order so that every chunk can reference its successor
+    String nextChunkId = null;
+    int numberOfChunks = (ids.size() + chunkSize - 1) / chunkSize;
+
+    for (int i = numberOfChunks - 1; i >= 0; i--) {
+      int fromIndex = i * chunkSize;
+      int toIndex = Math.min(fromIndex + chunkSize, ids.size());
+
+      BatchIdChunk chunk = new BatchIdChunk(new ArrayList<String>(ids.subList(fromIndex, toIndex)), nextChunkId);
+
+      ByteArrayEntity chunkEntity = new ByteArrayEntity(batch.getId(), writeChunk(chunk));
+      dbEntityManager.insert(chunkEntity);
+
+      nextChunkId = chunkEntity.getId();
+    }
+
+    return nextChunkId;
+  }
+
+  /**
+   * @return the chunk with the given id or null if the chunk does not exist
+   */
+  public static BatchIdChunk readChunk(String chunkId) {
+    ByteArrayEntity chunkEntity = Context.getCommandContext()
+      .getDbEntityManager()
+      .selectById(ByteArrayEntity.class, chunkId);
+
+    if (chunkEntity != null) {
+      return readChunk(chunkEntity.getBytes());
+    }
+    else {
+      return null;
+    }
+  }
+
+  public static void deleteChunk(String chunkId) {
+    Context.getCommandContext()
+      .getByteArrayManager()
+      .deleteByteArrayById(chunkId);
+  }
+
+  /**
+   * Deletes the chunk with the given id and all its successors.
+   */
+  public static void deleteChunks(String chunkId) {
+    while (chunkId != null) {
+      BatchIdChunk chunk = readChunk(chunkId);
+      deleteChunk(chunkId);
+
+      chunkId = chunk != null ? chunk.getNextChunkId() : null;
+    }
+  }
+
+  /**
+   * @return the number of ids processed by one seed job run of the batch
+   */
+  public static int getChunkSize(BatchEntity batch) {
+    return Math.max(1, batch.getBatchJobsPerSeed() * batch.getInvocationsPerBatchJob());
+  }
+
+  protected static byte[] writeChunk(BatchIdChunk chunk) {
+    JSONObject json = new JSONObject();
+    JsonUtil.addListField(json, IDS, chunk.getIds());
+    JsonUtil.addField(json, NEXT_CHUNK_ID, chunk.getNextChunkId());
+
+    ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+    Writer writer = StringUtil.writerForStream(outStream);
+
+    json.write(writer);
+    IoUtil.flushSilently(writer);
+
+    return outStream.toByteArray();
+  }
+
+  protected static BatchIdChunk readChunk(byte[] bytes) {
+    Reader jsonReader = StringUtil.readerFromBytes(bytes);
+    JSONObject json = new JSONObject(new JSONTokener(jsonReader));
+
+    List<String> ids = new ArrayList<String>();
+    for (Object id : JsonUtil.jsonArrayAsList(json.getJSONArray(IDS))) {
+      ids.add((String) id);
+    }
+
+    String nextChunkId = json.has(NEXT_CHUNK_ID) ? json.getString(NEXT_CHUNK_ID) : null;
+
+    return new BatchIdChunk(ids, nextChunkId);
+  }
+
+  public static class BatchIdChunk {
+
+    protected List<String> ids;
+    protected String nextChunkId;
+
+    public BatchIdChunk(List<String> ids, String nextChunkId) {
+      this.ids = ids;
+      this.nextChunkId = nextChunkId;
+    }
+
+    public List<String> getIds() {
+      return ids;
+    }
+
+    public String getNextChunkId() {
+      return nextChunkId;
+    }
+  }
+
+}
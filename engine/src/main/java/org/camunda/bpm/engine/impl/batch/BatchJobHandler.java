@@ -46,7 +46,9 @@ public interface BatchJobHandler<T> extends JobHandler<BatchJobConfiguration> {
   JobDeclaration<?, MessageEntity> getJobDeclaration();
 
   /**
-   * Creates batch jobs for a batch.
+   * Creates batch jobs for a batch. Invoked by every run of the batch seed job,
+   * implementations should use {@link BatchIdChunks} to avoid that the cost of a
+   * run depends on the size of the batch.
    *
    * @param batch the batch to create jobs for
    * @return true of no more jobs have to be created for this batch, false otherwise
@@ -189,6 +189,7 @@ public class BpmnParse extends Parse {
   public static final String PROPERTYNAME_CONSUMES_COMPENSATION = "consumesCompensation";
   public static final String PROPERTYNAME_JOB_PRIORITY = "jobPriority";
   public static final String PROPERTYNAME_TASK_PRIORITY = "taskPriority";
+  public static final String PROPERTYNAME_HISTORY_LEVEL = "historyLevel";
   public static final String PROPERTYNAME_CLASS = "class";
   public static final String PROPERTYNAME_EXPRESSION = "expression";
   public static final String PROPERTYNAME_DELEGATE_EXPRESSION = "delegateExpression";
@@ -580,6 +581,9 @@ public class BpmnParse extends Parse {
     processDefinition.setVersionTag(
       processElement.attributeNS(CAMUNDA_BPMN_EXTENSIONS_NS, "versionTag")
     );
+    processDefinition.setProperty(PROPERTYNAME_HISTORY_LEVEL,
+      processElement.attributeNS(CAMUNDA_BPMN_EXTENSIONS_NS, PROPERTYNAME_HISTORY_LEVEL)
+    );
 
     LOG.parsingElement("process", processDefinition.getKey());
 
@@ -0,0 +1,85 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cfg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.camunda.bpm.engine.history.HistoricActivityInstanceQuery;
+import org.camunda.bpm.engine.history.HistoricActivityStatisticsQuery;
+import org.camunda.bpm.engine.history.HistoricCaseActivityInstanceQuery;
+import org.camunda.bpm.engine.history.HistoricCaseInstanceQuery;
+import org.camunda.bpm.engine.history.HistoricDecisionInstanceQuery;
+import org.camunda.bpm.engine.history.HistoricDetailQuery;
+import org.camunda.bpm.engine.history.HistoricIdentityLinkLogQuery;
+import org.camunda.bpm.engine.history.HistoricIncidentQuery;
+import org.camunda.bpm.engine.history.HistoricJobLogQuery;
+import org.camunda.bpm.engine.history.HistoricProcessInstanceQuery;
+import org.camunda.bpm.engine.history.HistoricTaskInstanceQuery;
+import org.camunda.bpm.engine.history.HistoricVariableInstanceQuery;
+import org.camunda.bpm.engine.history.UserOperationLogQuery;
+import org.camunda.bpm.engine.impl.AbstractQuery;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.query.Report;
+
+/**
+ * <p>Routes the history queries, the history reports and all queries which are
+ * marked with {@link AbstractQuery#readOnly()} to the read-only data source.</p>
+ *
+ * <p>The runtime statistics queries are not routed by default, since they must be
+ * consistent with the runtime statistics cache if one is configured. They can be
+ * added with {@link #setReadOnlyQueryTypes(List)}.</p>
+ */
+public class DefaultReadOnlyQueryRoutingPolicy implements ReadOnlyQueryRoutingPolicy {
+
+  public static final List<Class<?>> DEFAULT_READ_ONLY_QUERY_TYPES = Arrays.<Class<?>>asList(
+      HistoricActivityInstanceQuery.class,
+      HistoricActivityStatisticsQuery.class,
+      HistoricCaseActivityInstanceQuery.class,
+      HistoricCaseInstanceQuery.class,
+      HistoricDecisionInstanceQuery.class,
+      HistoricDetailQuery.class,
+      HistoricIdentityLinkLogQuery.class,
+      HistoricIncidentQuery.class,
+      HistoricJobLogQuery.class,
+      HistoricProcessInstanceQuery.class,
+      HistoricTaskInstanceQuery.class,
+      HistoricVariableInstanceQuery.class,
+      UserOperationLogQuery.class,
+      Report.class);
+
+  protected List<Class<?>> readOnlyQueryTypes = new ArrayList<Class<?>>(DEFAULT_READ_ONLY_QUERY_TYPES);
+
+  public boolean isReadOnly(Command<?> command) {
+    if (command instanceof AbstractQuery && ((AbstractQuery<?, ?>) command).isReadOnly()) {
+      return true;
+    }
+
+    for (Class<?> readOnlyQueryType : readOnlyQueryTypes) {
+      if (readOnlyQueryType.isInstance(command)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public List<Class<?>> getReadOnlyQueryTypes() {
+    return readOnlyQueryTypes;
+  }
+
+  public void setReadOnlyQueryTypes(List<Class<?>> readOnlyQueryTypes) {
+    this.readOnlyQueryTypes = readOnlyQueryTypes;
+  }
+
+}
@@ -109,11 +109,17 @@ import org.camunda.bpm.engine.impl.cmmn.transformer.CmmnTransformFactory;
 import org.camunda.bpm.engine.impl.cmmn.transformer.CmmnTransformListener;
 import org.camunda.bpm.engine.impl.cmmn.transformer.CmmnTransformer;
 import org.camunda.bpm.engine.impl.cmmn.transformer.DefaultCmmnTransformFactory;
+import org.camunda.bpm.engine.impl.db.DbEntity;
 import org.camunda.bpm.engine.impl.db.DbIdGenerator;
 import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManagerFactory;
+import org.camunda.bpm.engine.impl.filter.FilterCountCache;
 import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityCacheKeyMapping;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.SharedEntityCache;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.SharedEntityCacheRevisionPoller;
 import org.camunda.bpm.engine.impl.db.sql.DbSqlPersistenceProviderFactory;
 import org.camunda.bpm.engine.impl.db.sql.DbSqlSessionFactory;
+import org.camunda.bpm.engine.impl.db.sql.ReadOnlyDbSqlSessionFactory;
+import org.camunda.bpm.engine.impl.db.sql.profiler.SqlStatementProfiler;
 import org.camunda.bpm.engine.impl.delegate.DefaultDelegateInterceptor;
 import org.camunda.bpm.engine.impl.digest.PasswordEncryptor;
 import org.camunda.bpm.engine.impl.digest.ShaHashDigest;
@@ -147,7 +153,11 @@ import org.camunda.bpm.engine.impl.form.validator.MinValidator;
 import org.camunda.bpm.engine.impl.form.validator.ReadOnlyValidator;
 import org.camunda.bpm.engine.impl.form.validator.RequiredValidator;
 import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.engine.impl.history.ProcessDefinitionHistoryLevel;
 import org.camunda.bpm.engine.impl.history.event.HistoricDecisionInstanceManager;
+import org.camunda.bpm.engine.impl.history.handler.AsyncHistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.AsyncHistoryEventWriter;
+import org.camunda.bpm.engine.impl.history.handler.BatchDbHistoryEventHandler;
 import org.camunda.bpm.engine.impl.history.handler.DbHistoryEventHandler;
 import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
 import org.camunda.bpm.engine.impl.history.parser.HistoryParseListener;
@@ -157,6 +167,7 @@ import org.camunda.bpm.engine.impl.history.producer.CmmnHistoryEventProducer;
 import org.camunda.bpm.engine.impl.history.producer.DefaultDmnHistoryEventProducer;
 import org.camunda.bpm.engine.impl.history.producer.DmnHistoryEventProducer;
 import org.camunda.bpm.engine.impl.history.producer.HistoryEventProducer;
+import org.camunda.bpm.engine.impl.history.report.HistoricDurationAggregator;
 import org.camunda.bpm.engine.impl.history.transformer.CmmnHistoryTransformListener;
 import org.camunda.bpm.engine.impl.identity.ReadOnlyIdentityProvider;
 import org.camunda.bpm.engine.impl.identity.WritableIdentityProvider;
@@ -166,8 +177,13 @@ import org.camunda.bpm.engine.impl.incident.IncidentHandler;
 import org.camunda.bpm.engine.impl.interceptor.CommandContextFactory;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutorImpl;
+import org.camunda.bpm.engine.impl.interceptor.CommandContextInterceptor;
 import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
 import org.camunda.bpm.engine.impl.interceptor.DelegateInterceptor;
+import org.camunda.bpm.engine.impl.interceptor.LogInterceptor;
+import org.camunda.bpm.engine.impl.interceptor.ProcessApplicationContextInterceptor;
+import org.camunda.bpm.engine.impl.interceptor.ReadOnlyCommandContextFactory;
+import org.camunda.bpm.engine.impl.interceptor.ReadOnlyQueryRoutingInterceptor;
 import org.camunda.bpm.engine.impl.interceptor.SessionFactory;
 import org.camunda.bpm.engine.impl.jobexecutor.AsyncContinuationJobHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.DefaultFailedJobCommandFactory;
@@ -188,6 +204,7 @@ import org.camunda.bpm.engine.impl.jobexecutor.TimerStartEventJobHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.TimerStartEventSubprocessJobHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.TimerSuspendJobDefinitionHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.TimerSuspendProcessDefinitionHandler;
+import org.camunda.bpm.engine.impl.management.RuntimeStatisticsCache;
 import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
 import org.camunda.bpm.engine.impl.metrics.MetricsReporterIdProvider;
 import org.camunda.bpm.engine.impl.metrics.SimpleIpBasedProvider;
@@ -235,6 +252,7 @@ import org.camunda.bpm.engine.impl.persistence.entity.CommentManager;
 import org.camunda.bpm.engine.impl.persistence.entity.DeploymentManager;
 import org.camunda.bpm.engine.impl.persistence.entity.EventSubscriptionManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ExecutionManager;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionTreePrefetchProfile;
 import org.camunda.bpm.engine.impl.persistence.entity.ExternalTaskManager;
 import org.camunda.bpm.engine.impl.persistence.entity.FilterManager;
 import org.camunda.bpm.engine.impl.persistence.entity.HistoricActivityInstanceManager;
@@ -249,6 +267,8 @@ import org.camunda.bpm.engine.impl.persistence.entity.HistoricProcessInstanceMan
 import org.camunda.bpm.engine.impl.persistence.entity.HistoricStatisticsManager;
 import org.camunda.bpm.engine.impl.persistence.entity.HistoricTaskInstanceManager;
 import org.camunda.bpm.engine.impl.persistence.entity.HistoricVariableInstanceManager;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryOutboxManager;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryPartitionManager;
 import org.camunda.bpm.engine.impl.persistence.entity.IdentityInfoManager;
 import org.camunda.bpm.engine.impl.persistence.entity.IdentityLinkManager;
 import org.camunda.bpm.engine.impl.persistence.entity.IncidentManager;
@@ -266,6 +286,7 @@ import org.camunda.bpm.engine.impl.persistence.entity.TaskReportManager;
 import org.camunda.bpm.engine.impl.persistence.entity.TenantManager;
 import org.camunda.bpm.engine.impl.persistence.entity.UserOperationLogManager;
 import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceManager;
+import org.camunda.bpm.engine.impl.persistence.entity.util.DeserializedValueCache;
 import org.camunda.bpm.engine.impl.runtime.CorrelationHandler;
 import org.camunda.bpm.engine.impl.runtime.DefaultCorrelationHandler;
 import org.camunda.bpm.engine.impl.scripting.ScriptFactory;
@@ -276,6 +297,7 @@ import org.camunda.bpm.engine.impl.scripting.engine.ScriptingEngines;
 import org.camunda.bpm.engine.impl.scripting.engine.VariableScopeResolverFactory;
 import org.camunda.bpm.engine.impl.scripting.env.ScriptEnvResolver;
 import org.camunda.bpm.engine.impl.scripting.env.ScriptingEnvironment;
+import org.camunda.bpm.engine.impl.util.CompressionUtil;
 import org.camunda.bpm.engine.impl.util.IoUtil;
 import org.camunda.bpm.engine.impl.util.ReflectUtil;
 import org.camunda.bpm.engine.impl.variable.ValueTypeResolverImpl;
@@ -294,6 +316,8 @@ import org.camunda.bpm.engine.impl.variable.serializer.StringValueSerializer;
 import org.camunda.bpm.engine.impl.variable.serializer.TypedValueSerializer;
 import org.camunda.bpm.engine.impl.variable.serializer.VariableSerializerFactory;
 import org.camunda.bpm.engine.impl.variable.serializer.VariableSerializers;
+import org.camunda.bpm.engine.impl.variable.serializer.binary.CompactBinaryCodec;
+import org.camunda.bpm.engine.impl.variable.serializer.binary.CompactBinaryObjectSerializer;
 import org.camunda.bpm.engine.impl.variable.serializer.jpa.EntityManagerSession;
 import org.camunda.bpm.engine.impl.variable.serializer.jpa.EntityManagerSessionFactory;
 import org.camunda.bpm.engine.impl.variable.serializer.jpa.JPAVariableSerializer;
@@ -532,8 +556,115 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected HistoryEventHandler historyEventHandler;
 
+  /**
+   * If true, history events are not written into the history tables by the runtime
+   * transaction but into its entry of the history outbox, which is written in batches
+   * by the {@link AsyncHistoryEventWriter}.
+   */
+  protected boolean isAsyncHistoryEnabled = false;
+  protected int asyncHistoryQueueCapacity = AsyncHistoryEventHandler.DEFAULT_QUEUE_CAPACITY;
+  protected int asyncHistoryBatchSize = AsyncHistoryEventWriter.DEFAULT_BATCH_SIZE;
+  protected int asyncHistoryMaxAttempts = AsyncHistoryEventWriter.DEFAULT_MAX_ATTEMPTS;
+  protected AsyncHistoryEventWriter asyncHistoryEventWriter;
+
+  /**
+   * If true, a process definition can have its own history level, set by the
+   * <code>camunda:historyLevel</code> attribute of the process or by
+   * {@link #processDefinitionHistoryLevels}. The history level of the process engine
+   * still applies to all other process definitions.
+   */
+  protected boolean isProcessDefinitionHistoryLevelEnabled = false;
+  /** names of history levels by process definition key, take precedence over the BPMN attribute */
+  protected Map<String, String> processDefinitionHistoryLevels = new HashMap<String, String>();
+
+  /**
+   * If true, the durations of completed process instances are periodically aggregated
+   * by the {@link HistoricDurationAggregator} and duration reports are created from the
+   * aggregates of the months they completely cover.
+   *
+   * Completed process instances are queued in the transaction which completes them and
+   * the queue is drained by the aggregator. The aggregates are rebuilt from the historic
+   * process instances if the property <code>history.duration.aggregation</code> does not
+   * exist, e.g. when the aggregation is enabled for the first time. Since no instances
+   * are queued while the aggregation is disabled, the property has to be deleted when
+   * the aggregation is enabled again after it was disabled.
+   */
+  protected boolean isHistoricDurationAggregationEnabled = false;
+  protected long historicDurationAggregationIntervalInSeconds = 60 * 5;
+  protected int historicDurationAggregationBatchSize = 1000;
+  protected HistoricDurationAggregator historicDurationAggregator;
+
+  /**
+   * Optional data source of a read-only replica of the database. The commands accepted
+   * by the {@link #readOnlyQueryRoutingPolicy} are executed on it, if they are not
+   * executed within another command. All other commands use the primary data source only.
+   */
+  protected DataSource readOnlyDataSource;
+  protected ReadOnlyQueryRoutingPolicy readOnlyQueryRoutingPolicy;
+  protected CommandExecutor commandExecutorReadOnly;
+
+  /**
+   * If true, the entities of the {@link #sharedEntityCacheEntityTypes} are selected by id
+   * through the engine wide {@link SharedEntityCache}.
+   */
+  protected boolean isSharedEntityCacheEnabled = false;
+  /** defaults to {@link SharedEntityCache#DEFAULT_ENTITY_TYPES} */
+  protected List<Class<? extends DbEntity>> sharedEntityCacheEntityTypes;
+  protected int sharedEntityCacheMaxEntriesPerType = SharedEntityCache.DEFAULT_MAX_ENTRIES_PER_TYPE;
+  /**
+   * If greater than zero, the revisions of the cached entities are validated periodically,
+   * which is required if several process engines share the database.
+   */
+  protected long sharedEntityCacheRevisionPollingIntervalInSeconds = 0;
+  protected SharedEntityCache sharedEntityCache;
+  protected SharedEntityCacheRevisionPoller sharedEntityCacheRevisionPoller;
+
+  /** set if the SQL statements are profiled, see {@link SqlStatementProfiler} */
+  protected SqlStatementProfiler sqlStatementProfiler;
+
+  /**
+   * If true, the contents of byte arrays and deployment resources which are at least
+   * {@link #byteArrayCompressionThreshold} bytes large are compressed before they are
+   * written to the database. Compressed rows are flagged in the column COMPRESSED_ and
+   * are read regardless of this setting.
+   */
+  protected boolean isByteArrayCompressionEnabled = false;
+  protected int byteArrayCompressionThreshold = 1024;
+
+  /** compressed contents which inflate to more bytes are rejected when they are read */
+  protected int byteArrayDecompressionMaxSize = CompressionUtil.DEFAULT_MAX_DECOMPRESSED_SIZE;
+
+  /** codecs of custom types for the {@link CompactBinaryObjectSerializer} */
+  protected List<CompactBinaryCodec<?>> compactBinaryCodecs;
+
+  /**
+   * If true, deserialized object variables are cached across commands by the
+   * {@link DeserializedValueCache}, see {@link #deserializedValueCacheImmutableTypes}.
+   */
+  protected boolean isDeserializedValueCacheEnabled = false;
+  protected int deserializedValueCacheMaxEntries = DeserializedValueCache.DEFAULT_MAX_ENTRIES;
+  /** the maximum size of the serialized values of all cached variables in bytes */
+  protected long deserializedValueCacheMaxSize = DeserializedValueCache.DEFAULT_MAX_SIZE;
+  /** names of classes whose instances are never modified and can be shared by all commands */
+  protected List<String> deserializedValueCacheImmutableTypes;
+  protected DeserializedValueCache deserializedValueCache;
+
+  /**
+   * If true, the history tables which grow with every executed activity are created
+   * partitioned by month, see {@link HistoryPartitionManager}. Only supported on
+   * PostgreSQL, MySQL and MariaDB.
+   */
+  protected boolean isHistoryPartitioningEnabled = false;
+
   protected boolean isExecutionTreePrefetchEnabled = true;
 
+  /**
+   * Comma separated list of entity types which are prefetched together with the
+   * execution tree, see {@link ExecutionTreePrefetchProfile}. Nothing is prefetched by default.
+   */
+  protected String executionTreePrefetchProfileName;
+  protected ExecutionTreePrefetchProfile executionTreePrefetchProfile;
+
   /** If true the process engine will attempt to acquire an exclusive lock before
    * creating a deployment.
    */
@@ -607,6 +738,21 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected boolean isUseSharedSqlSessionFactory = false;
 
+  /** Allows caching the results of filter counts; counts may be stale for at most {@link #filterCountCacheTimeToLive} after identity links or variables of tasks are modified. */
+  protected boolean isFilterCountCacheEnabled = false;
+  protected int filterCountCacheMaxSize = FilterCountCache.DEFAULT_MAX_SIZE;
+  protected long filterCountCacheTimeToLive = FilterCountCache.DEFAULT_TIME_TO_LIVE;
+  protected FilterCountCache filterCountCache;
+
+  /** Allows answering runtime statistics queries from an aggregate kept in memory. */
+  protected boolean isRuntimeStatisticsCacheEnabled = false;
+  /**
+   * Milliseconds after which the aggregate is initialized again from the database. Bounds how long
+   * changes made by other process engines on the same database are not visible in the statistics.
+   */
+  protected long runtimeStatisticsCacheTimeToLive = RuntimeStatisticsCache.DEFAULT_TIME_TO_LIVE;
+  protected RuntimeStatisticsCache runtimeStatisticsCache;
+
   // buildProcessEngine ///////////////////////////////////////////////////////
 
   @Override
@@ -651,6 +797,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     initSqlSessionFactory();
     initIdentityProviderSessionFactory();
     initSessionFactories();
+    initReadOnlyQueryRouting();
     initValueTypeResolver();
     initSerialization();
     initJpa();
@@ -667,6 +814,13 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     initMigration();
     initCommandCheckers();
     initDefaultUserPermissionForTask();
+    initFilterCountCache();
+    initRuntimeStatisticsCache();
+    initExecutionTreePrefetchProfile();
+    initAsyncHistoryEventWriter();
+    initHistoricDurationAggregator();
+    initSharedEntityCache();
+    initDeserializedValueCache();
     invokePostInit();
   }
 
@@ -759,6 +913,9 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       } else {
         commandInterceptorsTxRequired = new ArrayList<CommandInterceptor>();
       }
+      if (readOnlyDataSource!=null) {
+        commandInterceptorsTxRequired.add(0, new ReadOnlyQueryRoutingInterceptor(this));
+      }
       commandInterceptorsTxRequired.addAll(getDefaultCommandInterceptorsTxRequired());
       if (customPostCommandInterceptorsTxRequired!=null) {
         commandInterceptorsTxRequired.addAll(customPostCommandInterceptorsTxRequired);
@@ -1123,6 +1280,8 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       addSessionFactory(new GenericManagerFactory(AuthorizationManager.class));
       addSessionFactory(new GenericManagerFactory(FilterManager.class));
       addSessionFactory(new GenericManagerFactory(MeterLogManager.class));
+      addSessionFactory(new GenericManagerFactory(HistoryPartitionManager.class));
+      addSessionFactory(new GenericManagerFactory(HistoryOutboxManager.class));
       addSessionFactory(new GenericManagerFactory(ExternalTaskManager.class));
       addSessionFactory(new GenericManagerFactory(ReportManager.class));
       addSessionFactory(new GenericManagerFactory(BatchManager.class));
@@ -1160,6 +1319,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     dbSqlSessionFactory.setSqlSessionFactory(sqlSessionFactory);
     dbSqlSessionFactory.setDbIdentityUsed(isDbIdentityUsed);
     dbSqlSessionFactory.setDbHistoryUsed(isDbHistoryUsed);
+    dbSqlSessionFactory.setHistoryPartitioningEnabled(isHistoryPartitioningEnabled);
     dbSqlSessionFactory.setCmmnEnabled(cmmnEnabled);
     dbSqlSessionFactory.setDmnEnabled(dmnEnabled);
     dbSqlSessionFactory.setDatabaseTablePrefix(databaseTablePrefix);
@@ -1336,7 +1496,9 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected List<BpmnParseListener> getDefaultBPMNParseListeners() {
     List<BpmnParseListener> defaultListeners = new ArrayList<BpmnParseListener>();
-    if (!HistoryLevel.HISTORY_LEVEL_NONE.equals(historyLevel)) {
+    // the history levels of process definitions are resolved (and validated) by the history parse listener
+    if (historyLevel.getId() != HistoryLevel.HISTORY_LEVEL_NONE.getId()
+        || isProcessDefinitionHistoryLevelEnabled) {
       defaultListeners.add(new HistoryParseListener(historyLevel, historyEventProducer));
     }
     if(isMetricsEnabled) {
@@ -1375,7 +1537,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected List<CmmnTransformListener> getDefaultCmmnTransformListeners() {
     List<CmmnTransformListener> defaultListener = new ArrayList<CmmnTransformListener>();
-    if (!HistoryLevel.HISTORY_LEVEL_NONE.equals(historyLevel)) {
+    if (historyLevel.getId() != HistoryLevel.HISTORY_LEVEL_NONE.getId()) {
       defaultListener.add(new CmmnHistoryTransformListener(historyLevel, cmmnHistoryEventProducer));
     }
     if(isMetricsEnabled) {
@@ -1529,6 +1691,11 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
         throw new ProcessEngineException("invalid history level: "+history);
       }
     }
+
+    if (isProcessDefinitionHistoryLevelEnabled && historyLevel != null
+        && !(historyLevel instanceof ProcessDefinitionHistoryLevel)) {
+      historyLevel = new ProcessDefinitionHistoryLevel(historyLevel);
+    }
   }
 
   // id generator /////////////////////////////////////////////////////////////
@@ -1620,6 +1787,12 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     metricsRegistry.createMeter(Metrics.JOB_EXECUTION_REJECTED);
 
     metricsRegistry.createMeter(Metrics.EXECUTED_DECISION_ELEMENTS);
+
+    metricsRegistry.createMeter(Metrics.EXECUTION_TREE_PREFETCH_QUERIES);
+    metricsRegistry.createMeter(Metrics.EXECUTION_TREE_LAZY_LOADS_AVOIDED);
+
+    metricsRegistry.createMeter(Metrics.DESERIALIZED_VALUE_CACHE_HITS);
+    metricsRegistry.createMeter(Metrics.DESERIALIZED_VALUE_CACHE_MISSES);
   }
 
   protected void initSerialization() {
@@ -1643,6 +1816,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       variableSerializers.addSerializer(new DoubleValueSerializer());
       variableSerializers.addSerializer(new ByteArrayValueSerializer());
       variableSerializers.addSerializer(new JavaObjectSerializer());
+      variableSerializers.addSerializer(new CompactBinaryObjectSerializer(compactBinaryCodecs));
       variableSerializers.addSerializer(new FileValueSerializer());
 
       if (customPostVariableSerializers!=null) {
@@ -1876,7 +2050,12 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected void initHistoryEventHandler() {
     if(historyEventHandler == null) {
-      historyEventHandler = new DbHistoryEventHandler();
+      if (isAsyncHistoryEnabled) {
+        historyEventHandler = new AsyncHistoryEventHandler(asyncHistoryQueueCapacity);
+      }
+      else {
+        historyEventHandler = new DbHistoryEventHandler();
+      }
     }
   }
 
@@ -1917,6 +2096,89 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     }
   }
 
+  protected void initFilterCountCache() {
+    if (isFilterCountCacheEnabled && filterCountCache == null) {
+      filterCountCache = new FilterCountCache(filterCountCacheMaxSize, filterCountCacheTimeToLive);
+    }
+  }
+
+  protected void initRuntimeStatisticsCache() {
+    if (isRuntimeStatisticsCacheEnabled && runtimeStatisticsCache == null) {
+      runtimeStatisticsCache = new RuntimeStatisticsCache(runtimeStatisticsCacheTimeToLive);
+    }
+  }
+
+  protected void initExecutionTreePrefetchProfile() {
+    if (executionTreePrefetchProfile == null) {
+      executionTreePrefetchProfile = ExecutionTreePrefetchProfile.parse(executionTreePrefetchProfileName);
+    }
+  }
+
+  protected void initAsyncHistoryEventWriter() {
+    if (asyncHistoryEventWriter == null && historyEventHandler instanceof AsyncHistoryEventHandler) {
+      AsyncHistoryEventHandler asyncHistoryEventHandler = (AsyncHistoryEventHandler) historyEventHandler;
+      asyncHistoryEventWriter = new AsyncHistoryEventWriter(asyncHistoryEventHandler.getCommittedEntryIds(),
+          commandExecutorTxRequiresNew, new BatchDbHistoryEventHandler());
+      asyncHistoryEventWriter.setBatchSize(asyncHistoryBatchSize);
+      asyncHistoryEventWriter.setMaxAttempts(asyncHistoryMaxAttempts);
+    }
+  }
+
+  protected void initHistoricDurationAggregator() {
+    if (historicDurationAggregator == null && isHistoricDurationAggregationEnabled) {
+      historicDurationAggregator = new HistoricDurationAggregator(commandExecutorTxRequired);
+      historicDurationAggregator.setIntervalInSeconds(historicDurationAggregationIntervalInSeconds);
+      historicDurationAggregator.setBatchSize(historicDurationAggregationBatchSize);
+    }
+  }
+
+  // shared entity cache /////////////////////////////////////////////////////
+
+  protected void initSharedEntityCache() {
+    if (sharedEntityCache == null && isSharedEntityCacheEnabled) {
+      if (sharedEntityCacheEntityTypes == null) {
+        sharedEntityCacheEntityTypes = SharedEntityCache.DEFAULT_ENTITY_TYPES;
+      }
+      sharedEntityCache = new SharedEntityCache(sharedEntityCacheEntityTypes, sharedEntityCacheMaxEntriesPerType);
+    }
+
+    if (sharedEntityCacheRevisionPoller == null && sharedEntityCache != null && sharedEntityCacheRevisionPollingIntervalInSeconds > 0) {
+      sharedEntityCacheRevisionPoller = new SharedEntityCacheRevisionPoller(sharedEntityCache,
+          commandExecutorTxRequired, sharedEntityCacheRevisionPollingIntervalInSeconds);
+    }
+  }
+
+  // deserialized value cache ///////////////////////////////////////////////
+
+  protected void initDeserializedValueCache() {
+    if (deserializedValueCache == null && isDeserializedValueCacheEnabled) {
+      deserializedValueCache = new DeserializedValueCache(deserializedValueCacheMaxEntries,
+          deserializedValueCacheMaxSize, deserializedValueCacheImmutableTypes);
+    }
+  }
+
+  // read-only data source ///////////////////////////////////////////////////
+
+  protected void initReadOnlyQueryRouting() {
+    if (readOnlyDataSource != null) {
+      if (readOnlyQueryRoutingPolicy == null) {
+        readOnlyQueryRoutingPolicy = new DefaultReadOnlyQueryRoutingPolicy();
+      }
+
+      if (commandExecutorReadOnly == null) {
+        ReadOnlyDbSqlSessionFactory readOnlyDbSqlSessionFactory = new ReadOnlyDbSqlSessionFactory(dbSqlSessionFactory, readOnlyDataSource);
+        ReadOnlyCommandContextFactory readOnlyCommandContextFactory = new ReadOnlyCommandContextFactory(this, readOnlyDbSqlSessionFactory);
+
+        List<CommandInterceptor> commandInterceptorsReadOnly = new ArrayList<CommandInterceptor>();
+        commandInterceptorsReadOnly.add(new LogInterceptor());
+        commandInterceptorsReadOnly.add(new ProcessApplicationContextInterceptor(this));
+        commandInterceptorsReadOnly.add(new CommandContextInterceptor(readOnlyCommandContextFactory, this, true));
+        commandInterceptorsReadOnly.add(actualCommandExecutor);
+        commandExecutorReadOnly = initInterceptorChain(commandInterceptorsReadOnly);
+      }
+    }
+  }
+
   // getters and setters //////////////////////////////////////////////////////
 
   @Override
@@ -2958,6 +3220,24 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     this.isExecutionTreePrefetchEnabled = isExecutionTreePrefetchingEnabled;
   }
 
+  public String getExecutionTreePrefetchProfileName() {
+    return executionTreePrefetchProfileName;
+  }
+
+  public ProcessEngineConfigurationImpl setExecutionTreePrefetchProfileName(String executionTreePrefetchProfileName) {
+    this.executionTreePrefetchProfileName = executionTreePrefetchProfileName;
+    return this;
+  }
+
+  public ExecutionTreePrefetchProfile getExecutionTreePrefetchProfile() {
+    return executionTreePrefetchProfile;
+  }
+
+  public ProcessEngineConfigurationImpl setExecutionTreePrefetchProfile(ExecutionTreePrefetchProfile executionTreePrefetchProfile) {
+    this.executionTreePrefetchProfile = executionTreePrefetchProfile;
+    return this;
+  }
+
   public ProcessEngineImpl getProcessEngine() {
     return processEngine;
   }
@@ -3412,4 +3692,346 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return isUseSharedSqlSessionFactory;
   }
 
+  public boolean isFilterCountCacheEnabled() {
+    return isFilterCountCacheEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setFilterCountCacheEnabled(boolean isFilterCountCacheEnabled) {
+    this.isFilterCountCacheEnabled = isFilterCountCacheEnabled;
+    return this;
+  }
+
+  public int getFilterCountCacheMaxSize() {
+    return filterCountCacheMaxSize;
+  }
+
+  public ProcessEngineConfigurationImpl setFilterCountCacheMaxSize(int filterCountCacheMaxSize) {
+    this.filterCountCacheMaxSize = filterCountCacheMaxSize;
+    return this;
+  }
+
+  public long getFilterCountCacheTimeToLive() {
+    return filterCountCacheTimeToLive;
+  }
+
+  public ProcessEngineConfigurationImpl setFilterCountCacheTimeToLive(long filterCountCacheTimeToLive) {
+    this.filterCountCacheTimeToLive = filterCountCacheTimeToLive;
+    return this;
+  }
+
+  public FilterCountCache getFilterCountCache() {
+    return filterCountCache;
+  }
+
+  public ProcessEngineConfigurationImpl setFilterCountCache(FilterCountCache filterCountCache) {
+    this.filterCountCache = filterCountCache;
+    return this;
+  }
+
+  public boolean isAsyncHistoryEnabled() {
+    return isAsyncHistoryEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryEnabled(boolean isAsyncHistoryEnabled) {
+    this.isAsyncHistoryEnabled = isAsyncHistoryEnabled;
+    return this;
+  }
+
+  public int getAsyncHistoryQueueCapacity() {
+    return asyncHistoryQueueCapacity;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryQueueCapacity(int asyncHistoryQueueCapacity) {
+    this.asyncHistoryQueueCapacity = asyncHistoryQueueCapacity;
+    return this;
+  }
+
+  public int getAsyncHistoryBatchSize() {
+    return asyncHistoryBatchSize;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryBatchSize(int asyncHistoryBatchSize) {
+    this.asyncHistoryBatchSize = asyncHistoryBatchSize;
+    return this;
+  }
+
+  public int getAsyncHistoryMaxAttempts() {
+    return asyncHistoryMaxAttempts;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryMaxAttempts(int asyncHistoryMaxAttempts) {
+    this.asyncHistoryMaxAttempts = asyncHistoryMaxAttempts;
+    return this;
+  }
+
+  public AsyncHistoryEventWriter getAsyncHistoryEventWriter() {
+    return asyncHistoryEventWriter;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryEventWriter(AsyncHistoryEventWriter asyncHistoryEventWriter) {
+    this.asyncHistoryEventWriter = asyncHistoryEventWriter;
+    return this;
+  }
+
+  public boolean isProcessDefinitionHistoryLevelEnabled() {
+    return isProcessDefinitionHistoryLevelEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setProcessDefinitionHistoryLevelEnabled(boolean isProcessDefinitionHistoryLevelEnabled) {
+    this.isProcessDefinitionHistoryLevelEnabled = isProcessDefinitionHistoryLevelEnabled;
+    return this;
+  }
+
+  public Map<String, String> getProcessDefinitionHistoryLevels() {
+    return processDefinitionHistoryLevels;
+  }
+
+  public ProcessEngineConfigurationImpl setProcessDefinitionHistoryLevels(Map<String, String> processDefinitionHistoryLevels) {
+    this.processDefinitionHistoryLevels = processDefinitionHistoryLevels;
+    return this;
+  }
+
+  public boolean isRuntimeStatisticsCacheEnabled() {
+    return isRuntimeStatisticsCacheEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setRuntimeStatisticsCacheEnabled(boolean isRuntimeStatisticsCacheEnabled) {
+    this.isRuntimeStatisticsCacheEnabled = isRuntimeStatisticsCacheEnabled;
+    return this;
+  }
+
+  public long getRuntimeStatisticsCacheTimeToLive() {
+    return runtimeStatisticsCacheTimeToLive;
+  }
+
+  public ProcessEngineConfigurationImpl setRuntimeStatisticsCacheTimeToLive(long runtimeStatisticsCacheTimeToLive) {
+    this.runtimeStatisticsCacheTimeToLive = runtimeStatisticsCacheTimeToLive;
+    return this;
+  }
+
+  public RuntimeStatisticsCache getRuntimeStatisticsCache() {
+    return runtimeStatisticsCache;
+  }
+
+  public ProcessEngineConfigurationImpl setRuntimeStatisticsCache(RuntimeStatisticsCache runtimeStatisticsCache) {
+    this.runtimeStatisticsCache = runtimeStatisticsCache;
+    return this;
+  }
+
+  public boolean isHistoricDurationAggregationEnabled() {
+    return isHistoricDurationAggregationEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoricDurationAggregationEnabled(boolean isHistoricDurationAggregationEnabled) {
+    this.isHistoricDurationAggregationEnabled = isHistoricDurationAggregationEnabled;
+    return this;
+  }
+
+  public long getHistoricDurationAggregationIntervalInSeconds() {
+    return historicDurationAggregationIntervalInSeconds;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoricDurationAggregationIntervalInSeconds(long historicDurationAggregationIntervalInSeconds) {
+    this.historicDurationAggregationIntervalInSeconds = historicDurationAggregationIntervalInSeconds;
+    return this;
+  }
+
+  public int getHistoricDurationAggregationBatchSize() {
+    return historicDurationAggregationBatchSize;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoricDurationAggregationBatchSize(int historicDurationAggregationBatchSize) {
+    this.historicDurationAggregationBatchSize = historicDurationAggregationBatchSize;
+    return this;
+  }
+
+  public HistoricDurationAggregator getHistoricDurationAggregator() {
+    return historicDurationAggregator;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoricDurationAggregator(HistoricDurationAggregator historicDurationAggregator) {
+    this.historicDurationAggregator = historicDurationAggregator;
+    return this;
+  }
+
+  public DataSource getReadOnlyDataSource() {
+    return readOnlyDataSource;
+  }
+
+  public ProcessEngineConfigurationImpl setReadOnlyDataSource(DataSource readOnlyDataSource) {
+    this.readOnlyDataSource = readOnlyDataSource;
+    return this;
+  }
+
+  public ReadOnlyQueryRoutingPolicy getReadOnlyQueryRoutingPolicy() {
+    return readOnlyQueryRoutingPolicy;
+  }
+
+  public ProcessEngineConfigurationImpl setReadOnlyQueryRoutingPolicy(ReadOnlyQueryRoutingPolicy readOnlyQueryRoutingPolicy) {
+    this.readOnlyQueryRoutingPolicy = readOnlyQueryRoutingPolicy;
+    return this;
+  }
+
+  public CommandExecutor getCommandExecutorReadOnly() {
+    return commandExecutorReadOnly;
+  }
+
+  public ProcessEngineConfigurationImpl setCommandExecutorReadOnly(CommandExecutor commandExecutorReadOnly) {
+    this.commandExecutorReadOnly = commandExecutorReadOnly;
+    return this;
+  }
+
+  public boolean isSharedEntityCacheEnabled() {
+    return isSharedEntityCacheEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setSharedEntityCacheEnabled(boolean isSharedEntityCacheEnabled) {
+    this.isSharedEntityCacheEnabled = isSharedEntityCacheEnabled;
+    return this;
+  }
+
+  public List<Class<? extends DbEntity>> getSharedEntityCacheEntityTypes() {
+    return sharedEntityCacheEntityTypes;
+  }
+
+  public ProcessEngineConfigurationImpl setSharedEntityCacheEntityTypes(List<Class<? extends DbEntity>> sharedEntityCacheEntityTypes) {
+    this.sharedEntityCacheEntityTypes = sharedEntityCacheEntityTypes;
+    return this;
+  }
+
+  public int getSharedEntityCacheMaxEntriesPerType() {
+    return sharedEntityCacheMaxEntriesPerType;
+  }
+
+  public ProcessEngineConfigurationImpl setSharedEntityCacheMaxEntriesPerType(int sharedEntityCacheMaxEntriesPerType) {
+    this.sharedEntityCacheMaxEntriesPerType = sharedEntityCacheMaxEntriesPerType;
+    return this;
+  }
+
+  public long getSharedEntityCacheRevisionPollingIntervalInSeconds() {
+    return sharedEntityCacheRevisionPollingIntervalInSeconds;
+  }
+
+  public ProcessEngineConfigurationImpl setSharedEntityCacheRevisionPollingIntervalInSeconds(long sharedEntityCacheRevisionPollingIntervalInSeconds) {
+    this.sharedEntityCacheRevisionPollingIntervalInSeconds = sharedEntityCacheRevisionPollingIntervalInSeconds;
+    return this;
+  }
+
+  public SharedEntityCache getSharedEntityCache() {
+    return sharedEntityCache;
+  }
+
+  public ProcessEngineConfigurationImpl setSharedEntityCache(SharedEntityCache sharedEntityCache) {
+    this.sharedEntityCache = sharedEntityCache;
+    return this;
+  }
+
+  public SharedEntityCacheRevisionPoller getSharedEntityCacheRevisionPoller() {
+    return sharedEntityCacheRevisionPoller;
+  }
+
+  public ProcessEngineConfigurationImpl setSharedEntityCacheRevisionPoller(SharedEntityCacheRevisionPoller sharedEntityCacheRevisionPoller) {
+    this.sharedEntityCacheRevisionPoller = sharedEntityCacheRevisionPoller;
+    return this;
+  }
+
+  public SqlStatementProfiler getSqlStatementProfiler() {
+    return sqlStatementProfiler;
+  }
+
+  public ProcessEngineConfigurationImpl setSqlStatementProfiler(SqlStatementProfiler sqlStatementProfiler) {
+    this.sqlStatementProfiler = sqlStatementProfiler;
+    return this;
+  }
+
+  public boolean isByteArrayCompressionEnabled() {
+    return isByteArrayCompressionEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setByteArrayCompressionEnabled(boolean isByteArrayCompressionEnabled) {
+    this.isByteArrayCompressionEnabled = isByteArrayCompressionEnabled;
+    return this;
+  }
+
+  public int getByteArrayCompressionThreshold() {
+    return byteArrayCompressionThreshold;
+  }
+
+  public ProcessEngineConfigurationImpl setByteArrayCompressionThreshold(int byteArrayCompressionThreshold) {
+    this.byteArrayCompressionThreshold = byteArrayCompressionThreshold;
+    return this;
+  }
+
+  public int getByteArrayDecompressionMaxSize() {
+    return byteArrayDecompressionMaxSize;
+  }
+
+  public ProcessEngineConfigurationImpl setByteArrayDecompressionMaxSize(int byteArrayDecompressionMaxSize) {
+    this.byteArrayDecompressionMaxSize = byteArrayDecompressionMaxSize;
+    return this;
+  }
+
+  public List<CompactBinaryCodec<?>> getCompactBinaryCodecs() {
+    return compactBinaryCodecs;
+  }
+
+  public ProcessEngineConfigurationImpl setCompactBinaryCodecs(List<CompactBinaryCodec<?>> compactBinaryCodecs) {
+    this.compactBinaryCodecs = compactBinaryCodecs;
+    return this;
+  }
+
+  public boolean isDeserializedValueCacheEnabled() {
+    return isDeserializedValueCacheEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setDeserializedValueCacheEnabled(boolean isDeserializedValueCacheEnabled) {
+    this.isDeserializedValueCacheEnabled = isDeserializedValueCacheEnabled;
+    return this;
+  }
+
+  public int getDeserializedValueCacheMaxEntries() {
+    return deserializedValueCacheMaxEntries;
+  }
+
+  public ProcessEngineConfigurationImpl setDeserializedValueCacheMaxEntries(int deserializedValueCacheMaxEntries) {
+    this.deserializedValueCacheMaxEntries = deserializedValueCacheMaxEntries;
+    return this;
+  }
+
+  public long getDeserializedValueCacheMaxSize() {
+    return deserializedValueCacheMaxSize;
+  }
+
+  public ProcessEngineConfigurationImpl setDeserializedValueCacheMaxSize(long deserializedValueCacheMaxSize) {
+    this.deserializedValueCacheMaxSize = deserializedValueCacheMaxSize;
+    return this;
+  }
+
+  public List<String> getDeserializedValueCacheImmutableTypes() {
+    return deserializedValueCacheImmutableTypes;
+  }
+
+  public ProcessEngineConfigurationImpl setDeserializedValueCacheImmutableTypes(List<String> deserializedValueCacheImmutableTypes) {
+    this.deserializedValueCacheImmutableTypes = deserializedValueCacheImmutableTypes;
+    return this;
+  }
+
+  public DeserializedValueCache getDeserializedValueCache() {
+    return deserializedValueCache;
+  }
+
+  public ProcessEngineConfigurationImpl setDeserializedValueCache(DeserializedValueCache deserializedValueCache) {
+    this.deserializedValueCache = deserializedValueCache;
+    return this;
+  }
+
+  public boolean isHistoryPartitioningEnabled() {
+    return isHistoryPartitioningEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryPartitioningEnabled(boolean isHistoryPartitioningEnabled) {
+    this.isHistoryPartitioningEnabled = isHistoryPartitioningEnabled;
+    return this;
+  }
+
 }
@@ -0,0 +1,31 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cfg;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+
+/**
+ * Decides which commands are executed on the read-only data source of the process
+ * engine. Only commands which do not change any data may be routed, and their
+ * results may lag behind the primary data source.
+ *
+ * @see ProcessEngineConfigurationImpl#setReadOnlyDataSource(javax.sql.DataSource)
+ */
+public interface ReadOnlyQueryRoutingPolicy {
+
+  /**
+   * @return true if the command should be executed on the read-only data source
+   */
+  boolean isReadOnly(Command<?> command);
+
+}
@@ -26,6 +26,7 @@ import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.jobexecutor.AcquiredJobs;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorLane;
 import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
 import org.camunda.bpm.engine.impl.util.ClockUtil;
 
@@ -40,23 +41,31 @@ public class AcquireJobsCmd implements Command<AcquiredJobs>, OptimisticLockingL
 
   protected AcquiredJobs acquiredJobs;
   protected int numJobsToAcquire;
+  protected JobExecutorLane lane;
 
   public AcquireJobsCmd(JobExecutor jobExecutor) {
     this(jobExecutor, jobExecutor.getMaxJobsPerAcquisition());
   }
 
   public AcquireJobsCmd(JobExecutor jobExecutor, int numJobsToAcquire) {
+    this(jobExecutor, numJobsToAcquire, null);
+  }
+
+  /**
+   * @param lane the lane to acquire jobs for; if null, jobs are acquired for the
+   * default thread pool, i.e. jobs matching any of the job executor's lanes are not acquired
+   */
+  public AcquireJobsCmd(JobExecutor jobExecutor, int numJobsToAcquire, JobExecutorLane lane) {
     this.jobExecutor = jobExecutor;
     this.numJobsToAcquire = numJobsToAcquire;
+    this.lane = lane;
   }
 
   public AcquiredJobs execute(CommandContext commandContext) {
 
     acquiredJobs = new AcquiredJobs(numJobsToAcquire);
 
-    List<JobEntity> jobs = commandContext
-      .getJobManager()
-      .findNextJobsToExecute(new Page(0, numJobsToAcquire));
+    List<JobEntity> jobs = findNextJobsToExecute(commandContext);
 
     for (JobEntity job : jobs) {
 
@@ -64,11 +73,11 @@ public class AcquireJobsCmd implements Command<AcquiredJobs>, OptimisticLockingL
 
         if (job.isExclusive() && job.getProcessInstanceId() != null) {
           List<String> jobIds = lockExclusiveJobs(commandContext, job);
-          acquiredJobs.addJobIdBatch(jobIds);
+          acquiredJobs.addJobIdBatch(jobIds, job.getPriority());
 
         } else {
           lockJob(job);
-          acquiredJobs.addJobIdBatch(job.getId());
+          acquiredJobs.addJobIdBatch(job.getId(), job.getPriority());
         }
       }
     }
@@ -82,6 +91,27 @@ public class AcquireJobsCmd implements Command<AcquiredJobs>, OptimisticLockingL
     return acquiredJobs;
   }
 
+  protected List<JobEntity> findNextJobsToExecute(CommandContext commandContext) {
+    Page page = new Page(0, numJobsToAcquire);
+    List<JobExecutorLane> lanes = jobExecutor.getLanes();
+
+    if (lane == null && lanes.isEmpty()) {
+      return commandContext.getJobManager().findNextJobsToExecute(page);
+    }
+    else if (lane == null) {
+      for (JobExecutorLane excludedLane : lanes) {
+        if (!excludedLane.hasCriteria()) {
+          // the lane takes all jobs
+          return new ArrayList<JobEntity>();
+        }
+      }
+      return commandContext.getJobManager().findNextJobsToExecute(page, null, lanes);
+    }
+    else {
+      return commandContext.getJobManager().findNextJobsToExecute(page, lane, null);
+    }
+  }
+
   protected List<String> lockExclusiveJobs(CommandContext commandContext, JobEntity job) {
     List<String> jobIds = new ArrayList<String>();
 
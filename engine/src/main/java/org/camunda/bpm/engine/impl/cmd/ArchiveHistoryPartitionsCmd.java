@@ -0,0 +1,66 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryPartitionManager;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryPartitionedTable;
+
+/**
+ * Removes the monthly partitions of the partitioned history tables which only hold rows
+ * older than the given date. Unless <code>delete</code> is true, the partitions are kept
+ * as standalone archive tables.
+ */
+public class ArchiveHistoryPartitionsCmd implements Command<List<String>>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  protected Date expiredBefore;
+  protected boolean delete;
+
+  public ArchiveHistoryPartitionsCmd(Date expiredBefore, boolean delete) {
+    this.expiredBefore = expiredBefore;
+    this.delete = delete;
+  }
+
+  public List<String> execute(CommandContext commandContext) {
+    ensureNotNull("expiredBefore", expiredBefore);
+
+    commandContext.getAuthorizationManager().checkCamundaAdmin();
+
+    HistoryPartitionManager partitionManager = commandContext.getHistoryPartitionManager();
+    partitionManager.ensureHistoryPartitioningSupported();
+
+    List<String> archivedPartitions = new ArrayList<String>();
+
+    for (HistoryPartitionedTable table : HistoryPartitionManager.PARTITIONED_TABLES) {
+      for (Date month : partitionManager.findHistoryPartitionMonths(table)) {
+        Date end = HistoryPartitionManager.addMonths(month, 1);
+        if (!end.after(expiredBefore)) {
+          archivedPartitions.add(partitionManager.archiveHistoryPartition(table, month, delete));
+        }
+      }
+    }
+
+    return archivedPartitions;
+  }
+
+}
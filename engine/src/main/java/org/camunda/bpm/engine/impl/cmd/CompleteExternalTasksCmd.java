@@ -0,0 +1,48 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.persistence.entity.ExternalTaskEntity;
+
+public class CompleteExternalTasksCmd extends HandleExternalTasksCmd {
+
+  protected Map<String, Map<String, Object>> variablesByExternalTaskId;
+
+  public CompleteExternalTasksCmd(List<String> externalTaskIds, String workerId) {
+    super(externalTaskIds, workerId);
+  }
+
+  public CompleteExternalTasksCmd(Map<String, Map<String, Object>> variablesByExternalTaskId, String workerId) {
+    super(variablesByExternalTaskId != null ? new ArrayList<String>(variablesByExternalTaskId.keySet()) : null, workerId);
+    this.variablesByExternalTaskId = variablesByExternalTaskId;
+  }
+
+  @Override
+  public String getErrorMessageOnWrongWorkerAccess(String externalTaskId) {
+    return "External Task " + externalTaskId + " cannot be completed by worker '" + workerId;
+  }
+
+  @Override
+  protected void execute(ExternalTaskEntity externalTask) {
+    Map<String, Object> variables = null;
+    if (variablesByExternalTaskId != null) {
+      variables = variablesByExternalTaskId.get(externalTask.getId());
+    }
+    externalTask.complete(variables);
+  }
+
+}
@@ -0,0 +1,82 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryPartitionManager;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryPartitionedTable;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+
+/**
+ * Creates the missing monthly partitions of the partitioned history tables up to the month
+ * of the given date. The partitions start with the current month, or with the month of the
+ * oldest row which is not stored in a monthly partition yet, so that such rows can be archived, too.
+ */
+public class CreateHistoryPartitionsCmd implements Command<List<String>>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  protected Date until;
+
+  public CreateHistoryPartitionsCmd(Date until) {
+    this.until = until;
+  }
+
+  public List<String> execute(CommandContext commandContext) {
+    ensureNotNull("until", until);
+
+    commandContext.getAuthorizationManager().checkCamundaAdmin();
+
+    HistoryPartitionManager partitionManager = commandContext.getHistoryPartitionManager();
+    partitionManager.ensureHistoryPartitioningSupported();
+
+    Date lastMonth = HistoryPartitionManager.getMonth(until);
+    List<String> createdPartitions = new ArrayList<String>();
+
+    for (HistoryPartitionedTable table : HistoryPartitionManager.PARTITIONED_TABLES) {
+      List<Date> existingMonths = partitionManager.findHistoryPartitionMonths(table);
+
+      Date month;
+      if (existingMonths.isEmpty()) {
+        month = HistoryPartitionManager.getMonth(ClockUtil.getCurrentTime());
+      }
+      else {
+        month = HistoryPartitionManager.addMonths(existingMonths.get(existingMonths.size() - 1), 1);
+      }
+
+      // e.g. rows of months which were not partitioned in time
+      Date oldestUnpartitionedMonth = partitionManager.findOldestUnpartitionedMonth(table);
+      if (oldestUnpartitionedMonth != null && oldestUnpartitionedMonth.before(month)) {
+        month = oldestUnpartitionedMonth;
+      }
+
+      while (!month.after(lastMonth)) {
+        if (!existingMonths.contains(month)) {
+          createdPartitions.add(partitionManager.createHistoryPartition(table, month));
+        }
+        month = HistoryPartitionManager.addMonths(month, 1);
+      }
+    }
+
+    return createdPartitions;
+  }
+
+}
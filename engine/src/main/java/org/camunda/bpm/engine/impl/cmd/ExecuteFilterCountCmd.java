@@ -14,8 +14,10 @@
 package org.camunda.bpm.engine.impl.cmd;
 
 import org.camunda.bpm.engine.filter.Filter;
+import org.camunda.bpm.engine.impl.filter.FilterCountCache;
 import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.FilterEntity;
 import org.camunda.bpm.engine.query.Query;
 
 /**
@@ -35,7 +37,27 @@ public class ExecuteFilterCountCmd extends AbstractExecuteFilterCmd implements C
 
   public Long execute(CommandContext commandContext) {
     Filter filter = getFilter(commandContext);
-    return filter.getQuery().count();
+
+    FilterCountCache filterCountCache = commandContext.getProcessEngineConfiguration().getFilterCountCache();
+    if (filterCountCache == null) {
+      return filter.getQuery().count();
+    }
+
+    // counts with an extending query are cached by the json of the extended query
+    String query = null;
+    if (extendingQuery != null) {
+      query = ((FilterEntity) filter).getQueryInternal();
+    }
+
+    Long count = filterCountCache.getCount(filterId, query, commandContext);
+    if (count == null) {
+      // obtain the version before the query is executed to detect concurrent modifications
+      long version = filterCountCache.getVersion();
+      count = filter.getQuery().count();
+      filterCountCache.putCount(filterId, query, commandContext, count, version);
+    }
+
+    return count;
   }
 
 }
@@ -0,0 +1,66 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.impl.util.EnsureUtil;
+
+/**
+ * Extends the lock expiration time of jobs which are locked by the given lock owner.
+ * Jobs which do not exist anymore or are locked by a different owner are ignored.
+ *
+ * @see org.camunda.bpm.engine.impl.jobexecutor.JobLockHeartbeat
+ */
+public class ExtendJobLocksCmd implements Command<Void> {
+
+  /** limits the size of the IN clause of a single update statement */
+  protected static final int MAX_JOB_IDS_PER_STATEMENT = 500;
+
+  protected List<String> jobIds;
+  protected String lockOwner;
+  protected int lockTimeInMillis;
+
+  public ExtendJobLocksCmd(List<String> jobIds, String lockOwner, int lockTimeInMillis) {
+    this.jobIds = jobIds;
+    this.lockOwner = lockOwner;
+    this.lockTimeInMillis = lockTimeInMillis;
+  }
+
+  public Void execute(CommandContext commandContext) {
+    EnsureUtil.ensureNotNull("jobIds", jobIds);
+    EnsureUtil.ensureNotNull("lockOwner", lockOwner);
+
+    GregorianCalendar gregorianCalendar = new GregorianCalendar();
+    gregorianCalendar.setTime(ClockUtil.getCurrentTime());
+    gregorianCalendar.add(Calendar.MILLISECOND, lockTimeInMillis);
+    Date lockExpirationTime = gregorianCalendar.getTime();
+
+    for (int i = 0; i < jobIds.size(); i += MAX_JOB_IDS_PER_STATEMENT) {
+      List<String> jobIdsChunk = jobIds.subList(i, Math.min(i + MAX_JOB_IDS_PER_STATEMENT, jobIds.size()));
+
+      commandContext
+        .getJobManager()
+        .updateJobLockExpirationTime(jobIdsChunk, lockOwner, lockExpirationTime);
+    }
+
+    return null;
+  }
+
+}
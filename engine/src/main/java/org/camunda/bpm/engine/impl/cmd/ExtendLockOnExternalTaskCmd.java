@@ -0,0 +1,47 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import org.camunda.bpm.engine.BadUserRequestException;
+import org.camunda.bpm.engine.impl.persistence.entity.ExternalTaskEntity;
+import org.camunda.bpm.engine.impl.util.EnsureUtil;
+
+public class ExtendLockOnExternalTaskCmd extends HandleExternalTaskCmd {
+
+  protected long newLockDuration;
+
+  public ExtendLockOnExternalTaskCmd(String externalTaskId, String workerId, long newLockDuration) {
+    super(externalTaskId, workerId);
+    this.newLockDuration = newLockDuration;
+  }
+
+  @Override
+  protected void validateInput() {
+    super.validateInput();
+    EnsureUtil.ensurePositive(BadUserRequestException.class, "newLockDuration", newLockDuration);
+  }
+
+  @Override
+  public String getErrorMessageOnWrongWorkerAccess() {
+    return "The lock of External Task " + externalTaskId + " cannot be extended by worker '" + workerId;
+  }
+
+  @Override
+  protected void execute(ExternalTaskEntity externalTask) {
+    if (externalTask.isLockExpired()) {
+      throw new BadUserRequestException("The lock of External Task " + externalTaskId + " has already expired");
+    }
+    externalTask.extendLock(newLockDuration);
+  }
+
+}
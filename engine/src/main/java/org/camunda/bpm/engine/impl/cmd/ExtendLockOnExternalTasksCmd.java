@@ -0,0 +1,56 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.BadUserRequestException;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.ExternalTaskEntity;
+import org.camunda.bpm.engine.impl.util.EnsureUtil;
+
+public class ExtendLockOnExternalTasksCmd extends HandleExternalTasksCmd {
+
+  protected long newLockDuration;
+
+  public ExtendLockOnExternalTasksCmd(List<String> externalTaskIds, String workerId, long newLockDuration) {
+    super(externalTaskIds, workerId);
+    this.newLockDuration = newLockDuration;
+  }
+
+  @Override
+  protected void validateInput() {
+    super.validateInput();
+    EnsureUtil.ensurePositive(BadUserRequestException.class, "newLockDuration", newLockDuration);
+  }
+
+  @Override
+  protected String checkExternalTask(CommandContext commandContext, String externalTaskId, ExternalTaskEntity externalTask) {
+    String errorMessage = super.checkExternalTask(commandContext, externalTaskId, externalTask);
+    if (errorMessage == null && externalTask.isLockExpired()) {
+      errorMessage = "The lock of External Task " + externalTaskId + " has already expired";
+    }
+    return errorMessage;
+  }
+
+  @Override
+  public String getErrorMessageOnWrongWorkerAccess(String externalTaskId) {
+    return "The lock of External Task " + externalTaskId + " cannot be extended by worker '" + workerId;
+  }
+
+  @Override
+  protected void execute(ExternalTaskEntity externalTask) {
+    externalTask.extendLock(newLockDuration);
+  }
+
+}
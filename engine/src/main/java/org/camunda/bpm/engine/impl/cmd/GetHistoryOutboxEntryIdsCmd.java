@@ -0,0 +1,38 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+/**
+ * Returns the ids of the outbox entries which are not written yet, in the order
+ * in which they must be written.
+ */
+public class GetHistoryOutboxEntryIdsCmd implements Command<List<String>> {
+
+  protected int maxResults;
+
+  public GetHistoryOutboxEntryIdsCmd(int maxResults) {
+    this.maxResults = maxResults;
+  }
+
+  public List<String> execute(CommandContext commandContext) {
+    return commandContext
+      .getHistoryOutboxManager()
+      .findPendingHistoryOutboxEntryIds(maxResults);
+  }
+
+}
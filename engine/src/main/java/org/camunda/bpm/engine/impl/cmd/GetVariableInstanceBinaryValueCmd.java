@@ -0,0 +1,61 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
+
+import java.io.OutputStream;
+
+import org.camunda.bpm.engine.impl.cfg.CommandChecker;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
+
+/**
+ * Writes the content of a binary variable to an output stream without loading it into memory.
+ * Returns false if the variable has no content, i.e. its value is null.
+ */
+public class GetVariableInstanceBinaryValueCmd extends VariableInstanceBinaryValueCmd<Boolean> {
+
+  protected OutputStream outputStream;
+
+  public GetVariableInstanceBinaryValueCmd(String variableInstanceId, OutputStream outputStream) {
+    super(variableInstanceId);
+    this.outputStream = outputStream;
+  }
+
+  protected void validateInput() {
+    ensureNotNull("outputStream", outputStream);
+  }
+
+  protected void checkTask(CommandChecker checker, TaskEntity task) {
+    checker.checkReadTask(task);
+  }
+
+  protected void checkProcessInstance(CommandChecker checker, String processInstanceId) {
+    checker.checkReadProcessInstance(processInstanceId);
+  }
+
+  protected Boolean execute(VariableInstanceEntity variable, CommandContext commandContext) {
+    String byteArrayId = variable.getByteArrayValueId();
+
+    if (byteArrayId == null) {
+      return false;
+    }
+
+    return commandContext
+      .getByteArrayManager()
+      .writeByteArrayContent(byteArrayId, outputStream);
+  }
+
+}
@@ -0,0 +1,53 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.persistence.entity.ExternalTaskEntity;
+import org.camunda.bpm.engine.impl.util.EnsureUtil;
+
+public class HandleExternalTaskFailuresCmd extends HandleExternalTasksCmd {
+
+  protected String errorMessage;
+  protected String errorDetails;
+  protected int retries;
+  protected long retryDuration;
+
+  public HandleExternalTaskFailuresCmd(List<String> externalTaskIds, String workerId,
+                                       String errorMessage, String errorDetails, int retries, long retryDuration) {
+    super(externalTaskIds, workerId);
+    this.errorMessage = errorMessage;
+    this.errorDetails = errorDetails;
+    this.retries = retries;
+    this.retryDuration = retryDuration;
+  }
+
+  @Override
+  protected void validateInput() {
+    super.validateInput();
+    EnsureUtil.ensureGreaterThanOrEqual("retries", retries, 0);
+    EnsureUtil.ensureGreaterThanOrEqual("retryDuration", retryDuration, 0);
+  }
+
+  @Override
+  public String getErrorMessageOnWrongWorkerAccess(String externalTaskId) {
+    return "Failure of External Task " + externalTaskId + " cannot be reported by worker '" + workerId;
+  }
+
+  @Override
+  protected void execute(ExternalTaskEntity externalTask) {
+    externalTask.failed(errorMessage, errorDetails, retries, retryDuration);
+  }
+
+}
@@ -0,0 +1,134 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.camunda.bpm.engine.AuthorizationException;
+import org.camunda.bpm.engine.externaltask.ExternalTaskOperationResult;
+import org.camunda.bpm.engine.impl.cfg.CommandChecker;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskOperationResultImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.ExternalTaskEntity;
+import org.camunda.bpm.engine.impl.util.EnsureUtil;
+
+/**
+ * Represents an abstract class for commands which handle many external tasks of a
+ * worker in one transaction. The tasks are selected together and every task which
+ * cannot be handled by the worker is skipped and reported in the results, instead of
+ * failing the whole command.
+ */
+public abstract class HandleExternalTasksCmd implements Command<List<ExternalTaskOperationResult>> {
+
+  protected List<String> externalTaskIds;
+
+  /**
+   * The reported worker id.
+   */
+  protected String workerId;
+
+  public HandleExternalTasksCmd(List<String> externalTaskIds, String workerId) {
+    this.externalTaskIds = externalTaskIds;
+    this.workerId = workerId;
+  }
+
+  public List<ExternalTaskOperationResult> execute(CommandContext commandContext) {
+    EnsureUtil.ensureNotNull("externalTaskIds", externalTaskIds);
+    EnsureUtil.ensureNotContainsNull("externalTaskIds", externalTaskIds);
+    validateInput();
+
+    Map<String, ExternalTaskEntity> externalTasks = new HashMap<String, ExternalTaskEntity>();
+    for (ExternalTaskEntity externalTask : commandContext.getExternalTaskManager().findExternalTasksByIds(externalTaskIds)) {
+      externalTasks.put(externalTask.getId(), externalTask);
+    }
+
+    List<ExternalTaskOperationResult> results = new ArrayList<ExternalTaskOperationResult>();
+    Set<String> handledExternalTaskIds = new HashSet<String>();
+
+    for (String externalTaskId : externalTaskIds) {
+      String errorMessage;
+      if (!handledExternalTaskIds.add(externalTaskId)) {
+        errorMessage = "External task " + externalTaskId + " is contained more than once";
+      }
+      else {
+        errorMessage = checkExternalTask(commandContext, externalTaskId, externalTasks.get(externalTaskId));
+      }
+
+      if (errorMessage == null) {
+        execute(externalTasks.get(externalTaskId));
+        results.add(ExternalTaskOperationResultImpl.successful(externalTaskId));
+      }
+      else {
+        results.add(ExternalTaskOperationResultImpl.failed(externalTaskId, errorMessage));
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Checks whether the external task can be handled by the worker. Nothing may be
+   * changed by this check, since the command continues with the other tasks.
+   *
+   * @return the reason why the task cannot be handled or <code>null</code>
+   */
+  protected String checkExternalTask(CommandContext commandContext, String externalTaskId, ExternalTaskEntity externalTask) {
+    // a task may also be removed by handling another task of the same process instance
+    if (externalTask == null || commandContext.getDbEntityManager().isDeleted(externalTask)) {
+      return "Cannot find external task with id " + externalTaskId;
+    }
+
+    if (!workerId.equals(externalTask.getWorkerId())) {
+      return getErrorMessageOnWrongWorkerAccess(externalTaskId) + "'. It is locked by worker '" + externalTask.getWorkerId() + "'.";
+    }
+
+    if (externalTask.isSuspended()) {
+      return "External task " + externalTaskId + " is suspended";
+    }
+
+    try {
+      for (CommandChecker checker : commandContext.getProcessEngineConfiguration().getCommandCheckers()) {
+        checker.checkUpdateProcessInstanceById(externalTask.getProcessInstanceId());
+      }
+    }
+    catch (AuthorizationException e) {
+      return e.getMessage();
+    }
+
+    return null;
+  }
+
+  /**
+   * Executes the specific external task command for a single external task.
+   */
+  protected abstract void execute(ExternalTaskEntity externalTask);
+
+  /**
+   * Returns the beginning of the message which is reported if a task is locked by another worker.
+   */
+  public abstract String getErrorMessageOnWrongWorkerAccess(String externalTaskId);
+
+  /**
+   * Validates the current input of the command.
+   */
+  protected void validateInput() {
+    EnsureUtil.ensureNotNull("workerId", workerId);
+  }
+
+}
@@ -0,0 +1,41 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+/**
+ * Passes the given history events to a history event handler within a command, e.g. to
+ * write them into the database.
+ */
+public class HandleHistoryEventsCmd implements Command<Void> {
+
+  protected List<HistoryEvent> historyEvents;
+  protected HistoryEventHandler historyEventHandler;
+
+  public HandleHistoryEventsCmd(List<HistoryEvent> historyEvents, HistoryEventHandler historyEventHandler) {
+    this.historyEvents = historyEvents;
+    this.historyEventHandler = historyEventHandler;
+  }
+
+  public Void execute(CommandContext commandContext) {
+    historyEventHandler.handleEvents(historyEvents);
+    return null;
+  }
+
+}
@@ -0,0 +1,50 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryOutboxEntryEntity;
+
+/**
+ * Records a failed attempt to write the history events of an outbox entry and
+ * quarantines the entry once it reaches the maximum number of attempts. Returns
+ * whether the entry is quarantined (or does not exist anymore), i.e. whether the
+ * following entries can be written.
+ */
+public class HandleHistoryOutboxEntryFailureCmd implements Command<Boolean> {
+
+  protected String outboxEntryId;
+  protected String exceptionMessage;
+  protected int maxAttempts;
+
+  public HandleHistoryOutboxEntryFailureCmd(String outboxEntryId, String exceptionMessage, int maxAttempts) {
+    this.outboxEntryId = outboxEntryId;
+    this.exceptionMessage = exceptionMessage;
+    this.maxAttempts = maxAttempts;
+  }
+
+  public Boolean execute(CommandContext commandContext) {
+    HistoryOutboxEntryEntity entry = commandContext
+      .getHistoryOutboxManager()
+      .findHistoryOutboxEntryById(outboxEntryId);
+
+    if (entry == null) {
+      return true;
+    }
+
+    entry.failed(exceptionMessage, maxAttempts);
+    return entry.isQuarantined();
+  }
+
+}
@@ -0,0 +1,141 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureGreaterThanOrEqual;
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
+
+import java.io.InputStream;
+
+import org.camunda.bpm.engine.impl.cfg.CommandChecker;
+import org.camunda.bpm.engine.impl.core.variable.scope.AbstractVariableScope;
+import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventProcessor;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.impl.history.producer.HistoryEventProducer;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayManager;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
+
+/**
+ * <p>Replaces the content of a binary variable by the content of an input stream
+ * without loading either of them into memory.</p>
+ *
+ * <p>The byte array of the variable is updated in place, so it is never put into the
+ * entity cache and not subject to dirty checking. Only the revision of the variable
+ * instance is incremented to detect concurrent modifications.</p>
+ *
+ * <p>A variable update history event is produced as for any other update, but without
+ * the new content. Instead, the database copies the content into the byte arrays of the
+ * historic variable instance and the historic detail, which the event references.</p>
+ */
+public class SetVariableInstanceBinaryValueCmd extends VariableInstanceBinaryValueCmd<Void> {
+
+  protected InputStream inputStream;
+  protected int length;
+
+  public SetVariableInstanceBinaryValueCmd(String variableInstanceId, InputStream inputStream, int length) {
+    super(variableInstanceId);
+    this.inputStream = inputStream;
+    this.length = length;
+  }
+
+  protected void validateInput() {
+    ensureNotNull("inputStream", inputStream);
+    ensureGreaterThanOrEqual("length", length, 0);
+  }
+
+  protected void checkTask(CommandChecker checker, TaskEntity task) {
+    checker.checkUpdateTask(task);
+  }
+
+  protected void checkProcessInstance(CommandChecker checker, String processInstanceId) {
+    checker.checkUpdateProcessInstanceById(processInstanceId);
+  }
+
+  protected Void execute(VariableInstanceEntity variable, CommandContext commandContext) {
+    ByteArrayManager byteArrayManager = commandContext.getByteArrayManager();
+    String byteArrayId = variable.getByteArrayValueId();
+
+    if (byteArrayId == null) {
+      byteArrayId = byteArrayManager.insertByteArrayContent(variable.getName(), variable.getTenantId(), inputStream, length);
+    }
+    else if (!byteArrayManager.updateByteArrayContent(byteArrayId, inputStream, length)) {
+      // the byte array has been removed in parallel
+      throw LOG.writeByteArrayContentException(byteArrayId, null);
+    }
+
+    // resets the loaded byte array of the variable, so that the new content is read on demand
+    variable.setByteArrayValueId(byteArrayId);
+
+    commandContext.getDbEntityManager().forceUpdate(variable);
+
+    fireHistoricVariableUpdate(variable, getSourceScope(variable, commandContext), commandContext);
+
+    return null;
+  }
+
+  protected void fireHistoricVariableUpdate(final VariableInstanceEntity variable, final AbstractVariableScope sourceScope,
+      final CommandContext commandContext) {
+
+    final HistoryLevel historyLevel = commandContext.getProcessEngineConfiguration().getHistoryLevel();
+    if (!historyLevel.isHistoryEventProduced(HistoryEventTypes.VARIABLE_INSTANCE_UPDATE, variable)) {
+      return;
+    }
+
+    HistoryEventProcessor.processHistoryEvents(new HistoryEventProcessor.HistoryEventCreator() {
+      @Override
+      public HistoryEvent createHistoryEvent(HistoryEventProducer producer) {
+        String byteArrayId = variable.getByteArrayValueId();
+
+        // the producer would read the byte value of the variable into the event
+        HistoryEvent historyEvent;
+        variable.setByteArrayValueId(null);
+        try {
+          historyEvent = producer.createHistoricVariableUpdateEvt(variable, sourceScope);
+        }
+        finally {
+          variable.setByteArrayValueId(byteArrayId);
+        }
+
+        if (historyEvent instanceof HistoricVariableUpdateEventEntity) {
+          HistoricVariableUpdateEventEntity variableUpdateEvent = (HistoricVariableUpdateEventEntity) historyEvent;
+          ByteArrayManager byteArrayManager = commandContext.getByteArrayManager();
+
+          variableUpdateEvent.setHistoricVariableInstanceByteArrayId(byteArrayManager.copyByteArray(byteArrayId));
+          if (historyLevel.isHistoryEventProduced(HistoryEventTypes.VARIABLE_INSTANCE_UPDATE_DETAIL, variableUpdateEvent)) {
+            variableUpdateEvent.setByteArrayId(byteArrayManager.copyByteArray(byteArrayId));
+          }
+        }
+
+        return historyEvent;
+      }
+    });
+  }
+
+  protected AbstractVariableScope getSourceScope(VariableInstanceEntity variable, CommandContext commandContext) {
+    if (variable.getTaskId() != null) {
+      return commandContext.getTaskManager().findTaskById(variable.getTaskId());
+    }
+    else if (variable.getExecutionId() != null) {
+      return variable.getExecution();
+    }
+    else {
+      return variable.getCaseExecution();
+    }
+  }
+
+}
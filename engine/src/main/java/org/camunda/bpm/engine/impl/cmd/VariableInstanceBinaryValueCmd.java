@@ -0,0 +1,87 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
+
+import org.camunda.bpm.engine.exception.NotFoundException;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cfg.CommandChecker;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
+import org.camunda.bpm.engine.impl.variable.serializer.AbstractTypedValueSerializer;
+
+/**
+ * Base class for the commands which stream the content of a binary variable
+ * (bytes or file) from or to the database. Contains the functionality to get the
+ * variable instance by id, ensure that it is binary and check the authorization
+ * for the access to the variable.
+ */
+public abstract class VariableInstanceBinaryValueCmd<T> implements Command<T> {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  protected String variableInstanceId;
+
+  public VariableInstanceBinaryValueCmd(String variableInstanceId) {
+    this.variableInstanceId = variableInstanceId;
+  }
+
+  public T execute(CommandContext commandContext) {
+    ensureNotNull("variableInstanceId", variableInstanceId);
+    validateInput();
+
+    VariableInstanceEntity variable = commandContext
+      .getDbEntityManager()
+      .selectById(VariableInstanceEntity.class, variableInstanceId);
+
+    ensureNotNull(NotFoundException.class,
+        "Cannot find variable instance with id " + variableInstanceId, "variableInstance", variable);
+
+    if (!AbstractTypedValueSerializer.BINARY_VALUE_TYPES.contains(variable.getSerializerName())) {
+      throw LOG.variableIsNotBinaryException(variableInstanceId, variable.getSerializerName());
+    }
+
+    checkAuthorization(variable, commandContext);
+
+    return execute(variable, commandContext);
+  }
+
+  protected void checkAuthorization(VariableInstanceEntity variable, CommandContext commandContext) {
+    TaskEntity task = null;
+    if (variable.getTaskId() != null) {
+      task = commandContext.getTaskManager().findTaskById(variable.getTaskId());
+    }
+
+    for (CommandChecker checker : commandContext.getProcessEngineConfiguration().getCommandCheckers()) {
+      if (task != null) {
+        checkTask(checker, task);
+      }
+      else if (variable.getProcessInstanceId() != null) {
+        checkProcessInstance(checker, variable.getProcessInstanceId());
+      }
+    }
+  }
+
+  protected abstract void checkTask(CommandChecker checker, TaskEntity task);
+
+  protected abstract void checkProcessInstance(CommandChecker checker, String processInstanceId);
+
+  protected abstract void validateInput();
+
+  protected abstract T execute(VariableInstanceEntity variable, CommandContext commandContext);
+
+}
@@ -0,0 +1,55 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryOutboxEntryEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryOutboxManager;
+
+/**
+ * Writes the history events of the given outbox entries, which were inserted by other
+ * transactions, using the given history event handler, and removes the entries from
+ * the outbox in the same transaction.
+ */
+public class WriteHistoryEventsCmd implements Command<Void> {
+
+  protected List<String> outboxEntryIds;
+  protected HistoryEventHandler historyEventHandler;
+
+  public WriteHistoryEventsCmd(List<String> outboxEntryIds, HistoryEventHandler historyEventHandler) {
+    this.outboxEntryIds = outboxEntryIds;
+    this.historyEventHandler = historyEventHandler;
+  }
+
+  public Void execute(CommandContext commandContext) {
+    HistoryOutboxManager historyOutboxManager = commandContext.getHistoryOutboxManager();
+
+    for (String outboxEntryId : outboxEntryIds) {
+      HistoryOutboxEntryEntity entry = historyOutboxManager.findHistoryOutboxEntryById(outboxEntryId);
+
+      // the entry may have been written by another process engine in the meantime
+      if (entry != null && !entry.isQuarantined()) {
+        historyEventHandler.handleEvents(entry.getHistoryEvents());
+        // fails with an optimistic locking exception if another process engine writes the entry concurrently
+        historyOutboxManager.deleteHistoryOutboxEntry(entry);
+      }
+    }
+
+    return null;
+  }
+
+}
@@ -75,7 +75,7 @@ public abstract class AbstractPersistenceSession implements PersistenceSession {
 
     HistoryLevel configuredHistoryLevel = processEngineConfiguration.getHistoryLevel();
     if ( (!processEngineConfiguration.isDbHistoryUsed())
-         && (!configuredHistoryLevel.equals(HistoryLevel.HISTORY_LEVEL_NONE))
+         && (configuredHistoryLevel.getId() != HistoryLevel.HISTORY_LEVEL_NONE.getId())
        ) {
       throw LOG.databaseHistoryLevelException(configuredHistoryLevel.getName());
     }
@@ -595,4 +595,96 @@ public class EnginePersistenceLogger extends ProcessEngineLogger {
         ));
   }
 
+  public ProcessEngineException readByteArrayContentException(String byteArrayId, Throwable cause) {
+    return new ProcessEngineException(exceptionMessage(
+        "076",
+        "Cannot read content of byte array '{}'",
+        byteArrayId
+        ), cause);
+  }
+
+  public ProcessEngineException writeByteArrayContentException(String byteArrayId, Throwable cause) {
+    return new ProcessEngineException(exceptionMessage(
+        "077",
+        "Cannot write content of byte array '{}'",
+        byteArrayId
+        ), cause);
+  }
+
+  public ProcessEngineException variableIsNotBinaryException(String variableInstanceId, String typeName) {
+    return new ProcessEngineException(exceptionMessage(
+        "078",
+        "Variable instance '{}' has type '{}'. Only the content of binary variables can be streamed.",
+        variableInstanceId,
+        typeName
+        ));
+  }
+
+  public ProcessEngineException readOnlySessionWriteException(Object operation) {
+    return new ProcessEngineException(exceptionMessage(
+        "079",
+        "Cannot execute '{}' on the read-only data source. Only queries are routed to it.",
+        operation
+        ));
+  }
+
+  public ProcessEngineException openReadOnlyConnectionException(Throwable cause) {
+    return new ProcessEngineException(exceptionMessage(
+        "080",
+        "Cannot open a connection to the read-only data source"
+        ), cause);
+  }
+
+  public void closeReadOnlyConnectionFailed(Throwable cause) {
+    logWarn(
+        "081",
+        "Cannot close the connection to the read-only data source", cause);
+  }
+
+  public void couldNotCopySharedEntity(Class<?> entityType, String id, Throwable cause) {
+    logWarn(
+        "082",
+        "Cannot copy entity of type '{}' with id '{}' for the shared entity cache. The entity is not cached.",
+        entityType.getName(), id, cause);
+  }
+
+  public void couldNotValidateSharedEntityCache(Throwable cause) {
+    logWarn(
+        "083",
+        "Cannot validate the revisions of the shared entity cache", cause);
+  }
+
+  public void sharedEntityCacheEntryEvicted(Class<?> entityType, String id) {
+    logDebug(
+        "084",
+        "Evicted entity of type '{}' with id '{}' from the shared entity cache since it was changed by another process engine",
+        entityType.getName(), id);
+  }
+
+  public void couldNotRegisterSqlStatementProfilerMBean(String name, Throwable cause) {
+    logWarn(
+        "085",
+        "Cannot register the SQL statement profiler MBean '{}'", name, cause);
+  }
+
+  public void couldNotUnregisterSqlStatementProfilerMBean(String name, Throwable cause) {
+    logWarn(
+        "086",
+        "Cannot unregister the SQL statement profiler MBean '{}'", name, cause);
+  }
+
+  public ProcessEngineException historyPartitioningNotSupportedException(String databaseType) {
+    return new ProcessEngineException(exceptionMessage(
+        "087",
+        "History partitioning is not supported on database type '{}'",
+        databaseType
+        ));
+  }
+
+  public void historyPartitionArchived(String table, String partition, boolean deleted) {
+    logInfo(
+        "088",
+        "{} partition '{}' of history table '{}'", deleted ? "Dropped" : "Detached", partition, table);
+  }
+
 }
@@ -58,15 +58,19 @@ import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
 import org.camunda.bpm.engine.impl.db.entitymanager.cache.CachedDbEntity;
 import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityCache;
 import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityState;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.SharedEntityCache;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbBulkOperation;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperationManager;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperationType;
+import org.camunda.bpm.engine.impl.db.sql.ReadOnlyDbSqlSession;
 import org.camunda.bpm.engine.impl.identity.db.DbGroupQueryImpl;
 import org.camunda.bpm.engine.impl.identity.db.DbUserQueryImpl;
 import org.camunda.bpm.engine.impl.interceptor.Session;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorContext;
+import org.camunda.bpm.engine.impl.management.RuntimeStatistics;
+import org.camunda.bpm.engine.impl.management.RuntimeStatisticsCache;
 import org.camunda.bpm.engine.impl.util.EnsureUtil;
 
 /**
@@ -89,6 +93,16 @@ public class DbEntityManager implements Session, EntityLoadListener {
 
   protected PersistenceSession persistenceSession;
 
+  protected SharedEntityCache sharedEntityCache;
+
+  /** null if the runtime statistics are not cached, resolved once to keep the flush cheap */
+  protected RuntimeStatisticsCache runtimeStatisticsCache;
+  /** changes of the runtime statistics collected while flushing the entity cache */
+  protected RuntimeStatistics runtimeStatisticsChanges;
+  protected boolean isRuntimeStatisticsChangesComplete = true;
+  /** true if flushed changes are applied to the runtime statistics once the transaction ends */
+  protected boolean isRuntimeStatisticsChangesPending = false;
+
   public DbEntityManager(IdGenerator idGenerator, PersistenceSession persistenceSession) {
     this.idGenerator = idGenerator;
     this.persistenceSession = persistenceSession;
@@ -97,6 +111,24 @@ public class DbEntityManager implements Session, EntityLoadListener {
     }
     initializeEntityCache();
     initializeOperationManager();
+    initializeSharedEntityCache();
+    initializeRuntimeStatisticsCache();
+  }
+
+  protected void initializeSharedEntityCache() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+
+    // the replica may lag behind, so entities selected from it are never shared
+    if (processEngineConfiguration != null && !(persistenceSession instanceof ReadOnlyDbSqlSession)) {
+      sharedEntityCache = processEngineConfiguration.getSharedEntityCache();
+    }
+  }
+
+  protected void initializeRuntimeStatisticsCache() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (processEngineConfiguration != null) {
+      runtimeStatisticsCache = processEngineConfiguration.getRuntimeStatisticsCache();
+    }
   }
 
   protected void initializeOperationManager() {
@@ -196,6 +228,11 @@ public class DbEntityManager implements Session, EntityLoadListener {
     if (persistentObject!=null) {
       return persistentObject;
     }
+
+    if (sharedEntityCache != null && sharedEntityCache.isCached(entityClass)) {
+      return selectByIdThroughSharedCache(entityClass, id);
+    }
+
     persistentObject = persistenceSession.selectById(entityClass, id);
 
     if (persistentObject==null) {
@@ -205,6 +242,22 @@ public class DbEntityManager implements Session, EntityLoadListener {
     return persistentObject;
   }
 
+  protected <T extends DbEntity> T selectByIdThroughSharedCache(Class<T> entityClass, String id) {
+    T sharedObject = sharedEntityCache.get(entityClass, id);
+    if (sharedObject != null) {
+      // the copy is handled as if it was loaded by this command
+      onEntityLoaded(sharedObject);
+      return sharedObject;
+    }
+
+    long version = sharedEntityCache.getVersion(entityClass);
+    T persistentObject = persistenceSession.selectById(entityClass, id);
+    if (persistentObject != null) {
+      sharedEntityCache.put(persistentObject, version);
+    }
+    return persistentObject;
+  }
+
   public <T extends DbEntity> T getCachedEntity(Class<T> type, String id) {
     return dbEntityCache.get(type, id);
   }
@@ -288,6 +341,11 @@ public class DbEntityManager implements Session, EntityLoadListener {
     List<DbOperation> operationsToFlush = dbOperationManager.calculateFlush();
     LOG.databaseFlushSummary(operationsToFlush);
 
+    if (sharedEntityCache != null) {
+      // also covers operations which fail on optimistic locking because of a stale entity
+      sharedEntityCache.registerFlushedOperations(operationsToFlush);
+    }
+
     // execute the flush
     for (DbOperation dbOperation : operationsToFlush) {
       try {
@@ -297,9 +355,22 @@ public class DbEntityManager implements Session, EntityLoadListener {
         throw LOG.flushDbOperationException(operationsToFlush, dbOperation, e);
       }
       if(dbOperation.isFailed()) {
+        // the collected changes of the runtime statistics may not have been applied
+        isRuntimeStatisticsChangesComplete = false;
         handleOptimisticLockingException(dbOperation);
       }
     }
+
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (processEngineConfiguration != null && processEngineConfiguration.getFilterCountCache() != null) {
+      processEngineConfiguration.getFilterCountCache().registerFlushedOperations(operationsToFlush);
+    }
+    if (runtimeStatisticsCache != null
+        && runtimeStatisticsCache.registerFlush(runtimeStatisticsChanges, isRuntimeStatisticsChangesComplete, operationsToFlush)) {
+      isRuntimeStatisticsChangesPending = true;
+    }
+    runtimeStatisticsChanges = null;
+    isRuntimeStatisticsChangesComplete = true;
   }
 
   public void flushEntity(DbEntity entity) {
@@ -329,6 +400,23 @@ public class DbEntityManager implements Session, EntityLoadListener {
     }
   }
 
+  protected void collectRuntimeStatisticsChanges(CachedDbEntity cachedDbEntity) {
+    if (runtimeStatisticsCache == null) {
+      return;
+    }
+
+    if (runtimeStatisticsChanges == null) {
+      runtimeStatisticsChanges = new RuntimeStatistics();
+    }
+    if (!runtimeStatisticsCache.collectChanges(cachedDbEntity, runtimeStatisticsChanges)) {
+      isRuntimeStatisticsChangesComplete = false;
+    }
+  }
+
+  public boolean isRuntimeStatisticsChangesPending() {
+    return isRuntimeStatisticsChangesPending;
+  }
+
   /**
    * Flushes the entity cache:
    * Depending on the entity state, the required {@link DbOperation} is performed and the cache is updated.
@@ -345,6 +433,8 @@ public class DbEntityManager implements Session, EntityLoadListener {
 
   protected void flushCachedEntity(CachedDbEntity cachedDbEntity) {
 
+    collectRuntimeStatisticsChanges(cachedDbEntity);
+
     if(cachedDbEntity.getEntityState() == TRANSIENT) {
       // latest state of references in cache is relevant when determining insertion order
       cachedDbEntity.determineEntityReferences();
@@ -0,0 +1,356 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.entitymanager.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.db.HasDbRevision;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSession;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.DeploymentEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.JobDefinitionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.PropertyEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.TenantEntity;
+
+/**
+ * <p>Engine wide read-through cache for entities which rarely change. It is used
+ * by {@link org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager#selectById(Class, String)}
+ * if the entity is not contained in the {@link DbEntityCache} of the command.</p>
+ *
+ * <p>The entities are cached in serialized form, so every command gets its own copy
+ * which it may modify. An entity is removed from the cache as soon as a command of
+ * this process engine flushes a change of it, and again when the transaction ends. An
+ * entity is only cached if no change of its type was flushed while it was selected.
+ * Bulk operations remove all entities of their type.</p>
+ *
+ * <p>Changes of other process engines on the same database are only detected by
+ * {@link #validate(CommandContext)}, which compares the revisions of the cached
+ * entities with the database and is periodically called by the
+ * {@link SharedEntityCacheRevisionPoller} in a cluster.</p>
+ */
+public class SharedEntityCache {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  public static final int DEFAULT_MAX_ENTRIES_PER_TYPE = 1000;
+
+  public static final List<Class<? extends DbEntity>> DEFAULT_ENTITY_TYPES = Arrays.<Class<? extends DbEntity>>asList(
+      AuthorizationEntity.class,
+      DeploymentEntity.class,
+      JobDefinitionEntity.class,
+      PropertyEntity.class,
+      TenantEntity.class);
+
+  /** the id block property is updated by almost every id generation */
+  protected static final String NEXT_DBID_PROPERTY = "next.dbid";
+
+  protected final int maxEntriesPerType;
+  protected final Map<Class<? extends DbEntity>, EntityTypeCache> entityTypeCaches = new LinkedHashMap<Class<? extends DbEntity>, EntityTypeCache>();
+
+  public SharedEntityCache() {
+    this(DEFAULT_ENTITY_TYPES, DEFAULT_MAX_ENTRIES_PER_TYPE);
+  }
+
+  public SharedEntityCache(List<Class<? extends DbEntity>> entityTypes, int maxEntriesPerType) {
+    this.maxEntriesPerType = maxEntriesPerType;
+    for (Class<? extends DbEntity> entityType : entityTypes) {
+      entityTypeCaches.put(entityType, new EntityTypeCache());
+    }
+  }
+
+  public boolean isCached(Class<?> entityType) {
+    return getEntityTypeCache(entityType) != null;
+  }
+
+  /**
+   * @return a copy of the cached entity or null if it is not cached
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends DbEntity> T get(Class<T> entityType, String id) {
+    EntityTypeCache entityTypeCache = getEntityTypeCache(entityType);
+    if (entityTypeCache == null) {
+      return null;
+    }
+
+    CachedEntity cachedEntity = entityTypeCache.entities.get(id);
+    if (cachedEntity == null) {
+      entityTypeCache.missCount.incrementAndGet();
+      return null;
+    }
+
+    T entity = (T) deserialize(cachedEntity.bytes, entityType, id);
+    if (entity == null) {
+      entityTypeCache.entities.remove(id);
+      entityTypeCache.missCount.incrementAndGet();
+      return null;
+    }
+
+    entityTypeCache.hitCount.incrementAndGet();
+    return entity;
+  }
+
+  /**
+   * @return the version of the entities of the given type which has to be obtained
+   * before an entity is selected and passed to {@link #put(DbEntity, long)}
+   */
+  public long getVersion(Class<?> entityType) {
+    EntityTypeCache entityTypeCache = getEntityTypeCache(entityType);
+    return entityTypeCache != null ? entityTypeCache.version.get() : -1;
+  }
+
+  /**
+   * Caches the entity if no change of its type was flushed since the given version.
+   */
+  public void put(DbEntity entity, long version) {
+    EntityTypeCache entityTypeCache = getEntityTypeCache(entity.getClass());
+    if (entityTypeCache == null
+        || entityTypeCache.version.get() != version
+        || entityTypeCache.entities.size() >= maxEntriesPerType
+        || !isCacheable(entity)) {
+      return;
+    }
+
+    byte[] bytes = serialize(entity);
+    if (bytes != null) {
+      entityTypeCache.entities.put(entity.getId(), new CachedEntity(bytes, getRevision(entity)));
+
+      if (entityTypeCache.version.get() != version) {
+        // a change was flushed concurrently
+        entityTypeCache.entities.remove(entity.getId());
+      }
+    }
+  }
+
+  protected boolean isCacheable(DbEntity entity) {
+    return !(entity instanceof PropertyEntity && NEXT_DBID_PROPERTY.equals(entity.getId()));
+  }
+
+  /**
+   * Removes the entities which are changed by the given operations from the cache,
+   * immediately and again at the end of the current transaction.
+   */
+  public void registerFlushedOperations(List<DbOperation> operations) {
+    final Map<Class<? extends DbEntity>, Set<String>> changedEntities = new LinkedHashMap<Class<? extends DbEntity>, Set<String>>();
+
+    for (DbOperation operation : operations) {
+      Class<? extends DbEntity> entityType = getCachedEntityType(operation.getEntityType());
+      if (entityType == null) {
+        continue;
+      }
+
+      Set<String> ids = changedEntities.get(entityType);
+      if (operation instanceof DbEntityOperation) {
+        if (ids == null) {
+          ids = new HashSet<String>();
+          changedEntities.put(entityType, ids);
+        }
+        ids.add(((DbEntityOperation) operation).getEntity().getId());
+      }
+      else {
+        // bulk operations may change any entity of the type
+        changedEntities.put(entityType, null);
+      }
+    }
+
+    if (changedEntities.isEmpty()) {
+      return;
+    }
+
+    invalidate(changedEntities);
+
+    CommandContext commandContext = Context.getCommandContext();
+    if (commandContext != null) {
+      TransactionListener invalidationListener = new TransactionListener() {
+        public void execute(CommandContext commandContext) {
+          invalidate(changedEntities);
+        }
+      };
+      commandContext.getTransactionContext().addTransactionListener(TransactionState.COMMITTED, invalidationListener);
+      commandContext.getTransactionContext().addTransactionListener(TransactionState.ROLLED_BACK, invalidationListener);
+    }
+  }
+
+  protected void invalidate(Map<Class<? extends DbEntity>, Set<String>> changedEntities) {
+    for (Map.Entry<Class<? extends DbEntity>, Set<String>> changedEntitiesOfType : changedEntities.entrySet()) {
+      if (changedEntitiesOfType.getValue() == null) {
+        invalidate(changedEntitiesOfType.getKey());
+      }
+      else {
+        for (String id : changedEntitiesOfType.getValue()) {
+          invalidate(changedEntitiesOfType.getKey(), id);
+        }
+      }
+    }
+  }
+
+  public void invalidate(Class<? extends DbEntity> entityType, String id) {
+    EntityTypeCache entityTypeCache = getEntityTypeCache(entityType);
+    if (entityTypeCache != null) {
+      entityTypeCache.version.incrementAndGet();
+      entityTypeCache.entities.remove(id);
+    }
+  }
+
+  public void invalidate(Class<? extends DbEntity> entityType) {
+    EntityTypeCache entityTypeCache = getEntityTypeCache(entityType);
+    if (entityTypeCache != null) {
+      entityTypeCache.version.incrementAndGet();
+      entityTypeCache.entities.clear();
+    }
+  }
+
+  public void clear() {
+    for (Class<? extends DbEntity> entityType : entityTypeCaches.keySet()) {
+      invalidate(entityType);
+    }
+  }
+
+  /**
+   * Removes all entities which were deleted or have another revision in the database.
+   * Entities without a revision are only checked for existence.
+   */
+  public void validate(CommandContext commandContext) {
+    DbSqlSession dbSqlSession = commandContext.getDbSqlSession();
+
+    for (Map.Entry<Class<? extends DbEntity>, EntityTypeCache> entityTypeCache : entityTypeCaches.entrySet()) {
+      Class<? extends DbEntity> entityType = entityTypeCache.getKey();
+
+      for (String id : new ArrayList<String>(entityTypeCache.getValue().entities.keySet())) {
+        CachedEntity cachedEntity = entityTypeCache.getValue().entities.get(id);
+        if (cachedEntity == null) {
+          continue;
+        }
+
+        DbEntity entity = dbSqlSession.selectById(entityType, id);
+        if (entity == null || getRevision(entity) != cachedEntity.revision) {
+          LOG.sharedEntityCacheEntryEvicted(entityType, id);
+          invalidate(entityType, id);
+        }
+      }
+    }
+  }
+
+  // statistics ///////////////////////////////////////////////////////////
+
+  public List<Class<? extends DbEntity>> getEntityTypes() {
+    return new ArrayList<Class<? extends DbEntity>>(entityTypeCaches.keySet());
+  }
+
+  public long getHitCount(Class<? extends DbEntity> entityType) {
+    EntityTypeCache entityTypeCache = getEntityTypeCache(entityType);
+    return entityTypeCache != null ? entityTypeCache.hitCount.get() : 0;
+  }
+
+  public long getMissCount(Class<? extends DbEntity> entityType) {
+    EntityTypeCache entityTypeCache = getEntityTypeCache(entityType);
+    return entityTypeCache != null ? entityTypeCache.missCount.get() : 0;
+  }
+
+  public int getSize(Class<? extends DbEntity> entityType) {
+    EntityTypeCache entityTypeCache = getEntityTypeCache(entityType);
+    return entityTypeCache != null ? entityTypeCache.entities.size() : 0;
+  }
+
+  public int getMaxEntriesPerType() {
+    return maxEntriesPerType;
+  }
+
+  // helper ///////////////////////////////////////////////////////////////
+
+  protected EntityTypeCache getEntityTypeCache(Class<?> entityType) {
+    Class<? extends DbEntity> cachedEntityType = getCachedEntityType(entityType);
+    return cachedEntityType != null ? entityTypeCaches.get(cachedEntityType) : null;
+  }
+
+  protected Class<? extends DbEntity> getCachedEntityType(Class<?> entityType) {
+    for (Class<? extends DbEntity> cachedEntityType : entityTypeCaches.keySet()) {
+      if (cachedEntityType.isAssignableFrom(entityType)) {
+        return cachedEntityType;
+      }
+    }
+    return null;
+  }
+
+  protected int getRevision(DbEntity entity) {
+    return entity instanceof HasDbRevision ? ((HasDbRevision) entity).getRevision() : 0;
+  }
+
+  protected byte[] serialize(DbEntity entity) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ObjectOutputStream out = new ObjectOutputStream(bytes);
+      out.writeObject(entity);
+      out.close();
+      return bytes.toByteArray();
+    }
+    catch (Exception e) {
+      LOG.couldNotCopySharedEntity(entity.getClass(), entity.getId(), e);
+      return null;
+    }
+  }
+
+  protected Object deserialize(byte[] bytes, Class<?> entityType, String id) {
+    try {
+      ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+      try {
+        return in.readObject();
+      }
+      finally {
+        in.close();
+      }
+    }
+    catch (Exception e) {
+      LOG.couldNotCopySharedEntity(entityType, id, e);
+      return null;
+    }
+  }
+
+  protected static class EntityTypeCache {
+    protected final Map<String, CachedEntity> entities = new ConcurrentHashMap<String, CachedEntity>();
+    protected final AtomicLong version = new AtomicLong();
+    protected final AtomicLong hitCount = new AtomicLong();
+    protected final AtomicLong missCount = new AtomicLong();
+  }
+
+  protected static class CachedEntity {
+    protected final byte[] bytes;
+    protected final int revision;
+
+    public CachedEntity(byte[] bytes, int revision) {
+      this.bytes = bytes;
+      this.revision = revision;
+    }
+  }
+
+}
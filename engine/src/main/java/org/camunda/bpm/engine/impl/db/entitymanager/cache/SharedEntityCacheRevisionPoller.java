@@ -0,0 +1,82 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.entitymanager.cache;
+
+import java.util.Timer;
+import java.util.TimerTask;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cmd.ValidateSharedEntityCacheCmd;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+
+/**
+ * Periodically validates the revisions of the entities in the {@link SharedEntityCache},
+ * which is required if other process engines change the same database. Their changes
+ * are visible after at most one interval.
+ */
+public class SharedEntityCacheRevisionPoller {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  protected SharedEntityCache sharedEntityCache;
+  protected CommandExecutor commandExecutor;
+  protected long intervalInSeconds;
+
+  private Timer timer;
+
+  public SharedEntityCacheRevisionPoller(SharedEntityCache sharedEntityCache, CommandExecutor commandExecutor, long intervalInSeconds) {
+    this.sharedEntityCache = sharedEntityCache;
+    this.commandExecutor = commandExecutor;
+    this.intervalInSeconds = intervalInSeconds;
+  }
+
+  public void start() {
+    timer = new Timer("Camunda Shared Entity Cache Revision Poller", true);
+    long intervalInMillis = intervalInSeconds * 1000;
+
+    timer.scheduleAtFixedRate(new TimerTask() {
+      public void run() {
+        validateNow();
+      }
+    }, intervalInMillis, intervalInMillis);
+  }
+
+  public void stop() {
+    if (timer != null) {
+      timer.cancel();
+      timer = null;
+    }
+  }
+
+  public void validateNow() {
+    try {
+      commandExecutor.execute(new ValidateSharedEntityCacheCmd(sharedEntityCache));
+    }
+    catch (Exception e) {
+      try {
+        // entities which cannot be validated are not trusted anymore
+        sharedEntityCache.clear();
+        LOG.couldNotValidateSharedEntityCache(e);
+      }
+      catch (Exception ex) {
+        // ignore if log can't be written
+      }
+    }
+  }
+
+  public long getIntervalInSeconds() {
+    return intervalInSeconds;
+  }
+
+}
@@ -0,0 +1,54 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.sql;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayStream;
+
+/**
+ * Binds a {@link ByteArrayStream} to a binary column. Parameters are set with their
+ * length, since not all drivers support streams of unknown length. Results are only
+ * readable while the result set is open, i.e. from a result handler.
+ */
+public class ByteArrayStreamTypeHandler extends BaseTypeHandler<ByteArrayStream> {
+
+  public void setNonNullParameter(PreparedStatement ps, int i, ByteArrayStream parameter, JdbcType jdbcType) throws SQLException {
+    ps.setBinaryStream(i, parameter.getInputStream(), parameter.getLength());
+  }
+
+  public ByteArrayStream getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    return toByteArrayStream(rs.getBinaryStream(columnName));
+  }
+
+  public ByteArrayStream getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    return toByteArrayStream(rs.getBinaryStream(columnIndex));
+  }
+
+  public ByteArrayStream getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+    byte[] bytes = cs.getBytes(columnIndex);
+    return bytes != null ? new ByteArrayStream(new ByteArrayInputStream(bytes), bytes.length) : null;
+  }
+
+  protected ByteArrayStream toByteArrayStream(InputStream inputStream) {
+    return inputStream != null ? new ByteArrayStream(inputStream, ByteArrayStream.UNKNOWN_LENGTH) : null;
+  }
+
+}
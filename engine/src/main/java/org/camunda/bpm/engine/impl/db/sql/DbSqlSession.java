@@ -31,6 +31,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.SqlSession;
 import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.impl.ProcessEngineLogger;
@@ -109,6 +110,16 @@ public class DbSqlSession extends AbstractPersistenceSession {
     return result;
   }
 
+  /**
+   * Passes each row to the result handler while the result set is still open,
+   * which allows to stream the content of a column. The rows are neither cached
+   * nor fired as loaded entities.
+   */
+  public void select(String statement, Object parameter, ResultHandler resultHandler) {
+    statement = dbSqlSessionFactory.mapStatement(statement);
+    sqlSession.select(statement, parameter, resultHandler);
+  }
+
   // lock ////////////////////////////////////////////
 
   public void lock(String statement, Object parameter) {
@@ -232,6 +243,15 @@ public class DbSqlSession extends AbstractPersistenceSession {
     entityUpdated(dbEntity);
   }
 
+  /**
+   * Executes the insert or update statement right away instead of on flush, e.g.
+   * to consume a stream which is only available during the command. The statement
+   * bypasses the entity cache.
+   */
+  public int executeImmediately(String statement, Object parameter) {
+    return executeUpdate(statement, parameter);
+  }
+
   protected int executeUpdate(String updateStatement, Object parameter) {
     updateStatement = dbSqlSessionFactory.mapStatement(updateStatement);
     return sqlSession.update(updateStatement, parameter);
@@ -326,6 +346,9 @@ public class DbSqlSession extends AbstractPersistenceSession {
   @Override
   protected void dbSchemaCreateHistory() {
     executeMandatorySchemaResource("create", "history");
+    if (dbSqlSessionFactory.isHistoryPartitioningEnabled()) {
+      executeMandatorySchemaResource("create", "history.partitioning");
+    }
   }
 
   @Override
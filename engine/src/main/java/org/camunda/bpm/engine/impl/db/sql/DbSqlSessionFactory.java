@@ -101,6 +101,9 @@ public class DbSqlSessionFactory implements SessionFactory {
     constants.put("constant.for.update", "for update");
     constants.put("constant.datepart.quarter", "QUARTER");
     constants.put("constant.datepart.month", "MONTH");
+    constants.put("constant.datepart.year", "YEAR");
+    constants.put("constant.datatype.timestamp", "timestamp");
+    constants.put("constant.null.varchar", "cast(null as varchar(255))");
     dbSpecificConstants.put(H2, constants);
 
     // mysql specific
@@ -131,12 +134,25 @@ public class DbSqlSessionFactory implements SessionFactory {
       addDatabaseSpecificStatement(mysqlLikeDatabase, "selectDeploymentsByQueryCriteria", "selectDeploymentsByQueryCriteria_mysql");
       addDatabaseSpecificStatement(mysqlLikeDatabase, "selectDeploymentCountByQueryCriteria", "selectDeploymentCountByQueryCriteria_mysql");
 
+      addDatabaseSpecificStatement(mysqlLikeDatabase, "selectHistoryPartitionNames", "selectHistoryPartitionNames_mysql");
+      addDatabaseSpecificStatement(mysqlLikeDatabase, "createHistoryPartition", "createHistoryPartition_mysql");
+      addDatabaseSpecificStatement(mysqlLikeDatabase, "selectHistoryPartitionArchiveTableCount", "selectHistoryPartitionArchiveTableCount_mysql");
+      addDatabaseSpecificStatement(mysqlLikeDatabase, "selectHistoryPartitionArchiveTablePartitionCount", "selectHistoryPartitionArchiveTablePartitionCount_mysql");
+      addDatabaseSpecificStatement(mysqlLikeDatabase, "selectHistoryPartitionArchiveTableRowCount", "selectHistoryPartitionArchiveTableRowCount_mysql");
+      addDatabaseSpecificStatement(mysqlLikeDatabase, "createHistoryPartitionArchiveTable", "createHistoryPartitionArchiveTable_mysql");
+      addDatabaseSpecificStatement(mysqlLikeDatabase, "removeHistoryPartitionArchiveTablePartitioning", "removeHistoryPartitionArchiveTablePartitioning_mysql");
+      addDatabaseSpecificStatement(mysqlLikeDatabase, "exchangeHistoryPartition", "exchangeHistoryPartition_mysql");
+      addDatabaseSpecificStatement(mysqlLikeDatabase, "dropHistoryPartition", "dropHistoryPartition_mysql");
+
       constants = new HashMap<String, String>();
       constants.put("constant.event", "'event'");
       constants.put("constant.op_message", "CONCAT(NEW_VALUE_, '_|_', PROPERTY_)");
       constants.put("constant.for.update", "for update");
       constants.put("constant.datepart.quarter", "QUARTER");
       constants.put("constant.datepart.month", "MONTH");
+      constants.put("constant.datepart.year", "YEAR");
+      constants.put("constant.datatype.timestamp", "datetime(3)");
+      constants.put("constant.null.varchar", "cast(null as char(255))");
       dbSpecificConstants.put(mysqlLikeDatabase, constants);
     }
 
@@ -163,6 +179,12 @@ public class DbSqlSessionFactory implements SessionFactory {
     addDatabaseSpecificStatement(POSTGRES, "insertByteArray", "insertByteArray_postgres");
     addDatabaseSpecificStatement(POSTGRES, "updateByteArray", "updateByteArray_postgres");
     addDatabaseSpecificStatement(POSTGRES, "selectByteArray", "selectByteArray_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "insertByteArrayContent", "insertByteArrayContent_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "updateByteArrayContent", "updateByteArrayContent_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "insertHistoricDurationAggregate", "insertHistoricDurationAggregate_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "updateHistoricDurationAggregate", "updateHistoricDurationAggregate_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "selectHistoricDurationAggregate", "selectHistoricDurationAggregate_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "selectHistoricDurationAggregatesForReport", "selectHistoricDurationAggregatesForReport_postgres");
     addDatabaseSpecificStatement(POSTGRES, "selectResourceByDeploymentIdAndResourceName", "selectResourceByDeploymentIdAndResourceName_postgres");
     addDatabaseSpecificStatement(POSTGRES, "selectResourceByDeploymentIdAndResourceNames", "selectResourceByDeploymentIdAndResourceNames_postgres");
     addDatabaseSpecificStatement(POSTGRES, "selectResourceByDeploymentIdAndResourceId", "selectResourceByDeploymentIdAndResourceId_postgres");
@@ -183,6 +205,21 @@ public class DbSqlSessionFactory implements SessionFactory {
     addDatabaseSpecificStatement(POSTGRES, "selectHistoricVariableInstanceByQueryCriteria", "selectHistoricVariableInstanceByQueryCriteria_postgres");
     addDatabaseSpecificStatement(POSTGRES, "selectFilterByQueryCriteria", "selectFilterByQueryCriteria_postgres");
     addDatabaseSpecificStatement(POSTGRES, "selectFilter", "selectFilter_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "selectHistoryPartitionNames", "selectHistoryPartitionNames_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "selectHistoryDefaultPartitionMinTime", "selectHistoryDefaultPartitionMinTime_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "selectHistoryDefaultPartitionRowCount", "selectHistoryDefaultPartitionRowCount_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "detachHistoryDefaultPartition", "detachHistoryDefaultPartition_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "insertHistoryDefaultPartitionRows", "insertHistoryDefaultPartitionRows_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "deleteHistoryDefaultPartitionRows", "deleteHistoryDefaultPartitionRows_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "attachHistoryDefaultPartition", "attachHistoryDefaultPartition_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "createHistoryPartition", "createHistoryPartition_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "detachHistoryPartition", "detachHistoryPartition_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "dropHistoryPartition", "dropHistoryPartition_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "insertHistoryOutboxEntry", "insertHistoryOutboxEntry_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "selectHistoryOutboxEntry", "selectHistoryOutboxEntry_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "updateHistoryOutboxEntry", "updateHistoryOutboxEntry_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "selectQuarantinedHistoryOutboxEntries", "selectQuarantinedHistoryOutboxEntries_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "selectPendingHistoryOutboxEntries", "selectPendingHistoryOutboxEntries_postgres");
 
     constants = new HashMap<String, String>();
     constants.put("constant.event", "'event'");
@@ -190,6 +227,9 @@ public class DbSqlSessionFactory implements SessionFactory {
     constants.put("constant.for.update", "for update");
     constants.put("constant.datepart.quarter", "QUARTER");
     constants.put("constant.datepart.month", "MONTH");
+    constants.put("constant.datepart.year", "YEAR");
+    constants.put("constant.datatype.timestamp", "timestamp");
+    constants.put("constant.null.varchar", "cast(null as varchar(255))");
     dbSpecificConstants.put(POSTGRES, constants);
 
     // oracle
@@ -214,6 +254,11 @@ public class DbSqlSessionFactory implements SessionFactory {
     databaseSpecificIfNull.put(ORACLE, "NVL");
 
     addDatabaseSpecificStatement(ORACLE, "selectHistoricProcessInstanceDurationReport", "selectHistoricProcessInstanceDurationReport_oracle");
+    addDatabaseSpecificStatement(ORACLE, "selectHistoricDurationQueueEntries", "selectHistoricDurationQueueEntries_oracle");
+    addDatabaseSpecificStatement(ORACLE, "selectHistoricDurationAggregatesForReport", "selectHistoricDurationAggregatesForReport_oracle");
+    addDatabaseSpecificStatement(ORACLE, "selectHistoricDurationsNotAggregated", "selectHistoricDurationsNotAggregated_oracle");
+    addDatabaseSpecificStatement(ORACLE, "selectHistoricDurationOfProcessInstance", "selectHistoricDurationOfProcessInstance_oracle");
+    addDatabaseSpecificStatement(ORACLE, "selectHistoricDurationBounds", "selectHistoricDurationBounds_oracle");
     addDatabaseSpecificStatement(ORACLE, "selectFilterByQueryCriteria", "selectFilterByQueryCriteria_oracleDb2");
 
     constants = new HashMap<String, String>();
@@ -222,6 +267,9 @@ public class DbSqlSessionFactory implements SessionFactory {
     constants.put("constant.for.update", "for update");
     constants.put("constant.datepart.quarter", "'Q'");
     constants.put("constant.datepart.month", "'MM'");
+    constants.put("constant.datepart.year", "'YYYY'");
+    constants.put("constant.datatype.timestamp", "timestamp");
+    constants.put("constant.null.varchar", "cast(null as nvarchar2(255))");
     dbSpecificConstants.put(ORACLE, constants);
 
     // db2
@@ -260,6 +308,9 @@ public class DbSqlSessionFactory implements SessionFactory {
     constants.put("constant.for.update", "for read only with rs use and keep update locks");
     constants.put("constant.datepart.quarter", "QUARTER");
     constants.put("constant.datepart.month", "MONTH");
+    constants.put("constant.datepart.year", "YEAR");
+    constants.put("constant.datatype.timestamp", "timestamp");
+    constants.put("constant.null.varchar", "cast(null as varchar(255))");
     dbSpecificConstants.put(DB2, constants);
 
     // mssql
@@ -290,6 +341,7 @@ public class DbSqlSessionFactory implements SessionFactory {
     addDatabaseSpecificStatement(MSSQL, "selectHistoricTaskInstanceByNativeQuery", "selectHistoricTaskInstanceByNativeQuery_mssql_or_db2");
     addDatabaseSpecificStatement(MSSQL, "selectTaskByNativeQuery", "selectTaskByNativeQuery_mssql_or_db2");
     addDatabaseSpecificStatement(MSSQL, "lockDeploymentLockProperty", "lockDeploymentLockProperty_mssql");
+    addDatabaseSpecificStatement(MSSQL, "selectHistoryOutboxSequence", "selectHistoryOutboxSequence_mssql");
     addDatabaseSpecificStatement(MSSQL, "selectEventSubscriptionsByNameAndExecution", "selectEventSubscriptionsByNameAndExecution_mssql");
     addDatabaseSpecificStatement(MSSQL, "selectEventSubscriptionsByExecutionAndType", "selectEventSubscriptionsByExecutionAndType_mssql");
     addDatabaseSpecificStatement(MSSQL, "selectHistoricDecisionInstancesByNativeQuery", "selectHistoricDecisionInstancesByNativeQuery_mssql_or_db2");
@@ -299,6 +351,9 @@ public class DbSqlSessionFactory implements SessionFactory {
     constants.put("constant.op_message", "NEW_VALUE_ + '_|_' + PROPERTY_");
     constants.put("constant.datepart.quarter", "QUARTER");
     constants.put("constant.datepart.month", "MONTH");
+    constants.put("constant.datepart.year", "YEAR");
+    constants.put("constant.datatype.timestamp", "datetime2");
+    constants.put("constant.null.varchar", "cast(null as nvarchar(255))");
     dbSpecificConstants.put(MSSQL, constants);
   }
 
@@ -322,6 +377,7 @@ public class DbSqlSessionFactory implements SessionFactory {
   protected boolean isDbHistoryUsed = true;
   protected boolean cmmnEnabled = true;
   protected boolean dmnEnabled = true;
+  protected boolean isHistoryPartitioningEnabled = false;
 
   public Class< ? > getSessionType() {
     return DbSqlSession.class;
@@ -491,6 +547,14 @@ public class DbSqlSessionFactory implements SessionFactory {
     this.dmnEnabled = dmnEnabled;
   }
 
+  public boolean isHistoryPartitioningEnabled() {
+    return isHistoryPartitioningEnabled;
+  }
+
+  public void setHistoryPartitioningEnabled(boolean isHistoryPartitioningEnabled) {
+    this.isHistoryPartitioningEnabled = isHistoryPartitioningEnabled;
+  }
+
   public void setDatabaseTablePrefix(String databaseTablePrefix) {
     this.databaseTablePrefix = databaseTablePrefix;
   }
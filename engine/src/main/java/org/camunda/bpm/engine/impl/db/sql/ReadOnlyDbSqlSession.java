@@ -0,0 +1,39 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.sql;
+
+import java.sql.Connection;
+
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
+
+/**
+ * A {@link DbSqlSession} on a connection of the read-only data source. It
+ * may only select, every attempt to write or lock fails.
+ */
+public class ReadOnlyDbSqlSession extends DbSqlSession {
+
+  public ReadOnlyDbSqlSession(DbSqlSessionFactory dbSqlSessionFactory, Connection connection) {
+    super(dbSqlSessionFactory, connection, null, null);
+  }
+
+  @Override
+  public void executeDbOperation(DbOperation operation) {
+    throw LOG.readOnlySessionWriteException(operation);
+  }
+
+  @Override
+  public void lock(String statement, Object parameter) {
+    throw LOG.readOnlySessionWriteException(statement);
+  }
+
+}
@@ -0,0 +1,79 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.sql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.interceptor.Session;
+import org.camunda.bpm.engine.impl.interceptor.SessionFactory;
+
+/**
+ * Opens {@link ReadOnlyDbSqlSession}s on the read-only data source. The
+ * statements and the database specific settings of the primary
+ * {@link DbSqlSessionFactory} are used, so the replica must have the same
+ * schema and database type.
+ */
+public class ReadOnlyDbSqlSessionFactory implements SessionFactory {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  protected DbSqlSessionFactory dbSqlSessionFactory;
+  protected DataSource dataSource;
+
+  public ReadOnlyDbSqlSessionFactory(DbSqlSessionFactory dbSqlSessionFactory, DataSource dataSource) {
+    this.dbSqlSessionFactory = dbSqlSessionFactory;
+    this.dataSource = dataSource;
+  }
+
+  public Class<?> getSessionType() {
+    return DbSqlSession.class;
+  }
+
+  public Session openSession() {
+    Connection connection = null;
+    try {
+      connection = dataSource.getConnection();
+      connection.setReadOnly(true);
+      return new ReadOnlyDbSqlSession(dbSqlSessionFactory, connection);
+    }
+    catch (SQLException e) {
+      closeQuietly(connection);
+      throw LOG.openReadOnlyConnectionException(e);
+    }
+  }
+
+  protected void closeQuietly(Connection connection) {
+    if (connection != null) {
+      try {
+        connection.close();
+      }
+      catch (SQLException e) {
+        LOG.closeReadOnlyConnectionFailed(e);
+      }
+    }
+  }
+
+  public DbSqlSessionFactory getDbSqlSessionFactory() {
+    return dbSqlSessionFactory;
+  }
+
+  public DataSource getDataSource() {
+    return dataSource;
+  }
+
+}
@@ -0,0 +1,63 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.sql.profiler;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Number of SQL statements executed by the commands of a type.
+ */
+public class CommandStatementStatistics {
+
+  protected final String commandName;
+
+  protected final AtomicLong commandCount = new AtomicLong();
+  protected final AtomicLong statementCount = new AtomicLong();
+  protected final AtomicLong maxStatementCount = new AtomicLong();
+
+  public CommandStatementStatistics(String commandName) {
+    this.commandName = commandName;
+  }
+
+  public void record(long statements) {
+    commandCount.incrementAndGet();
+    statementCount.addAndGet(statements);
+
+    long max = maxStatementCount.get();
+    while (statements > max && !maxStatementCount.compareAndSet(max, statements)) {
+      max = maxStatementCount.get();
+    }
+  }
+
+  public String getCommandName() {
+    return commandName;
+  }
+
+  public long getCommandCount() {
+    return commandCount.get();
+  }
+
+  public long getStatementCount() {
+    return statementCount.get();
+  }
+
+  public long getMaxStatementCount() {
+    return maxStatementCount.get();
+  }
+
+  public double getAverageStatementCount() {
+    long count = commandCount.get();
+    return count > 0 ? (double) statementCount.get() / count : 0;
+  }
+
+}
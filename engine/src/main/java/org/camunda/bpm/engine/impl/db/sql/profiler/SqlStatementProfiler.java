@@ -0,0 +1,231 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.sql.profiler;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+
+/**
+ * <p>Aggregates the executions of the SQL statements per MyBatis statement and the
+ * number of statements per command.</p>
+ *
+ * <p>To keep the overhead low, only one of {@link #getSampleRate()} commands of a
+ * thread is profiled, together with all statements it executes. The statistics are
+ * aggregated without locking, so the counts of a statement may be slightly out of sync
+ * while it is executed concurrently.</p>
+ */
+public class SqlStatementProfiler implements SqlStatementProfilerMXBean {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  public static final String MBEAN_DOMAIN = "org.camunda.bpm.engine";
+
+  protected volatile int sampleRate;
+
+  protected ConcurrentMap<String, SqlStatementStatistics> statementStatistics = new ConcurrentHashMap<String, SqlStatementStatistics>();
+  protected ConcurrentMap<String, CommandStatementStatistics> commandStatistics = new ConcurrentHashMap<String, CommandStatementStatistics>();
+
+  protected ThreadLocal<CommandProfile> currentCommand = new ThreadLocal<CommandProfile>();
+  protected ThreadLocal<int[]> sampleCounter = new ThreadLocal<int[]>() {
+    protected int[] initialValue() {
+      return new int[1];
+    }
+  };
+
+  protected ObjectName mBeanName;
+
+  public SqlStatementProfiler() {
+    this(1);
+  }
+
+  public SqlStatementProfiler(int sampleRate) {
+    setSampleRate(sampleRate);
+  }
+
+  // profiling ////////////////////////////////////////////////////////////
+
+  /**
+   * Starts profiling the given command unless a command is already profiled by the
+   * current thread.
+   *
+   * @return true if {@link #endCommand()} has to be called when the command is finished
+   */
+  public boolean startCommand(Object command) {
+    if (currentCommand.get() != null) {
+      return false;
+    }
+    currentCommand.set(new CommandProfile(command.getClass().getName(), nextSample()));
+    return true;
+  }
+
+  public void endCommand() {
+    CommandProfile profile = currentCommand.get();
+    currentCommand.remove();
+
+    if (profile != null && profile.sampled) {
+      getCommandStatistics(profile.commandName).record(profile.statementCount);
+    }
+  }
+
+  /**
+   * @return true if the statement which is about to be executed by the current thread is profiled
+   */
+  public boolean isSampled() {
+    CommandProfile profile = currentCommand.get();
+    if (profile != null) {
+      return profile.sampled;
+    }
+    else {
+      return nextSample();
+    }
+  }
+
+  public void recordStatement(String statementId, long durationInNanos, long rows) {
+    getStatementStatistics(statementId).record(durationInNanos, rows);
+
+    CommandProfile profile = currentCommand.get();
+    if (profile != null) {
+      profile.statementCount++;
+    }
+  }
+
+  protected boolean nextSample() {
+    int[] counter = sampleCounter.get();
+    counter[0] = (counter[0] + 1) % sampleRate;
+    return counter[0] == 0;
+  }
+
+  protected SqlStatementStatistics getStatementStatistics(String statementId) {
+    SqlStatementStatistics statistics = statementStatistics.get(statementId);
+    if (statistics == null) {
+      statistics = new SqlStatementStatistics(statementId);
+      SqlStatementStatistics existing = statementStatistics.putIfAbsent(statementId, statistics);
+      if (existing != null) {
+        statistics = existing;
+      }
+    }
+    return statistics;
+  }
+
+  protected CommandStatementStatistics getCommandStatistics(String commandName) {
+    CommandStatementStatistics statistics = commandStatistics.get(commandName);
+    if (statistics == null) {
+      statistics = new CommandStatementStatistics(commandName);
+      CommandStatementStatistics existing = commandStatistics.putIfAbsent(commandName, statistics);
+      if (existing != null) {
+        statistics = existing;
+      }
+    }
+    return statistics;
+  }
+
+  // statistics ///////////////////////////////////////////////////////////
+
+  public List<SqlStatementStatistics> getStatementStatistics() {
+    List<SqlStatementStatistics> result = new ArrayList<SqlStatementStatistics>(statementStatistics.values());
+    Collections.sort(result, new Comparator<SqlStatementStatistics>() {
+      public int compare(SqlStatementStatistics o1, SqlStatementStatistics o2) {
+        long d1 = o1.getTotalDurationInMicros();
+        long d2 = o2.getTotalDurationInMicros();
+        return d1 > d2 ? -1 : (d1 < d2 ? 1 : 0);
+      }
+    });
+    return result;
+  }
+
+  public List<CommandStatementStatistics> getCommandStatistics() {
+    List<CommandStatementStatistics> result = new ArrayList<CommandStatementStatistics>(commandStatistics.values());
+    Collections.sort(result, new Comparator<CommandStatementStatistics>() {
+      public int compare(CommandStatementStatistics o1, CommandStatementStatistics o2) {
+        long c1 = o1.getStatementCount();
+        long c2 = o2.getStatementCount();
+        return c1 > c2 ? -1 : (c1 < c2 ? 1 : 0);
+      }
+    });
+    return result;
+  }
+
+  public int getSampleRate() {
+    return sampleRate;
+  }
+
+  public void setSampleRate(int sampleRate) {
+    this.sampleRate = Math.max(1, sampleRate);
+  }
+
+  public void reset() {
+    statementStatistics.clear();
+    commandStatistics.clear();
+  }
+
+  // jmx //////////////////////////////////////////////////////////////////
+
+  /**
+   * Registers the profiler as MXBean of the platform MBean server. A profiler
+   * registered before under the same name is replaced.
+   */
+  public synchronized void registerMBean(String processEngineName) {
+    unregisterMBean();
+
+    String name = MBEAN_DOMAIN + ":type=SqlStatementProfiler,name=" + ObjectName.quote(processEngineName);
+    try {
+      ObjectName objectName = new ObjectName(name);
+      MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+      if (mBeanServer.isRegistered(objectName)) {
+        mBeanServer.unregisterMBean(objectName);
+      }
+      mBeanServer.registerMBean(this, objectName);
+      mBeanName = objectName;
+    }
+    catch (Exception e) {
+      LOG.couldNotRegisterSqlStatementProfilerMBean(name, e);
+    }
+  }
+
+  public synchronized void unregisterMBean() {
+    if (mBeanName != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(mBeanName);
+      }
+      catch (Exception e) {
+        LOG.couldNotUnregisterSqlStatementProfilerMBean(mBeanName.toString(), e);
+      }
+      mBeanName = null;
+    }
+  }
+
+  protected static class CommandProfile {
+
+    protected final String commandName;
+    protected final boolean sampled;
+    protected long statementCount;
+
+    public CommandProfile(String commandName, boolean sampled) {
+      this.commandName = commandName;
+      this.sampled = sampled;
+    }
+
+  }
+
+}
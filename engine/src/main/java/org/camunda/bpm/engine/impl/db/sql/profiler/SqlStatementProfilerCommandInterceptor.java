@@ -0,0 +1,42 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.sql.profiler;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+
+/**
+ * Counts the statements executed by the outermost command of a thread, including
+ * the statements of all nested commands.
+ */
+public class SqlStatementProfilerCommandInterceptor extends CommandInterceptor {
+
+  protected SqlStatementProfiler profiler;
+
+  public SqlStatementProfilerCommandInterceptor(SqlStatementProfiler profiler) {
+    this.profiler = profiler;
+  }
+
+  public <T> T execute(Command<T> command) {
+    boolean started = profiler.startCommand(command);
+    try {
+      return next.execute(command);
+    }
+    finally {
+      if (started) {
+        profiler.endCommand();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,87 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.sql.profiler;
+
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+
+/**
+ * <p>MyBatis interceptor measuring the statements executed by the process engine.</p>
+ *
+ * <p>The statements are recorded by the {@link SqlStatementProfiler} of the current
+ * process engine, so a single interceptor serves all process engines which share a
+ * {@link org.apache.ibatis.session.SqlSessionFactory}.</p>
+ */
+@Intercepts({
+  @Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }),
+  @Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class })
+})
+public class SqlStatementProfilerInterceptor implements Interceptor {
+
+  public Object intercept(Invocation invocation) throws Throwable {
+    SqlStatementProfiler profiler = getProfiler();
+    if (profiler == null || !profiler.isSampled()) {
+      return invocation.proceed();
+    }
+
+    MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+    Object result = null;
+    long start = System.nanoTime();
+    try {
+      result = invocation.proceed();
+      return result;
+    }
+    finally {
+      profiler.recordStatement(statement.getId(), System.nanoTime() - start, getRowCount(result));
+    }
+  }
+
+  protected SqlStatementProfiler getProfiler() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    return processEngineConfiguration != null ? processEngineConfiguration.getSqlStatementProfiler() : null;
+  }
+
+  protected long getRowCount(Object result) {
+    if (result instanceof List) {
+      return ((List<?>) result).size();
+    }
+    else if (result instanceof Integer) {
+      // batch executors return a negative constant
+      return Math.max(0, (Integer) result);
+    }
+    else {
+      return 0;
+    }
+  }
+
+  public Object plugin(Object target) {
+    return Plugin.wrap(target, this);
+  }
+
+  public void setProperties(Properties properties) {
+    // nothing to configure
+  }
+
+}
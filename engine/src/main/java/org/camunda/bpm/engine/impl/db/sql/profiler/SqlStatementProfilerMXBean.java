@@ -0,0 +1,44 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.sql.profiler;
+
+import java.util.List;
+
+/**
+ * <p>MXBean exposing the statistics of the {@link SqlStatementProfiler}.</p>
+ */
+public interface SqlStatementProfilerMXBean {
+
+  /**
+   * @return the statistics of the profiled statements, ordered by their total duration
+   */
+  List<SqlStatementStatistics> getStatementStatistics();
+
+  /**
+   * @return the statistics of the profiled commands, ordered by their total number of statements
+   */
+  List<CommandStatementStatistics> getCommandStatistics();
+
+  /**
+   * Only one of <code>sampleRate</code> commands is profiled.
+   */
+  int getSampleRate();
+
+  void setSampleRate(int sampleRate);
+
+  /**
+   * Discards all statistics.
+   */
+  void reset();
+
+}
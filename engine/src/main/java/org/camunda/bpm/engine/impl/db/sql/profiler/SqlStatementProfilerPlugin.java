@@ -0,0 +1,97 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.sql.profiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.session.Configuration;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+
+/**
+ * <p>ProcessEnginePlugin activating the {@link SqlStatementProfiler}.</p>
+ *
+ * <p>Registers a MyBatis interceptor which measures the latency and the number of rows
+ * of every statement, and a command interceptor which counts the statements per command.
+ * If {@link #isRegisterMBean()} is true, the statistics are exposed as MXBean
+ * <code>org.camunda.bpm.engine:type=SqlStatementProfiler,name="&lt;engine name&gt;"</code>.</p>
+ */
+public class SqlStatementProfilerPlugin extends AbstractProcessEnginePlugin {
+
+  /** only one of <code>sampleRate</code> commands is profiled */
+  protected int sampleRate = 1;
+
+  protected boolean registerMBean = true;
+
+  @Override
+  public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    SqlStatementProfiler profiler = new SqlStatementProfiler(sampleRate);
+    processEngineConfiguration.setSqlStatementProfiler(profiler);
+
+    processEngineConfiguration.setCustomPreCommandInterceptorsTxRequired(
+        addInterceptor(processEngineConfiguration.getCustomPreCommandInterceptorsTxRequired(), profiler));
+    processEngineConfiguration.setCustomPreCommandInterceptorsTxRequiresNew(
+        addInterceptor(processEngineConfiguration.getCustomPreCommandInterceptorsTxRequiresNew(), profiler));
+  }
+
+  protected List<CommandInterceptor> addInterceptor(List<CommandInterceptor> interceptors, SqlStatementProfiler profiler) {
+    List<CommandInterceptor> result = new ArrayList<CommandInterceptor>();
+    result.add(new SqlStatementProfilerCommandInterceptor(profiler));
+    if (interceptors != null) {
+      result.addAll(interceptors);
+    }
+    return result;
+  }
+
+  @Override
+  public void postInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    Configuration configuration = processEngineConfiguration.getSqlSessionFactory().getConfiguration();
+
+    // the sql session factory may be shared with other process engines
+    for (Interceptor interceptor : configuration.getInterceptors()) {
+      if (interceptor instanceof SqlStatementProfilerInterceptor) {
+        return;
+      }
+    }
+    configuration.addInterceptor(new SqlStatementProfilerInterceptor());
+  }
+
+  @Override
+  public void postProcessEngineBuild(ProcessEngine processEngine) {
+    if (registerMBean) {
+      ProcessEngineConfigurationImpl processEngineConfiguration = (ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration();
+      processEngineConfiguration.getSqlStatementProfiler().registerMBean(processEngine.getName());
+    }
+  }
+
+  public int getSampleRate() {
+    return sampleRate;
+  }
+
+  public void setSampleRate(int sampleRate) {
+    this.sampleRate = sampleRate;
+  }
+
+  public boolean isRegisterMBean() {
+    return registerMBean;
+  }
+
+  public void setRegisterMBean(boolean registerMBean) {
+    this.registerMBean = registerMBean;
+  }
+
+}
@@ -0,0 +1,98 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.sql.profiler;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>Aggregated executions of a single MyBatis statement.</p>
+ *
+ * <p>The latencies are counted in the buckets bounded by
+ * {@link #LATENCY_BUCKET_BOUNDS_IN_MICROS}; the last bucket counts all executions
+ * which took longer than the largest bound.</p>
+ */
+public class SqlStatementStatistics {
+
+  public static final long[] LATENCY_BUCKET_BOUNDS_IN_MICROS = { 100, 1000, 10000, 100000, 1000000 };
+
+  protected final String statementId;
+
+  protected final AtomicLong executionCount = new AtomicLong();
+  protected final AtomicLong totalDurationInNanos = new AtomicLong();
+  protected final AtomicLong maxDurationInNanos = new AtomicLong();
+  protected final AtomicLong rowCount = new AtomicLong();
+  protected final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKET_BOUNDS_IN_MICROS.length + 1);
+
+  public SqlStatementStatistics(String statementId) {
+    this.statementId = statementId;
+  }
+
+  public void record(long durationInNanos, long rows) {
+    executionCount.incrementAndGet();
+    totalDurationInNanos.addAndGet(durationInNanos);
+    rowCount.addAndGet(rows);
+    latencyHistogram.incrementAndGet(getBucketIndex(durationInNanos / 1000));
+
+    long max = maxDurationInNanos.get();
+    while (durationInNanos > max && !maxDurationInNanos.compareAndSet(max, durationInNanos)) {
+      max = maxDurationInNanos.get();
+    }
+  }
+
+  protected int getBucketIndex(long durationInMicros) {
+    for (int i = 0; i < LATENCY_BUCKET_BOUNDS_IN_MICROS.length; i++) {
+      if (durationInMicros < LATENCY_BUCKET_BOUNDS_IN_MICROS[i]) {
+        return i;
+      }
+    }
+    return LATENCY_BUCKET_BOUNDS_IN_MICROS.length;
+  }
+
+  public String getStatementId() {
+    return statementId;
+  }
+
+  public long getExecutionCount() {
+    return executionCount.get();
+  }
+
+  public long getTotalDurationInMicros() {
+    return totalDurationInNanos.get() / 1000;
+  }
+
+  public long getAverageDurationInMicros() {
+    long count = executionCount.get();
+    return count > 0 ? totalDurationInNanos.get() / count / 1000 : 0;
+  }
+
+  public long getMaxDurationInMicros() {
+    return maxDurationInNanos.get() / 1000;
+  }
+
+  public long getRowCount() {
+    return rowCount.get();
+  }
+
+  /**
+   * @return the number of executions per latency bucket, see {@link #LATENCY_BUCKET_BOUNDS_IN_MICROS}
+   */
+  public long[] getLatencyHistogram() {
+    long[] histogram = new long[latencyHistogram.length()];
+    for (int i = 0; i < histogram.length; i++) {
+      histogram[i] = latencyHistogram.get(i);
+    }
+    return histogram;
+  }
+
+}
@@ -0,0 +1,52 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.externaltask;
+
+import org.camunda.bpm.engine.externaltask.ExternalTaskOperationResult;
+
+public class ExternalTaskOperationResultImpl implements ExternalTaskOperationResult {
+
+  protected String externalTaskId;
+  protected String errorMessage;
+
+  public ExternalTaskOperationResultImpl(String externalTaskId, String errorMessage) {
+    this.externalTaskId = externalTaskId;
+    this.errorMessage = errorMessage;
+  }
+
+  public static ExternalTaskOperationResult successful(String externalTaskId) {
+    return new ExternalTaskOperationResultImpl(externalTaskId, null);
+  }
+
+  public static ExternalTaskOperationResult failed(String externalTaskId, String errorMessage) {
+    return new ExternalTaskOperationResultImpl(externalTaskId, errorMessage);
+  }
+
+  public String getExternalTaskId() {
+    return externalTaskId;
+  }
+
+  public boolean isSuccessful() {
+    return errorMessage == null;
+  }
+
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  @Override
+  public String toString() {
+    return "ExternalTaskOperationResultImpl [externalTaskId=" + externalTaskId + ", errorMessage=" + errorMessage + "]";
+  }
+
+}
@@ -0,0 +1,299 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
+import org.camunda.bpm.engine.impl.identity.Authentication;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.FilterEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+
+/**
+ * <p>Bounded, time based cache for the results of filter counts. Counts are cached per
+ * filter, extending query and authentication (user, groups, tenants), since the result
+ * of a filter depends on the authorizations of the current user.</p>
+ *
+ * <p>The counts of a filter are invalidated when a transaction which modified the filter ends;
+ * all counts are invalidated when a transaction which inserted, updated or deleted tasks or
+ * modified authorizations ends. Counts which were executed concurrently to such a modification
+ * are not cached, which is detected by the {@link #getVersion() version} of the cache observed
+ * before the count was executed. Counts are not invalidated when identity links or variables
+ * of tasks are modified; such counts may be stale for at most the configured time to live.</p>
+ */
+public class FilterCountCache {
+
+  public static final int DEFAULT_MAX_SIZE = 10000;
+  public static final long DEFAULT_TIME_TO_LIVE = 5 * 1000;
+
+  protected final int maxSize;
+  protected final long timeToLive;
+
+  protected final AtomicLong version = new AtomicLong();
+  protected final Map<String, CacheEntry> entries;
+
+  protected final AtomicLong hitCount = new AtomicLong();
+  protected final AtomicLong missCount = new AtomicLong();
+
+  public FilterCountCache() {
+    this(DEFAULT_MAX_SIZE, DEFAULT_TIME_TO_LIVE);
+  }
+
+  public FilterCountCache(final int maxSize, long timeToLive) {
+    this.maxSize = maxSize;
+    this.timeToLive = timeToLive;
+
+    // access ordered map to evict the least recently used count first
+    this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * @param query the query of the filter extended by an extending query (e.g. as json) or null
+   *   if the filter is counted without extending query
+   *
+   * @return the cached count of the filter for the current authentication
+   * or null if no valid count is cached
+   */
+  public Long getCount(String filterId, String query, CommandContext commandContext) {
+    String key = createKey(filterId, query, commandContext);
+
+    synchronized (entries) {
+      CacheEntry entry = entries.get(key);
+
+      if (entry != null) {
+        if (ClockUtil.getCurrentTime().getTime() < entry.expirationTime) {
+          hitCount.incrementAndGet();
+          return entry.count;
+        }
+        entries.remove(key);
+      }
+    }
+
+    missCount.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * Caches the count of a filter for the current authentication.
+   *
+   * @param version the version of the cache obtained before the count was executed
+   */
+  public void putCount(String filterId, String query, CommandContext commandContext, long count, long version) {
+    String key = createKey(filterId, query, commandContext);
+    CacheEntry entry = new CacheEntry(count, ClockUtil.getCurrentTime().getTime() + timeToLive);
+
+    synchronized (entries) {
+      // checked while holding the lock, since invalidations increment the version before they remove entries
+      if (version != this.version.get()) {
+        // the count may already be outdated
+        return;
+      }
+      entries.put(key, entry);
+    }
+  }
+
+  /**
+   * Registers the invalidation of the affected counts at the end of the current transaction
+   * if any of the given operations modifies tasks, filters or authorizations.
+   */
+  public void registerFlushedOperations(List<DbOperation> operations) {
+    CommandContext commandContext = Context.getCommandContext();
+    if (commandContext == null) {
+      return;
+    }
+
+    // a modified task may change the count of any filter
+    boolean isAllModified = false;
+    Set<String> modifiedFilterIds = new HashSet<String>();
+
+    for (DbOperation operation : operations) {
+      if (TaskEntity.class.isAssignableFrom(operation.getEntityType())
+          || AuthorizationEntity.class.isAssignableFrom(operation.getEntityType())) {
+        isAllModified = true;
+      }
+      else if (FilterEntity.class.isAssignableFrom(operation.getEntityType())) {
+        if (operation instanceof DbEntityOperation) {
+          modifiedFilterIds.add(((DbEntityOperation) operation).getEntity().getId());
+        }
+        else {
+          isAllModified = true;
+        }
+      }
+    }
+
+    if (isAllModified || !modifiedFilterIds.isEmpty()) {
+      // invalidate as soon as the modifications are visible to other transactions;
+      // also on rollback, since counts of the same transaction may have seen them
+      TransactionListener invalidationListener = new InvalidationListener(isAllModified ? null : modifiedFilterIds);
+      commandContext.getTransactionContext().addTransactionListener(TransactionState.COMMITTED, invalidationListener);
+      commandContext.getTransactionContext().addTransactionListener(TransactionState.ROLLED_BACK, invalidationListener);
+    }
+  }
+
+  /**
+   * Invalidates all cached counts.
+   */
+  public void invalidate() {
+    synchronized (entries) {
+      version.incrementAndGet();
+      entries.clear();
+    }
+  }
+
+  /**
+   * Invalidates the cached counts of the given filter.
+   */
+  public void invalidate(String filterId) {
+    String keyPrefix = filterId + "|";
+
+    synchronized (entries) {
+      version.incrementAndGet();
+
+      Iterator<String> keys = entries.keySet().iterator();
+      while (keys.hasNext()) {
+        if (keys.next().startsWith(keyPrefix)) {
+          keys.remove();
+        }
+      }
+    }
+  }
+
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  public long getVersion() {
+    return version.get();
+  }
+
+  public int getSize() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public long getTimeToLive() {
+    return timeToLive;
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  protected String createKey(String filterId, String query, CommandContext commandContext) {
+    StringBuilder key = new StringBuilder(filterId);
+
+    // the filter id comes first, so that the counts of a filter can be invalidated by prefix
+    key.append("|");
+    if (query != null) {
+      key.append(query);
+    }
+
+    Authentication authentication = commandContext.getAuthentication();
+    if (authentication != null) {
+      key.append("|").append(authentication.getUserId());
+      appendSorted(key, authentication.getGroupIds());
+      appendSorted(key, authentication.getTenantIds());
+    }
+    else {
+      key.append("|");
+    }
+
+    key.append("|").append(commandContext.isAuthorizationCheckEnabled());
+    key.append("|").append(commandContext.isTenantCheckEnabled());
+
+    return key.toString();
+  }
+
+  protected void appendSorted(StringBuilder key, List<String> ids) {
+    key.append("|");
+
+    if (ids != null && !ids.isEmpty()) {
+      List<String> sortedIds = new ArrayList<String>(ids);
+      Collections.sort(sortedIds);
+
+      Iterator<String> iterator = sortedIds.iterator();
+      while (iterator.hasNext()) {
+        key.append(iterator.next());
+        if (iterator.hasNext()) {
+          key.append(",");
+        }
+      }
+    }
+  }
+
+  protected static class CacheEntry {
+
+    protected final long count;
+    protected final long expirationTime;
+
+    public CacheEntry(long count, long expirationTime) {
+      this.count = count;
+      this.expirationTime = expirationTime;
+    }
+  }
+
+  protected class InvalidationListener implements TransactionListener {
+
+    /** null if all counts are invalidated */
+    protected Set<String> filterIds;
+
+    public InvalidationListener(Set<String> filterIds) {
+      this.filterIds = filterIds;
+    }
+
+    public void execute(CommandContext commandContext) {
+      if (filterIds == null) {
+        invalidate();
+      }
+      else {
+        for (String filterId : filterIds) {
+          invalidate(filterId);
+        }
+      }
+    }
+  }
+
+}
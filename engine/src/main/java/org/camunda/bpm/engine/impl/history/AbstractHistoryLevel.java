@@ -30,11 +30,10 @@ public abstract class AbstractHistoryLevel implements HistoryLevel {
   public boolean equals(Object obj) {
     if (this == obj)
       return true;
-    if (obj == null)
+    if (!(obj instanceof HistoryLevel))
       return false;
-    if (getClass() != obj.getClass())
-      return false;
-    AbstractHistoryLevel other = (AbstractHistoryLevel) obj;
+    // history levels are identified by their id only, so that a level equals the levels which wrap it
+    HistoryLevel other = (HistoryLevel) obj;
     if (getId() != other.getId())
       return false;
     return true;
@@ -0,0 +1,176 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history;
+
+import java.io.File;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+
+/**
+ * Logger for the writing of history events.
+ */
+public class HistoryLogger extends ProcessEngineLogger {
+
+  public void exceptionWhileWritingHistoryEvents(String outboxEntryId, Throwable e) {
+    logWarn(
+        "001",
+        "Exception while writing the history events of outbox entry '{}' asynchronously",
+        outboxEntryId, e);
+  }
+
+  public void historyEventsNotWrittenOnStop(Throwable e) {
+    logWarn(
+        "002",
+        "Could not write all history events while stopping the asynchronous history event writer. "
+        + "The remaining events stay in the outbox and are written when the writer is started again.",
+        e);
+  }
+
+  public void startingAsyncHistoryEventWriter() {
+    logInfo(
+        "003",
+        "Starting asynchronous history event writer");
+  }
+
+  public void stoppingAsyncHistoryEventWriter() {
+    logInfo(
+        "004",
+        "Stopping asynchronous history event writer, writing the remaining history events of the outbox");
+  }
+
+  public ProcessEngineException cannotSerializeHistoryEvent(String historyEventId, Throwable cause) {
+    return new ProcessEngineException(exceptionMessage(
+        "005",
+        "Cannot serialize history event '{}' for the history event log",
+        historyEventId), cause);
+  }
+
+  public ProcessEngineException cannotDeserializeHistoryEvent(Throwable cause) {
+    return new ProcessEngineException(exceptionMessage(
+        "006",
+        "Cannot deserialize history event of the history event log"), cause);
+  }
+
+  public ProcessEngineException cannotAccessHistoryEventLogSegment(File segment, Throwable cause) {
+    return new ProcessEngineException(exceptionMessage(
+        "007",
+        "Cannot access segment '{}' of the history event log",
+        segment), cause);
+  }
+
+  public ProcessEngineException invalidHistoryEventLogSegment(File segment) {
+    return new ProcessEngineException(exceptionMessage(
+        "008",
+        "File '{}' is not a segment of the history event log",
+        segment));
+  }
+
+  public ProcessEngineException historyEventExceedsSegmentSize(int recordSize, int segmentSize) {
+    return new ProcessEngineException(exceptionMessage(
+        "009",
+        "History event of {} bytes exceeds the segment size of the history event log ({} bytes)",
+        recordSize, segmentSize));
+  }
+
+  public ProcessEngineException historyEventLogNotOpen() {
+    return new ProcessEngineException(exceptionMessage(
+        "010",
+        "The history event log is not open"));
+  }
+
+  public void corruptHistoryEventLogRecord(File segment, int position) {
+    logWarn(
+        "011",
+        "Corrupt record at position {} of history event log segment '{}'. The record is skipped.",
+        position, segment);
+  }
+
+  public void couldNotAggregateHistoricDurations(Exception e) {
+    logWarn(
+        "012", "Could not aggregate the durations of historic process instances", e);
+  }
+
+  public ProcessEngineException cannotSerializeHistoryOutboxEntry(String outboxEntryId, Throwable cause) {
+    return new ProcessEngineException(exceptionMessage(
+        "013",
+        "Cannot serialize the history events of outbox entry '{}'",
+        outboxEntryId), cause);
+  }
+
+  public ProcessEngineException cannotDeserializeHistoryOutboxEntry(String outboxEntryId, Throwable cause) {
+    return new ProcessEngineException(exceptionMessage(
+        "014",
+        "Cannot deserialize the history events of outbox entry '{}'",
+        outboxEntryId), cause);
+  }
+
+  public void historyOutboxEntryQuarantined(String outboxEntryId, int attempts) {
+    logError(
+        "015",
+        "Could not write the history events of outbox entry '{}' in {} attempts. The entry is quarantined "
+        + "and stays in the outbox, the following entries are written.",
+        outboxEntryId, attempts);
+  }
+
+  public ProcessEngineException historyOutboxEntryNotWritten(String outboxEntryId) {
+    return new ProcessEngineException(exceptionMessage(
+        "016",
+        "Could not write the history events of outbox entry '{}'. The entry is written again later.",
+        outboxEntryId));
+  }
+
+  public void exceptionWhileReadingHistoryOutbox(Throwable e) {
+    logWarn(
+        "017",
+        "Exception while reading the outbox of the asynchronous history event writer", e);
+  }
+
+  public void corruptHistoryEventLogRecords(File segment, int position, int nextPosition) {
+    logWarn(
+        "018",
+        "Corrupt records at position {} of history event log segment '{}'. The records up to position {} are skipped.",
+        position, segment, nextPosition);
+  }
+
+  public void corruptHistoryEventLogSegmentEnd(File segment, int position) {
+    logWarn(
+        "019",
+        "Corrupt records at position {} of history event log segment '{}'. The rest of the segment is skipped.",
+        position, segment);
+  }
+
+  public void invalidHistoryEventLogSegmentSkipped(File segment) {
+    logWarn(
+        "020",
+        "File '{}' is not a segment of the history event log of this version. The segment is skipped.",
+        segment);
+  }
+
+  public void cannotAppendHistoryEvents(int count, int pendingCount, Throwable cause) {
+    logError(
+        "021",
+        "Cannot append {} history events of a committed transaction to the history event log. {} events are "
+        + "appended again with the next events.",
+        count, pendingCount, cause);
+  }
+
+  public void droppedHistoryEvents(int count, int maxPendingCount) {
+    logError(
+        "022",
+        "Dropped {} history events which could not be appended to the history event log, since more than {} "
+        + "events are pending.",
+        count, maxPendingCount);
+  }
+
+}
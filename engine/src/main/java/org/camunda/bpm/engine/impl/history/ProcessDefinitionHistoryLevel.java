@@ -0,0 +1,174 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventType;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.IdentityLinkEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.IncidentEntity;
+import org.camunda.bpm.engine.impl.persistence.deploy.DeploymentCache;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
+import org.camunda.bpm.engine.runtime.Job;
+
+/**
+ * <p>History level of the process engine if history levels per process definition are enabled
+ * (see {@link ProcessEngineConfigurationImpl#setProcessDefinitionHistoryLevelEnabled(boolean)}).</p>
+ *
+ * <p>Wraps the history level configured for the process engine. If a history event is produced for
+ * an entity which belongs to a process definition with its own history level, that history level
+ * decides whether the event is produced. The history level of a process definition is resolved when the
+ * process definition is parsed (see {@link ProcessDefinitionEntity#getDefinedHistoryLevel()}).</p>
+ *
+ * <p>Entities which only reference their process definition by id, like tasks, jobs, incidents and
+ * identity links, are mapped to the history level of the process definition by a map of process
+ * definition ids, so that the process definition is looked up at most once. The map holds an entry per
+ * process definition which produced history since the engine was started.</p>
+ *
+ * <p>Id and name are the ones of the history level of the process engine, so that this history level
+ * equals the wrapped one (see {@link AbstractHistoryLevel#equals(Object)}).</p>
+ */
+public class ProcessDefinitionHistoryLevel extends AbstractHistoryLevel {
+
+  protected final HistoryLevel engineHistoryLevel;
+
+  /** history levels by process definition id, the engine history level if the process definition has none */
+  protected final ConcurrentHashMap<String, HistoryLevel> historyLevelsByProcessDefinitionId = new ConcurrentHashMap<String, HistoryLevel>();
+
+  public ProcessDefinitionHistoryLevel(HistoryLevel engineHistoryLevel) {
+    this.engineHistoryLevel = engineHistoryLevel;
+  }
+
+  public int getId() {
+    return engineHistoryLevel.getId();
+  }
+
+  public String getName() {
+    return engineHistoryLevel.getName();
+  }
+
+  public boolean isHistoryEventProduced(HistoryEventType eventType, Object entity) {
+    return getHistoryLevel(entity).isHistoryEventProduced(eventType, entity);
+  }
+
+  /**
+   * @return the history level of the process definition the given entity belongs to or the history
+   * level of the process engine if the process definition has no own history level
+   */
+  protected HistoryLevel getHistoryLevel(Object entity) {
+    if (entity instanceof ExecutionEntity) {
+      return getHistoryLevel(((ExecutionEntity) entity).getProcessDefinition());
+    }
+    else if (entity instanceof VariableInstanceEntity) {
+      ExecutionEntity execution = ((VariableInstanceEntity) entity).getExecution();
+      if (execution != null) {
+        return getHistoryLevel(execution.getProcessDefinition());
+      }
+      else {
+        return engineHistoryLevel;
+      }
+    }
+    else {
+      return getHistoryLevel(getProcessDefinitionId(entity));
+    }
+  }
+
+  protected HistoryLevel getHistoryLevel(ProcessDefinitionEntity processDefinition) {
+    if (processDefinition != null && processDefinition.getDefinedHistoryLevel() != null) {
+      return processDefinition.getDefinedHistoryLevel();
+    }
+    else {
+      return engineHistoryLevel;
+    }
+  }
+
+  protected HistoryLevel getHistoryLevel(String processDefinitionId) {
+    if (processDefinitionId == null) {
+      return engineHistoryLevel;
+    }
+
+    HistoryLevel historyLevel = historyLevelsByProcessDefinitionId.get(processDefinitionId);
+    if (historyLevel == null) {
+      ProcessDefinitionEntity processDefinition = findProcessDefinition(processDefinitionId);
+      if (processDefinition == null || !processDefinition.isDefinedHistoryLevelResolved()) {
+        // not cached, the process definition may be found later
+        return getHistoryLevel(processDefinition);
+      }
+
+      historyLevel = getHistoryLevel(processDefinition);
+      historyLevelsByProcessDefinitionId.put(processDefinitionId, historyLevel);
+    }
+
+    return historyLevel;
+  }
+
+  protected String getProcessDefinitionId(Object entity) {
+    if (entity instanceof TaskEntity) {
+      return ((TaskEntity) entity).getProcessDefinitionId();
+    }
+    else if (entity instanceof Job) {
+      return ((Job) entity).getProcessDefinitionId();
+    }
+    else if (entity instanceof IncidentEntity) {
+      return ((IncidentEntity) entity).getProcessDefinitionId();
+    }
+    else if (entity instanceof IdentityLinkEntity) {
+      return ((IdentityLinkEntity) entity).getProcessDefId();
+    }
+    else if (entity instanceof HistoryEvent) {
+      return ((HistoryEvent) entity).getProcessDefinitionId();
+    }
+    else {
+      return null;
+    }
+  }
+
+  /**
+   * @return the process definition with the given id or null if it does not exist (anymore)
+   */
+  protected ProcessDefinitionEntity findProcessDefinition(String processDefinitionId) {
+    if (Context.getCommandContext() == null) {
+      return null;
+    }
+
+    DeploymentCache deploymentCache = Context.getProcessEngineConfiguration().getDeploymentCache();
+    ProcessDefinitionEntity processDefinition = deploymentCache.findProcessDefinitionFromCache(processDefinitionId);
+    if (processDefinition == null) {
+      try {
+        processDefinition = deploymentCache.findDeployedProcessDefinitionById(processDefinitionId);
+      }
+      catch (ProcessEngineException e) {
+        // the process definition was deleted, e.g. while a job of it is deleted
+        processDefinition = null;
+      }
+    }
+    return processDefinition;
+  }
+
+  public HistoryLevel getEngineHistoryLevel() {
+    return engineHistoryLevel;
+  }
+
+  @Override
+  public String toString() {
+    return engineHistoryLevel.toString();
+  }
+
+}
@@ -40,6 +40,8 @@ public class HistoricDecisionInstanceManager extends AbstractHistoricManager {
 
   public void deleteHistoricDecisionInstancesByDecisionDefinitionId(String decisionDefinitionId) {
     if (isHistoryEnabled()) {
+      getHistoryOutboxManager().discardPendingHistoryEventsByDecisionDefinitionId(decisionDefinitionId);
+
       List<HistoricDecisionInstanceEntity> decisionInstances = findHistoricDecisionInstancesByDecisionDefinitionId(decisionDefinitionId);
 
       Set<String> decisionInstanceIds = new HashSet<String>();
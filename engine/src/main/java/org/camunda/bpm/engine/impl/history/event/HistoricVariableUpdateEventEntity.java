@@ -38,6 +38,9 @@ public class HistoricVariableUpdateEventEntity extends HistoricDetailEventEntity
 
   protected String byteArrayId;
 
+  /** the byte array of the historic variable instance if the database copied the byte value instead of the event */
+  protected String historicVariableInstanceByteArrayId;
+
   // getter / setters ////////////////////////////
 
   public String getSerializerName() {
@@ -94,6 +97,12 @@ public class HistoricVariableUpdateEventEntity extends HistoricDetailEventEntity
   public String getByteArrayId() {
     return byteArrayId;
   }
+  public String getHistoricVariableInstanceByteArrayId() {
+    return historicVariableInstanceByteArrayId;
+  }
+  public void setHistoricVariableInstanceByteArrayId(String historicVariableInstanceByteArrayId) {
+    this.historicVariableInstanceByteArrayId = historicVariableInstanceByteArrayId;
+  }
   public String getVariableInstanceId() {
     return variableInstanceId;
   }
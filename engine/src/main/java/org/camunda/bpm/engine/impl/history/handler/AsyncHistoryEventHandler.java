@@ -0,0 +1,118 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.handler;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.camunda.bpm.engine.impl.cfg.TransactionContext;
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryOutboxEntryEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryOutboxManager;
+
+/**
+ * <p>History event handler that decouples the writing of history events from the
+ * runtime transaction. Instead of inserting the events into the history tables, the
+ * runtime transaction inserts them into a single entry of the transactional outbox
+ * (table <code>ACT_RU_HIST_OUTBOX</code>). An {@link AsyncHistoryEventWriter} reads
+ * the outbox and writes the events into the history tables in large batches.</p>
+ *
+ * <p>Since the outbox entry is part of the runtime transaction, the events of a
+ * committed transaction survive a crash of the process engine and the events of a
+ * rolled back transaction are discarded.</p>
+ *
+ * <p>While a transaction commits, its entry gets the next value of the outbox sequence,
+ * which orders the entries by the commit of their transactions. The writer applies the
+ * entries in this order, so that an update of a history event is never written before
+ * the event itself.</p>
+ *
+ * <p>When a transaction commits, the id of its entry is offered to a bounded queue,
+ * so that the writer does not have to wait for its next poll. If the queue is full,
+ * the committing thread does not wait: the writer reads the entry from the outbox
+ * anyway.</p>
+ */
+public class AsyncHistoryEventHandler implements HistoryEventHandler {
+
+  public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+
+  protected final BlockingQueue<String> committedEntryIds;
+
+  public AsyncHistoryEventHandler() {
+    this(DEFAULT_QUEUE_CAPACITY);
+  }
+
+  public AsyncHistoryEventHandler(int queueCapacity) {
+    this.committedEntryIds = new LinkedBlockingQueue<String>(queueCapacity);
+  }
+
+  public void handleEvent(HistoryEvent historyEvent) {
+    handleEvents(Collections.singletonList(historyEvent));
+  }
+
+  public void handleEvents(List<HistoryEvent> historyEvents) {
+    CommandContext commandContext = Context.getCommandContext();
+    HistoryOutboxManager historyOutboxManager = commandContext.getHistoryOutboxManager();
+
+    HistoryOutboxEntryEntity entry = historyOutboxManager.getCurrentEntry();
+    if (entry == null) {
+      entry = historyOutboxManager.createCurrentEntry();
+
+      TransactionContext transactionContext = commandContext.getTransactionContext();
+      transactionContext.addTransactionListener(TransactionState.COMMITTING, new AssignCommitSequenceListener(entry));
+      transactionContext.addTransactionListener(TransactionState.COMMITTED, new NotifyWriterListener(entry.getId()));
+    }
+
+    entry.addHistoryEvents(historyEvents);
+  }
+
+  /**
+   * @return the ids of the outbox entries which were committed since the writer last read the outbox
+   */
+  public BlockingQueue<String> getCommittedEntryIds() {
+    return committedEntryIds;
+  }
+
+  protected class AssignCommitSequenceListener implements TransactionListener {
+
+    protected HistoryOutboxEntryEntity entry;
+
+    public AssignCommitSequenceListener(HistoryOutboxEntryEntity entry) {
+      this.entry = entry;
+    }
+
+    public void execute(CommandContext commandContext) {
+      commandContext.getHistoryOutboxManager().assignCommitSequence(entry);
+    }
+  }
+
+  protected class NotifyWriterListener implements TransactionListener {
+
+    protected String entryId;
+
+    public NotifyWriterListener(String entryId) {
+      this.entryId = entryId;
+    }
+
+    public void execute(CommandContext commandContext) {
+      // never blocks; if the queue is full, the writer is busy and finds the entry in the outbox
+      committedEntryIds.offer(entryId);
+    }
+  }
+
+}
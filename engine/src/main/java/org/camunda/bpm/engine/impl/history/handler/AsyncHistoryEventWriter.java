@@ -0,0 +1,269 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.handler;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cmd.GetHistoryOutboxEntryIdsCmd;
+import org.camunda.bpm.engine.impl.cmd.HandleHistoryOutboxEntryFailureCmd;
+import org.camunda.bpm.engine.impl.cmd.WriteHistoryEventsCmd;
+import org.camunda.bpm.engine.impl.history.HistoryLogger;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+
+/**
+ * <p>Background writer which reads the transactional outbox filled by an
+ * {@link AsyncHistoryEventHandler} and writes the history events of up to
+ * {@link #getBatchSize()} outbox entries, i.e. runtime transactions, in a single
+ * transaction.</p>
+ *
+ * <p>The entries are written in the order in which their transactions committed. If a batch
+ * cannot be written, its entries are written one by one to isolate the failing entry.
+ * The failing entry is written again after {@link #getRetryInterval()} milliseconds;
+ * the entries committed after it wait, since they may update its events. After
+ * {@link #getMaxAttempts()} failed attempts the entry is quarantined: it stays in the
+ * outbox for inspection and the following entries are written.</p>
+ *
+ * <p>Since the outbox is a database table, several process engines of a cluster can
+ * run a writer. An entry is removed from the outbox in the transaction which writes its
+ * events, so that a batch written concurrently by two writers fails for one of them
+ * with an optimistic locking exception.</p>
+ */
+public class AsyncHistoryEventWriter implements Runnable {
+
+  protected static final HistoryLogger LOG = ProcessEngineLogger.HISTORY_LOGGER;
+
+  public static final int DEFAULT_BATCH_SIZE = 100;
+  public static final int DEFAULT_MAX_ATTEMPTS = 3;
+  public static final long DEFAULT_POLL_INTERVAL = 1000;
+  public static final long DEFAULT_RETRY_INTERVAL = 5000;
+
+  protected final BlockingQueue<String> committedEntryIds;
+  protected final CommandExecutor commandExecutor;
+  protected final HistoryEventHandler historyEventHandler;
+
+  protected int batchSize = DEFAULT_BATCH_SIZE;
+  protected int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+  protected long pollInterval = DEFAULT_POLL_INTERVAL;
+  protected long retryInterval = DEFAULT_RETRY_INTERVAL;
+
+  protected final Object writeLock = new Object();
+  protected final Object retryMonitor = new Object();
+
+  protected volatile boolean isActive = false;
+  protected Thread thread;
+
+  public AsyncHistoryEventWriter(BlockingQueue<String> committedEntryIds, CommandExecutor commandExecutor, HistoryEventHandler historyEventHandler) {
+    this.committedEntryIds = committedEntryIds;
+    this.commandExecutor = commandExecutor;
+    this.historyEventHandler = historyEventHandler;
+  }
+
+  public synchronized void start() {
+    if (isActive) {
+      return;
+    }
+
+    LOG.startingAsyncHistoryEventWriter();
+
+    isActive = true;
+    thread = new Thread(this, "Camunda Async History Writer");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Stops the writer thread and writes all remaining events in the calling thread.
+   * Events which cannot be written stay in the outbox and are written when a writer
+   * is started again.
+   */
+  public synchronized void stop() {
+    if (!isActive) {
+      return;
+    }
+
+    // the thread is not interrupted since some JDBC drivers close the connection on interrupts
+    isActive = false;
+    synchronized (retryMonitor) {
+      retryMonitor.notifyAll();
+    }
+    try {
+      thread.join();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    thread = null;
+
+    LOG.stoppingAsyncHistoryEventWriter();
+
+    try {
+      flush();
+    }
+    catch (RuntimeException e) {
+      LOG.historyEventsNotWrittenOnStop(e);
+    }
+  }
+
+  public void run() {
+    while (isActive) {
+      try {
+        committedEntryIds.poll(pollInterval, TimeUnit.MILLISECONDS);
+        // the entries are read from the outbox, including those which did not fit into the queue
+        committedEntryIds.clear();
+
+        String failedEntryId;
+        synchronized (writeLock) {
+          failedEntryId = writePendingEntries();
+        }
+        if (failedEntryId != null) {
+          waitForRetry();
+        }
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      catch (RuntimeException e) {
+        // e.g. the database is not available
+        LOG.exceptionWhileReadingHistoryOutbox(e);
+        try {
+          waitForRetry();
+        }
+        catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes all entries of the outbox in the calling thread, e.g. when the writer is stopped.
+   *
+   * @throws org.camunda.bpm.engine.ProcessEngineException if an entry cannot be written and is not quarantined yet
+   */
+  public void flush() {
+    synchronized (writeLock) {
+      String failedEntryId = writePendingEntries();
+      if (failedEntryId != null) {
+        throw LOG.historyOutboxEntryNotWritten(failedEntryId);
+      }
+    }
+  }
+
+  /**
+   * @return the id of the entry which failed and must be written again before the
+   * following entries, or <code>null</code> if all entries are written or quarantined
+   */
+  protected String writePendingEntries() {
+    while (true) {
+      List<String> entryIds = commandExecutor.execute(new GetHistoryOutboxEntryIdsCmd(batchSize));
+      if (entryIds.isEmpty()) {
+        return null;
+      }
+
+      String failedEntryId = writeEntries(entryIds);
+      if (failedEntryId != null || entryIds.size() < batchSize) {
+        return failedEntryId;
+      }
+    }
+  }
+
+  protected String writeEntries(List<String> entryIds) {
+    try {
+      writeBatch(entryIds);
+      return null;
+    }
+    catch (RuntimeException e) {
+      // the batch contains a failing entry or was written concurrently
+    }
+
+    for (String entryId : entryIds) {
+      try {
+        writeBatch(Collections.singletonList(entryId));
+      }
+      catch (OptimisticLockingException e) {
+        // written by another process engine
+      }
+      catch (RuntimeException e) {
+        LOG.exceptionWhileWritingHistoryEvents(entryId, e);
+
+        boolean quarantined = commandExecutor.execute(new HandleHistoryOutboxEntryFailureCmd(entryId, e.getMessage(), maxAttempts));
+        if (!quarantined) {
+          return entryId;
+        }
+        LOG.historyOutboxEntryQuarantined(entryId, maxAttempts);
+      }
+    }
+
+    return null;
+  }
+
+  protected void writeBatch(List<String> entryIds) {
+    commandExecutor.execute(new WriteHistoryEventsCmd(entryIds, historyEventHandler));
+  }
+
+  protected void waitForRetry() throws InterruptedException {
+    synchronized (retryMonitor) {
+      if (isActive) {
+        retryMonitor.wait(retryInterval);
+      }
+    }
+  }
+
+  public boolean isActive() {
+    return isActive;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  public void setMaxAttempts(int maxAttempts) {
+    this.maxAttempts = maxAttempts;
+  }
+
+  public long getPollInterval() {
+    return pollInterval;
+  }
+
+  public void setPollInterval(long pollInterval) {
+    this.pollInterval = pollInterval;
+  }
+
+  public long getRetryInterval() {
+    return retryInterval;
+  }
+
+  public void setRetryInterval(long retryInterval) {
+    this.retryInterval = retryInterval;
+  }
+
+  public BlockingQueue<String> getCommittedEntryIds() {
+    return committedEntryIds;
+  }
+
+}
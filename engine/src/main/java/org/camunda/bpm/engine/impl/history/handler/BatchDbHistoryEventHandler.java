@@ -0,0 +1,46 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.handler;
+
+import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+
+/**
+ * <p>History event handler that writes the events of several transactions in a single
+ * transaction, as done by the {@link AsyncHistoryEventWriter}.</p>
+ *
+ * <p>In contrast to the runtime transaction, the history event producer cannot update
+ * the event entities cached by the writing transaction in place. An update of an event
+ * which is written by the same batch (e.g. the end of an activity instance started in
+ * a previous runtime transaction) is therefore applied after flushing the pending
+ * operations, in the same way as an update of an event written by a previous batch.</p>
+ */
+public class BatchDbHistoryEventHandler extends DbHistoryEventHandler {
+
+  @Override
+  protected void insertOrUpdate(HistoryEvent historyEvent) {
+    if (!isInitialEvent(historyEvent) && historyEvent.getId() != null) {
+      DbEntityManager dbEntityManager = getDbEntityManager();
+      DbEntity cachedEvent = dbEntityManager.getCachedEntity(historyEvent.getClass(), historyEvent.getId());
+
+      if (cachedEvent != null && cachedEvent != historyEvent) {
+        dbEntityManager.flush();
+        dbEntityManager.getDbEntityCache().remove(cachedEvent);
+      }
+    }
+
+    super.insertOrUpdate(historyEvent);
+  }
+
+}
@@ -43,6 +43,13 @@ public class DbHistoryEventHandler implements HistoryEventHandler {
       insertOrUpdate(historyEvent);
     }
 
+    if (historyEvent.isEventOfType(HistoryEventTypes.PROCESS_INSTANCE_END)) {
+      // queued in the same transaction, so the aggregation cannot miss late commits
+      Context.getCommandContext()
+        .getHistoricReportManager()
+        .queueHistoricDurationAggregation(historyEvent.getProcessInstanceId());
+    }
+
   }
 
   public void handleEvents(List<HistoryEvent> historyEvents) {
@@ -0,0 +1,358 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.log;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.history.HistoryLogger;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+
+/**
+ * <p>Append-only log of serialized history events, stored in memory-mapped segment files
+ * of a fixed size in a local directory. Appending a record only copies its bytes into the
+ * mapped buffer of the current segment. When a record does not fit into the current
+ * segment, a new segment is started.</p>
+ *
+ * <p>Every record is identified by a sequence number which is incremented by one
+ * for every record. The name of a segment contains the sequence number of its first
+ * record, so a reader finds the segment of a record by its name. Within a segment, the
+ * record is found by the index file of the segment, which holds the position of every
+ * {@value #INDEX_INTERVAL}th record (see {@link HistoryEventLogReader}).</p>
+ *
+ * <p>A segment starts with a header (magic number, format version), followed by the
+ * records. A record consists of the length of the payload, a CRC32 checksum, the sequence
+ * number and the payload. The checksum covers the sequence number and the payload. The
+ * length is written last, so that a partially written record is never read; the end of the
+ * records is marked by a length of zero.</p>
+ *
+ * <p>By default, every append is forced to the disk before it returns, so that appended
+ * records survive a crash of the operating system. {@link #append(List)} forces all records
+ * with a single disk write. If {@link #setForceOnAppend(boolean)} is disabled, records are only
+ * written to the page cache of the operating system: they survive a crash of the JVM, but
+ * the records of the last seconds before a crash of the operating system or a power loss
+ * are lost, even though their transactions were committed.</p>
+ */
+public class HistoryEventLog {
+
+  protected static final HistoryLogger LOG = ProcessEngineLogger.HISTORY_LOGGER;
+
+  public static final int MAGIC_NUMBER = 0x43484c47;
+  public static final int FORMAT_VERSION = 2;
+
+  public static final int SEGMENT_HEADER_SIZE = 8;
+  public static final int RECORD_HEADER_SIZE = 16;
+
+  public static final int INDEX_INTERVAL = 64;
+  public static final int INDEX_ENTRY_SIZE = 12;
+
+  public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  public static final String SEGMENT_PREFIX = "history-";
+  public static final String SEGMENT_SUFFIX = ".log";
+  public static final String INDEX_SUFFIX = ".idx";
+
+  protected final File directory;
+  protected final int segmentSize;
+  protected boolean forceOnAppend = true;
+
+  protected File segment;
+  protected long segmentFirstSequence;
+  protected RandomAccessFile segmentFile;
+  protected MappedByteBuffer segmentBuffer;
+  protected RandomAccessFile indexFile;
+  protected MappedByteBuffer indexBuffer;
+
+  protected long nextSequence = 1;
+
+  public HistoryEventLog(File directory) {
+    this(directory, DEFAULT_SEGMENT_SIZE);
+  }
+
+  public HistoryEventLog(File directory, int segmentSize) {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+  }
+
+  /**
+   * Opens the log. Appending continues after the last record of the latest segment.
+   */
+  public synchronized void open() {
+    if (segmentBuffer != null) {
+      return;
+    }
+
+    directory.mkdirs();
+
+    List<File> segments = getSegments(directory);
+    if (segments.isEmpty()) {
+      openSegment(getSegmentFile(directory, nextSequence));
+    }
+    else {
+      openSegment(segments.get(segments.size() - 1));
+      skipExistingRecords();
+    }
+  }
+
+  /**
+   * Appends a record with the given payload.
+   *
+   * @return the sequence number of the record
+   */
+  public synchronized long append(byte[] payload) {
+    long sequence = appendRecord(payload);
+    if (forceOnAppend) {
+      segmentBuffer.force();
+    }
+    return sequence;
+  }
+
+  /**
+   * Appends a record for each of the given payloads. If {@link #isForceOnAppend()} is enabled,
+   * the records are forced to the disk once after all records were appended.
+   *
+   * @return the sequence number of the last record
+   */
+  public synchronized long append(List<byte[]> payloads) {
+    long sequence = nextSequence - 1;
+    for (byte[] payload : payloads) {
+      sequence = appendRecord(payload);
+    }
+
+    // segments which were completed by the records were forced when they were closed
+    if (forceOnAppend && !payloads.isEmpty()) {
+      segmentBuffer.force();
+    }
+
+    return sequence;
+  }
+
+  protected long appendRecord(byte[] payload) {
+    if (segmentBuffer == null) {
+      throw LOG.historyEventLogNotOpen();
+    }
+
+    if (payload.length > getMaxPayloadSize()) {
+      throw LOG.historyEventExceedsSegmentSize(payload.length, segmentSize);
+    }
+
+    int recordSize = RECORD_HEADER_SIZE + payload.length;
+    if (segmentBuffer.remaining() < recordSize) {
+      closeSegment();
+      openSegment(getSegmentFile(directory, nextSequence));
+    }
+
+    long sequence = nextSequence++;
+    int position = segmentBuffer.position();
+
+    segmentBuffer.putInt(position + 4, checksum(sequence, payload));
+    segmentBuffer.putLong(position + 8, sequence);
+    segmentBuffer.position(position + RECORD_HEADER_SIZE);
+    segmentBuffer.put(payload);
+    // publish the record
+    segmentBuffer.putInt(position, payload.length);
+
+    indexRecord(sequence, position);
+
+    return sequence;
+  }
+
+  /**
+   * Adds the position of every {@value #INDEX_INTERVAL}th record to the index of the segment.
+   * The index entry of a record is found by its distance to the first record of the segment.
+   */
+  protected void indexRecord(long sequence, int position) {
+    long distance = sequence - segmentFirstSequence;
+    if (distance % INDEX_INTERVAL == 0) {
+      long entryPosition = distance / INDEX_INTERVAL * INDEX_ENTRY_SIZE;
+      if (entryPosition + INDEX_ENTRY_SIZE <= indexBuffer.limit()) {
+        indexBuffer.putInt((int) entryPosition + 8, position);
+        // publish the entry
+        indexBuffer.putLong((int) entryPosition, sequence);
+      }
+    }
+  }
+
+  public synchronized void close() {
+    closeSegment();
+  }
+
+  protected void openSegment(File segment) {
+    boolean isNewSegment = !segment.exists();
+
+    try {
+      this.segment = segment;
+      segmentFirstSequence = getFirstSequence(segment);
+      segmentFile = new RandomAccessFile(segment, "rw");
+      segmentBuffer = segmentFile.getChannel().map(MapMode.READ_WRITE, 0, segmentSize);
+      indexFile = new RandomAccessFile(getIndexFile(segment), "rw");
+      indexBuffer = indexFile.getChannel().map(MapMode.READ_WRITE, 0, getIndexSize(segmentSize));
+    }
+    catch (IOException e) {
+      closeSegment();
+      throw LOG.cannotAccessHistoryEventLogSegment(segment, e);
+    }
+
+    if (isNewSegment) {
+      segmentBuffer.putInt(MAGIC_NUMBER);
+      segmentBuffer.putInt(FORMAT_VERSION);
+    }
+    else if (segmentBuffer.getInt() != MAGIC_NUMBER || segmentBuffer.getInt() != FORMAT_VERSION) {
+      closeSegment();
+      throw LOG.invalidHistoryEventLogSegment(segment);
+    }
+  }
+
+  /**
+   * Moves to the end of the records of the current segment. The index of the segment
+   * is completed on the way, since a crash may have happened before a record was indexed.
+   */
+  protected void skipExistingRecords() {
+    nextSequence = segmentFirstSequence;
+
+    while (segmentBuffer.remaining() >= RECORD_HEADER_SIZE) {
+      int position = segmentBuffer.position();
+      int length = segmentBuffer.getInt(position);
+
+      if (length <= 0 || length > segmentBuffer.limit() - position - RECORD_HEADER_SIZE) {
+        break;
+      }
+
+      long sequence = segmentBuffer.getLong(position + 8);
+      indexRecord(sequence, position);
+
+      nextSequence = sequence + 1;
+      segmentBuffer.position(position + RECORD_HEADER_SIZE + length);
+    }
+  }
+
+  protected void closeSegment() {
+    if (segmentBuffer != null) {
+      segmentBuffer.force();
+      segmentBuffer = null;
+    }
+    if (indexBuffer != null) {
+      indexBuffer.force();
+      indexBuffer = null;
+    }
+    IoUtil.closeSilently(segmentFile);
+    IoUtil.closeSilently(indexFile);
+    segmentFile = null;
+    indexFile = null;
+    segment = null;
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  public int getSegmentSize() {
+    return segmentSize;
+  }
+
+  /**
+   * @return the size of the largest payload which fits into a segment
+   */
+  public int getMaxPayloadSize() {
+    return segmentSize - SEGMENT_HEADER_SIZE - RECORD_HEADER_SIZE;
+  }
+
+  /**
+   * @return the sequence number of the next appended record
+   */
+  public synchronized long getNextSequence() {
+    return nextSequence;
+  }
+
+  public boolean isForceOnAppend() {
+    return forceOnAppend;
+  }
+
+  public void setForceOnAppend(boolean forceOnAppend) {
+    this.forceOnAppend = forceOnAppend;
+  }
+
+  // segment files ////////////////////////////////////////////////////////////
+
+  public static File getSegmentFile(File directory, long firstSequence) {
+    return new File(directory, SEGMENT_PREFIX + String.format("%020d", firstSequence) + SEGMENT_SUFFIX);
+  }
+
+  public static File getIndexFile(File segment) {
+    String name = segment.getName();
+    return new File(segment.getParentFile(), name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+  }
+
+  /**
+   * @return the size of an index which can hold an entry for every {@value #INDEX_INTERVAL}th
+   *   record of a segment full of records with one byte payloads
+   */
+  public static int getIndexSize(int segmentSize) {
+    int maxRecords = (segmentSize - SEGMENT_HEADER_SIZE) / (RECORD_HEADER_SIZE + 1);
+    return (maxRecords / INDEX_INTERVAL + 1) * INDEX_ENTRY_SIZE;
+  }
+
+  /**
+   * @return the CRC32 checksum of the given sequence number and payload
+   */
+  public static int checksum(long sequence, byte[] payload) {
+    CRC32 checksum = new CRC32();
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      checksum.update((int) (sequence >>> shift));
+    }
+    checksum.update(payload);
+    return (int) checksum.getValue();
+  }
+
+  /**
+   * @return the segments of the log in the given directory, ordered by their first sequence number
+   */
+  public static List<File> getSegments(File directory) {
+    File[] files = directory.listFiles(new FileFilter() {
+      public boolean accept(File file) {
+        return file.isFile()
+            && file.getName().startsWith(SEGMENT_PREFIX)
+            && file.getName().endsWith(SEGMENT_SUFFIX);
+      }
+    });
+
+    if (files == null) {
+      return new ArrayList<File>();
+    }
+
+    // the sequence numbers are zero-padded, so the names are ordered by sequence number
+    Arrays.sort(files);
+    return new ArrayList<File>(Arrays.asList(files));
+  }
+
+  public static long getFirstSequence(File segment) {
+    String name = segment.getName();
+    try {
+      return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+    catch (NumberFormatException e) {
+      throw LOG.invalidHistoryEventLogSegment(segment);
+    }
+  }
+
+}
@@ -0,0 +1,168 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.history.HistoryLogger;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+/**
+ * <p>History event handler that appends the history events to a {@link HistoryEventLog}
+ * instead of writing them into the database. The events are serialized when they are
+ * fired and appended once the transaction is committed; events of rolled back
+ * transactions are discarded.</p>
+ *
+ * <p>Since the transaction is already committed, an append failure cannot be reported to
+ * the caller. Instead, it is logged as error and the events are kept to be appended again
+ * before the events of the next transaction. At most {@link #setMaxPendingRecords(int)}
+ * events are kept; older events are dropped and logged when this limit is exceeded.</p>
+ *
+ * <p>The log can be replayed into the history tables or exported by a
+ * {@link HistoryEventLogReader}. To write the events into the database as well,
+ * combine the handler with the default handler:</p>
+ *
+ * <pre>
+ * configuration.setHistoryEventHandler(new CompositeDbHistoryEventHandler(new HistoryEventLogHandler(log)));
+ * </pre>
+ */
+public class HistoryEventLogHandler implements HistoryEventHandler {
+
+  protected static final HistoryLogger LOG = ProcessEngineLogger.HISTORY_LOGGER;
+
+  public static final int DEFAULT_MAX_PENDING_RECORDS = 10000;
+
+  protected final HistoryEventLog log;
+  protected HistoryEventSerializer serializer = new HistoryEventSerializer();
+
+  protected int maxPendingRecords = DEFAULT_MAX_PENDING_RECORDS;
+  /** records which could not be appended yet, guarded by this handler */
+  protected List<byte[]> pendingRecords = new ArrayList<byte[]>();
+  protected long droppedRecords = 0;
+
+  public HistoryEventLogHandler(HistoryEventLog log) {
+    this.log = log;
+  }
+
+  public void handleEvent(HistoryEvent historyEvent) {
+    handleEvents(Collections.singletonList(historyEvent));
+  }
+
+  public void handleEvents(List<HistoryEvent> historyEvents) {
+    // serialize the events now since they may still be changed by the transaction
+    List<byte[]> records = new ArrayList<byte[]>(historyEvents.size());
+    for (HistoryEvent historyEvent : historyEvents) {
+      byte[] record = serializer.serialize(historyEvent);
+      // fail the transaction instead of the append after the commit
+      if (record.length > log.getMaxPayloadSize()) {
+        throw LOG.historyEventExceedsSegmentSize(record.length, log.getSegmentSize());
+      }
+      records.add(record);
+    }
+
+    CommandContext commandContext = Context.getCommandContext();
+    if (commandContext != null) {
+      commandContext.getTransactionContext()
+        .addTransactionListener(TransactionState.COMMITTED, new AppendHistoryEventsListener(records));
+    }
+    else {
+      append(records);
+    }
+  }
+
+  /**
+   * Appends the given records after the records of previous failed appends. If the append fails,
+   * the records are kept for the next append.
+   */
+  protected synchronized void append(List<byte[]> records) {
+    List<byte[]> recordsToAppend = records;
+    if (!pendingRecords.isEmpty()) {
+      recordsToAppend = new ArrayList<byte[]>(pendingRecords);
+      recordsToAppend.addAll(records);
+    }
+
+    long firstSequence = log.getNextSequence();
+    try {
+      log.append(recordsToAppend);
+      pendingRecords = new ArrayList<byte[]>();
+    }
+    catch (RuntimeException e) {
+      // keep the records which were not appended before the failure
+      int appended = (int) (log.getNextSequence() - firstSequence);
+      int dropped = Math.max(0, recordsToAppend.size() - appended - maxPendingRecords);
+      pendingRecords = new ArrayList<byte[]>(recordsToAppend.subList(appended + dropped, recordsToAppend.size()));
+      droppedRecords += dropped;
+
+      LOG.cannotAppendHistoryEvents(records.size(), pendingRecords.size(), e);
+      if (dropped > 0) {
+        LOG.droppedHistoryEvents(dropped, maxPendingRecords);
+      }
+    }
+  }
+
+  public HistoryEventLog getLog() {
+    return log;
+  }
+
+  public HistoryEventSerializer getSerializer() {
+    return serializer;
+  }
+
+  public void setSerializer(HistoryEventSerializer serializer) {
+    this.serializer = serializer;
+  }
+
+  public int getMaxPendingRecords() {
+    return maxPendingRecords;
+  }
+
+  public void setMaxPendingRecords(int maxPendingRecords) {
+    this.maxPendingRecords = maxPendingRecords;
+  }
+
+  /**
+   * @return the number of events which could not be appended yet
+   */
+  public synchronized int getPendingRecordCount() {
+    return pendingRecords.size();
+  }
+
+  /**
+   * @return the number of events which were dropped because too many appends failed
+   */
+  public synchronized long getDroppedRecordCount() {
+    return droppedRecords;
+  }
+
+  protected class AppendHistoryEventsListener implements TransactionListener {
+
+    protected List<byte[]> records;
+
+    public AppendHistoryEventsListener(List<byte[]> records) {
+      this.records = records;
+    }
+
+    public void execute(CommandContext commandContext) {
+      append(records);
+    }
+  }
+
+}
@@ -0,0 +1,283 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cmd.HandleHistoryEventsCmd;
+import org.camunda.bpm.engine.impl.history.HistoryLogger;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.BatchDbHistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+
+/**
+ * <p>Reads the records of a {@link HistoryEventLog}, for example to replay them into
+ * the history tables of the database or to export them to another system.</p>
+ *
+ * <p>Readers keep no state between calls: the sequence number to continue with is
+ * returned by {@link #replay(long, CommandExecutor, HistoryEventHandler, int)} and has
+ * to be stored by the caller. Reading a log which is appended to concurrently is safe;
+ * records which are not completely written yet are not read.</p>
+ *
+ * <p>The segment of a record is found by the segment names, the record within the segment
+ * by the index of the segment. Corrupt records, i.e. records with a wrong checksum, are
+ * skipped and logged. If the length of a corrupt record cannot be trusted, reading continues
+ * with the next indexed record of the segment, or with the next segment. Segments with an
+ * invalid header are skipped as well.</p>
+ */
+public class HistoryEventLogReader {
+
+  protected static final HistoryLogger LOG = ProcessEngineLogger.HISTORY_LOGGER;
+
+  public static final int DEFAULT_BATCH_SIZE = 500;
+
+  protected final File directory;
+  protected HistoryEventSerializer serializer = new HistoryEventSerializer();
+
+  public HistoryEventLogReader(File directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Reads at most <code>maxRecords</code> records, starting with the record with the given sequence
+   * number or the first record after it if it does not exist anymore.
+   */
+  public List<HistoryEventLogRecord> read(long fromSequence, int maxRecords) {
+    List<HistoryEventLogRecord> records = new ArrayList<HistoryEventLogRecord>();
+    List<File> segments = HistoryEventLog.getSegments(directory);
+
+    // skip all segments which end before the requested record
+    int segmentIndex = 0;
+    for (int i = 1; i < segments.size(); i++) {
+      if (HistoryEventLog.getFirstSequence(segments.get(i)) <= fromSequence) {
+        segmentIndex = i;
+      }
+    }
+
+    for (int i = segmentIndex; i < segments.size() && records.size() < maxRecords; i++) {
+      readSegment(segments.get(i), fromSequence, maxRecords, records);
+    }
+
+    return records;
+  }
+
+  /**
+   * Passes all records starting with the given sequence number to the given handler,
+   * e.g. to export them.
+   *
+   * @return the sequence number to continue with
+   */
+  public long replay(long fromSequence, HistoryEventHandler historyEventHandler) {
+    return replay(fromSequence, null, historyEventHandler, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Writes all records starting with the given sequence number to the history tables of the
+   * database, in transactions of <code>batchSize</code> records.
+   *
+   * @return the sequence number to continue with
+   */
+  public long replay(long fromSequence, CommandExecutor commandExecutor) {
+    return replay(fromSequence, commandExecutor, new BatchDbHistoryEventHandler(), DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Passes all records starting with the given sequence number in batches of
+   * <code>batchSize</code> records to the given handler. If a command executor is given, every
+   * batch is handled in its own command.
+   *
+   * @return the sequence number to continue with
+   */
+  public long replay(long fromSequence, CommandExecutor commandExecutor, HistoryEventHandler historyEventHandler, int batchSize) {
+    long nextSequence = fromSequence;
+
+    List<HistoryEventLogRecord> records = read(nextSequence, batchSize);
+    while (!records.isEmpty()) {
+      List<HistoryEvent> historyEvents = new ArrayList<HistoryEvent>(records.size());
+      for (HistoryEventLogRecord record : records) {
+        historyEvents.add(record.getHistoryEvent());
+      }
+
+      if (commandExecutor != null) {
+        commandExecutor.execute(new HandleHistoryEventsCmd(historyEvents, historyEventHandler));
+      }
+      else {
+        historyEventHandler.handleEvents(historyEvents);
+      }
+
+      nextSequence = records.get(records.size() - 1).getSequence() + 1;
+      records = read(nextSequence, batchSize);
+    }
+
+    return nextSequence;
+  }
+
+  protected void readSegment(File segment, long fromSequence, int maxRecords, List<HistoryEventLogRecord> records) {
+    RandomAccessFile segmentFile = null;
+    RandomAccessFile indexFile = null;
+    try {
+      segmentFile = new RandomAccessFile(segment, "r");
+      FileChannel channel = segmentFile.getChannel();
+      MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+
+      if (buffer.remaining() < HistoryEventLog.SEGMENT_HEADER_SIZE
+          || buffer.getInt() != HistoryEventLog.MAGIC_NUMBER
+          || buffer.getInt() != HistoryEventLog.FORMAT_VERSION) {
+        LOG.invalidHistoryEventLogSegmentSkipped(segment);
+        return;
+      }
+
+      MappedByteBuffer index = null;
+      File indexSegment = HistoryEventLog.getIndexFile(segment);
+      if (indexSegment.exists()) {
+        indexFile = new RandomAccessFile(indexSegment, "r");
+        index = indexFile.getChannel().map(MapMode.READ_ONLY, 0, indexFile.length());
+      }
+
+      long firstSequence = HistoryEventLog.getFirstSequence(segment);
+      int limit = buffer.limit();
+      int position = findIndexedPosition(index, firstSequence, fromSequence, limit);
+      // position of a corrupt record which was skipped by its length
+      int skippedPosition = -1;
+
+      while (records.size() < maxRecords && position <= limit - HistoryEventLog.RECORD_HEADER_SIZE) {
+        int length = buffer.getInt(position);
+        if (length == 0 && skippedPosition < 0) {
+          // end of the records
+          return;
+        }
+
+        boolean isFramed = length > 0 && length <= limit - position - HistoryEventLog.RECORD_HEADER_SIZE;
+        boolean isValid = false;
+        long sequence = 0;
+        byte[] payload = null;
+
+        if (isFramed) {
+          int checksum = buffer.getInt(position + 4);
+          sequence = buffer.getLong(position + 8);
+          payload = new byte[length];
+          buffer.position(position + HistoryEventLog.RECORD_HEADER_SIZE);
+          buffer.get(payload);
+          isValid = HistoryEventLog.checksum(sequence, payload) == checksum;
+        }
+
+        if (isValid) {
+          if (sequence >= fromSequence) {
+            records.add(new HistoryEventLogRecord(sequence, payload, serializer));
+          }
+          skippedPosition = -1;
+          position += HistoryEventLog.RECORD_HEADER_SIZE + length;
+        }
+        else if (isFramed && skippedPosition < 0) {
+          // skip the record by its length, which is confirmed if the next record is valid
+          LOG.corruptHistoryEventLogRecord(segment, position);
+          skippedPosition = position;
+          position += HistoryEventLog.RECORD_HEADER_SIZE + length;
+        }
+        else {
+          int corruptPosition = skippedPosition >= 0 ? skippedPosition : position;
+          position = findNextIndexedPosition(index, firstSequence, corruptPosition, limit);
+          if (position < 0) {
+            LOG.corruptHistoryEventLogSegmentEnd(segment, corruptPosition);
+            return;
+          }
+          LOG.corruptHistoryEventLogRecords(segment, corruptPosition, position);
+          skippedPosition = -1;
+        }
+      }
+    }
+    catch (IOException e) {
+      throw LOG.cannotAccessHistoryEventLogSegment(segment, e);
+    }
+    finally {
+      IoUtil.closeSilently(segmentFile);
+      IoUtil.closeSilently(indexFile);
+    }
+  }
+
+  /**
+   * @return the position of the last indexed record which is not after the record with the given
+   *   sequence number, or the position of the first record of the segment
+   */
+  protected int findIndexedPosition(MappedByteBuffer index, long firstSequence, long sequence, int limit) {
+    if (index != null && sequence > firstSequence) {
+      int entries = index.limit() / HistoryEventLog.INDEX_ENTRY_SIZE;
+      long entry = Math.min((sequence - firstSequence) / HistoryEventLog.INDEX_INTERVAL, entries - 1);
+
+      for (int i = (int) entry; i > 0; i--) {
+        int position = getIndexedPosition(index, firstSequence, i, limit);
+        if (position > 0) {
+          return position;
+        }
+      }
+    }
+    return HistoryEventLog.SEGMENT_HEADER_SIZE;
+  }
+
+  /**
+   * @return the position of the first indexed record after the given position or -1 if there is none
+   */
+  protected int findNextIndexedPosition(MappedByteBuffer index, long firstSequence, int position, int limit) {
+    if (index != null) {
+      int entries = index.limit() / HistoryEventLog.INDEX_ENTRY_SIZE;
+      for (int i = 1; i < entries; i++) {
+        int indexedPosition = getIndexedPosition(index, firstSequence, i, limit);
+        if (indexedPosition > position) {
+          return indexedPosition;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the position of the record of the given index entry or -1 if the entry is not written or invalid
+   */
+  protected int getIndexedPosition(MappedByteBuffer index, long firstSequence, int entry, int limit) {
+    int entryPosition = entry * HistoryEventLog.INDEX_ENTRY_SIZE;
+    long sequence = index.getLong(entryPosition);
+    int position = index.getInt(entryPosition + 8);
+
+    if (sequence == firstSequence + (long) entry * HistoryEventLog.INDEX_INTERVAL
+        && position >= HistoryEventLog.SEGMENT_HEADER_SIZE
+        && position <= limit - HistoryEventLog.RECORD_HEADER_SIZE) {
+      return position;
+    }
+    else {
+      return -1;
+    }
+  }
+
+  public HistoryEventSerializer getSerializer() {
+    return serializer;
+  }
+
+  public void setSerializer(HistoryEventSerializer serializer) {
+    this.serializer = serializer;
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+}
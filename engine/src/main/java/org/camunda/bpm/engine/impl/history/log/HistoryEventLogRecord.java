@@ -0,0 +1,47 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.log;
+
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+
+/**
+ * A record read from a {@link HistoryEventLog}.
+ */
+public class HistoryEventLogRecord {
+
+  protected final long sequence;
+  protected final byte[] payload;
+  protected final HistoryEventSerializer serializer;
+
+  public HistoryEventLogRecord(long sequence, byte[] payload, HistoryEventSerializer serializer) {
+    this.sequence = sequence;
+    this.payload = payload;
+    this.serializer = serializer;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public byte[] getPayload() {
+    return payload;
+  }
+
+  /**
+   * @return the history event serialized by the {@link HistoryEventLogHandler}
+   */
+  public HistoryEvent getHistoryEvent() {
+    return serializer.deserialize(payload);
+  }
+
+}
@@ -0,0 +1,391 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.history.HistoryLogger;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.persistence.entity.util.ByteArrayField;
+import org.camunda.bpm.engine.impl.persistence.entity.util.TypedValueField;
+import org.camunda.bpm.engine.impl.util.ReflectUtil;
+
+/**
+ * <p>Compact binary encoding of history events for the {@link HistoryEventLog}.</p>
+ *
+ * <p>An event is written as its class name, followed by the values of its fields. Every
+ * value is prefixed with a one byte type tag; strings and byte arrays are prefixed with their
+ * length. Neither field names nor class descriptors are written: the fields of a class are
+ * written in a fixed order (fields of super classes first, then ordered by name), so a log
+ * can only be read by the engine version which wrote it. Static and transient fields are
+ * skipped, like by Java serialization. Of the value fields of variable and decision instances,
+ * which are created by the constructor of the event, only their state is written. Values of
+ * other types without an own tag are written with Java serialization.</p>
+ *
+ * <p>Events are encoded into a buffer which is kept per thread, so encoding an event only
+ * allocates the resulting byte array.</p>
+ */
+public class HistoryEventSerializer {
+
+  protected static final HistoryLogger LOG = ProcessEngineLogger.HISTORY_LOGGER;
+
+  protected static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  protected static final byte NULL = 0;
+  protected static final byte STRING = 1;
+  protected static final byte INTEGER = 2;
+  protected static final byte LONG = 3;
+  protected static final byte DOUBLE = 4;
+  protected static final byte BOOLEAN = 5;
+  protected static final byte DATE = 6;
+  protected static final byte BYTES = 7;
+  protected static final byte HISTORY_EVENT = 8;
+  protected static final byte LIST = 9;
+  protected static final byte SERIALIZED = 10;
+  protected static final byte BYTE_ARRAY_FIELD = 11;
+  protected static final byte TYPED_VALUE_FIELD = 12;
+
+  protected static final int INITIAL_BUFFER_SIZE = 1024;
+  /** buffers which grew larger are not kept for the next event */
+  protected static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+  protected final ConcurrentHashMap<Class<?>, Field[]> fieldsCache = new ConcurrentHashMap<Class<?>, Field[]>();
+  protected final ConcurrentHashMap<String, Class<?>> classCache = new ConcurrentHashMap<String, Class<?>>();
+
+  protected final ThreadLocal<ByteBuffer> encodingBuffer = new ThreadLocal<ByteBuffer>();
+
+  public byte[] serialize(HistoryEvent historyEvent) {
+    ByteBuffer buffer = encodingBuffer.get();
+    if (buffer == null) {
+      buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    }
+    buffer.clear();
+
+    try {
+      buffer = writeHistoryEvent(buffer, historyEvent);
+    }
+    catch (IllegalAccessException e) {
+      throw LOG.cannotSerializeHistoryEvent(historyEvent.getId(), e);
+    }
+    catch (IOException e) {
+      throw LOG.cannotSerializeHistoryEvent(historyEvent.getId(), e);
+    }
+
+    byte[] bytes = new byte[buffer.position()];
+    buffer.flip();
+    buffer.get(bytes);
+
+    if (buffer.capacity() <= MAX_RETAINED_BUFFER_SIZE) {
+      encodingBuffer.set(buffer);
+    }
+    else {
+      encodingBuffer.remove();
+    }
+
+    return bytes;
+  }
+
+  public HistoryEvent deserialize(byte[] bytes) {
+    try {
+      return readHistoryEvent(ByteBuffer.wrap(bytes));
+    }
+    catch (Exception e) {
+      throw LOG.cannotDeserializeHistoryEvent(e);
+    }
+  }
+
+  // writing //////////////////////////////////////////////////////////////////
+
+  protected ByteBuffer writeHistoryEvent(ByteBuffer buffer, HistoryEvent historyEvent) throws IllegalAccessException, IOException {
+    buffer = writeString(buffer, historyEvent.getClass().getName());
+    for (Field field : getFields(historyEvent.getClass())) {
+      buffer = writeValue(buffer, field.get(historyEvent));
+    }
+    return buffer;
+  }
+
+  /**
+   * @return the buffer to continue with, which is a larger copy of the given buffer if it was full
+   */
+  protected ByteBuffer writeValue(ByteBuffer buffer, Object value) throws IllegalAccessException, IOException {
+    if (value == null) {
+      buffer = ensureRemaining(buffer, 1);
+      buffer.put(NULL);
+    }
+    else if (value instanceof String) {
+      buffer = ensureRemaining(buffer, 1);
+      buffer.put(STRING);
+      buffer = writeString(buffer, (String) value);
+    }
+    else if (value instanceof Integer) {
+      buffer = ensureRemaining(buffer, 5);
+      buffer.put(INTEGER);
+      buffer.putInt((Integer) value);
+    }
+    else if (value instanceof Long) {
+      buffer = ensureRemaining(buffer, 9);
+      buffer.put(LONG);
+      buffer.putLong((Long) value);
+    }
+    else if (value instanceof Double) {
+      buffer = ensureRemaining(buffer, 9);
+      buffer.put(DOUBLE);
+      buffer.putDouble((Double) value);
+    }
+    else if (value instanceof Boolean) {
+      buffer = ensureRemaining(buffer, 2);
+      buffer.put(BOOLEAN);
+      buffer.put((byte) (((Boolean) value) ? 1 : 0));
+    }
+    else if (value instanceof Date) {
+      buffer = ensureRemaining(buffer, 9);
+      buffer.put(DATE);
+      buffer.putLong(((Date) value).getTime());
+    }
+    else if (value instanceof byte[]) {
+      buffer = ensureRemaining(buffer, 1);
+      buffer.put(BYTES);
+      buffer = writeBytes(buffer, (byte[]) value);
+    }
+    else if (value instanceof HistoryEvent) {
+      buffer = ensureRemaining(buffer, 1);
+      buffer.put(HISTORY_EVENT);
+      buffer = writeHistoryEvent(buffer, (HistoryEvent) value);
+    }
+    else if (value instanceof Collection) {
+      Collection<?> collection = (Collection<?>) value;
+      buffer = ensureRemaining(buffer, 5);
+      buffer.put(LIST);
+      buffer.putInt(collection.size());
+      for (Object element : collection) {
+        buffer = writeValue(buffer, element);
+      }
+    }
+    else if (value instanceof ByteArrayField) {
+      buffer = ensureRemaining(buffer, 1);
+      buffer.put(BYTE_ARRAY_FIELD);
+      buffer = writeValue(buffer, ((ByteArrayField) value).getByteArrayId());
+    }
+    else if (value instanceof TypedValueField) {
+      buffer = ensureRemaining(buffer, 1);
+      buffer.put(TYPED_VALUE_FIELD);
+      buffer = writeValue(buffer, ((TypedValueField) value).getSerializerName());
+    }
+    else if (value instanceof Serializable) {
+      buffer = ensureRemaining(buffer, 1);
+      buffer.put(SERIALIZED);
+      buffer = writeBytes(buffer, serializeObject(value));
+    }
+    else {
+      throw new IOException("Cannot serialize value of type " + value.getClass().getName());
+    }
+    return buffer;
+  }
+
+  protected ByteBuffer writeString(ByteBuffer buffer, String value) {
+    int length = value.length();
+    buffer = ensureRemaining(buffer, 4 + length);
+
+    // most values (ids, keys, names) are ASCII and are copied without encoder
+    int start = buffer.position();
+    buffer.position(start + 4);
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c >= 0x80) {
+        buffer.position(start);
+        return writeBytes(buffer, value.getBytes(UTF_8));
+      }
+      buffer.put((byte) c);
+    }
+    buffer.putInt(start, length);
+    return buffer;
+  }
+
+  protected ByteBuffer writeBytes(ByteBuffer buffer, byte[] value) {
+    buffer = ensureRemaining(buffer, 4 + value.length);
+    buffer.putInt(value.length);
+    buffer.put(value);
+    return buffer;
+  }
+
+  protected byte[] serializeObject(Object value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream outputStream = new ObjectOutputStream(bytes);
+    outputStream.writeObject(value);
+    outputStream.close();
+    return bytes.toByteArray();
+  }
+
+  protected ByteBuffer ensureRemaining(ByteBuffer buffer, int size) {
+    if (buffer.remaining() >= size) {
+      return buffer;
+    }
+    int capacity = Math.max(buffer.capacity() * 2, buffer.position() + size);
+    ByteBuffer largerBuffer = ByteBuffer.allocate(capacity);
+    buffer.flip();
+    largerBuffer.put(buffer);
+    return largerBuffer;
+  }
+
+  // reading //////////////////////////////////////////////////////////////////
+
+  protected HistoryEvent readHistoryEvent(ByteBuffer buffer) throws Exception {
+    Class<?> historyEventClass = getHistoryEventClass(readString(buffer));
+    HistoryEvent historyEvent = (HistoryEvent) historyEventClass.newInstance();
+    for (Field field : getFields(historyEventClass)) {
+      byte type = buffer.get(buffer.position());
+      if (type == BYTE_ARRAY_FIELD) {
+        buffer.get();
+        ((ByteArrayField) field.get(historyEvent)).setByteArrayId((String) readValue(buffer));
+      }
+      else if (type == TYPED_VALUE_FIELD) {
+        buffer.get();
+        ((TypedValueField) field.get(historyEvent)).setSerializerName((String) readValue(buffer));
+      }
+      else {
+        Object value = readValue(buffer);
+        if (value != null || !field.getType().isPrimitive()) {
+          field.set(historyEvent, value);
+        }
+      }
+    }
+    return historyEvent;
+  }
+
+  protected Object readValue(ByteBuffer buffer) throws Exception {
+    byte type = buffer.get();
+    switch (type) {
+    case NULL:
+      return null;
+    case STRING:
+      return readString(buffer);
+    case INTEGER:
+      return buffer.getInt();
+    case LONG:
+      return buffer.getLong();
+    case DOUBLE:
+      return buffer.getDouble();
+    case BOOLEAN:
+      return buffer.get() != 0;
+    case DATE:
+      return new Date(buffer.getLong());
+    case BYTES:
+      return readBytes(buffer);
+    case HISTORY_EVENT:
+      return readHistoryEvent(buffer);
+    case LIST:
+      int size = buffer.getInt();
+      List<Object> list = new ArrayList<Object>(size);
+      for (int i = 0; i < size; i++) {
+        list.add(readValue(buffer));
+      }
+      return list;
+    case SERIALIZED:
+      return deserializeObject(readBytes(buffer));
+    default:
+      throw new IOException("Unknown value type " + type + " at position " + (buffer.position() - 1));
+    }
+  }
+
+  protected String readString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, UTF_8);
+    buffer.position(buffer.position() + length);
+    return value;
+  }
+
+  protected byte[] readBytes(ByteBuffer buffer) {
+    byte[] value = new byte[buffer.getInt()];
+    buffer.get(value);
+    return value;
+  }
+
+  protected Object deserializeObject(byte[] bytes) throws IOException, ClassNotFoundException {
+    ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(bytes));
+    try {
+      return inputStream.readObject();
+    }
+    finally {
+      inputStream.close();
+    }
+  }
+
+  protected Class<?> getHistoryEventClass(String className) throws IOException {
+    Class<?> historyEventClass = classCache.get(className);
+    if (historyEventClass == null) {
+      historyEventClass = ReflectUtil.loadClass(className);
+      if (!HistoryEvent.class.isAssignableFrom(historyEventClass)) {
+        throw new IOException("Class " + className + " is not a history event");
+      }
+      classCache.put(className, historyEventClass);
+    }
+    return historyEventClass;
+  }
+
+  // fields ///////////////////////////////////////////////////////////////////
+
+  protected Field[] getFields(Class<?> historyEventClass) {
+    Field[] fields = fieldsCache.get(historyEventClass);
+    if (fields == null) {
+      fields = collectFields(historyEventClass);
+      fieldsCache.put(historyEventClass, fields);
+    }
+    return fields;
+  }
+
+  protected Field[] collectFields(Class<?> historyEventClass) {
+    LinkedList<Field> fields = new LinkedList<Field>();
+
+    for (Class<?> clazz = historyEventClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+      List<Field> declaredFields = new ArrayList<Field>();
+      for (Field field : clazz.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+          field.setAccessible(true);
+          declaredFields.add(field);
+        }
+      }
+
+      Field[] sortedFields = declaredFields.toArray(new Field[declaredFields.size()]);
+      Arrays.sort(sortedFields, new Comparator<Field>() {
+        public int compare(Field field, Field otherField) {
+          return field.getName().compareTo(otherField.getName());
+        }
+      });
+
+      // fields of super classes first
+      fields.addAll(0, Arrays.asList(sortedFields));
+    }
+
+    return fields.toArray(new Field[fields.size()]);
+  }
+
+}
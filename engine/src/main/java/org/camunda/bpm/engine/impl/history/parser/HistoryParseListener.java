@@ -13,12 +13,17 @@
 
 package org.camunda.bpm.engine.impl.history.parser;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.delegate.ExecutionListener;
 import org.camunda.bpm.engine.delegate.TaskListener;
 import org.camunda.bpm.engine.impl.bpmn.behavior.UserTaskActivityBehavior;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParse;
 import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.history.HistoryLevel;
 import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
 import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
@@ -26,6 +31,7 @@ import org.camunda.bpm.engine.impl.history.producer.HistoryEventProducer;
 import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
 import org.camunda.bpm.engine.impl.pvm.PvmEvent;
 import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ProcessDefinitionImpl;
 import org.camunda.bpm.engine.impl.pvm.process.ScopeImpl;
 import org.camunda.bpm.engine.impl.pvm.process.TransitionImpl;
 import org.camunda.bpm.engine.impl.task.TaskDefinition;
@@ -83,7 +89,7 @@ public class HistoryParseListener implements BpmnParseListener {
   }
 
   public void parseProcess(Element processElement, ProcessDefinitionEntity processDefinition) {
-    if (historyLevel.isHistoryEventProduced(HistoryEventTypes.PROCESS_INSTANCE_END, null)) {
+    if (getHistoryLevel(processDefinition).isHistoryEventProduced(HistoryEventTypes.PROCESS_INSTANCE_END, null)) {
       processDefinition.addBuiltInListener(PvmEvent.EVENTNAME_END, PROCESS_INSTANCE_END_LISTENER);
     }
   }
@@ -119,7 +125,7 @@ public class HistoryParseListener implements BpmnParseListener {
   public void parseUserTask(Element userTaskElement, ScopeImpl scope, ActivityImpl activity) {
     addActivityHandlers(activity);
 
-    if (historyLevel.isHistoryEventProduced(HistoryEventTypes.TASK_INSTANCE_CREATE, null)) {
+    if (getHistoryLevel(activity.getProcessDefinition()).isHistoryEventProduced(HistoryEventTypes.TASK_INSTANCE_CREATE, null)) {
       TaskDefinition taskDefinition = ((UserTaskActivityBehavior) activity.getActivityBehavior()).getTaskDefinition();
       taskDefinition.addBuiltInTaskListener(TaskListener.EVENTNAME_ASSIGNMENT, USER_TASK_ASSIGNMENT_HANDLER);
       taskDefinition.addBuiltInTaskListener(TaskListener.EVENTNAME_CREATE, USER_TASK_ID_HANDLER);
@@ -221,6 +227,8 @@ public class HistoryParseListener implements BpmnParseListener {
   // helper methods ///////////////////////////////////////////////////////////
 
   protected void addActivityHandlers(ActivityImpl activity) {
+    HistoryLevel historyLevel = getHistoryLevel(activity.getProcessDefinition());
+
     if (historyLevel.isHistoryEventProduced(HistoryEventTypes.ACTIVITY_INSTANCE_START, null)) {
       activity.addBuiltInListener(PvmEvent.EVENTNAME_START, ACTIVITY_INSTANCE_START_LISTENER, 0);
     }
@@ -229,4 +237,84 @@ public class HistoryParseListener implements BpmnParseListener {
     }
   }
 
+  /**
+   * Returns the history level which decides whether history listeners are added to the
+   * given process definition. If history levels per process definition are enabled, the
+   * history level of the process definition is resolved once and cached on the definition,
+   * also if the process definition has no own history level.
+   */
+  protected HistoryLevel getHistoryLevel(ProcessDefinitionImpl processDefinition) {
+    if (processDefinition instanceof ProcessDefinitionEntity) {
+      ProcessDefinitionEntity processDefinitionEntity = (ProcessDefinitionEntity) processDefinition;
+
+      if (!processDefinitionEntity.isDefinedHistoryLevelResolved()) {
+        processDefinitionEntity.setDefinedHistoryLevel(resolveDefinedHistoryLevel(processDefinitionEntity));
+      }
+      if (processDefinitionEntity.getDefinedHistoryLevel() != null) {
+        return processDefinitionEntity.getDefinedHistoryLevel();
+      }
+    }
+
+    return historyLevel;
+  }
+
+  protected HistoryLevel resolveDefinedHistoryLevel(ProcessDefinitionEntity processDefinition) {
+    ProcessEngineConfigurationImpl configuration = Context.getProcessEngineConfiguration();
+    if (configuration == null || !configuration.isProcessDefinitionHistoryLevelEnabled()) {
+      return null;
+    }
+
+    String historyLevelName = null;
+    if (configuration.getProcessDefinitionHistoryLevels() != null) {
+      historyLevelName = configuration.getProcessDefinitionHistoryLevels().get(processDefinition.getKey());
+    }
+    if (historyLevelName == null) {
+      historyLevelName = (String) processDefinition.getProperty(BpmnParse.PROPERTYNAME_HISTORY_LEVEL);
+    }
+    if (historyLevelName == null) {
+      return null;
+    }
+
+    HistoryLevel definedHistoryLevel = null;
+    for (HistoryLevel historyLevel : getHistoryLevels(configuration)) {
+      if (historyLevel.getName().equalsIgnoreCase(historyLevelName)) {
+        definedHistoryLevel = historyLevel;
+        break;
+      }
+    }
+
+    if (definedHistoryLevel == null) {
+      throw new ProcessEngineException("invalid history level '" + historyLevelName
+          + "' of process definition '" + processDefinition.getKey() + "'");
+    }
+
+    // history is not set up (e.g. history tables and event handler) if the engine produces none
+    int historyLevelNoneId = HistoryLevel.HISTORY_LEVEL_NONE.getId();
+    if (historyLevel.getId() == historyLevelNoneId
+        && definedHistoryLevel.getId() != historyLevelNoneId) {
+      throw new ProcessEngineException("history level '" + historyLevelName + "' of process definition '"
+          + processDefinition.getKey() + "' requires a history level of the process engine other than '"
+          + HistoryLevel.HISTORY_LEVEL_NONE.getName() + "'");
+    }
+
+    return definedHistoryLevel;
+  }
+
+  protected List<HistoryLevel> getHistoryLevels(ProcessEngineConfigurationImpl configuration) {
+    if (configuration.getHistoryLevels() != null) {
+      return configuration.getHistoryLevels();
+    }
+
+    // the history levels are only collected if the history level of the engine is configured by name
+    List<HistoryLevel> historyLevels = new ArrayList<HistoryLevel>();
+    historyLevels.add(HistoryLevel.HISTORY_LEVEL_NONE);
+    historyLevels.add(HistoryLevel.HISTORY_LEVEL_ACTIVITY);
+    historyLevels.add(HistoryLevel.HISTORY_LEVEL_AUDIT);
+    historyLevels.add(HistoryLevel.HISTORY_LEVEL_FULL);
+    if (configuration.getCustomHistoryLevels() != null) {
+      historyLevels.addAll(configuration.getCustomHistoryLevels());
+    }
+    return historyLevels;
+  }
+
 }
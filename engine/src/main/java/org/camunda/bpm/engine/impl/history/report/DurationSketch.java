@@ -0,0 +1,204 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.report;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+
+/**
+ * <p>Mergeable approximation of the distribution of durations which allows to
+ * estimate percentiles.</p>
+ *
+ * <p>Durations are counted in buckets with logarithmically growing bounds, so every
+ * estimated percentile is within a relative error of {@link #RELATIVE_ACCURACY} of
+ * the exact value. Two sketches are merged by adding up the counts of their buckets,
+ * which makes it possible to pre-aggregate durations per period and combine the
+ * periods when a report is created.</p>
+ */
+public class DurationSketch {
+
+  public static final double RELATIVE_ACCURACY = 0.02;
+
+  protected static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+  protected static final double LOG_GAMMA = Math.log(GAMMA);
+
+  protected static final int FORMAT_VERSION = 1;
+
+  /** counts durations smaller than one millisecond */
+  protected long zeroCount;
+
+  protected TreeMap<Integer, Long> buckets = new TreeMap<Integer, Long>();
+
+  protected long count;
+
+  public void add(long duration) {
+    add(duration, 1);
+  }
+
+  public void add(long duration, long times) {
+    if (duration < 1) {
+      zeroCount += times;
+    }
+    else {
+      addToBucket(getBucketIndex(duration), times);
+    }
+    count += times;
+  }
+
+  public void merge(DurationSketch sketch) {
+    zeroCount += sketch.zeroCount;
+    for (Map.Entry<Integer, Long> bucket : sketch.buckets.entrySet()) {
+      addToBucket(bucket.getKey(), bucket.getValue());
+    }
+    count += sketch.count;
+  }
+
+  /**
+   * Removes a duration which has been added before.
+   */
+  public void remove(long duration) {
+    if (duration < 1) {
+      if (zeroCount > 0) {
+        zeroCount--;
+        count--;
+      }
+    }
+    else {
+      int index = getBucketIndex(duration);
+      Long bucketCount = buckets.get(index);
+      if (bucketCount != null) {
+        if (bucketCount > 1) {
+          buckets.put(index, bucketCount - 1);
+        }
+        else {
+          buckets.remove(index);
+        }
+        count--;
+      }
+    }
+  }
+
+  /**
+   * @param percentile between 0 and 100
+   * @return the estimated duration below which the given percentage of durations falls
+   * or -1 if the sketch is empty
+   */
+  public long getPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new ProcessEngineException("Percentile must be between 0 and 100 but was " + percentile);
+    }
+
+    if (count == 0) {
+      return -1;
+    }
+
+    long rank = (long) Math.ceil(percentile / 100 * count);
+    long seen = zeroCount;
+    if (rank <= seen) {
+      return 0;
+    }
+
+    for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+      seen += bucket.getValue();
+      if (rank <= seen) {
+        return getBucketValue(bucket.getKey());
+      }
+    }
+
+    return getBucketValue(buckets.lastKey());
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public boolean isEmpty() {
+    return count == 0;
+  }
+
+  protected void addToBucket(int index, long times) {
+    Long bucketCount = buckets.get(index);
+    buckets.put(index, bucketCount != null ? bucketCount + times : times);
+  }
+
+  protected int getBucketIndex(long duration) {
+    return (int) Math.ceil(Math.log(duration) / LOG_GAMMA);
+  }
+
+  /**
+   * @return the value of the bucket with the smallest relative error to all of
+   * its durations
+   */
+  protected long getBucketValue(int index) {
+    return Math.round(2 * Math.pow(GAMMA, index) / (GAMMA + 1));
+  }
+
+  // serialization ////////////////////////////////////////////////////////
+
+  public byte[] toBytes() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeByte(FORMAT_VERSION);
+      out.writeLong(zeroCount);
+      out.writeInt(buckets.size());
+      for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+        out.writeInt(bucket.getKey());
+        out.writeLong(bucket.getValue());
+      }
+      out.flush();
+    }
+    catch (IOException e) {
+      throw new ProcessEngineException("Cannot serialize duration sketch", e);
+    }
+    return bytes.toByteArray();
+  }
+
+  public static DurationSketch fromBytes(byte[] bytes) {
+    DurationSketch sketch = new DurationSketch();
+    if (bytes == null || bytes.length == 0) {
+      return sketch;
+    }
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+    try {
+      int version = in.readByte();
+      if (version != FORMAT_VERSION) {
+        throw new ProcessEngineException("Unsupported format version " + version + " of duration sketch");
+      }
+
+      sketch.zeroCount = in.readLong();
+      sketch.count = sketch.zeroCount;
+
+      int numberOfBuckets = in.readInt();
+      for (int i = 0; i < numberOfBuckets; i++) {
+        int index = in.readInt();
+        long bucketCount = in.readLong();
+        sketch.buckets.put(index, bucketCount);
+        sketch.count += bucketCount;
+      }
+    }
+    catch (IOException e) {
+      throw new ProcessEngineException("Cannot deserialize duration sketch", e);
+    }
+    return sketch;
+  }
+
+}
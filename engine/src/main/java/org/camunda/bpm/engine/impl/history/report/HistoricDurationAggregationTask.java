@@ -0,0 +1,60 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.report;
+
+import java.util.TimerTask;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cmd.AggregateHistoricDurationsCmd;
+import org.camunda.bpm.engine.impl.history.HistoryLogger;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+
+/**
+ * Aggregates the durations of all queued historic process instances. Every batch
+ * is aggregated in its own transaction.
+ */
+public class HistoricDurationAggregationTask extends TimerTask {
+
+  private final static HistoryLogger LOG = ProcessEngineLogger.HISTORY_LOGGER;
+
+  protected CommandExecutor commandExecutor;
+  protected int batchSize;
+
+  public HistoricDurationAggregationTask(CommandExecutor commandExecutor, int batchSize) {
+    this.commandExecutor = commandExecutor;
+    this.batchSize = batchSize;
+  }
+
+  public void run() {
+    try {
+      aggregate();
+    }
+    catch (Exception e) {
+      try {
+        LOG.couldNotAggregateHistoricDurations(e);
+      }
+      catch (Exception ex) {
+        // ignore if log can't be written
+      }
+    }
+  }
+
+  protected void aggregate() {
+    int aggregated;
+    do {
+      aggregated = commandExecutor.execute(new AggregateHistoricDurationsCmd(batchSize));
+    }
+    while (aggregated >= batchSize);
+  }
+
+}
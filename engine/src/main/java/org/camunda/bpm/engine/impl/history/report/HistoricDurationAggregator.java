@@ -0,0 +1,79 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.report;
+
+import java.util.Timer;
+
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+
+/**
+ * Periodically aggregates the durations of completed historic process instances
+ * per process definition and month, which allows to create duration reports
+ * without scanning the historic process instances.
+ */
+public class HistoricDurationAggregator {
+
+  protected CommandExecutor commandExecutor;
+
+  protected long intervalInSeconds = 60 * 5;
+  protected int batchSize = 1000;
+
+  protected Timer timer;
+
+  public HistoricDurationAggregator(CommandExecutor commandExecutor) {
+    this.commandExecutor = commandExecutor;
+  }
+
+  public void start() {
+    timer = new Timer("Camunda Historic Duration Aggregator", true);
+    long intervalInMillis = intervalInSeconds * 1000;
+
+    timer.scheduleAtFixedRate(createTask(), intervalInMillis, intervalInMillis);
+  }
+
+  public void stop() {
+    if (timer != null) {
+      timer.cancel();
+      timer = null;
+    }
+  }
+
+  public void aggregateNow() {
+    createTask().run();
+  }
+
+  protected HistoricDurationAggregationTask createTask() {
+    return new HistoricDurationAggregationTask(commandExecutor, batchSize);
+  }
+
+  public CommandExecutor getCommandExecutor() {
+    return commandExecutor;
+  }
+
+  public long getIntervalInSeconds() {
+    return intervalInSeconds;
+  }
+
+  public void setIntervalInSeconds(long intervalInSeconds) {
+    this.intervalInSeconds = intervalInSeconds;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+}
@@ -70,6 +70,8 @@ import org.camunda.bpm.engine.impl.persistence.entity.HistoricProcessInstanceMan
 import org.camunda.bpm.engine.impl.persistence.entity.HistoricStatisticsManager;
 import org.camunda.bpm.engine.impl.persistence.entity.HistoricTaskInstanceManager;
 import org.camunda.bpm.engine.impl.persistence.entity.HistoricVariableInstanceManager;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryOutboxManager;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryPartitionManager;
 import org.camunda.bpm.engine.impl.persistence.entity.IdentityInfoManager;
 import org.camunda.bpm.engine.impl.persistence.entity.IdentityLinkManager;
 import org.camunda.bpm.engine.impl.persistence.entity.IncidentManager;
@@ -309,6 +311,14 @@ public class CommandContext {
     return getSession(MeterLogManager.class);
   }
 
+  public HistoryPartitionManager getHistoryPartitionManager() {
+    return getSession(HistoryPartitionManager.class);
+  }
+
+  public HistoryOutboxManager getHistoryOutboxManager() {
+    return getSession(HistoryOutboxManager.class);
+  }
+
   public IdentityLinkManager getIdentityLinkManager() {
     return getSession(IdentityLinkManager.class);
   }
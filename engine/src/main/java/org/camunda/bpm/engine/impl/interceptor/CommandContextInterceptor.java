@@ -77,7 +77,7 @@ public class CommandContextInterceptor extends CommandInterceptor {
     if(!alwaysOpenNew) {
       // check whether we can reuse the command context
       CommandContext existingCommandContext = Context.getCommandContext();
-      if(existingCommandContext != null && isFromSameEngine(existingCommandContext)) {
+      if(existingCommandContext != null && isFromSameEngine(existingCommandContext) && !isReadOnly(existingCommandContext)) {
         context = existingCommandContext;
       }
     }
@@ -128,6 +128,14 @@ public class CommandContextInterceptor extends CommandInterceptor {
     return processEngineConfiguration == existingCommandContext.getProcessEngineConfiguration();
   }
 
+  /**
+   * A command which is executed during a query on the read-only data source must
+   * not read from or write to the replica.
+   */
+  protected boolean isReadOnly(CommandContext existingCommandContext) {
+    return existingCommandContext instanceof ReadOnlyCommandContext;
+  }
+
   public CommandContextFactory getCommandContextFactory() {
     return commandContextFactory;
   }
@@ -0,0 +1,35 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.interceptor;
+
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.standalone.StandaloneTransactionContextFactory;
+
+/**
+ * <p>Command context of a query which is routed to the read-only data source.</p>
+ *
+ * <p>It has its own entity cache which is discarded when the context is closed and
+ * it never flushes changes. It never takes part in a managed transaction and is
+ * never reused by a command which is executed during the query: such a command opens
+ * a new command context on the primary data source.</p>
+ */
+public class ReadOnlyCommandContext extends CommandContext {
+
+  public ReadOnlyCommandContext(ProcessEngineConfigurationImpl processEngineConfiguration, Map<Class<?>, SessionFactory> sessionFactories) {
+    super(processEngineConfiguration, new StandaloneTransactionContextFactory());
+    this.sessionFactories = sessionFactories;
+  }
+
+}
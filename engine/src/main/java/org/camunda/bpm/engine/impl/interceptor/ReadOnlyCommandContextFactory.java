@@ -0,0 +1,43 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.interceptor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSession;
+import org.camunda.bpm.engine.impl.db.sql.ReadOnlyDbSqlSessionFactory;
+
+/**
+ * Creates {@link ReadOnlyCommandContext}s which use the session factories of the
+ * process engine, except for the {@link DbSqlSession}, which is opened on the
+ * read-only data source.
+ */
+public class ReadOnlyCommandContextFactory extends CommandContextFactory {
+
+  protected Map<Class<?>, SessionFactory> sessionFactories;
+
+  public ReadOnlyCommandContextFactory(ProcessEngineConfigurationImpl processEngineConfiguration, ReadOnlyDbSqlSessionFactory readOnlyDbSqlSessionFactory) {
+    this.processEngineConfiguration = processEngineConfiguration;
+
+    sessionFactories = new HashMap<Class<?>, SessionFactory>(processEngineConfiguration.getSessionFactories());
+    sessionFactories.put(DbSqlSession.class, readOnlyDbSqlSessionFactory);
+  }
+
+  @Override
+  public CommandContext createCommandContext() {
+    return new ReadOnlyCommandContext(processEngineConfiguration, sessionFactories);
+  }
+
+}
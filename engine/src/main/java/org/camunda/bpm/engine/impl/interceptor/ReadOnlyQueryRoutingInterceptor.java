@@ -0,0 +1,49 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.interceptor;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.ReadOnlyQueryRoutingPolicy;
+import org.camunda.bpm.engine.impl.context.Context;
+
+/**
+ * Executes the commands which are accepted by the {@link ReadOnlyQueryRoutingPolicy}
+ * of the process engine with the read-only command executor.
+ *
+ * <p>Only commands which are not executed within another command are routed, so a
+ * command never reads the data of its own transaction from the replica.</p>
+ */
+public class ReadOnlyQueryRoutingInterceptor extends CommandInterceptor {
+
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+
+  public ReadOnlyQueryRoutingInterceptor(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    this.processEngineConfiguration = processEngineConfiguration;
+  }
+
+  public <T> T execute(Command<T> command) {
+    CommandExecutor readOnlyCommandExecutor = processEngineConfiguration.getCommandExecutorReadOnly();
+    ReadOnlyQueryRoutingPolicy routingPolicy = processEngineConfiguration.getReadOnlyQueryRoutingPolicy();
+
+    if (readOnlyCommandExecutor != null
+        && routingPolicy != null
+        && Context.getCommandContext() == null
+        && routingPolicy.isReadOnly(command)) {
+      return readOnlyCommandExecutor.execute(command);
+    }
+    else {
+      return next.execute(command);
+    }
+  }
+
+}
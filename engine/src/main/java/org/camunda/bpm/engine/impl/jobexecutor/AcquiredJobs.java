@@ -13,9 +13,11 @@
 package org.camunda.bpm.engine.impl.jobexecutor;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 
@@ -29,6 +31,7 @@ public class AcquiredJobs {
 
   protected List<List<String>> acquiredJobBatches = new ArrayList<List<String>>();
   protected Set<String> acquiredJobs = new HashSet<String>();
+  protected Map<String, Long> jobPriorities = new HashMap<String, Long>();
 
   protected int numberOfJobsFailedToLock = 0;
 
@@ -54,6 +57,33 @@ public class AcquiredJobs {
     addJobIdBatch(list);
   }
 
+  public void addJobIdBatch(List<String> jobIds, long priority) {
+    for (String jobId : jobIds) {
+      jobPriorities.put(jobId, priority);
+    }
+    addJobIdBatch(jobIds);
+  }
+
+  public void addJobIdBatch(String jobId, long priority) {
+    jobPriorities.put(jobId, priority);
+    addJobIdBatch(jobId);
+  }
+
+  /**
+   * @return the highest priority of the jobs of the given batch
+   * or null if the priorities of the jobs are unknown
+   */
+  public Long getPriority(List<String> jobIds) {
+    Long priority = null;
+    for (String jobId : jobIds) {
+      Long jobPriority = jobPriorities.get(jobId);
+      if (jobPriority != null && (priority == null || jobPriority > priority)) {
+        priority = jobPriority;
+      }
+    }
+    return priority;
+  }
+
   public boolean contains(String jobId) {
     return acquiredJobs.contains(jobId);
   }
@@ -66,6 +96,7 @@ public class AcquiredJobs {
     numberOfJobsFailedToLock++;
 
     acquiredJobs.remove(id);
+    jobPriorities.remove(id);
 
     Iterator<List<String>> batchIterator = acquiredJobBatches.iterator();
     while (batchIterator.hasNext()) {
@@ -80,6 +111,27 @@ public class AcquiredJobs {
     }
   }
 
+  /**
+   * Adds the jobs that were acquired for the same engine in another
+   * {@link JobExecutorLane lane} of the job executor.
+   */
+  public void merge(AcquiredJobs otherAcquiredJobs) {
+    numberOfJobsAttemptedToAcquire += otherAcquiredJobs.getNumberOfJobsAttemptedToAcquire();
+    numberOfJobsFailedToLock += otherAcquiredJobs.getNumberOfJobsFailedToLock();
+
+    for (List<String> jobIdBatch : otherAcquiredJobs.getJobIdBatches()) {
+      addJobIdBatch(jobIdBatch);
+    }
+    jobPriorities.putAll(otherAcquiredJobs.getJobPriorities());
+  }
+
+  /**
+   * @return the priorities of the acquired jobs by job id
+   */
+  public Map<String, Long> getJobPriorities() {
+    return jobPriorities;
+  }
+
   public int getNumberOfJobsFailedToLock() {
     return numberOfJobsFailedToLock;
   }
@@ -0,0 +1,170 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.camunda.bpm.engine.impl.jobexecutor.JobAcquisitionDecision.Reason;
+
+/**
+ * <p>{@link BackoffJobAcquisitionStrategy} which tunes the number of jobs to acquire per
+ * process engine from one cycle to the next, instead of using a fixed number of jobs.</p>
+ *
+ * <p>Like a congestion control, the number of jobs grows by {@link #INCREASE_FACTOR} as long as
+ * all requested jobs could be acquired and executed, and shrinks by {@link #DECREASE_FACTOR} if
+ * <ul>
+ *   <li>acquired jobs were rejected or the thread pool has no free capacity, or</li>
+ *   <li>the share of jobs which could not be locked exceeds the {@link JobExecutor#getMaxLockFailureRate() maximum lock failure rate}.</li>
+ * </ul>
+ * The number of jobs stops growing if the average execution time of the jobs increases by more
+ * than {@link #LATENCY_TOLERANCE} since the last increase, since more concurrent jobs then do not
+ * increase the throughput. The number of jobs is always limited by the free capacity of the thread
+ * pool and by {@link JobExecutor#getMinJobsPerAcquisition()} and {@link JobExecutor#getMaxAdaptiveJobsPerAcquisition()}.</p>
+ *
+ * <p>The idle and backoff wait times are managed like by the {@link BackoffJobAcquisitionStrategy}.
+ * If the execution is saturated, the strategy waits for about the average execution time of a job
+ * instead of a fixed time.</p>
+ */
+public class AdaptiveJobAcquisitionStrategy extends BackoffJobAcquisitionStrategy {
+
+  public static final double INCREASE_FACTOR = 1.5;
+  public static final double DECREASE_FACTOR = 0.5;
+  public static final double LATENCY_TOLERANCE = 1.5;
+
+  public static final long MIN_EXECUTION_SATURATION_WAIT_TIME = 10;
+
+  protected JobExecutor jobExecutor;
+
+  protected int minNumJobsToAcquire;
+  protected int maxNumJobsToAcquire;
+  protected float maxLockFailureRate;
+
+  protected Map<String, Double> numJobsToAcquireByEngine = new HashMap<String, Double>();
+  protected Map<String, Double> executionTimeAtIncreaseByEngine = new HashMap<String, Double>();
+
+  /** read by other threads, e.g. JMX */
+  protected Map<String, JobAcquisitionDecision> decisions = new ConcurrentHashMap<String, JobAcquisitionDecision>();
+
+  public AdaptiveJobAcquisitionStrategy(JobExecutor jobExecutor) {
+    super(jobExecutor);
+    this.jobExecutor = jobExecutor;
+    this.minNumJobsToAcquire = Math.max(1, jobExecutor.getMinJobsPerAcquisition());
+    this.maxNumJobsToAcquire = Math.max(minNumJobsToAcquire, jobExecutor.getMaxAdaptiveJobsPerAcquisition());
+    this.maxLockFailureRate = jobExecutor.getMaxLockFailureRate();
+  }
+
+  @Override
+  protected void reconfigureNumberOfJobsToAcquire(JobAcquisitionContext context) {
+    jobsToAcquire.clear();
+
+    int freeCapacity = jobExecutor.getFreeExecutionCapacity();
+    double maxAverageExecutionTime = 0;
+
+    for (Map.Entry<String, AcquiredJobs> acquiredJobsEntry : context.getAcquiredJobsByEngine().entrySet()) {
+      String engineName = acquiredJobsEntry.getKey();
+
+      JobAcquisitionDecision decision = decide(engineName, acquiredJobsEntry.getValue(), context, freeCapacity);
+      decisions.put(engineName, decision);
+      jobsToAcquire.put(engineName, decision.getNumJobsToAcquire());
+
+      Double averageExecutionTime = decision.getAverageExecutionTime();
+      if (averageExecutionTime != null) {
+        maxAverageExecutionTime = Math.max(maxAverageExecutionTime, averageExecutionTime);
+      }
+    }
+
+    if (maxAverageExecutionTime > 0) {
+      // a thread is probably free again after a job was executed
+      executionSaturationWaitTime = Math.max(MIN_EXECUTION_SATURATION_WAIT_TIME,
+          Math.min((long) maxAverageExecutionTime, DEFAULT_EXECUTION_SATURATION_WAIT_TIME * 10));
+    }
+    else {
+      executionSaturationWaitTime = DEFAULT_EXECUTION_SATURATION_WAIT_TIME;
+    }
+  }
+
+  protected JobAcquisitionDecision decide(String engineName, AcquiredJobs acquiredJobs, JobAcquisitionContext context, int freeCapacity) {
+    int numJobsAttempted = acquiredJobs.getNumberOfJobsAttemptedToAcquire();
+    int numJobsFailedToLock = acquiredJobs.getNumberOfJobsFailedToLock();
+    int numJobBatchesAcquired = acquiredJobs.getJobIdBatches().size();
+    double lockFailureRate = numJobsAttempted > 0 ? (double) numJobsFailedToLock / numJobsAttempted : 0;
+
+    List<List<String>> rejectedJobBatches = context.getRejectedJobsByEngine().get(engineName);
+    int numJobBatchesRejected = rejectedJobBatches != null ? rejectedJobBatches.size() : 0;
+
+    Double averageExecutionTime = jobExecutor.getJobExecutionStatistics().getAverageExecutionTime(engineName);
+
+    Double numJobsToAcquire = numJobsToAcquireByEngine.get(engineName);
+    if (numJobsToAcquire == null) {
+      numJobsToAcquire = (double) baseNumJobsToAcquire;
+    }
+
+    Reason reason;
+    if (numJobBatchesRejected > 0 || freeCapacity == 0) {
+      numJobsToAcquire *= DECREASE_FACTOR;
+      reason = Reason.SATURATED;
+    }
+    else if (lockFailureRate > maxLockFailureRate) {
+      numJobsToAcquire *= DECREASE_FACTOR;
+      reason = Reason.LOCK_CONTENTION;
+    }
+    else if (numJobsAttempted == 0 || numJobBatchesAcquired + numJobsFailedToLock < numJobsAttempted) {
+      reason = Reason.STEADY;
+    }
+    else if (hasExecutionTimeIncreased(engineName, averageExecutionTime)) {
+      // probe a smaller number of jobs and allow to grow again if the execution time stays stable
+      numJobsToAcquire -= 1;
+      executionTimeAtIncreaseByEngine.put(engineName, averageExecutionTime);
+      reason = Reason.LATENCY;
+    }
+    else {
+      numJobsToAcquire = Math.max(numJobsToAcquire * INCREASE_FACTOR, numJobsToAcquire + 1);
+      if (averageExecutionTime != null) {
+        executionTimeAtIncreaseByEngine.put(engineName, averageExecutionTime);
+      }
+      reason = Reason.INCREASE;
+    }
+
+    numJobsToAcquire = Math.max(minNumJobsToAcquire, Math.min(maxNumJobsToAcquire, numJobsToAcquire));
+    numJobsToAcquireByEngine.put(engineName, numJobsToAcquire);
+
+    int result = (int) Math.floor(numJobsToAcquire);
+    if (freeCapacity >= 0) {
+      // do not acquire more jobs than can be executed, but keep acquiring to detect free capacity
+      result = Math.max(minNumJobsToAcquire, Math.min(result, freeCapacity));
+    }
+    // the rejected jobs are resubmitted in the next cycle
+    result = Math.max(0, result - numJobBatchesRejected);
+
+    return new JobAcquisitionDecision(engineName, result, reason, lockFailureRate, averageExecutionTime, freeCapacity);
+  }
+
+  protected boolean hasExecutionTimeIncreased(String engineName, Double averageExecutionTime) {
+    Double executionTimeAtIncrease = executionTimeAtIncreaseByEngine.get(engineName);
+    return averageExecutionTime != null
+        && executionTimeAtIncrease != null
+        && averageExecutionTime > executionTimeAtIncrease * LATENCY_TOLERANCE;
+  }
+
+  /**
+   * @return the latest decision by process engine name
+   */
+  public Map<String, JobAcquisitionDecision> getDecisions() {
+    return Collections.unmodifiableMap(decisions);
+  }
+
+}
@@ -12,7 +12,6 @@
  */
 package org.camunda.bpm.engine.impl.jobexecutor;
 
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -43,7 +42,7 @@ public class DefaultJobExecutor extends ThreadPoolJobExecutor {
   protected void startExecutingJobs() {
 
     if (threadPoolExecutor==null || threadPoolExecutor.isShutdown()) {
-      BlockingQueue<Runnable> threadPoolQueue = new ArrayBlockingQueue<Runnable>(queueSize);
+      BlockingQueue<Runnable> threadPoolQueue = createJobQueue(queueSize);
       threadPoolExecutor = new ThreadPoolExecutor(corePoolSize, maxPoolSize, 0L, TimeUnit.MILLISECONDS, threadPoolQueue);
       threadPoolExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
     }
@@ -46,19 +46,35 @@ public class ExecuteJobsRunnable implements Runnable {
     CommandExecutor commandExecutor = processEngine.getProcessEngineConfiguration().getCommandExecutorTxRequired();
 
     currentProcessorJobQueue.addAll(jobIds);
+    JobLockHeartbeat jobLockHeartbeat = jobExecutor.getJobLockHeartbeat();
 
     Context.setJobExecutorContext(jobExecutorContext);
     try {
       while (!currentProcessorJobQueue.isEmpty()) {
+        if (jobLockHeartbeat != null) {
+          // includes the exclusive jobs which were locked by the previous job of this batch
+          jobLockHeartbeat.jobsAcquired(processEngine, currentProcessorJobQueue);
+        }
 
         String nextJobId = currentProcessorJobQueue.remove(0);
         if(jobExecutor.isActive()) {
+          // the execution times are only needed to adapt the number of jobs to acquire
+          boolean isExecutionTimeRecorded = jobExecutor.isAdaptiveJobAcquisitionEnabled();
+          long startTime = isExecutionTimeRecorded ? System.currentTimeMillis() : 0;
           try {
              executeJob(nextJobId, commandExecutor);
           }
           catch(Throwable t) {
             LOG.exceptionWhileExecutingJob(nextJobId, t);
           }
+          finally {
+            if (jobLockHeartbeat != null) {
+              jobLockHeartbeat.jobFinished(processEngine, nextJobId);
+            }
+            if (isExecutionTimeRecorded) {
+              jobExecutor.getJobExecutionStatistics().jobExecuted(processEngine.getName(), System.currentTimeMillis() - startTime);
+            }
+          }
         } else {
             try {
               unlockJob(nextJobId, commandExecutor);
@@ -66,6 +82,11 @@ public class ExecuteJobsRunnable implements Runnable {
             catch(Throwable t) {
               LOG.exceptionWhileUnlockingJob(nextJobId, t);
             }
+            finally {
+              if (jobLockHeartbeat != null) {
+                jobLockHeartbeat.jobFinished(processEngine, nextJobId);
+              }
+            }
 
         }
       }
@@ -27,6 +27,8 @@ public class JobAcquisitionContext {
   protected Map<String, List<List<String>>> rejectedJobBatchesByEngine;
   protected Map<String, AcquiredJobs> acquiredJobsByEngine;
   protected Map<String, List<List<String>>> additionalJobBatchesByEngine;
+  /** priorities of the jobs which were rejected in previous cycles */
+  protected Map<String, Long> additionalJobPriorities;
   protected Exception acquisitionException;
   protected long acquisitionTime;
   protected boolean isJobAdded;
@@ -35,6 +37,7 @@ public class JobAcquisitionContext {
     this.rejectedJobBatchesByEngine = new HashMap<String, List<List<String>>>();
     this.additionalJobBatchesByEngine = new HashMap<String, List<List<String>>>();
     this.acquiredJobsByEngine = new HashMap<String, AcquiredJobs>();
+    this.additionalJobPriorities = new HashMap<String, Long>();
   }
 
   public void submitRejectedBatch(String engineName, List<String> jobIds) {
@@ -50,6 +53,20 @@ public class JobAcquisitionContext {
   }
 
   public void reset() {
+    // keep the priorities of the rejected jobs, so that they keep their position in a prioritized job queue
+    Map<String, Long> rejectedJobPriorities = new HashMap<String, Long>();
+    for (List<List<String>> rejectedJobBatches : rejectedJobBatchesByEngine.values()) {
+      for (List<String> jobIds : rejectedJobBatches) {
+        for (String jobId : jobIds) {
+          Long priority = getJobPriority(jobId);
+          if (priority != null) {
+            rejectedJobPriorities.put(jobId, priority);
+          }
+        }
+      }
+    }
+    additionalJobPriorities = rejectedJobPriorities;
+
     additionalJobBatchesByEngine.clear();
 
     // jobs that were rejected in the previous acquisition cycle
@@ -78,6 +95,31 @@ public class JobAcquisitionContext {
     return true;
   }
 
+  /**
+   * @return the highest priority of the given jobs which were acquired in the current
+   * cycle or rejected in the previous cycle, or null if their priorities are unknown
+   */
+  public Long getJobPriority(List<String> jobIds) {
+    Long priority = null;
+    for (String jobId : jobIds) {
+      Long jobPriority = getJobPriority(jobId);
+      if (jobPriority != null && (priority == null || jobPriority > priority)) {
+        priority = jobPriority;
+      }
+    }
+    return priority;
+  }
+
+  protected Long getJobPriority(String jobId) {
+    for (AcquiredJobs acquiredJobs : acquiredJobsByEngine.values()) {
+      Long priority = acquiredJobs.getJobPriorities().get(jobId);
+      if (priority != null) {
+        return priority;
+      }
+    }
+    return additionalJobPriorities.get(jobId);
+  }
+
   /**
    * true if at least one job could not be locked, regardless of engine
    */
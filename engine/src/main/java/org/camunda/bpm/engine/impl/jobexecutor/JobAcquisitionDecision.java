@@ -0,0 +1,96 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+/**
+ * The number of jobs the {@link AdaptiveJobAcquisitionStrategy} decided to acquire
+ * for a process engine in the next acquisition cycle and the measurements it was based on.
+ */
+public class JobAcquisitionDecision {
+
+  public enum Reason {
+    /** all requested jobs were acquired and the execution has free capacity */
+    INCREASE,
+    /** fewer jobs than requested were available */
+    STEADY,
+    /** the execution time of the jobs increased considerably since the last increase */
+    LATENCY,
+    /** too many jobs could not be locked since other job executors acquired them */
+    LOCK_CONTENTION,
+    /** acquired jobs were rejected or the execution has no free capacity */
+    SATURATED
+  }
+
+  protected final String processEngine;
+  protected final int numJobsToAcquire;
+  protected final Reason reason;
+  protected final double lockFailureRate;
+  protected final Double averageExecutionTime;
+  protected final int freeCapacity;
+
+  public JobAcquisitionDecision(String processEngine, int numJobsToAcquire, Reason reason,
+      double lockFailureRate, Double averageExecutionTime, int freeCapacity) {
+    this.processEngine = processEngine;
+    this.numJobsToAcquire = numJobsToAcquire;
+    this.reason = reason;
+    this.lockFailureRate = lockFailureRate;
+    this.averageExecutionTime = averageExecutionTime;
+    this.freeCapacity = freeCapacity;
+  }
+
+  public String getProcessEngine() {
+    return processEngine;
+  }
+
+  public int getNumJobsToAcquire() {
+    return numJobsToAcquire;
+  }
+
+  public Reason getReason() {
+    return reason;
+  }
+
+  /**
+   * @return the share of the jobs of the last cycle which could not be locked
+   */
+  public double getLockFailureRate() {
+    return lockFailureRate;
+  }
+
+  /**
+   * @return the average execution time of a job in milliseconds or null if unknown
+   */
+  public Double getAverageExecutionTime() {
+    return averageExecutionTime;
+  }
+
+  /**
+   * @return the number of job batches the job executor could accept
+   * or -1 if the job executor does not manage its threads
+   */
+  public int getFreeCapacity() {
+    return freeCapacity;
+  }
+
+  public String toString() {
+    return "JobAcquisitionDecision["
+        + "processEngine=" + processEngine
+        + ", numJobsToAcquire=" + numJobsToAcquire
+        + ", reason=" + reason
+        + ", lockFailureRate=" + lockFailureRate
+        + ", averageExecutionTime=" + averageExecutionTime
+        + ", freeCapacity=" + freeCapacity
+        + "]";
+  }
+
+}
@@ -0,0 +1,58 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records the execution time of the jobs executed by a {@link JobExecutor} per process engine.
+ * The average execution time is an exponentially weighted moving average, so that it follows
+ * changes of the load. Execution times are only recorded if adaptive job acquisition is enabled.
+ */
+public class JobExecutionStatistics {
+
+  /** weight of the latest execution time in the moving average */
+  public static final double SMOOTHING_FACTOR = 0.2;
+
+  protected Map<String, Double> averageExecutionTimes = new HashMap<String, Double>();
+  protected Map<String, Long> executedJobs = new HashMap<String, Long>();
+
+  public synchronized void jobExecuted(String processEngine, long executionTimeInMillis) {
+    Double averageExecutionTime = averageExecutionTimes.get(processEngine);
+    if (averageExecutionTime == null) {
+      averageExecutionTime = (double) executionTimeInMillis;
+    }
+    else {
+      averageExecutionTime += SMOOTHING_FACTOR * (executionTimeInMillis - averageExecutionTime);
+    }
+    averageExecutionTimes.put(processEngine, averageExecutionTime);
+
+    Long count = executedJobs.get(processEngine);
+    executedJobs.put(processEngine, count != null ? count + 1 : 1);
+  }
+
+  /**
+   * @return the average execution time of a job in milliseconds
+   * or null if no job was executed for the process engine
+   */
+  public synchronized Double getAverageExecutionTime(String processEngine) {
+    return averageExecutionTimes.get(processEngine);
+  }
+
+  public synchronized long getExecutedJobs(String processEngine) {
+    Long count = executedJobs.get(processEngine);
+    return count != null ? count : 0;
+  }
+
+}
@@ -13,12 +13,14 @@
 
 package org.camunda.bpm.engine.impl.jobexecutor;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 import org.camunda.bpm.engine.impl.ProcessEngineImpl;
 import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cmd.AcquireJobsCmd;
 import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
 import org.camunda.bpm.engine.management.Metrics;
@@ -46,6 +48,7 @@ public abstract class JobExecutor {
   protected AcquireJobsCommandFactory acquireJobsCmdFactory;
   protected AcquireJobsRunnable acquireJobsRunnable;
   protected RejectedJobsHandler rejectedJobsHandler;
+  protected List<JobExecutorLane> lanes = new ArrayList<JobExecutorLane>();
   protected Thread jobAcquisitionThread;
 
   protected boolean isAutoActivate = false;
@@ -53,6 +56,19 @@ public abstract class JobExecutor {
 
   protected int maxJobsPerAcquisition = 3;
 
+  /**
+   * If true, the number of jobs to acquire is tuned by the {@link AdaptiveJobAcquisitionStrategy}
+   * between {@link #minJobsPerAcquisition} and {@link #maxAdaptiveJobsPerAcquisition}, starting
+   * with {@link #maxJobsPerAcquisition}.
+   */
+  protected boolean isAdaptiveJobAcquisitionEnabled = false;
+  protected int minJobsPerAcquisition = 1;
+  protected int maxAdaptiveJobsPerAcquisition = 50;
+  /** the share of jobs which could not be locked above which fewer jobs are acquired */
+  protected float maxLockFailureRate = 0.2f;
+
+  protected JobExecutionStatistics jobExecutionStatistics = new JobExecutionStatistics();
+
   // waiting when job acquisition is idle
   protected int waitTimeInMillis = 5 * 1000;
   protected float waitIncreaseFactor = 2;
@@ -71,6 +87,15 @@ public abstract class JobExecutor {
   protected String lockOwner = UUID.randomUUID().toString();
   protected int lockTimeInMillis = 5 * 60 * 1000;
 
+  /**
+   * The interval in which the locks of executing jobs are renewed.
+   * If &lt;= 0, locks are not renewed. Should be considerably smaller
+   * than the {@link #lockTimeInMillis}.
+   */
+  protected int lockRenewalIntervalInMillis = 0;
+  protected JobLockHeartbeat jobLockHeartbeat;
+  protected Thread jobLockHeartbeatThread;
+
   public void start() {
     if (isActive) {
       return;
@@ -78,6 +103,7 @@ public abstract class JobExecutor {
     LOG.startingUpJobExecutor(getClass().getName());
     ensureInitialization();
     startExecutingJobs();
+    startJobLockHeartbeatThread();
     isActive = true;
   }
 
@@ -88,6 +114,8 @@ public abstract class JobExecutor {
     LOG.shuttingDownTheJobExecutor(getClass().getName());
     acquireJobsRunnable.stop();
     stopExecutingJobs();
+    // stop renewing locks after the currently executing jobs have finished
+    stopJobLockHeartbeatThread();
     ensureCleanup();
     isActive = false;
   }
@@ -95,11 +123,16 @@ public abstract class JobExecutor {
   protected void ensureInitialization() {
     acquireJobsCmdFactory = new DefaultAcquireJobsCommandFactory(this);
     acquireJobsRunnable = new SequentialJobAcquisitionRunnable(this);
+
+    if (isLockRenewalEnabled()) {
+      jobLockHeartbeat = new JobLockHeartbeat(this);
+    }
   }
 
   protected void ensureCleanup() {
     acquireJobsCmdFactory = null;
     acquireJobsRunnable = null;
+    jobLockHeartbeat = null;
   }
 
   public void jobWasAdded() {
@@ -130,6 +163,22 @@ public abstract class JobExecutor {
   protected abstract void stopExecutingJobs();
   public abstract void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine);
 
+  /**
+   * Executes jobs that were acquired for the given lane. Job executors which do not
+   * manage lanes execute the jobs like any other job.
+   */
+  public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine, JobExecutorLane lane) {
+    executeJobs(jobIds, processEngine);
+  }
+
+  /**
+   * Executes jobs with the priority they were acquired with. The priority is null if it is unknown.
+   * Job executors which do not order the jobs by priority ignore it.
+   */
+  public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine, JobExecutorLane lane, Long priority) {
+    executeJobs(jobIds, processEngine, lane);
+  }
+
   /**
    * Deprecated: use {@link #executeJobs(List, ProcessEngineImpl)} instead
    * @param jobIds
@@ -141,6 +190,14 @@ public abstract class JobExecutor {
     }
   }
 
+  /**
+   * @return the number of job batches the job executor can accept without rejecting any
+   * of them or -1 if it is unknown, e.g. because the threads are managed by a container
+   */
+  public int getFreeExecutionCapacity() {
+    return -1;
+  }
+
   public void logAcquisitionAttempt(ProcessEngineImpl engine) {
     if (engine.getProcessEngineConfiguration().isMetricsEnabled()) {
       engine.getProcessEngineConfiguration()
@@ -239,6 +296,26 @@ public abstract class JobExecutor {
     this.lockTimeInMillis = lockTimeInMillis;
   }
 
+  public int getLockRenewalIntervalInMillis() {
+    return lockRenewalIntervalInMillis;
+  }
+
+  public void setLockRenewalIntervalInMillis(int lockRenewalIntervalInMillis) {
+    this.lockRenewalIntervalInMillis = lockRenewalIntervalInMillis;
+  }
+
+  public boolean isLockRenewalEnabled() {
+    return lockRenewalIntervalInMillis > 0;
+  }
+
+  /**
+   * @return the heartbeat renewing the locks of acquired jobs or
+   * null if lock renewal is not enabled or the job executor is not active
+   */
+  public JobLockHeartbeat getJobLockHeartbeat() {
+    return jobLockHeartbeat;
+  }
+
   public String getLockOwner() {
     return lockOwner;
   }
@@ -267,6 +344,42 @@ public abstract class JobExecutor {
     this.maxJobsPerAcquisition = maxJobsPerAcquisition;
   }
 
+  public boolean isAdaptiveJobAcquisitionEnabled() {
+    return isAdaptiveJobAcquisitionEnabled;
+  }
+
+  public void setAdaptiveJobAcquisitionEnabled(boolean isAdaptiveJobAcquisitionEnabled) {
+    this.isAdaptiveJobAcquisitionEnabled = isAdaptiveJobAcquisitionEnabled;
+  }
+
+  public int getMinJobsPerAcquisition() {
+    return minJobsPerAcquisition;
+  }
+
+  public void setMinJobsPerAcquisition(int minJobsPerAcquisition) {
+    this.minJobsPerAcquisition = minJobsPerAcquisition;
+  }
+
+  public int getMaxAdaptiveJobsPerAcquisition() {
+    return maxAdaptiveJobsPerAcquisition;
+  }
+
+  public void setMaxAdaptiveJobsPerAcquisition(int maxAdaptiveJobsPerAcquisition) {
+    this.maxAdaptiveJobsPerAcquisition = maxAdaptiveJobsPerAcquisition;
+  }
+
+  public float getMaxLockFailureRate() {
+    return maxLockFailureRate;
+  }
+
+  public void setMaxLockFailureRate(float maxLockFailureRate) {
+    this.maxLockFailureRate = maxLockFailureRate;
+  }
+
+  public JobExecutionStatistics getJobExecutionStatistics() {
+    return jobExecutionStatistics;
+  }
+
   public float getWaitIncreaseFactor() {
     return waitIncreaseFactor;
   }
@@ -307,6 +420,20 @@ public abstract class JobExecutor {
     return acquireJobsCmdFactory.getCommand(numJobs);
   }
 
+  /**
+   * Returns the command to acquire jobs for the given lane or for the
+   * default thread pool if lane is null. If no lanes are configured,
+   * the command is created by the {@link AcquireJobsCommandFactory}.
+   */
+  public Command<AcquiredJobs> getAcquireJobsCmd(int numJobs, JobExecutorLane lane) {
+    if (lanes.isEmpty()) {
+      return getAcquireJobsCmd(numJobs);
+    }
+    else {
+      return new AcquireJobsCmd(this, numJobs, lane);
+    }
+  }
+
   public AcquireJobsCommandFactory getAcquireJobsCmdFactory() {
     return acquireJobsCmdFactory;
   }
@@ -319,6 +446,14 @@ public abstract class JobExecutor {
     return isActive;
   }
 
+  public List<JobExecutorLane> getLanes() {
+    return lanes;
+  }
+
+  public void setLanes(List<JobExecutorLane> lanes) {
+    this.lanes = lanes;
+  }
+
   public RejectedJobsHandler getRejectedJobsHandler() {
     return rejectedJobsHandler;
   }
@@ -344,6 +479,27 @@ public abstract class JobExecutor {
 		jobAcquisitionThread = null;
 	}
 
+  protected void startJobLockHeartbeatThread() {
+    if (jobLockHeartbeat != null && jobLockHeartbeatThread == null) {
+      jobLockHeartbeatThread = new Thread(jobLockHeartbeat, getName() + "-lock-heartbeat");
+      jobLockHeartbeatThread.setDaemon(true);
+      jobLockHeartbeatThread.start();
+    }
+  }
+
+  protected void stopJobLockHeartbeatThread() {
+    if (jobLockHeartbeatThread != null) {
+      jobLockHeartbeat.stop();
+      try {
+        jobLockHeartbeatThread.join();
+      }
+      catch (InterruptedException e) {
+        LOG.interruptedWhileShuttingDownjobExecutor(e);
+      }
+      jobLockHeartbeatThread = null;
+    }
+  }
+
   public AcquireJobsRunnable getAcquireJobsRunnable() {
     return acquireJobsRunnable;
   }
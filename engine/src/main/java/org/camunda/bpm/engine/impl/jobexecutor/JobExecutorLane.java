@@ -0,0 +1,194 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>A lane of the {@link ThreadPoolJobExecutor} with its own thread pool and queue (bulkhead).
+ * Jobs matching the criteria of a lane are acquired separately, up to the free capacity of
+ * the lane, and executed by the lane's thread pool. Slow jobs of one lane therefore cannot
+ * starve the jobs of other lanes or the jobs executed by the default thread pool.</p>
+ *
+ * <p>A job matches a lane if it matches all of the configured criteria:
+ * <ul>
+ *   <li>{@link #setJobHandlerTypes(Set) job handler types}</li>
+ *   <li>{@link #setJobDefinitionIds(Set) job definition ids}</li>
+ *   <li>{@link #setPriorityMin(Long) minimum} and {@link #setPriorityMax(Long) maximum} priority (inclusive)</li>
+ * </ul>
+ * Criteria which are not set are ignored. If a job matches multiple lanes, it may be acquired by any of them.
+ * Jobs matching no lane are executed by the default thread pool of the job executor.</p>
+ *
+ * <p>Note that exclusive jobs of the same process instance are acquired together with the
+ * first exclusive job and are executed in the lane of this job.</p>
+ */
+public class JobExecutorLane {
+
+  protected String name;
+
+  protected Set<String> jobHandlerTypes = new HashSet<String>();
+  protected Set<String> jobDefinitionIds = new HashSet<String>();
+  protected Long priorityMin;
+  protected Long priorityMax;
+
+  protected int queueSize = 3;
+  protected int corePoolSize = 3;
+  protected int maxPoolSize = 10;
+
+  protected ThreadPoolExecutor threadPoolExecutor;
+
+  public JobExecutorLane() {
+  }
+
+  public JobExecutorLane(String name) {
+    this.name = name;
+  }
+
+  public void start() {
+    start(new ArrayBlockingQueue<Runnable>(queueSize));
+  }
+
+  /**
+   * Starts the thread pool of the lane with the given queue, which should be bounded by the {@link #getQueueSize() queue size}.
+   */
+  public void start(BlockingQueue<Runnable> threadPoolQueue) {
+    if (threadPoolExecutor == null || threadPoolExecutor.isShutdown()) {
+      threadPoolExecutor = new ThreadPoolExecutor(corePoolSize, maxPoolSize, 0L, TimeUnit.MILLISECONDS, threadPoolQueue);
+      threadPoolExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+    }
+  }
+
+  public void shutdown() {
+    if (threadPoolExecutor != null) {
+      threadPoolExecutor.shutdown();
+    }
+  }
+
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return threadPoolExecutor == null || threadPoolExecutor.awaitTermination(timeout, unit);
+  }
+
+  public void execute(Runnable runnable) throws RejectedExecutionException {
+    if (threadPoolExecutor == null) {
+      throw new RejectedExecutionException("Job executor lane '" + name + "' is not started");
+    }
+    threadPoolExecutor.execute(runnable);
+  }
+
+  /**
+   * @return the number of job batches the lane can accept without rejecting any of them
+   */
+  public int getFreeCapacity() {
+    if (threadPoolExecutor == null || threadPoolExecutor.isShutdown()) {
+      return 0;
+    }
+    int idleThreads = Math.max(0, threadPoolExecutor.getMaximumPoolSize() - threadPoolExecutor.getActiveCount());
+    return idleThreads + threadPoolExecutor.getQueue().remainingCapacity();
+  }
+
+  /**
+   * @return false if the lane matches all jobs
+   */
+  public boolean hasCriteria() {
+    return hasJobHandlerTypes() || hasJobDefinitionIds() || priorityMin != null || priorityMax != null;
+  }
+
+  public boolean hasJobHandlerTypes() {
+    return jobHandlerTypes != null && !jobHandlerTypes.isEmpty();
+  }
+
+  public boolean hasJobDefinitionIds() {
+    return jobDefinitionIds != null && !jobDefinitionIds.isEmpty();
+  }
+
+  // getters / setters ////////////////////////////////
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public Set<String> getJobHandlerTypes() {
+    return jobHandlerTypes;
+  }
+
+  public void setJobHandlerTypes(Set<String> jobHandlerTypes) {
+    this.jobHandlerTypes = jobHandlerTypes;
+  }
+
+  public Set<String> getJobDefinitionIds() {
+    return jobDefinitionIds;
+  }
+
+  public void setJobDefinitionIds(Set<String> jobDefinitionIds) {
+    this.jobDefinitionIds = jobDefinitionIds;
+  }
+
+  public Long getPriorityMin() {
+    return priorityMin;
+  }
+
+  public void setPriorityMin(Long priorityMin) {
+    this.priorityMin = priorityMin;
+  }
+
+  public Long getPriorityMax() {
+    return priorityMax;
+  }
+
+  public void setPriorityMax(Long priorityMax) {
+    this.priorityMax = priorityMax;
+  }
+
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  public void setQueueSize(int queueSize) {
+    this.queueSize = queueSize;
+  }
+
+  public int getCorePoolSize() {
+    return corePoolSize;
+  }
+
+  public void setCorePoolSize(int corePoolSize) {
+    this.corePoolSize = corePoolSize;
+  }
+
+  public int getMaxPoolSize() {
+    return maxPoolSize;
+  }
+
+  public void setMaxPoolSize(int maxPoolSize) {
+    this.maxPoolSize = maxPoolSize;
+  }
+
+  public ThreadPoolExecutor getThreadPoolExecutor() {
+    return threadPoolExecutor;
+  }
+
+  public String toString() {
+    return "JobExecutorLane[" + name + "]";
+  }
+
+}
@@ -151,4 +151,24 @@ public class JobExecutorLogger extends ProcessEngineLogger {
     logDebug(
         "024", "Failed job with id '{}' not found.", jobId);
   }
+
+  public void startingJobLockHeartbeat(String name, long intervalInMillis) {
+    logInfo(
+        "025", "{} starting to renew locks of executing jobs every {} millis", name, intervalInMillis);
+  }
+
+  public void stoppedJobLockHeartbeat(String name) {
+    logInfo(
+        "026", "{} stopped renewing locks of executing jobs", name);
+  }
+
+  public void renewedJobLocks(String processEngine, Collection<String> jobIds) {
+    logDebug(
+        "027", "Renewed locks of jobs for process engine '{}': {}", processEngine, jobIds);
+  }
+
+  public void exceptionWhileRenewingJobLocks(String processEngine, Throwable t) {
+    logWarn(
+        "028", "Exception while renewing job locks for process engine '{}'", processEngine, t);
+  }
 }
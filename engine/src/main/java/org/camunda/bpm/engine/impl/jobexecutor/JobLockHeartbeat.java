@@ -0,0 +1,158 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cmd.ExtendJobLocksCmd;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+
+/**
+ * <p>Periodically extends the lock expiration time of the jobs which are acquired by a
+ * {@link JobExecutor} and not finished yet. This allows to configure a short
+ * {@link JobExecutor#getLockTimeInMillis() lock time}, so that jobs locked by a crashed
+ * node are picked up again quickly, while long-running jobs are not executed twice.</p>
+ *
+ * <p>Jobs are registered when they are acquired, so that the locks of jobs which wait in the queue
+ * of the job executor or behind other jobs of the same batch are renewed as well. Exclusive jobs
+ * which are created and locked while a batch is executed are registered by the {@link ExecuteJobsRunnable}.
+ * A job is unregistered once it is executed or unlocked. On every heartbeat, the locks of all
+ * registered jobs of a process engine are renewed by a single update statement.</p>
+ */
+public class JobLockHeartbeat implements Runnable {
+
+  private final static JobExecutorLogger LOG = ProcessEngineLogger.JOB_EXECUTOR_LOGGER;
+
+  protected final JobExecutor jobExecutor;
+
+  /** engine name -> ids of the jobs acquired for this engine and not finished yet */
+  protected final Map<String, Set<String>> acquiredJobs = new ConcurrentHashMap<String, Set<String>>();
+
+  protected volatile boolean isInterrupted = false;
+  protected final Object MONITOR = new Object();
+
+  public JobLockHeartbeat(JobExecutor jobExecutor) {
+    this.jobExecutor = jobExecutor;
+  }
+
+  public void run() {
+    long interval = jobExecutor.getLockRenewalIntervalInMillis();
+    LOG.startingJobLockHeartbeat(jobExecutor.getName(), interval);
+
+    while (!isInterrupted) {
+      long heartbeatTime = System.currentTimeMillis();
+
+      renewLocks();
+
+      long waitTime = Math.max(0, (heartbeatTime + interval) - System.currentTimeMillis());
+      suspend(waitTime);
+    }
+
+    LOG.stoppedJobLockHeartbeat(jobExecutor.getName());
+  }
+
+  /**
+   * Renews the locks of all registered jobs, using one command per process engine.
+   */
+  public void renewLocks() {
+    Iterator<ProcessEngineImpl> engineIterator = jobExecutor.engineIterator();
+
+    while (engineIterator.hasNext()) {
+      ProcessEngineImpl processEngine = engineIterator.next();
+      Set<String> jobIds = acquiredJobs.get(processEngine.getName());
+
+      if (jobIds != null && !jobIds.isEmpty()) {
+        List<String> jobIdsToRenew = new ArrayList<String>(jobIds);
+
+        try {
+          CommandExecutor commandExecutor = processEngine.getProcessEngineConfiguration().getCommandExecutorTxRequired();
+          commandExecutor.execute(new ExtendJobLocksCmd(jobIdsToRenew, jobExecutor.getLockOwner(), jobExecutor.getLockTimeInMillis()));
+
+          LOG.renewedJobLocks(processEngine.getName(), jobIdsToRenew);
+        }
+        catch (Throwable t) {
+          LOG.exceptionWhileRenewingJobLocks(processEngine.getName(), t);
+        }
+      }
+    }
+  }
+
+  public void jobsAcquired(ProcessEngineImpl processEngine, Collection<String> jobIds) {
+    getJobIds(processEngine.getName()).addAll(jobIds);
+  }
+
+  public void jobsAcquired(ProcessEngineImpl processEngine, AcquiredJobs acquiredJobs) {
+    Set<String> jobIds = getJobIds(processEngine.getName());
+    for (List<String> jobIdBatch : acquiredJobs.getJobIdBatches()) {
+      jobIds.addAll(jobIdBatch);
+    }
+  }
+
+  public void jobFinished(ProcessEngineImpl processEngine, String jobId) {
+    getJobIds(processEngine.getName()).remove(jobId);
+  }
+
+  public Set<String> getAcquiredJobs(String processEngineName) {
+    return getJobIds(processEngineName);
+  }
+
+  protected Set<String> getJobIds(String processEngineName) {
+    Set<String> jobIds = acquiredJobs.get(processEngineName);
+
+    if (jobIds == null) {
+      synchronized (acquiredJobs) {
+        jobIds = acquiredJobs.get(processEngineName);
+        if (jobIds == null) {
+          jobIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+          acquiredJobs.put(processEngineName, jobIds);
+        }
+      }
+    }
+
+    return jobIds;
+  }
+
+  protected void suspend(long millis) {
+    if (millis <= 0) {
+      return;
+    }
+
+    try {
+      synchronized (MONITOR) {
+        if (!isInterrupted) {
+          MONITOR.wait(millis);
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      LOG.jobExecutionWaitInterrupted();
+    }
+  }
+
+  public void stop() {
+    synchronized (MONITOR) {
+      isInterrupted = true;
+      MONITOR.notifyAll();
+    }
+  }
+
+}
@@ -0,0 +1,69 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+
+/**
+ * Executes a batch of jobs with the priority the jobs were acquired with,
+ * see {@link PriorityJobQueue}.
+ */
+public class PrioritizedJobsRunnable implements Runnable {
+
+  protected final Runnable executeJobsRunnable;
+  protected final List<String> jobIds;
+  protected final ProcessEngineImpl processEngine;
+  protected final long priority;
+
+  // set by the queue
+  protected long enqueueTime;
+  protected long sequenceNumber;
+
+  public PrioritizedJobsRunnable(Runnable executeJobsRunnable, List<String> jobIds, ProcessEngineImpl processEngine, long priority) {
+    this.executeJobsRunnable = executeJobsRunnable;
+    this.jobIds = jobIds;
+    this.processEngine = processEngine;
+    this.priority = priority;
+  }
+
+  public void run() {
+    executeJobsRunnable.run();
+  }
+
+  public Runnable getExecuteJobsRunnable() {
+    return executeJobsRunnable;
+  }
+
+  public List<String> getJobIds() {
+    return jobIds;
+  }
+
+  public ProcessEngineImpl getProcessEngine() {
+    return processEngine;
+  }
+
+  public long getPriority() {
+    return priority;
+  }
+
+  public long getEnqueueTime() {
+    return enqueueTime;
+  }
+
+  public long getSequenceNumber() {
+    return sequenceNumber;
+  }
+
+}
@@ -0,0 +1,157 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+
+import org.camunda.bpm.engine.impl.DefaultPriorityProvider;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+
+/**
+ * <p>Bounded queue of the {@link ThreadPoolJobExecutor} which hands out the job batches
+ * with the highest priority first, see {@link PrioritizedJobsRunnable}. Batches with
+ * the same priority are handed out in the order they were queued.</p>
+ *
+ * <p>To prevent the starvation of low priority jobs, a queued batch gains one priority
+ * point every {@link #getAgingIntervalInMillis() aging interval}. The aging is
+ * disabled if the interval is &lt;= 0.</p>
+ *
+ * <p>Like an {@link java.util.concurrent.ArrayBlockingQueue}, the queue rejects new
+ * elements if it is full, so that the thread pool starts additional threads or rejects
+ * the jobs. With {@link #offerOrDisplace(Runnable)}, a batch can instead displace a
+ * queued batch of lower priority.</p>
+ */
+public class PriorityJobQueue extends PriorityBlockingQueue<Runnable> {
+
+  private static final long serialVersionUID = 1L;
+
+  protected final int capacity;
+  protected final long agingIntervalInMillis;
+  protected final long creationTime = ClockUtil.getCurrentTime().getTime();
+
+  protected long sequenceNumber = 0;
+
+  public PriorityJobQueue(int capacity, long agingIntervalInMillis) {
+    super(Math.max(1, capacity), new JobPriorityComparator(agingIntervalInMillis));
+    this.capacity = capacity;
+    this.agingIntervalInMillis = agingIntervalInMillis;
+  }
+
+  @Override
+  public synchronized boolean offer(Runnable runnable) {
+    if (size() >= capacity) {
+      return false;
+    }
+    return super.offer(prepare(runnable));
+  }
+
+  /**
+   * Queues the given runnable. If the queue is full, the runnable replaces the queued
+   * runnable of the lowest priority if the given runnable has a higher priority.
+   *
+   * @return the runnable which was not queued, i.e. the given runnable or the displaced one,
+   * or null if the given runnable was queued without displacing another one
+   */
+  public synchronized Runnable offerOrDisplace(Runnable runnable) {
+    PrioritizedJobsRunnable prioritizedRunnable = prepare(runnable);
+    if (size() < capacity) {
+      super.offer(prioritizedRunnable);
+      return null;
+    }
+
+    Runnable lowestRunnable = null;
+    for (Runnable queuedRunnable : this) {
+      if (lowestRunnable == null || comparator().compare(queuedRunnable, lowestRunnable) > 0) {
+        lowestRunnable = queuedRunnable;
+      }
+    }
+
+    if (lowestRunnable == null || comparator().compare(prioritizedRunnable, lowestRunnable) >= 0) {
+      return runnable;
+    }
+
+    if (remove(lowestRunnable)) {
+      super.offer(prioritizedRunnable);
+      return lowestRunnable;
+    }
+    else {
+      // the runnable was taken by a thread in the meantime
+      super.offer(prioritizedRunnable);
+      return null;
+    }
+  }
+
+  @Override
+  public int remainingCapacity() {
+    return Math.max(0, capacity - size());
+  }
+
+  protected PrioritizedJobsRunnable prepare(Runnable runnable) {
+    PrioritizedJobsRunnable prioritizedRunnable;
+    if (runnable instanceof PrioritizedJobsRunnable) {
+      prioritizedRunnable = (PrioritizedJobsRunnable) runnable;
+    }
+    else {
+      prioritizedRunnable = new PrioritizedJobsRunnable(runnable, null, null, DefaultPriorityProvider.DEFAULT_PRIORITY);
+    }
+    prioritizedRunnable.enqueueTime = ClockUtil.getCurrentTime().getTime() - creationTime;
+    prioritizedRunnable.sequenceNumber = sequenceNumber++;
+    return prioritizedRunnable;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public long getAgingIntervalInMillis() {
+    return agingIntervalInMillis;
+  }
+
+  /**
+   * Orders the runnables by their priority plus the priority points gained while waiting,
+   * highest first. Since all queued runnables age at the same rate, the order does not
+   * change while they are queued.
+   */
+  public static class JobPriorityComparator implements Comparator<Runnable> {
+
+    protected final long agingIntervalInMillis;
+
+    public JobPriorityComparator(long agingIntervalInMillis) {
+      this.agingIntervalInMillis = agingIntervalInMillis;
+    }
+
+    public int compare(Runnable runnable1, Runnable runnable2) {
+      PrioritizedJobsRunnable prioritizedRunnable1 = (PrioritizedJobsRunnable) runnable1;
+      PrioritizedJobsRunnable prioritizedRunnable2 = (PrioritizedJobsRunnable) runnable2;
+
+      int result = Double.compare(getRank(prioritizedRunnable2), getRank(prioritizedRunnable1));
+      if (result == 0) {
+        result = prioritizedRunnable1.getSequenceNumber() < prioritizedRunnable2.getSequenceNumber() ? -1
+            : (prioritizedRunnable1.getSequenceNumber() == prioritizedRunnable2.getSequenceNumber() ? 0 : 1);
+      }
+      return result;
+    }
+
+    protected double getRank(PrioritizedJobsRunnable runnable) {
+      if (agingIntervalInMillis > 0) {
+        // a runnable queued one interval earlier is one priority point ahead
+        return runnable.getPriority() - (double) runnable.getEnqueueTime() / agingIntervalInMillis;
+      }
+      else {
+        return runnable.getPriority();
+      }
+    }
+  }
+
+}
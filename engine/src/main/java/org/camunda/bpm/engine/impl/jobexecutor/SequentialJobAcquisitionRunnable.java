@@ -31,6 +31,7 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
   private final JobExecutorLogger LOG = ProcessEngineLogger.JOB_EXECUTOR_LOGGER;
 
   protected JobAcquisitionContext acquisitionContext;
+  protected volatile JobAcquisitionStrategy acquisitionStrategy;
 
   public SequentialJobAcquisitionRunnable(JobExecutor jobExecutor) {
     super(jobExecutor);
@@ -41,6 +42,7 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
     LOG.startingToAcquireJobs(jobExecutor.getName());
 
     JobAcquisitionStrategy acquisitionStrategy = initializeAcquisitionStrategy();
+    this.acquisitionStrategy = acquisitionStrategy;
 
     while (!isInterrupted) {
       acquisitionContext.reset();
@@ -60,6 +62,10 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
 
           AcquiredJobs acquiredJobs = acquireJobs(acquisitionContext, acquisitionStrategy, currentProcessEngine);
           executeJobs(acquisitionContext, currentProcessEngine, acquiredJobs);
+
+          if (!jobExecutor.getLanes().isEmpty()) {
+            acquireAndExecuteLaneJobs(acquisitionStrategy, currentProcessEngine, acquiredJobs);
+          }
         }
       } catch (Exception e) {
         LOG.exceptionDuringJobAcquisition(e);
@@ -95,7 +101,12 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
   }
 
   protected JobAcquisitionStrategy initializeAcquisitionStrategy() {
-    return new BackoffJobAcquisitionStrategy(jobExecutor);
+    if (jobExecutor.isAdaptiveJobAcquisitionEnabled()) {
+      return new AdaptiveJobAcquisitionStrategy(jobExecutor);
+    }
+    else {
+      return new BackoffJobAcquisitionStrategy(jobExecutor);
+    }
   }
 
   public JobAcquisitionContext getAcquisitionContext() {
@@ -103,6 +114,13 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
 
   }
 
+  /**
+   * @return the strategy of the running acquisition or null if the acquisition was not started
+   */
+  public JobAcquisitionStrategy getAcquisitionStrategy() {
+    return acquisitionStrategy;
+  }
+
   protected void executeJobs(JobAcquisitionContext context, ProcessEngineImpl currentProcessEngine, AcquiredJobs acquiredJobs) {
     // submit those jobs that were acquired in previous cycles but could not be scheduled for execution
     List<List<String>> additionalJobs = context.getAdditionalJobsByEngine().get(currentProcessEngine.getName());
@@ -110,7 +128,7 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
       for (List<String> jobBatch : additionalJobs) {
         LOG.executeJobs(currentProcessEngine.getName(), jobBatch);
 
-        jobExecutor.executeJobs(jobBatch, currentProcessEngine);
+        jobExecutor.executeJobs(jobBatch, currentProcessEngine, null, context.getJobPriority(jobBatch));
       }
     }
 
@@ -118,7 +136,18 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
     for (List<String> jobIds : acquiredJobs.getJobIdBatches()) {
       LOG.executeJobs(currentProcessEngine.getName(), jobIds);
 
-      jobExecutor.executeJobs(jobIds, currentProcessEngine);
+      jobExecutor.executeJobs(jobIds, currentProcessEngine, null, acquiredJobs.getPriority(jobIds));
+    }
+  }
+
+  /**
+   * Registers the acquired jobs with the lock heartbeat (if enabled), so that their locks are renewed
+   * while they wait for execution.
+   */
+  protected void registerAcquiredJobs(ProcessEngineImpl currentProcessEngine, AcquiredJobs acquiredJobs) {
+    JobLockHeartbeat jobLockHeartbeat = jobExecutor.getJobLockHeartbeat();
+    if (jobLockHeartbeat != null) {
+      jobLockHeartbeat.jobsAcquired(currentProcessEngine, acquiredJobs);
     }
   }
 
@@ -135,12 +164,14 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
 
     if (numJobsToAcquire > 0) {
       jobExecutor.logAcquisitionAttempt(currentProcessEngine);
-      acquiredJobs = commandExecutor.execute(jobExecutor.getAcquireJobsCmd(numJobsToAcquire));
+      // if lanes are configured, only jobs not matching any lane are acquired here
+      acquiredJobs = commandExecutor.execute(jobExecutor.getAcquireJobsCmd(numJobsToAcquire, null));
     }
     else {
       acquiredJobs = new AcquiredJobs(numJobsToAcquire);
     }
 
+    registerAcquiredJobs(currentProcessEngine, acquiredJobs);
     context.submitAcquiredJobs(currentProcessEngine.getName(), acquiredJobs);
 
     jobExecutor.logAcquiredJobs(currentProcessEngine, acquiredJobs.size());
@@ -151,4 +182,39 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
     return acquiredJobs;
   }
 
+  /**
+   * Acquires jobs for every lane of the job executor, limited by the free capacity of the lane,
+   * and submits them to the lane. The jobs acquired for the lanes are merged into the jobs
+   * acquired for the default thread pool, so that the acquisition strategy considers them.
+   */
+  protected void acquireAndExecuteLaneJobs(JobAcquisitionStrategy acquisitionStrategy, ProcessEngineImpl currentProcessEngine,
+      AcquiredJobs acquiredJobs) {
+    CommandExecutor commandExecutor = currentProcessEngine.getProcessEngineConfiguration()
+        .getCommandExecutorTxRequired();
+
+    int numJobsToAcquire = acquisitionStrategy.getNumJobsToAcquire(currentProcessEngine.getName());
+
+    for (JobExecutorLane lane : jobExecutor.getLanes()) {
+      int numLaneJobsToAcquire = Math.min(numJobsToAcquire, lane.getFreeCapacity());
+
+      if (numLaneJobsToAcquire > 0) {
+        jobExecutor.logAcquisitionAttempt(currentProcessEngine);
+        AcquiredJobs laneJobs = commandExecutor.execute(jobExecutor.getAcquireJobsCmd(numLaneJobsToAcquire, lane));
+        registerAcquiredJobs(currentProcessEngine, laneJobs);
+
+        jobExecutor.logAcquiredJobs(currentProcessEngine, laneJobs.size());
+        jobExecutor.logAcquisitionFailureJobs(currentProcessEngine, laneJobs.getNumberOfJobsFailedToLock());
+        LOG.acquiredJobs(currentProcessEngine.getName(), laneJobs);
+
+        for (List<String> jobIds : laneJobs.getJobIdBatches()) {
+          LOG.executeJobs(currentProcessEngine.getName(), jobIds);
+
+          jobExecutor.executeJobs(jobIds, currentProcessEngine, lane, laneJobs.getPriority(jobIds));
+        }
+
+        acquiredJobs.merge(laneJobs);
+      }
+    }
+  }
+
 }
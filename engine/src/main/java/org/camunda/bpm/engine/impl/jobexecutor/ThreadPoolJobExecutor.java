@@ -13,10 +13,17 @@
 package org.camunda.bpm.engine.impl.jobexecutor;
 
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import org.camunda.bpm.engine.impl.DefaultPriorityProvider;
 import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cmd.UnlockJobCmd;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
 
 /**
  * @author Daniel Meyer
@@ -24,25 +31,150 @@ import org.camunda.bpm.engine.impl.ProcessEngineImpl;
  */
 public class ThreadPoolJobExecutor extends JobExecutor {
 
+  private final static JobExecutorLogger LOG = ProcessEngineLogger.JOB_EXECUTOR_LOGGER;
+
   protected ThreadPoolExecutor threadPoolExecutor;
 
+  /**
+   * If true, the acquired jobs wait for a free thread in a {@link PriorityJobQueue}
+   * instead of a FIFO queue, so that jobs of a higher priority overtake queued jobs.
+   */
+  protected boolean isPriorityQueueEnabled = false;
+
+  /**
+   * The time after which a queued job batch gains one priority point,
+   * see {@link PriorityJobQueue}. If &lt;= 0, queued jobs do not age.
+   */
+  protected long priorityAgingIntervalInMillis = 10 * 1000;
+
   protected void startExecutingJobs() {
+    for (JobExecutorLane lane : lanes) {
+      lane.start(createJobQueue(lane.getQueueSize()));
+    }
+
     startJobAcquisitionThread();
   }
 
   protected void stopExecutingJobs() {
     stopJobAcquisitionThread();
+
+    for (JobExecutorLane lane : lanes) {
+      lane.shutdown();
+    }
+
+    // Waits for 1 minute to finish all jobs currently executing in lanes
+    try {
+      for (JobExecutorLane lane : lanes) {
+        if (!lane.awaitTermination(60L, TimeUnit.SECONDS)) {
+          LOG.timeoutDuringShutdown();
+        }
+      }
+    } catch (InterruptedException e) {
+      LOG.interruptedWhileShuttingDownjobExecutor(e);
+    }
   }
 
   public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+    executeJobs(jobIds, processEngine, null, null);
+  }
+
+  public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine, JobExecutorLane lane) {
+    executeJobs(jobIds, processEngine, lane, null);
+  }
+
+  public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine, JobExecutorLane lane, Long priority) {
+    Runnable executeJobsRunnable = getExecuteJobsRunnable(jobIds, processEngine);
+    ThreadPoolExecutor executor = lane != null ? lane.getThreadPoolExecutor() : threadPoolExecutor;
+
+    if (executor != null && executor.getQueue() instanceof PriorityJobQueue) {
+      long jobPriority = priority != null ? priority : DefaultPriorityProvider.DEFAULT_PRIORITY;
+      executeJobsRunnable = new PrioritizedJobsRunnable(executeJobsRunnable, jobIds, processEngine, jobPriority);
+    }
+
     try {
-      threadPoolExecutor.execute(getExecuteJobsRunnable(jobIds, processEngine));
+      if (lane != null) {
+        lane.execute(executeJobsRunnable);
+      }
+      else {
+        threadPoolExecutor.execute(executeJobsRunnable);
+      }
 
     } catch (RejectedExecutionException e) {
+      rejectJobs(executeJobsRunnable, jobIds, processEngine, executor, lane);
+    }
+  }
 
-      logRejectedExecution(processEngine, jobIds.size());
+  /**
+   * If the queue of the executor holds jobs of lower priority, the rejected jobs replace
+   * the queued job batch of the lowest priority, which is rejected instead.
+   *
+   * Jobs rejected by a lane are unlocked instead of being passed to the {@link RejectedJobsHandler},
+   * which executes them outside of the lane. They are acquired again once the lane has free capacity.
+   */
+  protected void rejectJobs(Runnable executeJobsRunnable, List<String> jobIds, ProcessEngineImpl processEngine, ThreadPoolExecutor executor, JobExecutorLane lane) {
+    if (executeJobsRunnable instanceof PrioritizedJobsRunnable && !executor.isShutdown()) {
+      Runnable rejectedRunnable = ((PriorityJobQueue) executor.getQueue()).offerOrDisplace(executeJobsRunnable);
+      if (rejectedRunnable == null) {
+        return;
+      }
+      else if (rejectedRunnable != executeJobsRunnable && rejectedRunnable instanceof PrioritizedJobsRunnable) {
+        PrioritizedJobsRunnable displacedRunnable = (PrioritizedJobsRunnable) rejectedRunnable;
+        if (displacedRunnable.getJobIds() != null) {
+          jobIds = displacedRunnable.getJobIds();
+          processEngine = displacedRunnable.getProcessEngine();
+        }
+      }
+    }
+
+    logRejectedExecution(processEngine, jobIds.size());
+    if (lane != null) {
+      unlockJobs(jobIds, processEngine);
+    }
+    else {
       rejectedJobsHandler.jobsRejected(jobIds, processEngine, this);
+    }
+  }
+
+  protected void unlockJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+    CommandExecutor commandExecutor = processEngine.getProcessEngineConfiguration().getCommandExecutorTxRequired();
+    for (String jobId : jobIds) {
+      try {
+        commandExecutor.execute(new UnlockJobCmd(jobId));
+      }
+      catch (RuntimeException e) {
+        // the lock expires eventually
+        LOG.exceptionWhileUnlockingJob(jobId, e);
+      }
+      finally {
+        if (jobLockHeartbeat != null) {
+          jobLockHeartbeat.jobFinished(processEngine, jobId);
+        }
+      }
+    }
+  }
 
+  /**
+   * @return the number of job batches the default thread pool can accept without rejecting any of them;
+   * the capacity of the lanes is not included, since the jobs acquired for a lane are limited by
+   * the {@link JobExecutorLane#getFreeCapacity() free capacity} of the lane itself
+   */
+  public int getFreeExecutionCapacity() {
+    if (threadPoolExecutor == null || threadPoolExecutor.isShutdown()) {
+      return 0;
+    }
+    int idleThreads = Math.max(0, threadPoolExecutor.getMaximumPoolSize() - threadPoolExecutor.getActiveCount());
+    return idleThreads + threadPoolExecutor.getQueue().remainingCapacity();
+  }
+
+  /**
+   * @return the queue of a thread pool of this job executor
+   */
+  protected BlockingQueue<Runnable> createJobQueue(int queueSize) {
+    if (isPriorityQueueEnabled) {
+      return new PriorityJobQueue(queueSize, priorityAgingIntervalInMillis);
+    }
+    else {
+      return new ArrayBlockingQueue<Runnable>(queueSize);
     }
   }
 
@@ -56,4 +188,20 @@ public class ThreadPoolJobExecutor extends JobExecutor {
     this.threadPoolExecutor = threadPoolExecutor;
   }
 
+  public boolean isPriorityQueueEnabled() {
+    return isPriorityQueueEnabled;
+  }
+
+  public void setPriorityQueueEnabled(boolean isPriorityQueueEnabled) {
+    this.isPriorityQueueEnabled = isPriorityQueueEnabled;
+  }
+
+  public long getPriorityAgingIntervalInMillis() {
+    return priorityAgingIntervalInMillis;
+  }
+
+  public void setPriorityAgingIntervalInMillis(long priorityAgingIntervalInMillis) {
+    this.priorityAgingIntervalInMillis = priorityAgingIntervalInMillis;
+  }
+
 }
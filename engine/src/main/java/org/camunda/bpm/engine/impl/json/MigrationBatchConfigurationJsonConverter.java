@@ -26,6 +26,7 @@ public class MigrationBatchConfigurationJsonConverter extends JsonObjectConverte
 
   public static final String MIGRATION_PLAN = "migrationPlan";
   public static final String PROCESS_INSTANCE_IDS = "processInstanceIds";
+  public static final String PROCESS_INSTANCE_ID_CHUNK_ID = "processInstanceIdChunkId";
   public static final String SKIP_LISTENERS = "skipListeners";
   public static final String SKIP_IO_MAPPINGS = "skipIoMappings";
 
@@ -34,6 +35,7 @@ public class MigrationBatchConfigurationJsonConverter extends JsonObjectConverte
 
     JsonUtil.addField(json, MIGRATION_PLAN, MigrationPlanJsonConverter.INSTANCE, configuration.getMigrationPlan());
     JsonUtil.addListField(json, PROCESS_INSTANCE_IDS, configuration.getProcessInstanceIds());
+    JsonUtil.addField(json, PROCESS_INSTANCE_ID_CHUNK_ID, configuration.getProcessInstanceIdChunkId());
     JsonUtil.addField(json, SKIP_LISTENERS, configuration.isSkipCustomListeners());
     JsonUtil.addField(json, SKIP_IO_MAPPINGS, configuration.isSkipIoMappings());
 
@@ -45,6 +47,9 @@ public class MigrationBatchConfigurationJsonConverter extends JsonObjectConverte
 
     configuration.setMigrationPlan(JsonUtil.jsonObject(json.getJSONObject(MIGRATION_PLAN), MigrationPlanJsonConverter.INSTANCE));
     configuration.setProcessInstanceIds(readProcessInstanceIds(json));
+    if (json.has(PROCESS_INSTANCE_ID_CHUNK_ID)) {
+      configuration.setProcessInstanceIdChunkId(json.getString(PROCESS_INSTANCE_ID_CHUNK_ID));
+    }
     configuration.setSkipCustomListeners(json.getBoolean(SKIP_LISTENERS));
     configuration.setSkipIoMappings(json.getBoolean(SKIP_IO_MAPPINGS));
 
@@ -0,0 +1,193 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.management;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>Counts of the running process instances, active activity instances, failed jobs and
+ * incidents per process definition. Used by the {@link RuntimeStatisticsCache} for both the
+ * aggregated counts and the changes of a single flush.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public class RuntimeStatistics {
+
+  protected Map<String, ProcessDefinitionCounts> processDefinitionCounts = new HashMap<String, ProcessDefinitionCounts>();
+
+  public void addProcessInstances(String processDefinitionId, long delta) {
+    getOrCreate(processDefinitionId).processInstances += delta;
+  }
+
+  public void addActivityInstances(String processDefinitionId, String activityId, long delta) {
+    add(getOrCreate(processDefinitionId).activityInstances, activityId, delta);
+  }
+
+  /**
+   * @param jobDefinitionId the job definition of the failed jobs, may be null
+   */
+  public void addFailedJobs(String processDefinitionId, String jobDefinitionId, long delta) {
+    ProcessDefinitionCounts counts = getOrCreate(processDefinitionId);
+    counts.failedJobs += delta;
+    add(counts.failedJobsByJobDefinition, jobDefinitionId, delta);
+  }
+
+  /**
+   * @param activityId the activity of the incidents, may be null
+   */
+  public void addIncidents(String processDefinitionId, String activityId, String incidentType, long delta) {
+    ProcessDefinitionCounts counts = getOrCreate(processDefinitionId);
+    add(counts.incidents, incidentType, delta);
+
+    if (activityId != null) {
+      addActivityIncidents(counts, activityId, incidentType, delta);
+    }
+  }
+
+  /**
+   * Adds all counts of the given statistics to this statistics.
+   */
+  public void addAll(RuntimeStatistics statistics) {
+    for (Map.Entry<String, ProcessDefinitionCounts> entry : statistics.processDefinitionCounts.entrySet()) {
+      ProcessDefinitionCounts counts = getOrCreate(entry.getKey());
+      ProcessDefinitionCounts delta = entry.getValue();
+
+      counts.processInstances += delta.processInstances;
+      counts.failedJobs += delta.failedJobs;
+      addAll(counts.activityInstances, delta.activityInstances);
+      addAll(counts.failedJobsByJobDefinition, delta.failedJobsByJobDefinition);
+      addAll(counts.incidents, delta.incidents);
+
+      for (Map.Entry<String, Map<String, Long>> activityIncidents : delta.activityIncidents.entrySet()) {
+        for (Map.Entry<String, Long> incidents : activityIncidents.getValue().entrySet()) {
+          addActivityIncidents(counts, activityIncidents.getKey(), incidents.getKey(), incidents.getValue());
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the counts of the given process definition or null if there are none
+   */
+  public ProcessDefinitionCounts getProcessDefinitionCounts(String processDefinitionId) {
+    return processDefinitionCounts.get(processDefinitionId);
+  }
+
+  public boolean isEmpty() {
+    return processDefinitionCounts.isEmpty();
+  }
+
+  protected ProcessDefinitionCounts getOrCreate(String processDefinitionId) {
+    ProcessDefinitionCounts counts = processDefinitionCounts.get(processDefinitionId);
+    if (counts == null) {
+      counts = new ProcessDefinitionCounts();
+      processDefinitionCounts.put(processDefinitionId, counts);
+    }
+    return counts;
+  }
+
+  protected void addActivityIncidents(ProcessDefinitionCounts counts, String activityId, String incidentType, long delta) {
+    Map<String, Long> activityIncidents = counts.activityIncidents.get(activityId);
+    if (activityIncidents == null) {
+      activityIncidents = new HashMap<String, Long>();
+      counts.activityIncidents.put(activityId, activityIncidents);
+    }
+
+    add(activityIncidents, incidentType, delta);
+    if (activityIncidents.isEmpty()) {
+      counts.activityIncidents.remove(activityId);
+    }
+  }
+
+  protected static void addAll(Map<String, Long> counts, Map<String, Long> deltas) {
+    for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+      add(counts, delta.getKey(), delta.getValue());
+    }
+  }
+
+  protected static void add(Map<String, Long> counts, String key, long delta) {
+    long count = get(counts, key) + delta;
+    if (count != 0) {
+      counts.put(key, count);
+    }
+    else {
+      counts.remove(key);
+    }
+  }
+
+  protected static long get(Map<String, Long> counts, String key) {
+    Long count = counts.get(key);
+    return count != null ? count : 0;
+  }
+
+  public static class ProcessDefinitionCounts {
+
+    protected long processInstances;
+    protected long failedJobs;
+    protected Map<String, Long> activityInstances = new HashMap<String, Long>();
+    protected Map<String, Long> failedJobsByJobDefinition = new HashMap<String, Long>();
+    protected Map<String, Long> incidents = new HashMap<String, Long>();
+    protected Map<String, Map<String, Long>> activityIncidents = new HashMap<String, Map<String, Long>>();
+
+    public ProcessDefinitionCounts copy() {
+      ProcessDefinitionCounts copy = new ProcessDefinitionCounts();
+      copy.processInstances = processInstances;
+      copy.failedJobs = failedJobs;
+      copy.activityInstances.putAll(activityInstances);
+      copy.failedJobsByJobDefinition.putAll(failedJobsByJobDefinition);
+      copy.incidents.putAll(incidents);
+      for (Map.Entry<String, Map<String, Long>> entry : activityIncidents.entrySet()) {
+        copy.activityIncidents.put(entry.getKey(), new HashMap<String, Long>(entry.getValue()));
+      }
+      return copy;
+    }
+
+    public long getProcessInstances() {
+      return processInstances;
+    }
+
+    public long getFailedJobs() {
+      return failedJobs;
+    }
+
+    /**
+     * @return the number of active activity instances by activity id
+     */
+    public Map<String, Long> getActivityInstances() {
+      return activityInstances;
+    }
+
+    /**
+     * @return the number of failed jobs by job definition id
+     */
+    public Map<String, Long> getFailedJobsByJobDefinition() {
+      return failedJobsByJobDefinition;
+    }
+
+    /**
+     * @return the number of incidents by incident type
+     */
+    public Map<String, Long> getIncidents() {
+      return incidents;
+    }
+
+    /**
+     * @return the number of incidents by incident type by activity id
+     */
+    public Map<String, Map<String, Long>> getActivityIncidents() {
+      return activityIncidents;
+    }
+  }
+
+}
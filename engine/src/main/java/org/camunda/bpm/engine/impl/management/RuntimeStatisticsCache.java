@@ -0,0 +1,366 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.management;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.CachedDbEntity;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbBulkOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.management.RuntimeStatistics.ProcessDefinitionCounts;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.IncidentEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+
+/**
+ * <p>In-memory aggregate of the runtime statistics (running process instances, active
+ * activity instances, failed jobs and incidents per process definition) which is kept
+ * current by the process engine, so that statistics queries do not have to aggregate
+ * the runtime tables.</p>
+ *
+ * <p>The aggregate is initialized by a single grouped query on first use, which reads a
+ * consistent snapshot on databases with statement level read consistency. Afterwards, the
+ * changes of executions, jobs and incidents are collected when the entity cache is flushed
+ * and applied once the transaction is committed. Changes which are committed while the
+ * aggregate is initialized are applied to the result of the query. Changes which cannot be
+ * tracked (bulk operations, merged entities) invalidate the aggregate, so that it is
+ * initialized again by the next statistics query.</p>
+ *
+ * <p>Transactions which are running while the aggregate is initialized may commit right
+ * before or after the snapshot of the query, so their changes may be counted twice or not
+ * at all. An aggregate which was initialized concurrently to such transactions expires
+ * after {@link #UNSETTLED_TIME_TO_LIVE} already.</p>
+ *
+ * <p>Only the changes made by this process engine are tracked. If several process engines
+ * share the database, the aggregate is only eventually correct: it is initialized again
+ * after the configured time to live, {@link #DEFAULT_TIME_TO_LIVE} by default. The time
+ * to live bounds how long the changes of other process engines are not visible.</p>
+ */
+public class RuntimeStatisticsCache {
+
+  public static final long DEFAULT_TIME_TO_LIVE = 60 * 1000;
+
+  /** time to live of an aggregate which was initialized while transactions were running */
+  public static final long UNSETTLED_TIME_TO_LIVE = 5 * 1000;
+
+  protected final long timeToLive;
+
+  // guarded by this
+  protected RuntimeStatistics statistics;
+  protected long expirationTime;
+  protected int pendingFlushes;
+
+  // changes committed while the aggregate is initialized, null if it is not initialized at the moment
+  protected RuntimeStatistics initializationChanges;
+  protected boolean isInitializationUnsettled;
+  protected boolean isInitializationInvalidated;
+
+  public RuntimeStatisticsCache() {
+    this(DEFAULT_TIME_TO_LIVE);
+  }
+
+  public RuntimeStatisticsCache(long timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  // tracking changes /////////////////////////////////////////////////////////
+
+  /**
+   * Adds the change of the runtime statistics caused by flushing the given entity.
+   *
+   * @return false if the change cannot be determined
+   */
+  public boolean collectChanges(CachedDbEntity cachedEntity, RuntimeStatistics changes) {
+    DbEntity entity = cachedEntity.getEntity();
+    if (!isRelevantEntityType(entity.getClass())) {
+      return true;
+    }
+
+    switch (cachedEntity.getEntityState()) {
+    case TRANSIENT:
+      addCounts(entity, entity.getPersistentState(), 1, changes);
+      return true;
+
+    case PERSISTENT:
+      if (cachedEntity.isDirty()) {
+        return addCounts(entity, cachedEntity.getCopy(), -1, changes)
+            && addCounts(entity, entity.getPersistentState(), 1, changes);
+      }
+      return true;
+
+    case DELETED_PERSISTENT:
+      return addCounts(entity, cachedEntity.getCopy(), -1, changes);
+
+    case DELETED_TRANSIENT:
+      return true;
+
+    default:
+      // the state of merged entities in the database is not known
+      return false;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  protected boolean addCounts(DbEntity entity, Object persistentState, long delta, RuntimeStatistics changes) {
+    if (!(persistentState instanceof Map)) {
+      return false;
+    }
+
+    Map<String, Object> state = (Map<String, Object>) persistentState;
+    String processDefinitionId = (String) state.get("processDefinitionId");
+    if (processDefinitionId == null) {
+      return true;
+    }
+
+    if (entity instanceof ExecutionEntity) {
+      if (state.get("parentId") == null) {
+        changes.addProcessInstances(processDefinitionId, delta);
+      }
+      String activityId = (String) state.get("activityId");
+      if (Boolean.TRUE.equals(state.get("isActive")) && activityId != null) {
+        changes.addActivityInstances(processDefinitionId, activityId, delta);
+      }
+    }
+    else if (entity instanceof JobEntity) {
+      Integer retries = (Integer) state.get("retries");
+      if (retries != null && retries == 0) {
+        changes.addFailedJobs(processDefinitionId, (String) state.get("jobDefinitionId"), delta);
+      }
+    }
+    else if (entity instanceof IncidentEntity) {
+      String incidentType = ((IncidentEntity) entity).getIncidentType();
+      changes.addIncidents(processDefinitionId, (String) state.get("activityId"), incidentType, delta);
+    }
+
+    return true;
+  }
+
+  /**
+   * Registers the changes of a flush which are applied once the current transaction is committed.
+   * The aggregate is invalidated instead if the changes are incomplete or if any of the flushed
+   * operations is a bulk operation on executions, jobs or incidents.
+   *
+   * @return true if changes are pending until the current transaction ends
+   */
+  public boolean registerFlush(RuntimeStatistics changes, boolean isComplete, List<DbOperation> operations) {
+    boolean invalidate = !isComplete || containsRelevantBulkOperation(operations);
+    if (!invalidate && (changes == null || changes.isEmpty())) {
+      return false;
+    }
+
+    CommandContext commandContext = Context.getCommandContext();
+    if (commandContext == null) {
+      invalidate();
+      return false;
+    }
+
+    synchronized (this) {
+      pendingFlushes++;
+      if (initializationChanges != null) {
+        isInitializationUnsettled = true;
+      }
+    }
+
+    commandContext.getTransactionContext()
+      .addTransactionListener(TransactionState.COMMITTED, new ApplyChangesListener(invalidate ? null : changes));
+    commandContext.getTransactionContext()
+      .addTransactionListener(TransactionState.ROLLED_BACK, new DiscardChangesListener());
+
+    return true;
+  }
+
+  protected boolean containsRelevantBulkOperation(List<DbOperation> operations) {
+    for (DbOperation operation : operations) {
+      if (operation instanceof DbBulkOperation && isRelevantEntityType(operation.getEntityType())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  protected boolean isRelevantEntityType(Class<?> entityType) {
+    return ExecutionEntity.class.isAssignableFrom(entityType)
+        || JobEntity.class.isAssignableFrom(entityType)
+        || IncidentEntity.class.isAssignableFrom(entityType);
+  }
+
+  protected synchronized void applyChanges(RuntimeStatistics changes) {
+    pendingFlushes--;
+
+    if (changes == null) {
+      invalidate();
+      return;
+    }
+
+    if (statistics != null) {
+      statistics.addAll(changes);
+    }
+    if (initializationChanges != null) {
+      initializationChanges.addAll(changes);
+    }
+  }
+
+  protected synchronized void discardChanges() {
+    pendingFlushes--;
+  }
+
+  /**
+   * Invalidates the aggregate, it is initialized again by the next statistics query.
+   */
+  public synchronized void invalidate() {
+    statistics = null;
+    isInitializationInvalidated = true;
+  }
+
+  // querying /////////////////////////////////////////////////////////////////
+
+  /**
+   * @return a copy of the counts of all process definitions or null if the
+   * aggregate cannot be initialized at the moment
+   */
+  public Map<String, ProcessDefinitionCounts> getProcessDefinitionCounts(CommandContext commandContext) {
+    if (!ensureInitialized(commandContext)) {
+      return null;
+    }
+
+    synchronized (this) {
+      if (statistics == null) {
+        // invalidated meanwhile
+        return null;
+      }
+      Map<String, ProcessDefinitionCounts> counts = new HashMap<String, ProcessDefinitionCounts>();
+      for (Map.Entry<String, ProcessDefinitionCounts> entry : statistics.processDefinitionCounts.entrySet()) {
+        counts.put(entry.getKey(), entry.getValue().copy());
+      }
+      return counts;
+    }
+  }
+
+  /**
+   * @return a copy of the counts of the given process definition or null if the
+   * aggregate cannot be initialized at the moment
+   */
+  public ProcessDefinitionCounts getProcessDefinitionCounts(CommandContext commandContext, String processDefinitionId) {
+    if (!ensureInitialized(commandContext)) {
+      return null;
+    }
+
+    synchronized (this) {
+      if (statistics == null) {
+        // invalidated meanwhile
+        return null;
+      }
+      ProcessDefinitionCounts counts = statistics.getProcessDefinitionCounts(processDefinitionId);
+      return counts != null ? counts.copy() : new ProcessDefinitionCounts();
+    }
+  }
+
+  protected boolean ensureInitialized(CommandContext commandContext) {
+    if (commandContext.getDbEntityManager().isRuntimeStatisticsChangesPending()) {
+      // the query would see the own changes, which are applied once more on commit
+      return false;
+    }
+
+    synchronized (this) {
+      if (statistics != null && ClockUtil.getCurrentTime().getTime() < expirationTime) {
+        return true;
+      }
+      if (initializationChanges != null) {
+        // initialized by another thread at the moment
+        return false;
+      }
+      initializationChanges = new RuntimeStatistics();
+      isInitializationUnsettled = pendingFlushes > 0;
+      isInitializationInvalidated = false;
+    }
+
+    RuntimeStatistics initialStatistics = null;
+    try {
+      initialStatistics = queryStatistics(commandContext.getDbEntityManager());
+    }
+    finally {
+      synchronized (this) {
+        if (initialStatistics != null && !isInitializationInvalidated) {
+          initialStatistics.addAll(initializationChanges);
+          statistics = initialStatistics;
+          long timeToLive = isInitializationUnsettled ? Math.min(this.timeToLive, UNSETTLED_TIME_TO_LIVE) : this.timeToLive;
+          expirationTime = ClockUtil.getCurrentTime().getTime() + timeToLive;
+        }
+        initializationChanges = null;
+      }
+    }
+
+    synchronized (this) {
+      return statistics != null;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  protected RuntimeStatistics queryStatistics(DbEntityManager dbEntityManager) {
+    RuntimeStatistics statistics = new RuntimeStatistics();
+
+    // a single statement, so that all counts are read from the same snapshot
+    List<RuntimeStatisticsCount> counts = dbEntityManager.selectList("selectRuntimeStatisticsCounts");
+    for (RuntimeStatisticsCount count : counts) {
+      String type = count.getType();
+      if (RuntimeStatisticsCount.PROCESS_INSTANCES.equals(type)) {
+        statistics.addProcessInstances(count.getProcessDefinitionId(), count.getCount());
+      }
+      else if (RuntimeStatisticsCount.ACTIVITY_INSTANCES.equals(type)) {
+        statistics.addActivityInstances(count.getProcessDefinitionId(), count.getActivityId(), count.getCount());
+      }
+      else if (RuntimeStatisticsCount.FAILED_JOBS.equals(type)) {
+        statistics.addFailedJobs(count.getProcessDefinitionId(), count.getJobDefinitionId(), count.getCount());
+      }
+      else if (RuntimeStatisticsCount.INCIDENTS.equals(type)) {
+        statistics.addIncidents(count.getProcessDefinitionId(), count.getActivityId(), count.getIncidentType(), count.getCount());
+      }
+    }
+
+    return statistics;
+  }
+
+  public long getTimeToLive() {
+    return timeToLive;
+  }
+
+  protected class ApplyChangesListener implements TransactionListener {
+
+    protected RuntimeStatistics changes;
+
+    public ApplyChangesListener(RuntimeStatistics changes) {
+      this.changes = changes;
+    }
+
+    public void execute(CommandContext commandContext) {
+      applyChanges(changes);
+    }
+  }
+
+  protected class DiscardChangesListener implements TransactionListener {
+
+    public void execute(CommandContext commandContext) {
+      discardChanges();
+    }
+  }
+
+}
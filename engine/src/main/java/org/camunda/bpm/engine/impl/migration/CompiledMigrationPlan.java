@@ -0,0 +1,151 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.migration;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.migration.validation.instance.MigratingActivityInstanceValidator;
+import org.camunda.bpm.engine.impl.migration.validation.instance.MigratingCompensationInstanceValidator;
+import org.camunda.bpm.engine.impl.migration.validation.instance.MigratingTransitionInstanceValidator;
+import org.camunda.bpm.engine.impl.persistence.entity.JobDefinitionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.util.CollectionUtil;
+import org.camunda.bpm.engine.migration.MigrationInstruction;
+import org.camunda.bpm.engine.migration.MigrationPlan;
+
+/**
+ * <p>Everything about a {@link MigrationPlan} that does not depend on a single process
+ * instance: the resolved source and target process definitions, the instructions by
+ * source activity, the target activities, the job definitions of the target process
+ * definition and the instance validators.</p>
+ *
+ * <p>A plan is compiled once per command and shared by the migrations of all
+ * process instances of that command. It must not be used in another command since
+ * it references the job definition entities of the command's session.</p>
+ */
+public class CompiledMigrationPlan {
+
+  protected final MigrationPlan migrationPlan;
+
+  protected final ProcessDefinitionEntity sourceProcessDefinition;
+  protected final ProcessDefinitionEntity targetProcessDefinition;
+
+  protected final Map<String, List<MigrationInstruction>> instructionsBySourceScope;
+  protected final Map<String, ActivityImpl> targetActivities;
+  protected final Map<String, List<JobDefinitionEntity>> targetJobDefinitions;
+
+  protected final List<MigratingActivityInstanceValidator> migratingActivityInstanceValidators;
+  protected final List<MigratingTransitionInstanceValidator> migratingTransitionInstanceValidators;
+  protected final List<MigratingCompensationInstanceValidator> migratingCompensationInstanceValidators;
+
+  public CompiledMigrationPlan(CommandContext commandContext,
+      MigrationPlan migrationPlan,
+      ProcessDefinitionEntity sourceProcessDefinition,
+      ProcessDefinitionEntity targetProcessDefinition) {
+    this.migrationPlan = migrationPlan;
+    this.sourceProcessDefinition = sourceProcessDefinition;
+    this.targetProcessDefinition = targetProcessDefinition;
+
+    Map<String, List<MigrationInstruction>> instructionsBySourceScope = new HashMap<String, List<MigrationInstruction>>();
+    Map<String, ActivityImpl> targetActivities = new HashMap<String, ActivityImpl>();
+    for (MigrationInstruction instruction : migrationPlan.getInstructions()) {
+      CollectionUtil.addToMapOfLists(instructionsBySourceScope, instruction.getSourceActivityId(), instruction);
+
+      String targetActivityId = instruction.getTargetActivityId();
+      if (!targetActivities.containsKey(targetActivityId)) {
+        targetActivities.put(targetActivityId, targetProcessDefinition.findActivity(targetActivityId));
+      }
+    }
+    this.instructionsBySourceScope = Collections.unmodifiableMap(instructionsBySourceScope);
+    this.targetActivities = Collections.unmodifiableMap(targetActivities);
+
+    Map<String, List<JobDefinitionEntity>> targetJobDefinitions = new HashMap<String, List<JobDefinitionEntity>>();
+    List<JobDefinitionEntity> jobDefinitions = commandContext.getJobDefinitionManager()
+        .findByProcessDefinitionId(targetProcessDefinition.getId());
+    for (JobDefinitionEntity jobDefinition : jobDefinitions) {
+      CollectionUtil.addToMapOfLists(targetJobDefinitions, jobDefinition.getActivityId(), jobDefinition);
+    }
+    this.targetJobDefinitions = Collections.unmodifiableMap(targetJobDefinitions);
+
+    ProcessEngineConfigurationImpl configuration = commandContext.getProcessEngineConfiguration();
+    this.migratingActivityInstanceValidators = configuration.getMigratingActivityInstanceValidators();
+    this.migratingTransitionInstanceValidators = configuration.getMigratingTransitionInstanceValidators();
+    this.migratingCompensationInstanceValidators = configuration.getMigratingCompensationInstanceValidators();
+  }
+
+  public MigrationPlan getMigrationPlan() {
+    return migrationPlan;
+  }
+
+  public ProcessDefinitionEntity getSourceProcessDefinition() {
+    return sourceProcessDefinition;
+  }
+
+  public ProcessDefinitionEntity getTargetProcessDefinition() {
+    return targetProcessDefinition;
+  }
+
+  public MigrationInstruction getInstructionFor(String sourceScopeId) {
+    List<MigrationInstruction> instructions = instructionsBySourceScope.get(sourceScopeId);
+
+    if (instructions == null || instructions.isEmpty()) {
+      return null;
+    }
+    else {
+      return instructions.get(0);
+    }
+  }
+
+  public ActivityImpl getTargetActivity(MigrationInstruction instruction) {
+    if (instruction != null) {
+      return targetActivities.get(instruction.getTargetActivityId());
+    }
+    else {
+      return null;
+    }
+  }
+
+  public JobDefinitionEntity getTargetJobDefinition(String activityId, String jobHandlerType) {
+    List<JobDefinitionEntity> jobDefinitionsForActivity = targetJobDefinitions.get(activityId);
+
+    if (jobDefinitionsForActivity != null) {
+      for (JobDefinitionEntity jobDefinition : jobDefinitionsForActivity) {
+        if (jobHandlerType.equals(jobDefinition.getJobType())) {
+          // assuming there is no more than one job definition per pair of activity and type
+          return jobDefinition;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  public List<MigratingActivityInstanceValidator> getMigratingActivityInstanceValidators() {
+    return migratingActivityInstanceValidators;
+  }
+
+  public List<MigratingTransitionInstanceValidator> getMigratingTransitionInstanceValidators() {
+    return migratingTransitionInstanceValidators;
+  }
+
+  public List<MigratingCompensationInstanceValidator> getMigratingCompensationInstanceValidators() {
+    return migratingCompensationInstanceValidators;
+  }
+
+}
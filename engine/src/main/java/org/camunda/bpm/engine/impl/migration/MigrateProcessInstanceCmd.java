@@ -103,12 +103,16 @@ public class MigrateProcessInstanceCmd extends AbstractMigrationCmd<Void> {
           false);
     }
 
+    // everything that does not depend on a single process instance is prepared once
+    final CompiledMigrationPlan compiledMigrationPlan = new CompiledMigrationPlan(commandContext, migrationPlan, sourceDefinition, targetDefinition);
+    final MigratingInstanceParser migratingInstanceParser = new MigratingInstanceParser(commandContext.getProcessEngineConfiguration().getProcessEngine());
+
     commandContext.runWithoutAuthorization(new Callable<Void>() {
 
       @Override
       public Void call() throws Exception {
         for (String processInstanceId : processInstanceIds) {
-          migrateProcessInstance(commandContext, processInstanceId, migrationPlan, targetDefinition);
+          migrateProcessInstance(commandContext, processInstanceId, compiledMigrationPlan, migratingInstanceParser);
         }
         return null;
       }
@@ -119,21 +123,28 @@ public class MigrateProcessInstanceCmd extends AbstractMigrationCmd<Void> {
   }
 
   public Void migrateProcessInstance(CommandContext commandContext, String processInstanceId, MigrationPlan migrationPlan, ProcessDefinitionEntity targetProcessDefinition) {
+    ProcessDefinitionEntity sourceProcessDefinition = getProcessDefinition(commandContext, migrationPlan.getSourceProcessDefinitionId());
+    CompiledMigrationPlan compiledMigrationPlan = new CompiledMigrationPlan(commandContext, migrationPlan, sourceProcessDefinition, targetProcessDefinition);
+
+    return migrateProcessInstance(commandContext, processInstanceId, compiledMigrationPlan,
+        new MigratingInstanceParser(commandContext.getProcessEngineConfiguration().getProcessEngine()));
+  }
+
+  public Void migrateProcessInstance(CommandContext commandContext, String processInstanceId, CompiledMigrationPlan migrationPlan, MigratingInstanceParser migratingInstanceParser) {
     ensureNotNull(BadUserRequestException.class, "Process instance id cannot be null", "process instance id", processInstanceId);
 
     final ExecutionEntity processInstance = commandContext.getExecutionManager().findExecutionById(processInstanceId);
 
     ensureProcessInstanceExist(processInstanceId, processInstance);
-    ensureOperationAllowed(commandContext, processInstance, targetProcessDefinition);
-    ensureSameProcessDefinition(processInstance, migrationPlan.getSourceProcessDefinitionId());
+    ensureOperationAllowed(commandContext, processInstance, migrationPlan.getTargetProcessDefinition());
+    ensureSameProcessDefinition(processInstance, migrationPlan.getSourceProcessDefinition().getId());
 
     MigratingProcessInstanceValidationReportImpl processInstanceReport = new MigratingProcessInstanceValidationReportImpl();
 
     // Initialize migration: match migration instructions to activity instances and collect required entities
-    MigratingInstanceParser migratingInstanceParser = new MigratingInstanceParser(Context.getProcessEngineConfiguration().getProcessEngine());
     final MigratingProcessInstance migratingProcessInstance = migratingInstanceParser.parse(processInstance.getId(), migrationPlan, processInstanceReport);
 
-    validateInstructions(commandContext, migratingProcessInstance, processInstanceReport);
+    validateInstructions(migrationPlan, migratingProcessInstance, processInstanceReport);
 
     if (processInstanceReport.hasFailures()) {
       throw LOGGER.failingMigratingProcessInstanceValidation(processInstanceReport);
@@ -213,13 +224,10 @@ public class MigrateProcessInstanceCmd extends AbstractMigrationCmd<Void> {
     return leafInstances;
   }
 
-  protected void validateInstructions(CommandContext commandContext, MigratingProcessInstance migratingProcessInstance, MigratingProcessInstanceValidationReportImpl processInstanceReport) {
-    List<MigratingActivityInstanceValidator> migratingActivityInstanceValidators
-      = commandContext.getProcessEngineConfiguration().getMigratingActivityInstanceValidators();
-    List<MigratingTransitionInstanceValidator> migratingTransitionInstanceValidators
-      = commandContext.getProcessEngineConfiguration().getMigratingTransitionInstanceValidators();
-    List<MigratingCompensationInstanceValidator> migratingCompensationInstanceValidators =
-        commandContext.getProcessEngineConfiguration().getMigratingCompensationInstanceValidators();
+  protected void validateInstructions(CompiledMigrationPlan migrationPlan, MigratingProcessInstance migratingProcessInstance, MigratingProcessInstanceValidationReportImpl processInstanceReport) {
+    List<MigratingActivityInstanceValidator> migratingActivityInstanceValidators = migrationPlan.getMigratingActivityInstanceValidators();
+    List<MigratingTransitionInstanceValidator> migratingTransitionInstanceValidators = migrationPlan.getMigratingTransitionInstanceValidators();
+    List<MigratingCompensationInstanceValidator> migratingCompensationInstanceValidators = migrationPlan.getMigratingCompensationInstanceValidators();
 
     Map<MigratingActivityInstance, MigratingActivityInstanceValidationReportImpl> instanceReports
       = new HashMap<MigratingActivityInstance, MigratingActivityInstanceValidationReportImpl>();
@@ -26,6 +26,7 @@ import org.camunda.bpm.engine.authorization.Resources;
 import org.camunda.bpm.engine.batch.Batch;
 import org.camunda.bpm.engine.impl.ProcessEngineLogger;
 import org.camunda.bpm.engine.impl.batch.BatchEntity;
+import org.camunda.bpm.engine.impl.batch.BatchIdChunks;
 import org.camunda.bpm.engine.impl.batch.BatchJobHandler;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
@@ -106,6 +107,14 @@ public class MigrateProcessInstanceBatchCmd extends AbstractMigrationCmd<Batch>
     batch.setTotalJobs(calculateSize(processEngineConfiguration, configuration));
     batch.setBatchJobsPerSeed(processEngineConfiguration.getBatchJobsPerSeed());
     batch.setInvocationsPerBatchJob(processEngineConfiguration.getInvocationsPerBatchJob());
+    // the id chunks are named after the batch, so the batch needs its id before it is inserted
+    batch.setId(processEngineConfiguration.getIdGenerator().getNextId());
+
+    // store the process instance ids in chunks so that seed jobs do not rewrite the whole configuration
+    String processInstanceIdChunkId = BatchIdChunks.writeChunks(batch, configuration.getProcessInstanceIds());
+    configuration.setProcessInstanceIds(new ArrayList<String>());
+    configuration.setProcessInstanceIdChunkId(processInstanceIdChunkId);
+
     batch.setConfigurationBytes(batchJobHandler.writeConfiguration(configuration));
     batch.setTenantId(sourceProcessDefinition.getTenantId());
     commandContext.getBatchManager().insert(batch);
@@ -21,6 +21,7 @@ public class MigrationBatchConfiguration {
 
   protected MigrationPlan migrationPlan;
   protected List<String> processInstanceIds;
+  protected String processInstanceIdChunkId;
   protected boolean isSkipCustomListeners;
   protected boolean isSkipIoMappings;
 
@@ -40,6 +41,18 @@ public class MigrationBatchConfiguration {
     this.processInstanceIds = processInstanceIds;
   }
 
+  /**
+   * @return the id of the first chunk of process instance ids which are not stored in the
+   * configuration itself (see {@link org.camunda.bpm.engine.impl.batch.BatchIdChunks}) or null
+   */
+  public String getProcessInstanceIdChunkId() {
+    return processInstanceIdChunkId;
+  }
+
+  public void setProcessInstanceIdChunkId(String processInstanceIdChunkId) {
+    this.processInstanceIdChunkId = processInstanceIdChunkId;
+  }
+
   public boolean isSkipCustomListeners() {
     return isSkipCustomListeners;
   }
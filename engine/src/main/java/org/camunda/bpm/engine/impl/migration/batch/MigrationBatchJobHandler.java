@@ -15,10 +15,13 @@ package org.camunda.bpm.engine.impl.migration.batch;
 import java.io.ByteArrayOutputStream;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.camunda.bpm.engine.batch.Batch;
 import org.camunda.bpm.engine.impl.batch.BatchEntity;
+import org.camunda.bpm.engine.impl.batch.BatchIdChunks;
+import org.camunda.bpm.engine.impl.batch.BatchIdChunks.BatchIdChunk;
 import org.camunda.bpm.engine.impl.batch.BatchJobConfiguration;
 import org.camunda.bpm.engine.impl.batch.BatchJobHandler;
 import org.camunda.bpm.engine.impl.context.Context;
@@ -86,7 +89,19 @@ public class MigrationBatchJobHandler implements BatchJobHandler<MigrationBatchC
     int batchJobsPerSeed = batch.getBatchJobsPerSeed();
     int invocationsPerBatchJob = batch.getInvocationsPerBatchJob();
 
-    List<String> processInstanceIds = configuration.getProcessInstanceIds();
+    String chunkId = configuration.getProcessInstanceIdChunkId();
+    BatchIdChunk chunk = null;
+
+    List<String> processInstanceIds;
+    if (chunkId != null) {
+      chunk = BatchIdChunks.readChunk(chunkId);
+      processInstanceIds = chunk != null ? chunk.getIds() : new ArrayList<String>();
+    }
+    else {
+      // configuration of a batch created without chunks
+      processInstanceIds = configuration.getProcessInstanceIds();
+    }
+
     int numberOfInstancesToProcess = Math.min(invocationsPerBatchJob * batchJobsPerSeed, processInstanceIds.size());
     // view of process instances to process
     List<String> processInstancesToProcess = processInstanceIds.subList(0, numberOfInstancesToProcess);
@@ -112,10 +127,23 @@ public class MigrationBatchJobHandler implements BatchJobHandler<MigrationBatchC
     // update created jobs for batch
     batch.setJobsCreated(batch.getJobsCreated() + createdJobs);
 
-    // update batch configuration
-    batch.setConfigurationBytes(writeConfiguration(configuration));
+    if (chunkId != null) {
+      // a chunk holds exactly the ids of one seed job run, so it is completely processed now;
+      // only the reference to the next chunk has to be updated
+      BatchIdChunks.deleteChunk(chunkId);
+
+      String nextChunkId = chunk != null ? chunk.getNextChunkId() : null;
+      configuration.setProcessInstanceIdChunkId(nextChunkId);
+      batch.setConfigurationBytes(writeConfiguration(configuration));
 
-    return processInstanceIds.isEmpty();
+      return nextChunkId == null;
+    }
+    else {
+      // update batch configuration
+      batch.setConfigurationBytes(writeConfiguration(configuration));
+
+      return processInstanceIds.isEmpty();
+    }
   }
 
   protected ByteArrayEntity saveConfiguration(ByteArrayManager byteArrayManager, MigrationBatchConfiguration jobConfiguration) {
@@ -132,6 +160,9 @@ public class MigrationBatchJobHandler implements BatchJobHandler<MigrationBatchC
 
   @Override
   public void deleteJobs(BatchEntity batch) {
+    String chunkId = readConfiguration(batch.getConfigurationBytes()).getProcessInstanceIdChunkId();
+    BatchIdChunks.deleteChunks(chunkId);
+
     List<JobEntity> jobs = Context.getCommandContext()
       .getJobManager()
       .findJobsByJobDefinitionId(batch.getBatchJobDefinitionId());
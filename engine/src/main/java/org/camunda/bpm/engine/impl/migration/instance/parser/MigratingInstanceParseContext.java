@@ -21,6 +21,7 @@ import java.util.Map;
 import org.camunda.bpm.engine.impl.ActivityExecutionTreeMapping;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.migration.CompiledMigrationPlan;
 import org.camunda.bpm.engine.impl.migration.instance.MigratingActivityInstance;
 import org.camunda.bpm.engine.impl.migration.instance.MigratingEventScopeInstance;
 import org.camunda.bpm.engine.impl.migration.instance.MigratingExternalTaskInstance;
@@ -36,15 +37,12 @@ import org.camunda.bpm.engine.impl.persistence.entity.ExternalTaskEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.IncidentEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.JobDefinitionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
-import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
 import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
 import org.camunda.bpm.engine.impl.pvm.process.ProcessDefinitionImpl;
-import org.camunda.bpm.engine.impl.util.CollectionUtil;
 import org.camunda.bpm.engine.impl.util.StringUtil;
 import org.camunda.bpm.engine.migration.MigrationInstruction;
-import org.camunda.bpm.engine.migration.MigrationPlan;
 import org.camunda.bpm.engine.runtime.TransitionInstance;
 
 /**
@@ -67,25 +65,20 @@ public class MigratingInstanceParseContext {
   protected Collection<ExternalTaskEntity> externalTasks;
   protected Collection<VariableInstanceEntity> variables;
 
-  protected ProcessDefinitionEntity sourceProcessDefinition;
-  protected ProcessDefinitionEntity targetProcessDefinition;
-  protected Map<String, List<JobDefinitionEntity>> targetJobDefinitions;
+  protected CompiledMigrationPlan migrationPlan;
   protected ActivityExecutionTreeMapping mapping;
-  protected Map<String, List<MigrationInstruction>> instructionsBySourceScope;
 
   protected MigratingInstanceParser parser;
 
   public MigratingInstanceParseContext(
       MigratingInstanceParser parser,
-      MigrationPlan migrationPlan,
-      ExecutionEntity processInstance,
-      ProcessDefinitionEntity targetProcessDefinition) {
+      CompiledMigrationPlan migrationPlan,
+      ExecutionEntity processInstance) {
     this.parser = parser;
-    this.sourceProcessDefinition = processInstance.getProcessDefinition();
-    this.targetProcessDefinition = targetProcessDefinition;
-    this.migratingProcessInstance = new MigratingProcessInstance(processInstance.getId(), sourceProcessDefinition, targetProcessDefinition);
+    this.migrationPlan = migrationPlan;
+    this.migratingProcessInstance = new MigratingProcessInstance(processInstance.getId(),
+        migrationPlan.getSourceProcessDefinition(), migrationPlan.getTargetProcessDefinition());
     this.mapping = new ActivityExecutionTreeMapping(Context.getCommandContext(), processInstance.getId());
-    this.instructionsBySourceScope = organizeInstructionsBySourceScope(migrationPlan);
   }
 
   public MigratingInstanceParseContext jobs(Collection<JobEntity> jobs) {
@@ -113,15 +106,6 @@ public class MigratingInstanceParseContext {
     return this;
   }
 
-  public MigratingInstanceParseContext targetJobDefinitions(Collection<JobDefinitionEntity> jobDefinitions) {
-    this.targetJobDefinitions = new HashMap<String, List<JobDefinitionEntity>>();
-
-    for (JobDefinitionEntity jobDefinition : jobDefinitions) {
-      CollectionUtil.addToMapOfLists(this.targetJobDefinitions, jobDefinition.getActivityId(), jobDefinition);
-    }
-    return this;
-  }
-
   public MigratingInstanceParseContext variables(Collection<VariableInstanceEntity> variables) {
     this.variables = new HashSet<VariableInstanceEntity>(variables);
     return this;
@@ -179,35 +163,19 @@ public class MigratingInstanceParseContext {
   }
 
   public ProcessDefinitionImpl getSourceProcessDefinition() {
-    return sourceProcessDefinition;
+    return migrationPlan.getSourceProcessDefinition();
   }
 
   public ProcessDefinitionImpl getTargetProcessDefinition() {
-    return targetProcessDefinition;
+    return migrationPlan.getTargetProcessDefinition();
   }
 
   public ActivityImpl getTargetActivity(MigrationInstruction instruction) {
-    if (instruction != null) {
-      return targetProcessDefinition.findActivity(instruction.getTargetActivityId());
-    }
-    else {
-      return null;
-    }
+    return migrationPlan.getTargetActivity(instruction);
   }
 
   public JobDefinitionEntity getTargetJobDefinition(String activityId, String jobHandlerType) {
-    List<JobDefinitionEntity> jobDefinitionsForActivity = targetJobDefinitions.get(activityId);
-
-    if (jobDefinitionsForActivity != null) {
-      for (JobDefinitionEntity jobDefinition : jobDefinitionsForActivity) {
-        if (jobHandlerType.equals(jobDefinition.getJobType())) {
-          // assuming there is no more than one job definition per pair of activity and type
-          return jobDefinition;
-        }
-      }
-    }
-
-    return null;
+    return migrationPlan.getTargetJobDefinition(activityId, jobHandlerType);
   }
 
   public ActivityExecutionTreeMapping getMapping() {
@@ -216,14 +184,7 @@ public class MigratingInstanceParseContext {
 
   // TODO: conditions would go here
   public MigrationInstruction getInstructionFor(String scopeId) {
-    List<MigrationInstruction> instructions = instructionsBySourceScope.get(scopeId);
-
-    if (instructions == null || instructions.isEmpty()) {
-      return null;
-    }
-    else {
-      return instructions.get(0);
-    }
+    return migrationPlan.getInstructionFor(scopeId);
   }
 
   public MigratingActivityInstance getMigratingActivityInstanceById(String activityInstanceId) {
@@ -243,25 +204,7 @@ public class MigratingInstanceParseContext {
   }
 
   public MigrationInstruction findSingleMigrationInstruction(String sourceScopeId) {
-    List<MigrationInstruction> instructions = instructionsBySourceScope.get(sourceScopeId);
-
-    if (instructions != null && !instructions.isEmpty()) {
-      return instructions.get(0);
-    }
-    else {
-      return null;
-    }
-
-  }
-
-  protected Map<String, List<MigrationInstruction>> organizeInstructionsBySourceScope(MigrationPlan migrationPlan) {
-    Map<String, List<MigrationInstruction>> organizedInstructions = new HashMap<String, List<MigrationInstruction>>();
-
-    for (MigrationInstruction instruction : migrationPlan.getInstructions()) {
-      CollectionUtil.addToMapOfLists(organizedInstructions, instruction.getSourceActivityId(), instruction);
-    }
-
-    return organizedInstructions;
+    return migrationPlan.getInstructionFor(sourceScopeId);
   }
 
   public void handleDependentActivityInstanceJobs(MigratingActivityInstance migratingInstance, List<JobEntity> jobs) {
@@ -17,19 +17,19 @@ import java.util.List;
 import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.migration.CompiledMigrationPlan;
 import org.camunda.bpm.engine.impl.migration.instance.MigratingActivityInstance;
 import org.camunda.bpm.engine.impl.migration.instance.MigratingProcessElementInstance;
 import org.camunda.bpm.engine.impl.migration.instance.MigratingProcessInstance;
 import org.camunda.bpm.engine.impl.migration.instance.MigratingTransitionInstance;
 import org.camunda.bpm.engine.impl.migration.validation.instance.MigratingProcessInstanceValidationReportImpl;
+import org.camunda.bpm.engine.impl.persistence.deploy.DeploymentCache;
 import org.camunda.bpm.engine.impl.persistence.entity.CompensateEventSubscriptionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.EventSubscriptionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.ExternalTaskEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.IncidentEntity;
-import org.camunda.bpm.engine.impl.persistence.entity.JobDefinitionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
-import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
 import org.camunda.bpm.engine.impl.tree.TreeVisitor;
@@ -70,6 +70,22 @@ public class MigratingInstanceParser {
   }
 
   public MigratingProcessInstance parse(String processInstanceId, MigrationPlan migrationPlan, MigratingProcessInstanceValidationReportImpl processInstanceReport) {
+    CommandContext commandContext = Context.getCommandContext();
+    DeploymentCache deploymentCache = Context.getProcessEngineConfiguration().getDeploymentCache();
+
+    CompiledMigrationPlan compiledMigrationPlan = new CompiledMigrationPlan(commandContext,
+        migrationPlan,
+        deploymentCache.findDeployedProcessDefinitionById(migrationPlan.getSourceProcessDefinitionId()),
+        deploymentCache.findDeployedProcessDefinitionById(migrationPlan.getTargetProcessDefinitionId()));
+
+    return parse(processInstanceId, compiledMigrationPlan, processInstanceReport);
+  }
+
+  /**
+   * Parses a process instance with a migration plan that is compiled once for all process
+   * instances of a command.
+   */
+  public MigratingProcessInstance parse(String processInstanceId, CompiledMigrationPlan migrationPlan, MigratingProcessInstanceValidationReportImpl processInstanceReport) {
 
     CommandContext commandContext = Context.getCommandContext();
     List<EventSubscriptionEntity> eventSubscriptions = fetchEventSubscriptions(commandContext, processInstanceId);
@@ -83,19 +99,12 @@ public class MigratingInstanceParser {
     ExecutionEntity processInstance = commandContext.getExecutionManager().findExecutionById(processInstanceId);
     processInstance.restoreProcessInstance(executions, eventSubscriptions, variables, tasks, jobs, incidents, externalTasks);
 
-    ProcessDefinitionEntity targetProcessDefinition = Context
-      .getProcessEngineConfiguration()
-      .getDeploymentCache()
-      .findDeployedProcessDefinitionById(migrationPlan.getTargetProcessDefinitionId());
-    List<JobDefinitionEntity> targetJobDefinitions = fetchJobDefinitions(commandContext, targetProcessDefinition.getId());
-
-    final MigratingInstanceParseContext parseContext = new MigratingInstanceParseContext(this, migrationPlan, processInstance, targetProcessDefinition)
+    final MigratingInstanceParseContext parseContext = new MigratingInstanceParseContext(this, migrationPlan, processInstance)
       .eventSubscriptions(eventSubscriptions)
       .externalTasks(externalTasks)
       .incidents(incidents)
       .jobs(jobs)
       .tasks(tasks)
-      .targetJobDefinitions(targetJobDefinitions)
       .variables(variables);
 
     ActivityInstance activityInstance = engine.getRuntimeService().getActivityInstance(processInstanceId);
@@ -184,10 +193,6 @@ public class MigratingInstanceParser {
     return commandContext.getTaskManager().findTasksByProcessInstanceId(processInstanceId);
   }
 
-  protected List<JobDefinitionEntity> fetchJobDefinitions(CommandContext commandContext, String processDefinitionId) {
-    return commandContext.getJobDefinitionManager().findByProcessDefinitionId(processDefinitionId);
-  }
-
   protected List<VariableInstanceEntity> fetchVariables(CommandContext commandContext, String processInstanceId) {
     return commandContext.getVariableInstanceManager().findVariableInstancesByProcessInstanceId(processInstanceId);
   }
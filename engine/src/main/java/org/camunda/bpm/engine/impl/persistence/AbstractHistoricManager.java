@@ -28,8 +28,8 @@ public class AbstractHistoricManager extends AbstractManager {
 
   protected HistoryLevel historyLevel = Context.getProcessEngineConfiguration().getHistoryLevel();
 
-  protected boolean isHistoryEnabled = !historyLevel.equals(HistoryLevel.HISTORY_LEVEL_NONE);
-  protected boolean isHistoryLevelFullEnabled = historyLevel.equals(HistoryLevel.HISTORY_LEVEL_FULL);
+  protected boolean isHistoryEnabled = historyLevel.getId() != HistoryLevel.HISTORY_LEVEL_NONE.getId();
+  protected boolean isHistoryLevelFullEnabled = historyLevel.getId() == HistoryLevel.HISTORY_LEVEL_FULL.getId();
 
   protected void checkHistoryEnabled() {
     if (!isHistoryEnabled) {
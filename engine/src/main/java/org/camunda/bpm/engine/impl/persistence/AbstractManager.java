@@ -50,6 +50,7 @@ import org.camunda.bpm.engine.impl.persistence.entity.HistoricProcessInstanceMan
 import org.camunda.bpm.engine.impl.persistence.entity.ReportManager;
 import org.camunda.bpm.engine.impl.persistence.entity.HistoricTaskInstanceManager;
 import org.camunda.bpm.engine.impl.persistence.entity.HistoricVariableInstanceManager;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryOutboxManager;
 import org.camunda.bpm.engine.impl.persistence.entity.IdentityInfoManager;
 import org.camunda.bpm.engine.impl.persistence.entity.IdentityLinkManager;
 import org.camunda.bpm.engine.impl.persistence.entity.JobDefinitionManager;
@@ -216,6 +217,10 @@ public abstract class AbstractManager implements Session {
     return getSession(BatchManager.class);
   }
 
+  protected HistoryOutboxManager getHistoryOutboxManager() {
+    return getSession(HistoryOutboxManager.class);
+  }
+
   protected HistoricBatchManager getHistoricBatchManager() {
     return getSession(HistoricBatchManager.class);
   }
@@ -13,19 +13,33 @@
 package org.camunda.bpm.engine.impl.persistence.entity;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.HasDbRevision;
 import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.util.CompressionUtil;
 
 /**
+ * <p>Changes of the bytes are tracked by a content version which is incremented whenever
+ * {@link #setBytes(byte[])} is called with different content. The persistent state only
+ * consists of this version, so that the entity cache neither copies nor compares the bytes
+ * when determining whether the entity is dirty. Setting equal content does not make the
+ * entity dirty. The bytes of a compressed row are not inflated for the comparison; the new
+ * bytes are compressed instead and compared to the bytes read from the database.</p>
+ *
+ * <p>If byte array compression is enabled, the bytes are compressed when they are written
+ * to the database, see {@link #compress(byte[])}, and the row is flagged as compressed.
+ * The bytes of flagged rows are inflated when they are first accessed, regardless of whether
+ * compression is currently enabled. The bytes of other rows are never inflated.</p>
+ *
  * @author Tom Baeyens
  */
 public class ByteArrayEntity implements Serializable, DbEntity, HasDbRevision {
 
   private static final long serialVersionUID = 1L;
 
-  private static final Object PERSISTENTSTATE_NULL = new Object();
-
   protected String id;
   protected int revision;
   protected String name;
@@ -33,6 +47,16 @@ public class ByteArrayEntity implements Serializable, DbEntity, HasDbRevision {
   protected String deploymentId;
   protected String tenantId;
 
+  /** true while {@link #bytes} holds the compressed bytes read from the database */
+  protected boolean compressed;
+
+  /** not persisted; incremented whenever the bytes are changed */
+  protected transient int contentVersion;
+
+  /** not persisted; the bytes as they are written to the database and the bytes they were computed for */
+  protected transient byte[] persistentBytes;
+  protected transient byte[] persistentBytesSource;
+
   public ByteArrayEntity() {
   }
 
@@ -46,11 +70,59 @@ public class ByteArrayEntity implements Serializable, DbEntity, HasDbRevision {
   }
 
   public byte[] getBytes() {
+    if (compressed) {
+      bytes = decompress(bytes);
+      compressed = false;
+    }
     return bytes;
   }
 
+  /**
+   * @return the bytes as they are written to the database
+   */
+  public byte[] getPersistentBytes() {
+    preparePersistentBytes();
+    return persistentBytes;
+  }
+
+  /**
+   * @return true if the bytes which are written to the database are compressed
+   */
+  public boolean isPersistentBytesCompressed() {
+    preparePersistentBytes();
+    return persistentBytes != bytes;
+  }
+
+  /**
+   * Sets the bytes as they are read from the database. They are inflated
+   * on first access if the row is flagged as {@link #setCompressed(boolean) compressed}.
+   */
+  public void setPersistentBytes(byte[] persistentBytes) {
+    this.bytes = persistentBytes;
+  }
+
+  public void setCompressed(boolean compressed) {
+    this.compressed = compressed;
+  }
+
+  protected void preparePersistentBytes() {
+    byte[] bytes = getBytes();
+    if (persistentBytesSource != bytes) {
+      byte[] compressedBytes = compress(bytes);
+      persistentBytes = compressedBytes != null ? compressedBytes : bytes;
+      persistentBytesSource = bytes;
+    }
+  }
+
   public Object getPersistentState() {
-    return (bytes != null ? bytes : PERSISTENTSTATE_NULL);
+    return contentVersion;
+  }
+
+  /**
+   * @return the version of the content which is incremented whenever the bytes are changed
+   */
+  public int getContentVersion() {
+    return contentVersion;
   }
 
   public int getRevisionNext() {
@@ -84,6 +156,21 @@ public class ByteArrayEntity implements Serializable, DbEntity, HasDbRevision {
   }
 
   public void setBytes(byte[] bytes) {
+    // the comparison is only as expensive as the new value,
+    // and only paid when the value is set instead of on every flush
+    if (compressed) {
+      // the compressed new bytes are kept, since they are written on flush anyway
+      byte[] compressedBytes = compress(bytes);
+      if (compressedBytes == null || !Arrays.equals(this.bytes, compressedBytes)) {
+        contentVersion++;
+      }
+      persistentBytes = compressedBytes != null ? compressedBytes : bytes;
+      persistentBytesSource = bytes;
+      compressed = false;
+    }
+    else if (!Arrays.equals(this.bytes, bytes)) {
+      contentVersion++;
+    }
     this.bytes = bytes;
   }
 
@@ -114,4 +201,46 @@ public class ByteArrayEntity implements Serializable, DbEntity, HasDbRevision {
            + "]";
   }
 
+  // compression /////////////////////////////////////////////////////////////
+
+  /**
+   * Compresses the given bytes if byte array compression is enabled, the bytes are not
+   * smaller than the configured threshold and compression actually reduces their size.
+   *
+   * @return the compressed bytes or null if the bytes are stored uncompressed
+   */
+  public static byte[] compress(byte[] bytes) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (bytes == null
+        || processEngineConfiguration == null
+        || !processEngineConfiguration.isByteArrayCompressionEnabled()
+        || bytes.length < processEngineConfiguration.getByteArrayCompressionThreshold()) {
+      return null;
+    }
+
+    byte[] compressed = CompressionUtil.compress(bytes);
+    return compressed.length < bytes.length ? compressed : null;
+  }
+
+  /**
+   * Inflates the bytes of a row which is flagged as compressed, at most to
+   * {@link ProcessEngineConfigurationImpl#getByteArrayDecompressionMaxSize()} bytes.
+   */
+  public static byte[] decompress(byte[] compressedBytes) {
+    if (compressedBytes == null) {
+      return null;
+    }
+    return CompressionUtil.decompress(compressedBytes, getDecompressionMaxSize());
+  }
+
+  public static int getDecompressionMaxSize() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (processEngineConfiguration != null) {
+      return processEngineConfiguration.getByteArrayDecompressionMaxSize();
+    }
+    else {
+      return CompressionUtil.DEFAULT_MAX_DECOMPRESSED_SIZE;
+    }
+  }
+
 }
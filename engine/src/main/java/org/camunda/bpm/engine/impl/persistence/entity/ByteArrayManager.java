@@ -10,16 +10,34 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.CachedDbEntity;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityCache;
 import org.camunda.bpm.engine.impl.persistence.AbstractManager;
+import org.camunda.bpm.engine.impl.util.CompressionUtil;
+import org.camunda.bpm.engine.impl.util.IoUtil;
 
 /**
  * @author Joram Barrez
  */
 public class ByteArrayManager extends AbstractManager {
 
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  protected static final int BUFFER_SIZE = 16 * 1024;
+
   /**
    * Deletes the {@link ByteArrayEntity} with the given id from the database.
    * Important: this operation will NOT do any optimistic locking, to avoid loading the
@@ -30,4 +48,146 @@ public class ByteArrayManager extends AbstractManager {
     getDbEntityManager().delete(ByteArrayEntity.class, "deleteByteArrayNoRevisionCheck", byteArrayEntityId);
   }
 
+  /**
+   * Copies the bytes of the {@link ByteArrayEntity} with the given id to the given stream
+   * without loading them into memory. The byte array is neither put into the entity cache
+   * nor is the output stream closed. The bytes of rows which are flagged as compressed are
+   * inflated while they are copied.
+   *
+   * @return false if no byte array with the given id exists
+   */
+  public boolean writeByteArrayContent(String byteArrayEntityId, OutputStream outputStream) {
+    ByteArrayContentWriter contentWriter = new ByteArrayContentWriter(outputStream);
+
+    getDbSqlSession().select("selectByteArrayContent", byteArrayEntityId, contentWriter);
+
+    if (contentWriter.exception != null) {
+      throw LOG.readByteArrayContentException(byteArrayEntityId, contentWriter.exception);
+    }
+
+    return contentWriter.found;
+  }
+
+  /**
+   * Inserts a new byte array with the content of the given stream without loading
+   * it into memory. The byte array is not put into the entity cache. The content is
+   * not compressed, since its size is unknown before it is written.
+   *
+   * The insert is executed right away, since the stream is only available during the
+   * command. It precedes the flush of any entity which references the byte array.
+   *
+   * @param length the number of bytes of the stream
+   * @return the id of the inserted byte array
+   */
+  public String insertByteArrayContent(String name, String tenantId, InputStream inputStream, int length) {
+    String byteArrayEntityId = Context.getProcessEngineConfiguration().getIdGenerator().getNextId();
+
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("id", byteArrayEntityId);
+    parameters.put("name", name);
+    parameters.put("tenantId", tenantId);
+    parameters.put("content", new ByteArrayStream(inputStream, length));
+
+    getDbSqlSession().executeImmediately("insertByteArrayContent", parameters);
+
+    return byteArrayEntityId;
+  }
+
+  /**
+   * Replaces the bytes of the {@link ByteArrayEntity} with the given id by the content
+   * of the given stream without loading either of them into memory. A cached instance
+   * of the byte array is evicted, so that it is reloaded with the new content.
+   * Important: as {@link #deleteByteArrayById(String)}, this operation does NOT do any
+   * optimistic locking and must only be used in conjunction with an entity that has
+   * optimistic locking.
+   *
+   * @param length the number of bytes of the stream
+   * @return false if no byte array with the given id exists
+   */
+  public boolean updateByteArrayContent(String byteArrayEntityId, InputStream inputStream, int length) {
+    DbEntityCache dbEntityCache = getDbEntityManager().getDbEntityCache();
+    CachedDbEntity cachedByteArray = dbEntityCache.getCachedEntity(ByteArrayEntity.class, byteArrayEntityId);
+    if (cachedByteArray != null) {
+      dbEntityCache.remove(cachedByteArray);
+    }
+
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("id", byteArrayEntityId);
+    parameters.put("content", new ByteArrayStream(inputStream, length));
+
+    return getDbSqlSession().executeImmediately("updateByteArrayContent", parameters) > 0;
+  }
+
+  /**
+   * Inserts a copy of the {@link ByteArrayEntity} with the given id. The database copies
+   * the bytes, so that they are never loaded into memory. The copy is not put into the
+   * entity cache and does not belong to a deployment.
+   *
+   * As {@link #insertByteArrayContent(String, String, InputStream, int)}, the insert is
+   * executed right away.
+   *
+   * @return the id of the copy
+   */
+  public String copyByteArray(String byteArrayEntityId) {
+    String copyId = Context.getProcessEngineConfiguration().getIdGenerator().getNextId();
+
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("id", copyId);
+    parameters.put("sourceId", byteArrayEntityId);
+
+    if (getDbSqlSession().executeImmediately("insertByteArrayCopy", parameters) == 0) {
+      throw LOG.readByteArrayContentException(byteArrayEntityId, null);
+    }
+
+    return copyId;
+  }
+
+  /**
+   * Copies the content of the selected byte array while the result set is open.
+   */
+  protected static class ByteArrayContentWriter implements ResultHandler {
+
+    protected OutputStream outputStream;
+
+    protected boolean found = false;
+    protected IOException exception;
+
+    public ByteArrayContentWriter(OutputStream outputStream) {
+      this.outputStream = outputStream;
+    }
+
+    public void handleResult(ResultContext context) {
+      found = true;
+
+      Map<?, ?> row = (Map<?, ?>) context.getResultObject();
+      ByteArrayStream content = (ByteArrayStream) row.get("content");
+      if (content == null) {
+        return;
+      }
+
+      InputStream inputStream = content.getInputStream();
+      try {
+        if (Boolean.TRUE.equals(row.get("compressed"))) {
+          inputStream = CompressionUtil.decompress(inputStream, ByteArrayEntity.getDecompressionMaxSize());
+        }
+        copy(inputStream, outputStream);
+      }
+      catch (IOException e) {
+        exception = e;
+      }
+      finally {
+        IoUtil.closeSilently(inputStream);
+      }
+    }
+
+    protected void copy(InputStream inputStream, OutputStream outputStream) throws IOException {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int bytesRead = inputStream.read(buffer);
+      while (bytesRead != -1) {
+        outputStream.write(buffer, 0, bytesRead);
+        bytesRead = inputStream.read(buffer);
+      }
+    }
+  }
+
 }
@@ -0,0 +1,45 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity;
+
+import java.io.InputStream;
+
+/**
+ * The content of a {@link ByteArrayEntity} as a stream, which is passed to and
+ * from the database without loading it into memory.
+ */
+public class ByteArrayStream {
+
+  public static final int UNKNOWN_LENGTH = -1;
+
+  protected InputStream inputStream;
+  protected int length;
+
+  public ByteArrayStream(InputStream inputStream, int length) {
+    this.inputStream = inputStream;
+    this.length = length;
+  }
+
+  public InputStream getInputStream() {
+    return inputStream;
+  }
+
+  /**
+   * @return the number of bytes of the stream or {@link #UNKNOWN_LENGTH}
+   * if the stream has been read from the database
+   */
+  public int getLength() {
+    return length;
+  }
+
+}
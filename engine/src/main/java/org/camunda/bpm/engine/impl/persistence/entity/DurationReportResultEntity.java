@@ -13,6 +13,7 @@
 package org.camunda.bpm.engine.impl.persistence.entity;
 
 import org.camunda.bpm.engine.history.DurationReportResult;
+import org.camunda.bpm.engine.impl.history.report.DurationSketch;
 
 /**
  * @author Roman Smirnov
@@ -23,6 +24,7 @@ public class DurationReportResultEntity extends ReportResultEntity implements Du
   protected long minimum;
   protected long maximum;
   protected long average;
+  protected DurationSketch sketch;
 
   public long getMinimum() {
     return minimum;
@@ -48,6 +50,31 @@ public class DurationReportResultEntity extends ReportResultEntity implements Du
     this.average = average;
   }
 
+  /**
+   * <p>Returns the approximated duration below which the given percentage of all
+   * completed instances, which have been started in the given period, completed.
+   * The approximation is within a relative error of two percent.</p>
+   *
+   * <p>Percentiles are only available if the process engine pre-aggregates the
+   * durations of completed instances, otherwise <code>-1</code> is returned.</p>
+   *
+   * @param percentile between 0 and 100, e.g. 95 for the 95th percentile
+   */
+  public long getPercentile(double percentile) {
+    if (sketch != null) {
+      return sketch.getPercentile(percentile);
+    }
+    return -1;
+  }
+
+  public DurationSketch getSketch() {
+    return sketch;
+  }
+
+  public void setSketch(DurationSketch sketch) {
+    this.sketch = sketch;
+  }
+
   public String toString() {
     return this.getClass().getSimpleName()
         + "[period=" + period
@@ -49,6 +49,7 @@ import org.camunda.bpm.engine.impl.db.DbEntity;
 import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
 import org.camunda.bpm.engine.impl.db.HasDbReferences;
 import org.camunda.bpm.engine.impl.db.HasDbRevision;
+import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
 import org.camunda.bpm.engine.impl.event.CompensationEventHandler;
 import org.camunda.bpm.engine.impl.history.HistoryLevel;
 import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
@@ -59,6 +60,7 @@ import org.camunda.bpm.engine.impl.interceptor.AtomicOperationInvocation;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.jobexecutor.MessageJobDeclaration;
 import org.camunda.bpm.engine.impl.jobexecutor.TimerDeclarationImpl;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
 import org.camunda.bpm.engine.impl.persistence.entity.util.FormPropertyStartContext;
 import org.camunda.bpm.engine.impl.pvm.PvmActivity;
 import org.camunda.bpm.engine.impl.pvm.PvmProcessDefinition;
@@ -75,6 +77,7 @@ import org.camunda.bpm.engine.impl.pvm.runtime.operation.PvmAtomicOperation;
 import org.camunda.bpm.engine.impl.util.BitMaskUtil;
 import org.camunda.bpm.engine.impl.util.CollectionUtil;
 import org.camunda.bpm.engine.impl.variable.VariableDeclaration;
+import org.camunda.bpm.engine.management.Metrics;
 import org.camunda.bpm.engine.repository.ProcessDefinition;
 import org.camunda.bpm.engine.runtime.Execution;
 import org.camunda.bpm.engine.runtime.Job;
@@ -1284,7 +1287,108 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
       }
     }
 
-    processInstance.restoreProcessInstance(executions, null, null, null, null, null, null);
+    ExecutionTreePrefetchProfile prefetchProfile = Context.getProcessEngineConfiguration().getExecutionTreePrefetchProfile();
+    if (prefetchProfile == null || prefetchProfile.isEmpty()) {
+      processInstance.restoreProcessInstance(executions, null, null, null, null, null, null);
+    }
+    else {
+      processInstance.restoreProcessInstance(executions, prefetchProfile);
+    }
+  }
+
+  /**
+   * Restores the process instance tree and fetches the referenced entities
+   * of the given profile with one query per entity type.
+   */
+  protected void restoreProcessInstance(List<ExecutionEntity> executions, ExecutionTreePrefetchProfile prefetchProfile) {
+    CommandContext commandContext = Context.getCommandContext();
+    DbEntityManager dbEntityManager = commandContext.getDbEntityManager();
+
+    // the tree may be restored in the middle of a command, after entities were deleted
+    executions = pruneDeletedExecutions(dbEntityManager, executions);
+
+    // count the lazy loads made unnecessary before the references are initialized
+    long avoidedLazyLoads = countUninitializedReferences(executions, prefetchProfile);
+
+    List<VariableInstanceEntity> variables = null;
+    if (prefetchProfile.isVariables()) {
+      variables = dbEntityManager.pruneDeletedEntities(commandContext.getVariableInstanceManager().findVariableInstancesByProcessInstanceId(processInstanceId));
+    }
+
+    List<EventSubscriptionEntity> eventSubscriptions = null;
+    if (prefetchProfile.isEventSubscriptions()) {
+      eventSubscriptions = dbEntityManager.pruneDeletedEntities(commandContext.getEventSubscriptionManager().findEventSubscriptionsByProcessInstanceId(processInstanceId));
+    }
+
+    List<JobEntity> jobs = null;
+    if (prefetchProfile.isJobs()) {
+      jobs = dbEntityManager.pruneDeletedEntities(commandContext.getJobManager().findJobsByProcessInstanceId(processInstanceId));
+    }
+
+    List<TaskEntity> tasks = null;
+    if (prefetchProfile.isTasks()) {
+      tasks = dbEntityManager.pruneDeletedEntities(commandContext.getTaskManager().findTasksByProcessInstanceId(processInstanceId));
+    }
+
+    List<IncidentEntity> incidents = null;
+    if (prefetchProfile.isIncidents()) {
+      incidents = dbEntityManager.pruneDeletedEntities(commandContext.getIncidentManager().findIncidentsByProcessInstance(processInstanceId));
+    }
+
+    List<ExternalTaskEntity> externalTasks = null;
+    if (prefetchProfile.isExternalTasks()) {
+      externalTasks = dbEntityManager.pruneDeletedEntities(commandContext.getExternalTaskManager().findExternalTasksByProcessInstanceId(processInstanceId));
+    }
+
+    restoreProcessInstance(executions, eventSubscriptions, variables, tasks, jobs, incidents, externalTasks);
+
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (processEngineConfiguration.isMetricsEnabled()) {
+      MetricsRegistry metricsRegistry = processEngineConfiguration.getMetricsRegistry();
+      metricsRegistry.markOccurrence(Metrics.EXECUTION_TREE_PREFETCH_QUERIES, prefetchProfile.getNumberOfQueries());
+      metricsRegistry.markOccurrence(Metrics.EXECUTION_TREE_LAZY_LOADS_AVOIDED, avoidedLazyLoads);
+    }
+  }
+
+  /**
+   * Removes the executions which were deleted in the current command, except for the process instance
+   * which is restored.
+   */
+  protected List<ExecutionEntity> pruneDeletedExecutions(DbEntityManager dbEntityManager, List<ExecutionEntity> executions) {
+    List<ExecutionEntity> prunedExecutions = new ArrayList<ExecutionEntity>(executions.size());
+    for (ExecutionEntity execution : executions) {
+      if (execution == this || !dbEntityManager.isDeleted(execution)) {
+        prunedExecutions.add(execution);
+      }
+    }
+    return prunedExecutions;
+  }
+
+  protected long countUninitializedReferences(List<ExecutionEntity> executions, ExecutionTreePrefetchProfile prefetchProfile) {
+    long uninitializedReferences = 0;
+
+    for (ExecutionEntity execution : executions) {
+      if (prefetchProfile.isVariables() && !execution.variableStore.isInitialized()) {
+        uninitializedReferences++;
+      }
+      if (prefetchProfile.isEventSubscriptions() && execution.eventSubscriptions == null) {
+        uninitializedReferences++;
+      }
+      if (prefetchProfile.isJobs() && execution.jobs == null) {
+        uninitializedReferences++;
+      }
+      if (prefetchProfile.isTasks() && execution.tasks == null) {
+        uninitializedReferences++;
+      }
+      if (prefetchProfile.isIncidents() && execution.incidents == null) {
+        uninitializedReferences++;
+      }
+      if (prefetchProfile.isExternalTasks() && execution.externalTasks == null) {
+        uninitializedReferences++;
+      }
+    }
+
+    return uninitializedReferences;
   }
 
   /**
@@ -1336,6 +1440,20 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
       if(execution.eventSubscriptions == null && eventSubscriptions != null) {
         execution.eventSubscriptions = new ArrayList<EventSubscriptionEntity>();
       }
+      // the given collections contain all entities of the process instance,
+      // so that uninitialized references do not have to be lazy loaded
+      if(execution.jobs == null && jobs != null) {
+        execution.jobs = new ArrayList<JobEntity>();
+      }
+      if(execution.tasks == null && tasks != null) {
+        execution.tasks = new ArrayList<TaskEntity>();
+      }
+      if(execution.incidents == null && incidents != null) {
+        execution.incidents = new ArrayList<IncidentEntity>();
+      }
+      if(execution.externalTasks == null && externalTasks != null) {
+        execution.externalTasks = new ArrayList<ExternalTaskEntity>();
+      }
       if(variables != null) {
         execution.variableStore.setVariablesProvider(
             new VariableCollectionProvider<VariableInstanceEntity>(variablesByScope.get(execution.id)));
@@ -1370,18 +1488,22 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
     if (jobs != null) {
       for (JobEntity job : jobs) {
         ExecutionEntity execution = executionsMap.get(job.getExecutionId());
-        job.setExecution(execution);
+        if (execution != null) {
+          job.setExecution(execution);
+        }
       }
     }
 
     if (tasks != null) {
       for (TaskEntity task : tasks) {
         ExecutionEntity execution = executionsMap.get(task.getExecutionId());
-        task.setExecution(execution);
-        execution.addTask(task);
+        if (execution != null) {
+          task.setExecution(execution);
+          execution.addTask(task);
 
-        if(variables != null) {
-          task.variableStore.setVariablesProvider(new VariableCollectionProvider<VariableInstanceEntity>(variablesByScope.get(task.id)));
+          if(variables != null) {
+            task.variableStore.setVariablesProvider(new VariableCollectionProvider<VariableInstanceEntity>(variablesByScope.get(task.id)));
+          }
         }
       }
     }
@@ -1390,15 +1512,19 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
     if (incidents != null) {
       for (IncidentEntity incident : incidents) {
         ExecutionEntity execution = executionsMap.get(incident.getExecutionId());
-        incident.setExecution(execution);
+        if (execution != null) {
+          incident.setExecution(execution);
+        }
       }
     }
 
     if (externalTasks != null) {
       for (ExternalTaskEntity externalTask : externalTasks) {
         ExecutionEntity execution = executionsMap.get(externalTask.getExecutionId());
-        externalTask.setExecution(execution);
-        execution.addExternalTask(externalTask);
+        if (execution != null) {
+          externalTask.setExecution(execution);
+          execution.addExternalTask(externalTask);
+        }
       }
     }
   }
@@ -1623,7 +1749,10 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
   }
 
   public void addExternalTask(ExternalTaskEntity externalTask) {
-    getExternalTasksInternal().add(externalTask);
+    List<ExternalTaskEntity> externalTasksInternal = getExternalTasksInternal();
+    if (!externalTasksInternal.contains(externalTask)) {
+      externalTasksInternal.add(externalTask);
+    }
   }
 
   public void removeExternalTask(ExternalTaskEntity externalTask) {
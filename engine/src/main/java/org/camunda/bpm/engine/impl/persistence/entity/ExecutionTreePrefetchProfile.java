@@ -0,0 +1,133 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+
+/**
+ * <p>Defines which entities referenced by the executions of a process instance are
+ * fetched together with the execution tree (see {@link ExecutionEntity#ensureExecutionTreeInitialized()}).
+ * Every entity type is fetched for the whole process instance by a single query instead of
+ * one lazy query per execution.</p>
+ *
+ * <p>A profile is configured as comma separated list of the entity types
+ * <code>variables</code>, <code>eventSubscriptions</code>, <code>jobs</code>, <code>tasks</code>,
+ * <code>incidents</code> and <code>externalTasks</code>, or as <code>all</code>.</p>
+ */
+public class ExecutionTreePrefetchProfile {
+
+  public static final String VARIABLES = "variables";
+  public static final String EVENT_SUBSCRIPTIONS = "eventSubscriptions";
+  public static final String JOBS = "jobs";
+  public static final String TASKS = "tasks";
+  public static final String INCIDENTS = "incidents";
+  public static final String EXTERNAL_TASKS = "externalTasks";
+  public static final String ALL = "all";
+
+  public static final ExecutionTreePrefetchProfile NONE = new ExecutionTreePrefetchProfile();
+
+  protected boolean variables;
+  protected boolean eventSubscriptions;
+  protected boolean jobs;
+  protected boolean tasks;
+  protected boolean incidents;
+  protected boolean externalTasks;
+
+  public static ExecutionTreePrefetchProfile parse(String profile) {
+    ExecutionTreePrefetchProfile prefetchProfile = new ExecutionTreePrefetchProfile();
+
+    if (profile == null) {
+      return prefetchProfile;
+    }
+
+    for (String entityType : profile.split(",")) {
+      entityType = entityType.trim();
+
+      if (ALL.equals(entityType)) {
+        prefetchProfile.variables = true;
+        prefetchProfile.eventSubscriptions = true;
+        prefetchProfile.jobs = true;
+        prefetchProfile.tasks = true;
+        prefetchProfile.incidents = true;
+        prefetchProfile.externalTasks = true;
+      }
+      else if (VARIABLES.equals(entityType)) {
+        prefetchProfile.variables = true;
+      }
+      else if (EVENT_SUBSCRIPTIONS.equals(entityType)) {
+        prefetchProfile.eventSubscriptions = true;
+      }
+      else if (JOBS.equals(entityType)) {
+        prefetchProfile.jobs = true;
+      }
+      else if (TASKS.equals(entityType)) {
+        prefetchProfile.tasks = true;
+      }
+      else if (INCIDENTS.equals(entityType)) {
+        prefetchProfile.incidents = true;
+      }
+      else if (EXTERNAL_TASKS.equals(entityType)) {
+        prefetchProfile.externalTasks = true;
+      }
+      else if (entityType.length() > 0) {
+        throw new ProcessEngineException("Invalid execution tree prefetch profile '" + profile
+            + "': unknown entity type '" + entityType + "'");
+      }
+    }
+
+    return prefetchProfile;
+  }
+
+  /**
+   * @return the number of queries executed to prefetch the referenced entities of a process instance
+   */
+  public int getNumberOfQueries() {
+    int queries = 0;
+    queries += variables ? 1 : 0;
+    queries += eventSubscriptions ? 1 : 0;
+    queries += jobs ? 1 : 0;
+    queries += tasks ? 1 : 0;
+    queries += incidents ? 1 : 0;
+    queries += externalTasks ? 1 : 0;
+    return queries;
+  }
+
+  public boolean isEmpty() {
+    return getNumberOfQueries() == 0;
+  }
+
+  public boolean isVariables() {
+    return variables;
+  }
+
+  public boolean isEventSubscriptions() {
+    return eventSubscriptions;
+  }
+
+  public boolean isJobs() {
+    return jobs;
+  }
+
+  public boolean isTasks() {
+    return tasks;
+  }
+
+  public boolean isIncidents() {
+    return incidents;
+  }
+
+  public boolean isExternalTasks() {
+    return externalTasks;
+  }
+
+}
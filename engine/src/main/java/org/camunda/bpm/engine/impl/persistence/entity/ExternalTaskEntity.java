@@ -422,6 +422,18 @@ public class ExternalTaskEntity implements ExternalTask, DbEntity, HasDbRevision
     lockExpirationTime = null;
   }
 
+  /**
+   * Keeps the task locked for the current worker until <code>now + newLockDuration</code>.
+   */
+  public void extendLock(long newLockDuration) {
+    ensureActive();
+    this.lockExpirationTime = new Date(ClockUtil.getCurrentTime().getTime() + newLockDuration);
+  }
+
+  public boolean isLockExpired() {
+    return lockExpirationTime == null || !lockExpirationTime.after(ClockUtil.getCurrentTime());
+  }
+
   public static ExternalTaskEntity createAndInsert(ExecutionEntity execution, String topic, long priority) {
     ExternalTaskEntity externalTask = new ExternalTaskEntity();
 
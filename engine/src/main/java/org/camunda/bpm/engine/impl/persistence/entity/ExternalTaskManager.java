@@ -34,12 +34,28 @@ import org.camunda.bpm.engine.impl.util.ClockUtil;
  */
 public class ExternalTaskManager extends AbstractManager {
 
+  protected static final int MAX_IDS_PER_SELECT = 500;
+
   public static QueryOrderingProperty EXT_TASK_PRIORITY_ORDERING_PROPERTY = new QueryOrderingProperty(ExternalTaskQueryProperty.PRIORITY, Direction.DESCENDING);
 
   public ExternalTaskEntity findExternalTaskById(String id) {
     return getDbEntityManager().selectById(ExternalTaskEntity.class, id);
   }
 
+  /**
+   * Selects the external tasks with the given ids in chunks, since databases limit
+   * the number of elements of an <code>in</code> condition.
+   */
+  @SuppressWarnings("unchecked")
+  public List<ExternalTaskEntity> findExternalTasksByIds(List<String> ids) {
+    List<ExternalTaskEntity> externalTasks = new ArrayList<ExternalTaskEntity>();
+    for (int i = 0; i < ids.size(); i += MAX_IDS_PER_SELECT) {
+      List<String> chunk = ids.subList(i, Math.min(i + MAX_IDS_PER_SELECT, ids.size()));
+      externalTasks.addAll(getDbEntityManager().selectList("selectExternalTasksByIds", new ArrayList<String>(chunk)));
+    }
+    return externalTasks;
+  }
+
   public void insert(ExternalTaskEntity externalTask) {
     getDbEntityManager().insert(externalTask);
   }
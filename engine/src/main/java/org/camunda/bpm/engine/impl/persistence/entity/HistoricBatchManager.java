@@ -46,6 +46,8 @@ public class HistoricBatchManager extends AbstractManager {
   }
 
   public void deleteHistoricBatchById(String id) {
+    getHistoryOutboxManager().discardPendingHistoryEventsByBatchId(id);
+
     getDbEntityManager().delete(HistoricBatchEntity.class, "deleteHistoricBatchById", id);
   }
 
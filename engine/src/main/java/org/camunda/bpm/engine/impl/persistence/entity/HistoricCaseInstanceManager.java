@@ -48,6 +48,8 @@ public class HistoricCaseInstanceManager extends AbstractHistoricManager {
   @SuppressWarnings("unchecked")
   public void deleteHistoricCaseInstanceByCaseDefinitionId(String caseDefinitionId) {
     if (isHistoryEnabled()) {
+      getHistoryOutboxManager().discardPendingHistoryEventsByCaseDefinitionId(caseDefinitionId);
+
       List<String> historicCaseInstanceIds = getDbEntityManager()
         .selectList("selectHistoricCaseInstanceIdsByCaseDefinitionId", caseDefinitionId);
 
@@ -61,6 +63,8 @@ public class HistoricCaseInstanceManager extends AbstractHistoricManager {
     if (isHistoryEnabled()) {
       CommandContext commandContext = Context.getCommandContext();
 
+      getHistoryOutboxManager().discardPendingHistoryEventsByCaseInstanceId(historicCaseInstanceId);
+
       commandContext
         .getHistoricDetailManager()
         .deleteHistoricDetailsByCaseInstanceId(historicCaseInstanceId);
@@ -0,0 +1,239 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.HasDbRevision;
+import org.camunda.bpm.engine.impl.history.report.DurationSketch;
+
+/**
+ * Durations of the completed instances of a process definition which were
+ * started in the same month.
+ */
+public class HistoricDurationAggregateEntity implements DbEntity, HasDbRevision, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  protected String id;
+  protected int revision;
+
+  protected String processDefinitionId;
+  protected String processDefinitionKey;
+  protected String tenantId;
+
+  protected int year;
+  protected int month;
+
+  protected long count;
+  protected long sum;
+  protected long minimum;
+  protected long maximum;
+
+  protected byte[] sketchBytes;
+  protected transient DurationSketch sketch;
+
+  public void addDuration(long duration) {
+    if (count == 0) {
+      minimum = duration;
+      maximum = duration;
+    }
+    else {
+      minimum = Math.min(minimum, duration);
+      maximum = Math.max(maximum, duration);
+    }
+    count++;
+    sum += duration;
+    getSketch().add(duration);
+  }
+
+  /**
+   * Removes a duration which has been added before. The minimum and maximum are
+   * not changed, since they cannot be derived from the remaining durations.
+   */
+  public void removeDuration(long duration) {
+    count--;
+    sum -= duration;
+    getSketch().remove(duration);
+    if (count == 0) {
+      minimum = 0;
+      maximum = 0;
+    }
+  }
+
+  public void merge(HistoricDurationAggregateEntity aggregate) {
+    if (aggregate.getCount() == 0) {
+      return;
+    }
+
+    if (count == 0) {
+      minimum = aggregate.getMinimum();
+      maximum = aggregate.getMaximum();
+    }
+    else {
+      minimum = Math.min(minimum, aggregate.getMinimum());
+      maximum = Math.max(maximum, aggregate.getMaximum());
+    }
+    count += aggregate.getCount();
+    sum += aggregate.getSum();
+    getSketch().merge(aggregate.getSketch());
+  }
+
+  public long getAverage() {
+    return count > 0 ? sum / count : 0;
+  }
+
+  public DurationSketch getSketch() {
+    if (sketch == null) {
+      sketch = DurationSketch.fromBytes(sketchBytes);
+    }
+    return sketch;
+  }
+
+  public byte[] getSketchBytes() {
+    if (sketch != null) {
+      return sketch.toBytes();
+    }
+    return sketchBytes;
+  }
+
+  public void setSketchBytes(byte[] sketchBytes) {
+    this.sketchBytes = sketchBytes;
+    this.sketch = null;
+  }
+
+  // getter / setter /////////////////////////////////////////////////////
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public int getRevision() {
+    return revision;
+  }
+
+  public void setRevision(int revision) {
+    this.revision = revision;
+  }
+
+  public int getRevisionNext() {
+    return revision + 1;
+  }
+
+  public String getProcessDefinitionId() {
+    return processDefinitionId;
+  }
+
+  public void setProcessDefinitionId(String processDefinitionId) {
+    this.processDefinitionId = processDefinitionId;
+  }
+
+  public String getProcessDefinitionKey() {
+    return processDefinitionKey;
+  }
+
+  public void setProcessDefinitionKey(String processDefinitionKey) {
+    this.processDefinitionKey = processDefinitionKey;
+  }
+
+  public String getTenantId() {
+    return tenantId;
+  }
+
+  public void setTenantId(String tenantId) {
+    this.tenantId = tenantId;
+  }
+
+  public int getYear() {
+    return year;
+  }
+
+  public void setYear(int year) {
+    this.year = year;
+  }
+
+  public int getMonth() {
+    return month;
+  }
+
+  public void setMonth(int month) {
+    this.month = month;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public void setCount(long count) {
+    this.count = count;
+  }
+
+  public long getSum() {
+    return sum;
+  }
+
+  public void setSum(long sum) {
+    this.sum = sum;
+  }
+
+  public long getMinimum() {
+    return minimum;
+  }
+
+  public void setMinimum(long minimum) {
+    this.minimum = minimum;
+  }
+
+  public long getMaximum() {
+    return maximum;
+  }
+
+  public void setMaximum(long maximum) {
+    this.maximum = maximum;
+  }
+
+  public Object getPersistentState() {
+    // the sketch changes together with the count
+    Map<String, Object> persistentState = new HashMap<String, Object>();
+    persistentState.put("count", count);
+    persistentState.put("sum", sum);
+    persistentState.put("minimum", minimum);
+    persistentState.put("maximum", maximum);
+    return persistentState;
+  }
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName()
+        + "[id=" + id
+        + ", revision=" + revision
+        + ", processDefinitionId=" + processDefinitionId
+        + ", processDefinitionKey=" + processDefinitionKey
+        + ", tenantId=" + tenantId
+        + ", year=" + year
+        + ", month=" + month
+        + ", count=" + count
+        + ", sum=" + sum
+        + ", minimum=" + minimum
+        + ", maximum=" + maximum
+        + "]";
+  }
+
+}
@@ -48,19 +48,31 @@ public class HistoricProcessInstanceManager extends AbstractHistoricManager {
   @SuppressWarnings("unchecked")
   public void deleteHistoricProcessInstanceByProcessDefinitionId(String processDefinitionId) {
     if (isHistoryEnabled()) {
+      getHistoryOutboxManager().discardPendingHistoryEventsByProcessDefinitionId(processDefinitionId);
+
       List<String> historicProcessInstanceIds = getDbEntityManager()
         .selectList("selectHistoricProcessInstanceIdsByProcessDefinitionId", processDefinitionId);
 
       for (String historicProcessInstanceId: historicProcessInstanceIds) {
-        deleteHistoricProcessInstanceById(historicProcessInstanceId);
+        // the aggregates of the process definition are deleted below
+        deleteHistoricProcessInstanceById(historicProcessInstanceId, false);
       }
+
+      getHistoricReportManager()
+        .deleteHistoricDurationAggregatesByProcessDefinitionId(processDefinitionId);
     }
   }
 
   public void deleteHistoricProcessInstanceById(String historicProcessInstanceId) {
+    deleteHistoricProcessInstanceById(historicProcessInstanceId, true);
+  }
+
+  protected void deleteHistoricProcessInstanceById(String historicProcessInstanceId, boolean updateDurationAggregates) {
     if (isHistoryEnabled()) {
       CommandContext commandContext = Context.getCommandContext();
 
+      getHistoryOutboxManager().discardPendingHistoryEventsByProcessInstanceId(historicProcessInstanceId);
+
       getHistoricDetailManager()
         .deleteHistoricDetailsByProcessInstanceId(historicProcessInstanceId);
 
@@ -79,6 +91,9 @@ public class HistoricProcessInstanceManager extends AbstractHistoricManager {
       getHistoricJobLogManager()
         .deleteHistoricJobLogsByProcessInstanceId(historicProcessInstanceId);
 
+      getHistoricReportManager()
+        .deleteHistoricDurationByProcessInstanceId(historicProcessInstanceId, updateDurationAggregates);
+
       commandContext.getDbEntityManager().delete(HistoricProcessInstanceEntity.class, "deleteHistoricProcessInstance", historicProcessInstanceId);
 
     }
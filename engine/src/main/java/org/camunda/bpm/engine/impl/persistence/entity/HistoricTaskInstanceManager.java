@@ -99,6 +99,8 @@ public class HistoricTaskInstanceManager extends AbstractHistoricManager {
 
   public void deleteHistoricTaskInstanceById(final String taskId) {
     if (isHistoryEnabled()) {
+      getHistoryOutboxManager().discardPendingHistoryEventsByTaskId(taskId);
+
       HistoricTaskInstanceEntity historicTaskInstance = findHistoricTaskInstanceById(taskId);
       if (historicTaskInstance != null) {
         CommandContext commandContext = Context.getCommandContext();
@@ -95,10 +95,21 @@ public class HistoricVariableInstanceEntity implements ValueFields, HistoricVari
 
     setSerializerName(historyEvent.getSerializerName());
 
-    byteArrayField.deleteByteArrayValue();
+    if (historyEvent.getHistoricVariableInstanceByteArrayId() != null) {
+      // the byte value was copied by the database; the previous value is deleted without loading it
+      if (byteArrayField.getByteArrayId() != null) {
+        Context.getCommandContext()
+          .getByteArrayManager()
+          .deleteByteArrayById(byteArrayField.getByteArrayId());
+      }
+      byteArrayField.setByteArrayId(historyEvent.getHistoricVariableInstanceByteArrayId());
+    }
+    else {
+      byteArrayField.deleteByteArrayValue();
 
-    if(historyEvent.getByteValue() != null) {
-      setByteArrayValue(historyEvent.getByteValue());
+      if(historyEvent.getByteValue() != null) {
+        setByteArrayValue(historyEvent.getByteValue());
+      }
     }
 
   }
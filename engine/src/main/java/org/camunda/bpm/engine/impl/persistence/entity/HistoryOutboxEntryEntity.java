@@ -0,0 +1,250 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.HasDbRevision;
+import org.camunda.bpm.engine.impl.history.HistoryLogger;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+
+/**
+ * <p>The history events fired by a single runtime transaction, which are written into
+ * the history tables by the asynchronous history event writer.</p>
+ *
+ * <p>The entry is inserted by the runtime transaction, so that its events are kept
+ * if and only if the transaction commits. The events are serialized when the entry
+ * is flushed, i.e. in the state in which the synchronous history event handler
+ * would have inserted them.</p>
+ *
+ * <p>The {@link #getSequence() sequence} is assigned while the transaction commits,
+ * so that the entries are written in the order in which their transactions committed.</p>
+ */
+public class HistoryOutboxEntryEntity implements DbEntity, HasDbRevision, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  protected static final HistoryLogger LOG = ProcessEngineLogger.HISTORY_LOGGER;
+
+  /** same limit as for the exception message of a job, see {@link JobEntity#MAX_EXCEPTION_MESSAGE_LENGTH} */
+  public static final int MAX_EXCEPTION_MESSAGE_LENGTH = 666;
+
+  protected String id;
+  protected int revision;
+  protected Date createTime;
+  protected Long sequence;
+  protected int eventCount;
+  protected byte[] bytes;
+  protected int attempts;
+  protected boolean quarantined;
+  protected String exceptionMessage;
+
+  protected transient List<HistoryEvent> historyEvents;
+  protected transient boolean historyEventsChanged = false;
+
+  public void addHistoryEvents(List<HistoryEvent> historyEvents) {
+    getHistoryEvents().addAll(historyEvents);
+    // serialized again on flush
+    bytes = null;
+  }
+
+  /**
+   * Replaces the events of a flushed entry, e.g. to discard the events of deleted history.
+   */
+  public void setHistoryEvents(List<HistoryEvent> historyEvents) {
+    this.historyEvents = historyEvents;
+    bytes = null;
+    historyEventsChanged = true;
+  }
+
+  /**
+   * @return <code>true</code> if the events of the flushed entry were replaced and must be updated
+   */
+  public boolean isHistoryEventsChanged() {
+    return historyEventsChanged;
+  }
+
+  public List<HistoryEvent> getHistoryEvents() {
+    if (historyEvents == null) {
+      historyEvents = deserialize(bytes);
+    }
+    return historyEvents;
+  }
+
+  public byte[] getBytes() {
+    if (bytes == null && historyEvents != null) {
+      bytes = serialize(historyEvents);
+    }
+    return bytes;
+  }
+
+  public void setBytes(byte[] bytes) {
+    this.bytes = bytes;
+    this.historyEvents = null;
+  }
+
+  public int getEventCount() {
+    if (historyEvents != null) {
+      return historyEvents.size();
+    }
+    return eventCount;
+  }
+
+  public void setEventCount(int eventCount) {
+    this.eventCount = eventCount;
+  }
+
+  public void failed(String exceptionMessage, int maxAttempts) {
+    attempts++;
+    quarantined = attempts >= maxAttempts;
+    setExceptionMessage(exceptionMessage);
+  }
+
+  protected byte[] serialize(List<HistoryEvent> historyEvents) {
+    try {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      ObjectOutputStream outputStream = new ObjectOutputStream(buffer);
+      outputStream.writeObject(new ArrayList<HistoryEvent>(historyEvents));
+      outputStream.close();
+      return buffer.toByteArray();
+    }
+    catch (IOException e) {
+      throw LOG.cannotSerializeHistoryOutboxEntry(id, e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  protected List<HistoryEvent> deserialize(byte[] bytes) {
+    if (bytes == null) {
+      return new ArrayList<HistoryEvent>();
+    }
+
+    ObjectInputStream inputStream = null;
+    try {
+      inputStream = new ObjectInputStream(new ByteArrayInputStream(bytes));
+      return (List<HistoryEvent>) inputStream.readObject();
+    }
+    catch (IOException e) {
+      throw LOG.cannotDeserializeHistoryOutboxEntry(id, e);
+    }
+    catch (ClassNotFoundException e) {
+      throw LOG.cannotDeserializeHistoryOutboxEntry(id, e);
+    }
+    catch (ClassCastException e) {
+      throw LOG.cannotDeserializeHistoryOutboxEntry(id, e);
+    }
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public int getRevision() {
+    return revision;
+  }
+
+  public void setRevision(int revision) {
+    this.revision = revision;
+  }
+
+  public int getRevisionNext() {
+    return revision + 1;
+  }
+
+  public Date getCreateTime() {
+    return createTime;
+  }
+
+  public void setCreateTime(Date createTime) {
+    this.createTime = createTime;
+  }
+
+  /**
+   * @return the position of the entry in the commit order or <code>null</code> if
+   * the transaction which inserts the entry has not committed yet
+   */
+  public Long getSequence() {
+    return sequence;
+  }
+
+  public void setSequence(Long sequence) {
+    this.sequence = sequence;
+  }
+
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(int attempts) {
+    this.attempts = attempts;
+  }
+
+  public boolean isQuarantined() {
+    return quarantined;
+  }
+
+  public void setQuarantined(boolean quarantined) {
+    this.quarantined = quarantined;
+  }
+
+  public String getExceptionMessage() {
+    return exceptionMessage;
+  }
+
+  public void setExceptionMessage(String exceptionMessage) {
+    if (exceptionMessage != null && exceptionMessage.length() > MAX_EXCEPTION_MESSAGE_LENGTH) {
+      exceptionMessage = exceptionMessage.substring(0, MAX_EXCEPTION_MESSAGE_LENGTH);
+    }
+    this.exceptionMessage = exceptionMessage;
+  }
+
+  public Object getPersistentState() {
+    // the events of a flushed entry only change if some of them are discarded
+    Map<String, Object> persistentState = new HashMap<String, Object>();
+    persistentState.put("eventCount", getEventCount());
+    persistentState.put("attempts", attempts);
+    persistentState.put("quarantined", quarantined);
+    persistentState.put("exceptionMessage", exceptionMessage);
+    return persistentState;
+  }
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName()
+        + "[id=" + id
+        + ", revision=" + revision
+        + ", createTime=" + createTime
+        + ", sequence=" + sequence
+        + ", eventCount=" + getEventCount()
+        + ", attempts=" + attempts
+        + ", quarantined=" + quarantined
+        + "]";
+  }
+
+}
@@ -0,0 +1,251 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.batch.history.HistoricBatchEntity;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.ListQueryParameterObject;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSession;
+import org.camunda.bpm.engine.impl.history.event.HistoricDecisionEvaluationEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoricDecisionInstanceEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricDetailEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricIdentityLinkLogEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricTaskInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.event.UserOperationLogEntryEventEntity;
+import org.camunda.bpm.engine.impl.persistence.AbstractManager;
+
+/**
+ * <p>Manages the transactional outbox of the asynchronous history event writer.</p>
+ *
+ * <p>A manager lives as long as its command context, so that all history events of a
+ * transaction are collected in a single outbox entry.</p>
+ */
+public class HistoryOutboxManager extends AbstractManager {
+
+  protected HistoryOutboxEntryEntity currentEntry;
+  protected List<HistoryOutboxEntryEntity> pendingEntries;
+
+  /**
+   * @return the entry of the current transaction or <code>null</code> if no
+   * history events were added by the current transaction yet
+   */
+  public HistoryOutboxEntryEntity getCurrentEntry() {
+    return currentEntry;
+  }
+
+  /**
+   * Inserts the entry which collects the history events of the current transaction.
+   * Its {@link #assignCommitSequence(HistoryOutboxEntryEntity) sequence} is assigned
+   * when the transaction commits.
+   */
+  public HistoryOutboxEntryEntity createCurrentEntry() {
+    currentEntry = new HistoryOutboxEntryEntity();
+    currentEntry.setCreateTime(new Date());
+    getDbEntityManager().insert(currentEntry);
+    return currentEntry;
+  }
+
+  /**
+   * Assigns the next value of the outbox sequence to the given entry. Must be called
+   * after the entry is flushed, while the transaction commits: the sequence stays locked
+   * until the transaction ends, so that the entries are numbered in the order in which
+   * their transactions commit. Neither the creation time of an entry nor the time of
+   * the commit can give this order, since a transaction may commit long after an
+   * entry was created by a later transaction.
+   */
+  public void assignCommitSequence(HistoryOutboxEntryEntity entry) {
+    DbSqlSession dbSqlSession = getDbSqlSession();
+
+    String value = (String) dbSqlSession.selectOne("selectHistoryOutboxSequence", null);
+    long sequence = Long.parseLong(value) + 1;
+    dbSqlSession.executeImmediately("updateHistoryOutboxSequence", String.valueOf(sequence));
+
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("id", entry.getId());
+    parameters.put("sequence", sequence);
+    dbSqlSession.executeImmediately("updateHistoryOutboxEntrySequence", parameters);
+
+    entry.setSequence(sequence);
+  }
+
+  /**
+   * <p>Discards the history events of the given process instance which other transactions
+   * left in the outbox, before the current transaction deletes its history. Otherwise, the
+   * asynchronous history event writer could insert the deleted history again afterwards.</p>
+   *
+   * <p>The events are removed from the pending entries within the current transaction,
+   * without waiting for the writer. Events which are not written yet are not visible to
+   * the current transaction either, e.g. a process instance whose end is still pending
+   * is reported as running by the history.</p>
+   */
+  public void discardPendingHistoryEventsByProcessInstanceId(final String processInstanceId) {
+    discardPendingHistoryEvents(new PendingHistoryEventMatcher() {
+      public boolean matches(HistoryEvent historyEvent) {
+        return isInstanceHistory(historyEvent) && processInstanceId.equals(historyEvent.getProcessInstanceId());
+      }
+    });
+  }
+
+  public void discardPendingHistoryEventsByProcessDefinitionId(final String processDefinitionId) {
+    discardPendingHistoryEvents(new PendingHistoryEventMatcher() {
+      public boolean matches(HistoryEvent historyEvent) {
+        return isInstanceHistory(historyEvent) && processDefinitionId.equals(historyEvent.getProcessDefinitionId());
+      }
+    });
+  }
+
+  public void discardPendingHistoryEventsByCaseInstanceId(final String caseInstanceId) {
+    discardPendingHistoryEvents(new PendingHistoryEventMatcher() {
+      public boolean matches(HistoryEvent historyEvent) {
+        return isInstanceHistory(historyEvent) && caseInstanceId.equals(historyEvent.getCaseInstanceId());
+      }
+    });
+  }
+
+  public void discardPendingHistoryEventsByCaseDefinitionId(final String caseDefinitionId) {
+    discardPendingHistoryEvents(new PendingHistoryEventMatcher() {
+      public boolean matches(HistoryEvent historyEvent) {
+        return isInstanceHistory(historyEvent) && caseDefinitionId.equals(historyEvent.getCaseDefinitionId());
+      }
+    });
+  }
+
+  public void discardPendingHistoryEventsByTaskId(final String taskId) {
+    discardPendingHistoryEvents(new PendingHistoryEventMatcher() {
+      public boolean matches(HistoryEvent historyEvent) {
+        if (historyEvent instanceof HistoricTaskInstanceEventEntity) {
+          return taskId.equals(((HistoricTaskInstanceEventEntity) historyEvent).getTaskId());
+        }
+        else if (historyEvent instanceof HistoricDetailEventEntity) {
+          return taskId.equals(((HistoricDetailEventEntity) historyEvent).getTaskId());
+        }
+        else if (historyEvent instanceof HistoricIdentityLinkLogEventEntity) {
+          return taskId.equals(((HistoricIdentityLinkLogEventEntity) historyEvent).getTaskId());
+        }
+        return false;
+      }
+    });
+  }
+
+  public void discardPendingHistoryEventsByDecisionDefinitionId(final String decisionDefinitionId) {
+    discardPendingHistoryEvents(new PendingHistoryEventMatcher() {
+      public boolean matches(HistoryEvent historyEvent) {
+        if (historyEvent instanceof HistoricDecisionEvaluationEvent) {
+          HistoricDecisionEvaluationEvent evaluationEvent = (HistoricDecisionEvaluationEvent) historyEvent;
+          if (decisionDefinitionId.equals(evaluationEvent.getRootHistoricDecisionInstance().getDecisionDefinitionId())) {
+            return true;
+          }
+          for (HistoricDecisionInstanceEntity requiredDecisionInstance : evaluationEvent.getRequiredHistoricDecisionInstances()) {
+            if (decisionDefinitionId.equals(requiredDecisionInstance.getDecisionDefinitionId())) {
+              return true;
+            }
+          }
+        }
+        return false;
+      }
+    });
+  }
+
+  public void discardPendingHistoryEventsByBatchId(final String batchId) {
+    discardPendingHistoryEvents(new PendingHistoryEventMatcher() {
+      public boolean matches(HistoryEvent historyEvent) {
+        return historyEvent instanceof HistoricBatchEntity && batchId.equals(historyEvent.getId());
+      }
+    });
+  }
+
+  /**
+   * @return <code>true</code> if the history of the event is deleted together with the
+   * history of its process or case instance; user operation logs and decision instances are kept
+   */
+  protected boolean isInstanceHistory(HistoryEvent historyEvent) {
+    return !(historyEvent instanceof UserOperationLogEntryEventEntity)
+        && !(historyEvent instanceof HistoricDecisionEvaluationEvent);
+  }
+
+  protected void discardPendingHistoryEvents(PendingHistoryEventMatcher matcher) {
+    if (Context.getProcessEngineConfiguration().getAsyncHistoryEventWriter() == null) {
+      return;
+    }
+
+    Iterator<HistoryOutboxEntryEntity> entries = getPendingEntries().iterator();
+    while (entries.hasNext()) {
+      HistoryOutboxEntryEntity entry = entries.next();
+
+      List<HistoryEvent> remainingEvents = new ArrayList<HistoryEvent>();
+      for (HistoryEvent historyEvent : entry.getHistoryEvents()) {
+        if (!matcher.matches(historyEvent)) {
+          remainingEvents.add(historyEvent);
+        }
+      }
+
+      if (remainingEvents.isEmpty()) {
+        deleteHistoryOutboxEntry(entry);
+        entries.remove();
+      }
+      else if (remainingEvents.size() < entry.getHistoryEvents().size()) {
+        // updated with a revision check, i.e. fails if the writer wrote the entry concurrently
+        entry.setHistoryEvents(remainingEvents);
+      }
+    }
+  }
+
+  /**
+   * @return the pending entries committed by other transactions, which are read once per command
+   */
+  @SuppressWarnings("unchecked")
+  protected List<HistoryOutboxEntryEntity> getPendingEntries() {
+    if (pendingEntries == null) {
+      pendingEntries = new ArrayList<HistoryOutboxEntryEntity>(getDbEntityManager().selectList("selectPendingHistoryOutboxEntries"));
+    }
+    return pendingEntries;
+  }
+
+  public HistoryOutboxEntryEntity findHistoryOutboxEntryById(String id) {
+    return getDbEntityManager().selectById(HistoryOutboxEntryEntity.class, id);
+  }
+
+  /**
+   * @return the ids of the committed entries which are not quarantined, in the order in which they are written
+   */
+  @SuppressWarnings("unchecked")
+  public List<String> findPendingHistoryOutboxEntryIds(int maxResults) {
+    ListQueryParameterObject parameter = new ListQueryParameterObject(null, 0, maxResults);
+    parameter.setOrderBy("RES.SEQ_ asc, RES.ID_ asc");
+    return getDbEntityManager().selectList("selectPendingHistoryOutboxEntryIds", parameter);
+  }
+
+  @SuppressWarnings("unchecked")
+  public List<HistoryOutboxEntryEntity> findQuarantinedHistoryOutboxEntries() {
+    return getDbEntityManager().selectList("selectQuarantinedHistoryOutboxEntries");
+  }
+
+  public void deleteHistoryOutboxEntry(HistoryOutboxEntryEntity entry) {
+    getDbEntityManager().delete(entry);
+  }
+
+  protected interface PendingHistoryEventMatcher {
+
+    boolean matches(HistoryEvent historyEvent);
+
+  }
+
+}
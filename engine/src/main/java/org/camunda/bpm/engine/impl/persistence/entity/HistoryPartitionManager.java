@@ -0,0 +1,273 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSession;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSessionFactory;
+import org.camunda.bpm.engine.impl.persistence.AbstractManager;
+
+/**
+ * <p>Maintains the monthly partitions of the history tables which are created by the
+ * <code>history.partitioning</code> create scripts.</p>
+ *
+ * <p>A partition is named after the table and the month it holds, e.g.
+ * <code>ACT_HI_ACTINST_P201609</code> on PostgreSQL or <code>P201609</code> on MySQL.
+ * Archiving a partition detaches it into a standalone table of the same name, so that
+ * it can be exported and dropped without deleting the rows one by one.</p>
+ *
+ * <p>On PostgreSQL, rows which do not match a monthly partition are stored in the default
+ * partition. When a partition is created, its rows are moved out of the default partition,
+ * which locks the table until the end of the transaction. On MySQL, DDL statements commit
+ * implicitly, so archiving a partition checks which of its steps already succeeded.</p>
+ */
+public class HistoryPartitionManager extends AbstractManager {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  public static final List<HistoryPartitionedTable> PARTITIONED_TABLES = Collections.unmodifiableList(Arrays.asList(
+      new HistoryPartitionedTable("ACT_HI_ACTINST", "START_TIME_", false),
+      new HistoryPartitionedTable("ACT_HI_VARINST", "CREATE_TIME_", false),
+      new HistoryPartitionedTable("ACT_HI_DETAIL", "TIME_", false),
+      new HistoryPartitionedTable("ACT_HI_JOB_LOG", "TIMESTAMP_", true)));
+
+  protected static final List<String> SUPPORTED_DATABASE_TYPES = Arrays.asList(
+      DbSqlSessionFactory.POSTGRES, DbSqlSessionFactory.MYSQL, DbSqlSessionFactory.MARIADB);
+
+  protected static final Pattern PARTITION_NAME_PATTERN = Pattern.compile("(?i)(?:^|_)P(\\d{6})$");
+  protected static final String PARTITION_NAME_FORMAT = "yyyyMM";
+  protected static final String PARTITION_BOUND_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+  public static boolean isHistoryPartitioningSupported(String databaseType) {
+    return SUPPORTED_DATABASE_TYPES.contains(databaseType);
+  }
+
+  public void ensureHistoryPartitioningSupported() {
+    String databaseType = getDatabaseType();
+    if (!isHistoryPartitioningSupported(databaseType)) {
+      throw LOG.historyPartitioningNotSupportedException(databaseType);
+    }
+  }
+
+  /**
+   * @return the first days of the months which have a partition in the given table, in ascending order
+   */
+  @SuppressWarnings("unchecked")
+  public List<Date> findHistoryPartitionMonths(HistoryPartitionedTable table) {
+    Map<String, Object> parameters = createParameters(table, null);
+
+    List<String> partitionNames = (List<String>) getDbSqlSession().selectList("selectHistoryPartitionNames", parameters);
+
+    List<Date> months = new ArrayList<Date>();
+    for (String partitionName : partitionNames) {
+      Date month = parsePartitionMonth(partitionName);
+      if (month != null) {
+        months.add(month);
+      }
+    }
+    Collections.sort(months);
+    return months;
+  }
+
+  /**
+   * @return the first day of the month of the oldest row which is not stored in a monthly
+   * partition of the given table or null if there is no such row or the database stores
+   * such rows in the newest partition anyway (MySQL)
+   */
+  public Date findOldestUnpartitionedMonth(HistoryPartitionedTable table) {
+    if (!DbSqlSessionFactory.POSTGRES.equals(getDatabaseType())) {
+      return null;
+    }
+
+    Date oldest = (Date) getDbSqlSession().selectOne("selectHistoryDefaultPartitionMinTime", createParameters(table, null));
+    return oldest != null ? getMonth(oldest) : null;
+  }
+
+  /**
+   * Creates the partition holding the rows of the given month.
+   *
+   * @return the name of the created partition
+   */
+  public String createHistoryPartition(HistoryPartitionedTable table, Date month) {
+    Date lowerBound = getMonth(month);
+    Date upperBound = addMonths(lowerBound, 1);
+
+    Map<String, Object> parameters = createParameters(table, lowerBound);
+    parameters.put("lowerBound", formatBound(lowerBound));
+    parameters.put("upperBound", formatBound(upperBound));
+    if (table.isUnixTimestampPartitioned()) {
+      parameters.put("upperBoundExpression", "UNIX_TIMESTAMP('" + formatBound(upperBound) + "')");
+      parameters.put("maxValueExpression", "MAXVALUE");
+    }
+    else {
+      parameters.put("upperBoundExpression", "'" + formatBound(upperBound) + "'");
+      parameters.put("maxValueExpression", "(MAXVALUE)");
+    }
+
+    if (DbSqlSessionFactory.POSTGRES.equals(getDatabaseType())
+        && selectCount("selectHistoryDefaultPartitionRowCount", parameters) > 0) {
+      // postgres refuses to create a partition whose rows are stored in the default partition
+      executeUpdate("detachHistoryDefaultPartition", parameters);
+      executeUpdate("createHistoryPartition", parameters);
+      executeUpdate("insertHistoryDefaultPartitionRows", parameters);
+      executeUpdate("deleteHistoryDefaultPartitionRows", parameters);
+      executeUpdate("attachHistoryDefaultPartition", parameters);
+    }
+    else {
+      executeUpdate("createHistoryPartition", parameters);
+    }
+
+    return table.getName() + "_" + parameters.get("partition");
+  }
+
+  /**
+   * Removes the partition holding the rows of the given month from the table. If
+   * <code>delete</code> is false, the rows are kept in a standalone table named
+   * after the partition, otherwise they are dropped.
+   *
+   * @return the name of the archived partition
+   */
+  public String archiveHistoryPartition(HistoryPartitionedTable table, Date month, boolean delete) {
+    Map<String, Object> parameters = createParameters(table, getMonth(month));
+    String partition = (String) parameters.get("partition");
+
+    if (delete) {
+      executeUpdate("dropHistoryPartition", parameters);
+    }
+    else if (DbSqlSessionFactory.POSTGRES.equals(getDatabaseType())) {
+      executeUpdate("detachHistoryPartition", parameters);
+    }
+    else {
+      // mysql cannot detach a partition, its rows are exchanged with an empty table;
+      // every statement commits, so the steps of a previously failed attempt are skipped
+      if (selectCount("selectHistoryPartitionArchiveTableCount", parameters) == 0) {
+        executeUpdate("createHistoryPartitionArchiveTable", parameters);
+      }
+      if (selectCount("selectHistoryPartitionArchiveTablePartitionCount", parameters) > 0) {
+        executeUpdate("removeHistoryPartitionArchiveTablePartitioning", parameters);
+      }
+      // a non-empty archive table already holds the rows, exchanging again would restore them
+      if (selectCount("selectHistoryPartitionArchiveTableRowCount", parameters) == 0) {
+        executeUpdate("exchangeHistoryPartition", parameters);
+      }
+      executeUpdate("dropHistoryPartition", parameters);
+    }
+
+    LOG.historyPartitionArchived(table.getName(), partition, delete);
+
+    return table.getName() + "_" + partition;
+  }
+
+  // helper ///////////////////////////////////////////////////////////////////////
+
+  protected Map<String, Object> createParameters(HistoryPartitionedTable table, Date month) {
+    DbSqlSessionFactory dbSqlSessionFactory = getDbSqlSession().getDbSqlSessionFactory();
+
+    // the table prefix may either qualify the schema (e.g. 'SCHEMA.') or prefix the table name
+    String prefix = dbSqlSessionFactory.getDatabaseTablePrefix();
+    String tableNamePrefix = prefix != null ? prefix : "";
+    String schema = dbSqlSessionFactory.getDatabaseSchema();
+
+    int schemaSeparatorIndex = tableNamePrefix.lastIndexOf('.');
+    if (schemaSeparatorIndex >= 0) {
+      if (schema == null && schemaSeparatorIndex > 0) {
+        schema = tableNamePrefix.substring(0, schemaSeparatorIndex);
+      }
+      tableNamePrefix = tableNamePrefix.substring(schemaSeparatorIndex + 1);
+    }
+
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("table", table.getName());
+    parameters.put("column", table.getPartitionColumn());
+    parameters.put("tableName", tableNamePrefix + table.getName());
+    parameters.put("schema", schema);
+    if (month != null) {
+      String partition = "P" + new SimpleDateFormat(PARTITION_NAME_FORMAT).format(month);
+      parameters.put("partition", partition);
+      parameters.put("archiveTableName", tableNamePrefix + table.getName() + "_" + partition);
+    }
+    return parameters;
+  }
+
+  protected long selectCount(String statement, Map<String, Object> parameters) {
+    return (Long) getDbSqlSession().selectOne(statement, parameters);
+  }
+
+  protected void executeUpdate(String statement, Map<String, Object> parameters) {
+    DbSqlSession dbSqlSession = getDbSqlSession();
+    String mappedStatement = dbSqlSession.getDbSqlSessionFactory().mapStatement(statement);
+    dbSqlSession.getSqlSession().update(mappedStatement, parameters);
+  }
+
+  protected String getDatabaseType() {
+    return getDbSqlSession().getDbSqlSessionFactory().getDatabaseType();
+  }
+
+  protected String formatBound(Date date) {
+    return new SimpleDateFormat(PARTITION_BOUND_FORMAT).format(date);
+  }
+
+  /**
+   * @return the month of the given partition or null if it is not a monthly partition
+   */
+  public static Date parsePartitionMonth(String partitionName) {
+    Matcher matcher = PARTITION_NAME_PATTERN.matcher(partitionName);
+    if (!matcher.find()) {
+      return null;
+    }
+    try {
+      SimpleDateFormat format = new SimpleDateFormat(PARTITION_NAME_FORMAT);
+      format.setLenient(false);
+      return format.parse(matcher.group(1));
+    }
+    catch (ParseException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return the first day of the month of the given date
+   */
+  public static Date getMonth(Date date) {
+    Calendar calendar = Calendar.getInstance();
+    calendar.setTime(date);
+    calendar.set(Calendar.DAY_OF_MONTH, 1);
+    calendar.set(Calendar.HOUR_OF_DAY, 0);
+    calendar.set(Calendar.MINUTE, 0);
+    calendar.set(Calendar.SECOND, 0);
+    calendar.set(Calendar.MILLISECOND, 0);
+    return calendar.getTime();
+  }
+
+  public static Date addMonths(Date date, int months) {
+    Calendar calendar = Calendar.getInstance();
+    calendar.setTime(date);
+    calendar.add(Calendar.MONTH, months);
+    return calendar.getTime();
+  }
+
+}
@@ -0,0 +1,51 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity;
+
+/**
+ * A history table which is partitioned by month on the given column,
+ * see {@link HistoryPartitionManager}.
+ */
+public class HistoryPartitionedTable {
+
+  protected String name;
+  protected String partitionColumn;
+  protected boolean unixTimestampPartitioned;
+
+  public HistoryPartitionedTable(String name, String partitionColumn, boolean unixTimestampPartitioned) {
+    this.name = name;
+    this.partitionColumn = partitionColumn;
+    this.unixTimestampPartitioned = unixTimestampPartitioned;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getPartitionColumn() {
+    return partitionColumn;
+  }
+
+  /**
+   * @return true if the table is partitioned on the unix timestamp of its partition column,
+   * since MySQL does not support range columns partitioning of timestamp columns
+   */
+  public boolean isUnixTimestampPartitioned() {
+    return unixTimestampPartitioned;
+  }
+
+  public String toString() {
+    return name;
+  }
+
+}
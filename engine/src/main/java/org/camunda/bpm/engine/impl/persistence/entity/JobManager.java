@@ -36,6 +36,7 @@ import org.camunda.bpm.engine.impl.db.ListQueryParameterObject;
 import org.camunda.bpm.engine.impl.jobexecutor.ExclusiveJobAddedNotification;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorContext;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorLane;
 import org.camunda.bpm.engine.impl.jobexecutor.MessageAddedNotification;
 import org.camunda.bpm.engine.impl.jobexecutor.TimerCatchIntermediateEventJobHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.TimerExecuteNestedActivityJobHandler;
@@ -164,9 +165,19 @@ public class JobManager extends AbstractManager {
     return (JobEntity) getDbEntityManager().selectOne("selectJob", jobId);
   }
 
-  @SuppressWarnings("unchecked")
   public List<JobEntity> findNextJobsToExecute(Page page) {
+    return findNextJobsToExecute(page, null, null);
+  }
+
+  /**
+   * @param lane if not null, only jobs matching the criteria of the lane are selected
+   * @param excludedLanes if not null, jobs matching the criteria of any of these lanes are not selected
+   */
+  @SuppressWarnings("unchecked")
+  public List<JobEntity> findNextJobsToExecute(Page page, JobExecutorLane lane, List<JobExecutorLane> excludedLanes) {
     Map<String,Object> params = new HashMap<String, Object>();
+    params.put("lane", lane);
+    params.put("excludedLanes", excludedLanes);
     Date now = ClockUtil.getCurrentTime();
     params.put("now", now);
     params.put("deploymentAware", Context.getProcessEngineConfiguration().isJobExecutorDeploymentAware());
@@ -346,6 +357,18 @@ public class JobManager extends AbstractManager {
     getDbEntityManager().update(JobEntity.class, "updateJobPriorityByDefinitionId", parameters);
   }
 
+  /**
+   * Sets the lock expiration time of the given jobs if they are still locked by the given owner.
+   * Does not increment the revision, so that the command executing the job is not affected.
+   */
+  public void updateJobLockExpirationTime(List<String> jobIds, String lockOwner, Date lockExpirationTime) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("jobIds", jobIds);
+    parameters.put("lockOwner", lockOwner);
+    parameters.put("lockExpirationTime", lockExpirationTime);
+    getDbEntityManager().update(JobEntity.class, "updateJobLockExpirationTime", parameters);
+  }
+
   protected void configureQuery(JobQueryImpl query) {
     getAuthorizationManager().configureJobQuery(query);
     getTenantManager().configureQuery(query);
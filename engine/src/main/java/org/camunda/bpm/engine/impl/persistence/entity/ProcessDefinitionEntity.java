@@ -28,6 +28,7 @@ import org.camunda.bpm.engine.impl.db.DbEntity;
 import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
 import org.camunda.bpm.engine.impl.db.HasDbRevision;
 import org.camunda.bpm.engine.impl.form.handler.StartFormHandler;
+import org.camunda.bpm.engine.impl.history.HistoryLevel;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.persistence.deploy.DeploymentCache;
 import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
@@ -55,6 +56,8 @@ public class ProcessDefinitionEntity extends ProcessDefinitionImpl implements Pr
   protected String deploymentId;
   protected String resourceName;
   protected Integer historyLevel;
+  protected transient HistoryLevel definedHistoryLevel;
+  protected transient boolean isDefinedHistoryLevelResolved = false;
   protected StartFormHandler startFormHandler;
   protected String diagramResourceName;
   protected boolean isGraphicalNotationDefined;
@@ -335,6 +338,28 @@ public class ProcessDefinitionEntity extends ProcessDefinitionImpl implements Pr
     this.historyLevel = historyLevel;
   }
 
+  /**
+   * @return the history level of this process definition or null if the history level
+   * of the process engine applies
+   */
+  public HistoryLevel getDefinedHistoryLevel() {
+    return definedHistoryLevel;
+  }
+
+  public void setDefinedHistoryLevel(HistoryLevel definedHistoryLevel) {
+    this.definedHistoryLevel = definedHistoryLevel;
+    this.historyLevel = definedHistoryLevel != null ? definedHistoryLevel.getId() : null;
+    this.isDefinedHistoryLevelResolved = true;
+  }
+
+  /**
+   * @return true if the history level of this process definition was resolved while parsing,
+   * even if the process definition has no own history level
+   */
+  public boolean isDefinedHistoryLevelResolved() {
+    return isDefinedHistoryLevelResolved;
+  }
+
   public StartFormHandler getStartFormHandler() {
     return startFormHandler;
   }
@@ -12,11 +12,22 @@
  */
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
 import org.camunda.bpm.engine.history.DurationReportResult;
 import org.camunda.bpm.engine.impl.HistoricProcessInstanceHistoricProcessInstanceReportImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.ListQueryParameterObject;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSession;
 import org.camunda.bpm.engine.impl.persistence.AbstractManager;
+import org.camunda.bpm.engine.query.PeriodUnit;
 
 /**
  * @author Roman Smirnov
@@ -24,9 +35,21 @@ import org.camunda.bpm.engine.impl.persistence.AbstractManager;
  */
 public class ReportManager extends AbstractManager {
 
+  /**
+   * Name of the property which marks that the aggregates have been built. Its value is
+   * the number of aggregated historic process instances. The aggregates are rebuilt from
+   * the historic process instances if the property does not exist.
+   */
+  public static final String DURATION_AGGREGATION_PROPERTY = "history.duration.aggregation";
+
   @SuppressWarnings("unchecked")
   public List<DurationReportResult> createHistoricProcessInstanceDurationReport(HistoricProcessInstanceHistoricProcessInstanceReportImpl query) {
     configureQuery(query);
+
+    if (isDurationAggregationApplicable(query)) {
+      return createAggregatedDurationReport(query);
+    }
+
     return getDbEntityManager().selectList("selectHistoricProcessInstanceDurationReport", query);
   }
 
@@ -34,4 +57,276 @@ public class ReportManager extends AbstractManager {
     getTenantManager().configureTenantCheck(parameter.getTenantCheck());
   }
 
+  // pre-aggregated durations ////////////////////////////////////////////
+
+  /**
+   * Queues a completed historic process instance for the aggregation of its duration.
+   * Must be called in the transaction which completes the instance.
+   */
+  public void queueHistoricDurationAggregation(String historicProcessInstanceId) {
+    if (isDurationAggregationEnabled()) {
+      getDbEntityManager().insert(new HistoricDurationQueueEntity(historicProcessInstanceId));
+    }
+  }
+
+  /**
+   * Aggregates the durations of the next queued historic process instances. The
+   * year and month of the start time are calculated by the database, like by the
+   * not aggregated report.
+   *
+   * @return the number of aggregated historic process instances
+   */
+  @SuppressWarnings("unchecked")
+  public int aggregateHistoricProcessInstanceDurations(int batchSize) {
+    PropertyEntity property = getPropertyManager().findPropertyById(DURATION_AGGREGATION_PROPERTY);
+    if (property == null) {
+      property = rebuildHistoricDurationAggregates();
+    }
+
+    ListQueryParameterObject query = new ListQueryParameterObject(null, 0, batchSize);
+    query.setOrderBy("RES.ID_ asc");
+
+    List<HistoricDurationQueueEntity> entries = getDbEntityManager()
+      .selectList("selectHistoricDurationQueueEntries", query);
+    if (entries.isEmpty()) {
+      return 0;
+    }
+
+    Map<String, HistoricDurationAggregateEntity> changes = new LinkedHashMap<String, HistoricDurationAggregateEntity>();
+    for (HistoricDurationQueueEntity entry : entries) {
+      // concurrent aggregations or deletions fail on the optimistic locking of the entries
+      getDbEntityManager().delete(entry);
+
+      if (entry.getProcessDefinitionId() != null && entry.getDuration() != null) {
+        getOrCreateAggregate(changes, entry).addDuration(entry.getDuration());
+      }
+    }
+
+    for (HistoricDurationAggregateEntity change : changes.values()) {
+      HistoricDurationAggregateEntity aggregate = findHistoricDurationAggregate(change.getProcessDefinitionId(), change.getYear(), change.getMonth());
+      if (aggregate != null) {
+        aggregate.merge(change);
+      }
+      else {
+        getDbEntityManager().insert(change);
+      }
+    }
+
+    property.setValue(String.valueOf(Long.parseLong(property.getValue()) + entries.size()));
+
+    return entries.size();
+  }
+
+  /**
+   * Deletes all aggregates and queues all completed historic process instances,
+   * which are aggregated by the following batches. The statements are executed
+   * right away, since they precede the insert of the property.
+   */
+  protected PropertyEntity rebuildHistoricDurationAggregates() {
+    DbSqlSession dbSqlSession = getDbSqlSession();
+    dbSqlSession.executeImmediately("deleteAllHistoricDurationAggregates", null);
+    dbSqlSession.executeImmediately("insertHistoricDurationQueueForCompletedInstances", null);
+
+    // concurrent rebuilds fail on the unique name of the property
+    PropertyEntity property = new PropertyEntity(DURATION_AGGREGATION_PROPERTY, "0");
+    getDbEntityManager().insert(property);
+    return property;
+  }
+
+  /**
+   * Removes the duration of the given historic process instance from the aggregates
+   * before the instance is deleted.
+   *
+   * @param updateAggregates false if the aggregates are deleted anyway, e.g. with
+   * all instances of a process definition
+   */
+  @SuppressWarnings("unchecked")
+  public void deleteHistoricDurationByProcessInstanceId(String historicProcessInstanceId, boolean updateAggregates) {
+    if (!isDurationAggregationEnabled()) {
+      return;
+    }
+
+    HistoricDurationQueueEntity entry = getDbEntityManager().selectById(HistoricDurationQueueEntity.class, historicProcessInstanceId);
+    if (entry != null) {
+      // not aggregated yet, a concurrent aggregation fails on the optimistic locking
+      getDbEntityManager().delete(entry);
+      return;
+    }
+
+    if (!updateAggregates || getPropertyManager().findPropertyById(DURATION_AGGREGATION_PROPERTY) == null) {
+      return;
+    }
+
+    Map<String, Object> duration = (Map<String, Object>) getDbEntityManager()
+      .selectOne("selectHistoricDurationOfProcessInstance", historicProcessInstanceId);
+    if (duration == null || duration.get("processDefinitionId") == null || duration.get("duration") == null) {
+      return;
+    }
+
+    String processDefinitionId = (String) duration.get("processDefinitionId");
+    int year = (Integer) duration.get("year");
+    int month = (Integer) duration.get("month");
+    long durationInMillis = (Long) duration.get("duration");
+
+    HistoricDurationAggregateEntity aggregate = findHistoricDurationAggregate(processDefinitionId, year, month);
+    if (aggregate == null) {
+      return;
+    }
+
+    aggregate.removeDuration(durationInMillis);
+
+    if (aggregate.getCount() <= 0) {
+      getDbEntityManager().delete(aggregate);
+    }
+    else if (durationInMillis <= aggregate.getMinimum() || durationInMillis >= aggregate.getMaximum()) {
+      updateHistoricDurationBounds(aggregate, historicProcessInstanceId);
+    }
+  }
+
+  /**
+   * Recalculates the minimum and maximum of an aggregate from the aggregated
+   * historic process instances, except the given one.
+   */
+  @SuppressWarnings("unchecked")
+  protected void updateHistoricDurationBounds(HistoricDurationAggregateEntity aggregate, String excludedHistoricProcessInstanceId) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("processDefinitionId", aggregate.getProcessDefinitionId());
+    parameters.put("year", aggregate.getYear());
+    parameters.put("month", aggregate.getMonth());
+    parameters.put("excludedHistoricProcessInstanceId", excludedHistoricProcessInstanceId);
+
+    Map<String, Object> bounds = (Map<String, Object>) getDbEntityManager()
+      .selectOne("selectHistoricDurationBounds", parameters);
+    if (bounds != null && bounds.get("minimum") != null && bounds.get("maximum") != null) {
+      aggregate.setMinimum((Long) bounds.get("minimum"));
+      aggregate.setMaximum((Long) bounds.get("maximum"));
+    }
+  }
+
+  public HistoricDurationAggregateEntity findHistoricDurationAggregate(String processDefinitionId, int year, int month) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("processDefinitionId", processDefinitionId);
+    parameters.put("year", year);
+    parameters.put("month", month);
+    return (HistoricDurationAggregateEntity) getDbEntityManager().selectOne("selectHistoricDurationAggregate", parameters);
+  }
+
+  public void deleteHistoricDurationAggregatesByProcessDefinitionId(String processDefinitionId) {
+    getDbEntityManager().delete(HistoricDurationAggregateEntity.class, "deleteHistoricDurationAggregatesByProcessDefinitionId", processDefinitionId);
+  }
+
+  protected HistoricDurationAggregateEntity getOrCreateAggregate(Map<String, HistoricDurationAggregateEntity> aggregates, HistoricDurationQueueEntity entry) {
+    String key = entry.getProcessDefinitionId() + ":" + entry.getYear() + ":" + entry.getMonth();
+    HistoricDurationAggregateEntity aggregate = aggregates.get(key);
+    if (aggregate == null) {
+      aggregate = new HistoricDurationAggregateEntity();
+      aggregate.setProcessDefinitionId(entry.getProcessDefinitionId());
+      aggregate.setProcessDefinitionKey(entry.getProcessDefinitionKey());
+      aggregate.setTenantId(entry.getTenantId());
+      aggregate.setYear(entry.getYear());
+      aggregate.setMonth(entry.getMonth());
+      aggregates.put(key, aggregate);
+    }
+    return aggregate;
+  }
+
+  /**
+   * The pre-aggregated durations can be used if they are enabled and built.
+   */
+  protected boolean isDurationAggregationApplicable(HistoricProcessInstanceHistoricProcessInstanceReportImpl query) {
+    return isDurationAggregationEnabled()
+        && getPropertyManager().findPropertyById(DURATION_AGGREGATION_PROPERTY) != null;
+  }
+
+  protected boolean isDurationAggregationEnabled() {
+    return Context.getProcessEngineConfiguration().isHistoricDurationAggregationEnabled();
+  }
+
+  /**
+   * Creates the report from the aggregates of the months which are completely covered by
+   * the report and the single durations of the queued instances and of the instances started
+   * in the months of the bounds of the report. The database decides about the month of an
+   * instance and of the bounds, like for the aggregation itself.
+   */
+  @SuppressWarnings("unchecked")
+  protected List<DurationReportResult> createAggregatedDurationReport(HistoricProcessInstanceHistoricProcessInstanceReportImpl query) {
+    PeriodUnit periodUnit = query.getReportPeriodUnit();
+    Map<Integer, HistoricDurationAggregateEntity> periods = new TreeMap<Integer, HistoricDurationAggregateEntity>();
+
+    List<HistoricDurationAggregateEntity> aggregates = getDbEntityManager()
+      .selectList("selectHistoricDurationAggregatesForReport", query);
+    for (HistoricDurationAggregateEntity aggregate : aggregates) {
+      if (aggregate.getCount() > 0) {
+        getOrCreatePeriod(periods, getPeriod(aggregate.getMonth(), periodUnit)).merge(aggregate);
+      }
+    }
+
+    // add the instances which are not contained in the selected aggregates, the period is calculated by the database
+    NotAggregatedDurationCollector collector = new NotAggregatedDurationCollector(periods);
+    DbSqlSession dbSqlSession = getDbSqlSession();
+    dbSqlSession.select("selectHistoricDurationsNotAggregated", query, collector);
+
+    List<DurationReportResult> results = new ArrayList<DurationReportResult>();
+    for (Map.Entry<Integer, HistoricDurationAggregateEntity> period : periods.entrySet()) {
+      HistoricDurationAggregateEntity aggregate = period.getValue();
+
+      DurationReportResultEntity result = new DurationReportResultEntity();
+      result.setPeriod(period.getKey());
+      result.setPeriodUnit(periodUnit.toString());
+      result.setMinimum(aggregate.getMinimum());
+      result.setMaximum(aggregate.getMaximum());
+      result.setAverage(aggregate.getAverage());
+      result.setSketch(aggregate.getSketch());
+      results.add(result);
+    }
+    return results;
+  }
+
+  protected HistoricDurationAggregateEntity getOrCreatePeriod(Map<Integer, HistoricDurationAggregateEntity> periods, int period) {
+    HistoricDurationAggregateEntity aggregate = periods.get(period);
+    if (aggregate == null) {
+      aggregate = new HistoricDurationAggregateEntity();
+      periods.put(period, aggregate);
+    }
+    return aggregate;
+  }
+
+  protected int getPeriod(int month, PeriodUnit periodUnit) {
+    if (periodUnit == PeriodUnit.QUARTER) {
+      return (month - 1) / 3 + 1;
+    }
+    return month;
+  }
+
+  protected PropertyManager getPropertyManager() {
+    return getSession(PropertyManager.class);
+  }
+
+  /**
+   * Adds the streamed durations of the instances which are not contained in the aggregates to the periods,
+   * without loading all of them at once.
+   */
+  protected static class NotAggregatedDurationCollector implements ResultHandler {
+
+    protected Map<Integer, HistoricDurationAggregateEntity> periods;
+
+    public NotAggregatedDurationCollector(Map<Integer, HistoricDurationAggregateEntity> periods) {
+      this.periods = periods;
+    }
+
+    public void handleResult(ResultContext context) {
+      Map<?, ?> row = (Map<?, ?>) context.getResultObject();
+      Integer period = (Integer) row.get("period");
+      Long duration = (Long) row.get("duration");
+      if (period != null && duration != null) {
+        HistoricDurationAggregateEntity aggregate = periods.get(period);
+        if (aggregate == null) {
+          aggregate = new HistoricDurationAggregateEntity();
+          periods.put(period, aggregate);
+        }
+        aggregate.addDuration(duration);
+      }
+    }
+  }
+
 }
@@ -33,6 +33,11 @@ public class ResourceEntity implements Serializable, DbEntity, Resource {
   protected boolean generated = false;
   protected String tenantId;
 
+  /** true while {@link #bytes} holds the compressed bytes read from the database */
+  protected boolean compressed;
+  protected transient byte[] persistentBytes;
+  protected transient byte[] persistentBytesSource;
+
   public String getId() {
     return id;
   }
@@ -50,11 +55,46 @@ public class ResourceEntity implements Serializable, DbEntity, Resource {
   }
 
   public byte[] getBytes() {
+    if (compressed) {
+      bytes = ByteArrayEntity.decompress(bytes);
+      compressed = false;
+    }
     return bytes;
   }
 
   public void setBytes(byte[] bytes) {
     this.bytes = bytes;
+    this.compressed = false;
+  }
+
+  /**
+   * @return the bytes as they are written to the database, see {@link ByteArrayEntity#getPersistentBytes()}
+   */
+  public byte[] getPersistentBytes() {
+    preparePersistentBytes();
+    return persistentBytes;
+  }
+
+  public boolean isPersistentBytesCompressed() {
+    preparePersistentBytes();
+    return persistentBytes != bytes;
+  }
+
+  public void setPersistentBytes(byte[] persistentBytes) {
+    this.bytes = persistentBytes;
+  }
+
+  public void setCompressed(boolean compressed) {
+    this.compressed = compressed;
+  }
+
+  protected void preparePersistentBytes() {
+    byte[] bytes = getBytes();
+    if (persistentBytesSource != bytes) {
+      byte[] compressedBytes = ByteArrayEntity.compress(bytes);
+      persistentBytes = compressedBytes != null ? compressedBytes : bytes;
+      persistentBytesSource = bytes;
+    }
   }
 
   public String getDeploymentId() {
@@ -17,7 +17,11 @@ import static org.camunda.bpm.engine.authorization.Permissions.READ;
 import static org.camunda.bpm.engine.authorization.Resources.PROCESS_DEFINITION;
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 import org.camunda.bpm.engine.batch.BatchStatistics;
 import org.camunda.bpm.engine.impl.ActivityStatisticsQueryImpl;
@@ -25,10 +29,15 @@ import org.camunda.bpm.engine.impl.DeploymentStatisticsQueryImpl;
 import org.camunda.bpm.engine.impl.Page;
 import org.camunda.bpm.engine.impl.ProcessDefinitionStatisticsQueryImpl;
 import org.camunda.bpm.engine.impl.batch.BatchStatisticsQueryImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.ListQueryParameterObject;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.management.RuntimeStatisticsCache;
+import org.camunda.bpm.engine.impl.management.RuntimeStatistics.ProcessDefinitionCounts;
 import org.camunda.bpm.engine.impl.persistence.AbstractManager;
 import org.camunda.bpm.engine.management.ActivityStatistics;
 import org.camunda.bpm.engine.management.DeploymentStatistics;
+import org.camunda.bpm.engine.management.IncidentStatistics;
 import org.camunda.bpm.engine.management.ProcessDefinitionStatistics;
 
 public class StatisticsManager extends AbstractManager {
@@ -36,22 +45,51 @@ public class StatisticsManager extends AbstractManager {
   @SuppressWarnings("unchecked")
   public List<ProcessDefinitionStatistics> getStatisticsGroupedByProcessDefinitionVersion(ProcessDefinitionStatisticsQueryImpl query, Page page) {
     configureQuery(query);
+
+    Map<String, ProcessDefinitionCounts> counts = getRuntimeStatisticsCounts(query);
+    if (counts != null) {
+      List<ProcessDefinitionStatistics> statistics = getDbEntityManager().selectList("selectProcessDefinitionsForStatistics", query, page);
+      for (ProcessDefinitionStatistics definitionStatistics : statistics) {
+        ProcessDefinitionCounts definitionCounts = counts.get(definitionStatistics.getId());
+        addCounts((ProcessDefinitionStatisticsEntity) definitionStatistics, definitionCounts, query);
+      }
+      return statistics;
+    }
+
     return getDbEntityManager().selectList("selectProcessDefinitionStatistics", query, page);
   }
 
   public long getStatisticsCountGroupedByProcessDefinitionVersion(ProcessDefinitionStatisticsQueryImpl query) {
     configureQuery(query);
+
+    if (isRuntimeStatisticsCacheApplicable(query)) {
+      // the statistics contain every process definition, regardless of the counts
+      return (Long) getDbEntityManager().selectOne("selectProcessDefinitionsForStatisticsCount", query);
+    }
+
     return (Long) getDbEntityManager().selectOne("selectProcessDefinitionStatisticsCount", query);
   }
 
   @SuppressWarnings("unchecked")
   public List<ActivityStatistics> getStatisticsGroupedByActivity(ActivityStatisticsQueryImpl query, Page page) {
     configureQuery(query);
+
+    List<ActivityStatistics> statistics = getActivityStatisticsFromCache(query);
+    if (statistics != null) {
+      return applyPage(statistics, page);
+    }
+
     return getDbEntityManager().selectList("selectActivityStatistics", query, page);
   }
 
   public long getStatisticsCountGroupedByActivity(ActivityStatisticsQueryImpl query) {
     configureQuery(query);
+
+    List<ActivityStatistics> statistics = getActivityStatisticsFromCache(query);
+    if (statistics != null) {
+      return statistics.size();
+    }
+
     return (Long) getDbEntityManager().selectOne("selectActivityStatisticsCount", query);
   }
 
@@ -98,6 +136,136 @@ public class StatisticsManager extends AbstractManager {
     getTenantManager().configureQuery(batchQuery);
   }
 
+  /**
+   * The runtime statistics cache maintains the counts of all process definitions. It can
+   * only answer queries which are neither restricted by authorizations nor by tenants.
+   */
+  protected boolean isRuntimeStatisticsCacheApplicable(ListQueryParameterObject query) {
+    return Context.getProcessEngineConfiguration().getRuntimeStatisticsCache() != null
+        && !query.getAuthCheck().isAuthorizationCheckEnabled()
+        && !query.getTenantCheck().isTenantCheckEnabled();
+  }
+
+  protected Map<String, ProcessDefinitionCounts> getRuntimeStatisticsCounts(ListQueryParameterObject query) {
+    if (isRuntimeStatisticsCacheApplicable(query)) {
+      RuntimeStatisticsCache cache = Context.getProcessEngineConfiguration().getRuntimeStatisticsCache();
+      return cache.getProcessDefinitionCounts(getCommandContext());
+    }
+    else {
+      return null;
+    }
+  }
+
+  protected void addCounts(ProcessDefinitionStatisticsEntity statistics, ProcessDefinitionCounts counts, ProcessDefinitionStatisticsQueryImpl query) {
+    if (counts == null) {
+      counts = new ProcessDefinitionCounts();
+    }
+
+    statistics.setInstances((int) counts.getProcessInstances());
+    if (query.isFailedJobsToInclude()) {
+      statistics.setFailedJobs((int) counts.getFailedJobs());
+    }
+
+    List<IncidentStatistics> incidentStatistics = new ArrayList<IncidentStatistics>();
+    if (query.isIncidentsToInclude()) {
+      incidentStatistics = createIncidentStatistics(counts.getIncidents(), query.getIncludeIncidentsForType());
+    }
+    statistics.setIncidentStatistics(incidentStatistics);
+  }
+
+  protected List<ActivityStatistics> getActivityStatisticsFromCache(ActivityStatisticsQueryImpl query) {
+    if (!isRuntimeStatisticsCacheApplicable(query)) {
+      return null;
+    }
+
+    RuntimeStatisticsCache cache = Context.getProcessEngineConfiguration().getRuntimeStatisticsCache();
+    ProcessDefinitionCounts counts = cache.getProcessDefinitionCounts(getCommandContext(), query.getProcessDefinitionId());
+    if (counts == null) {
+      return null;
+    }
+
+    // failed jobs are counted per job definition, the statistics are grouped by activity
+    Map<String, Long> failedJobs = new HashMap<String, Long>();
+    if (query.isFailedJobsToInclude()) {
+      for (JobDefinitionEntity jobDefinition : getJobDefinitionManager().findByProcessDefinitionId(query.getProcessDefinitionId())) {
+        Long jobDefinitionFailedJobs = counts.getFailedJobsByJobDefinition().get(jobDefinition.getId());
+        if (jobDefinitionFailedJobs != null && jobDefinition.getActivityId() != null) {
+          Long activityFailedJobs = failedJobs.get(jobDefinition.getActivityId());
+          failedJobs.put(jobDefinition.getActivityId(), jobDefinitionFailedJobs + (activityFailedJobs != null ? activityFailedJobs : 0));
+        }
+      }
+    }
+
+    Map<String, List<IncidentStatistics>> incidents = new HashMap<String, List<IncidentStatistics>>();
+    if (query.isIncidentsToInclude()) {
+      for (Map.Entry<String, Map<String, Long>> activityIncidents : counts.getActivityIncidents().entrySet()) {
+        List<IncidentStatistics> incidentStatistics = createIncidentStatistics(activityIncidents.getValue(), query.getIncludeIncidentsForType());
+        if (!incidentStatistics.isEmpty()) {
+          incidents.put(activityIncidents.getKey(), incidentStatistics);
+        }
+      }
+    }
+
+    // the activities are ordered by id like the statistics selected from the database
+    TreeSet<String> activityIds = new TreeSet<String>();
+    for (Map.Entry<String, Long> activityInstances : counts.getActivityInstances().entrySet()) {
+      if (activityInstances.getValue() > 0) {
+        activityIds.add(activityInstances.getKey());
+      }
+    }
+    for (Map.Entry<String, Long> activityFailedJobs : failedJobs.entrySet()) {
+      if (activityFailedJobs.getValue() > 0) {
+        activityIds.add(activityFailedJobs.getKey());
+      }
+    }
+    activityIds.addAll(incidents.keySet());
+
+    List<ActivityStatistics> statistics = new ArrayList<ActivityStatistics>();
+    for (String activityId : activityIds) {
+      ActivityStatisticsImpl activityStatistics = new ActivityStatisticsImpl();
+      activityStatistics.setId(activityId);
+      activityStatistics.setInstances(toInt(counts.getActivityInstances().get(activityId)));
+      activityStatistics.setFailedJobs(toInt(failedJobs.get(activityId)));
+
+      List<IncidentStatistics> incidentStatistics = incidents.get(activityId);
+      if (incidentStatistics == null) {
+        incidentStatistics = new ArrayList<IncidentStatistics>();
+      }
+      activityStatistics.setIncidentStatistics(incidentStatistics);
+
+      statistics.add(activityStatistics);
+    }
+
+    return statistics;
+  }
+
+  protected List<IncidentStatistics> createIncidentStatistics(Map<String, Long> incidentCounts, String incidentType) {
+    List<IncidentStatistics> incidentStatistics = new ArrayList<IncidentStatistics>();
+    for (Map.Entry<String, Long> incidentCount : incidentCounts.entrySet()) {
+      if (incidentCount.getValue() > 0 && (incidentType == null || incidentType.equals(incidentCount.getKey()))) {
+        IncidentStatisticsEntity statistics = new IncidentStatisticsEntity();
+        statistics.setIncidenType(incidentCount.getKey());
+        statistics.setIncidentCount(toInt(incidentCount.getValue()));
+        incidentStatistics.add(statistics);
+      }
+    }
+    return incidentStatistics;
+  }
+
+  protected List<ActivityStatistics> applyPage(List<ActivityStatistics> statistics, Page page) {
+    if (page == null) {
+      return statistics;
+    }
+
+    int fromIndex = Math.min(page.getFirstResult(), statistics.size());
+    int toIndex = (int) Math.min((long) fromIndex + page.getMaxResults(), statistics.size());
+    return new ArrayList<ActivityStatistics>(statistics.subList(fromIndex, toIndex));
+  }
+
+  protected int toInt(Long count) {
+    return count != null ? count.intValue() : 0;
+  }
+
   protected void checkReadProcessDefinition(ActivityStatisticsQueryImpl query) {
     CommandContext commandContext = getCommandContext();
     if(isAuthorizationEnabled() && getCurrentAuthentication() != null && commandContext.isAuthorizationCheckEnabled()) {
@@ -104,6 +104,9 @@ public class TableDataManager extends AbstractManager {
 
     persistentObjectToTableNameMap.put(HistoricDecisionInstanceEntity.class, "ACT_HI_DECINST");
 
+    persistentObjectToTableNameMap.put(HistoricDurationAggregateEntity.class, "ACT_HI_DURATION_AGG");
+    persistentObjectToTableNameMap.put(HistoricDurationQueueEntity.class, "ACT_HI_DURATION_QUEUE");
+
     // Identity module
     persistentObjectToTableNameMap.put(GroupEntity.class, "ACT_ID_GROUP");
     persistentObjectToTableNameMap.put(MembershipEntity.class, "ACT_ID_MEMBERSHIP");
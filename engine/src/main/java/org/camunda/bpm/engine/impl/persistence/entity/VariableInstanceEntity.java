@@ -66,7 +66,7 @@ public class VariableInstanceEntity implements VariableInstance, CoreVariableIns
 
   protected ByteArrayField byteArrayField = new ByteArrayField(this);
 
-  protected TypedValueField typedValueField = new TypedValueField(this, true);
+  protected TypedValueField typedValueField = new TypedValueField(this, true, byteArrayField);
 
   boolean forcedUpdate;
 
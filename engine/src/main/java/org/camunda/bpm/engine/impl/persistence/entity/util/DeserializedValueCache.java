@@ -0,0 +1,313 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.camunda.bpm.engine.impl.variable.serializer.TypedValueSerializer;
+import org.camunda.bpm.engine.variable.impl.value.ObjectValueImpl;
+import org.camunda.bpm.engine.variable.type.ValueType;
+import org.camunda.bpm.engine.variable.value.ObjectValue;
+import org.camunda.bpm.engine.variable.value.TypedValue;
+
+/**
+ * <p>Engine wide cache of deserialized object variables. It is used by the {@link TypedValueField}
+ * of a variable instance to avoid deserializing the same byte array in every command which
+ * reads the variable.</p>
+ *
+ * <p>The values are keyed by the id and the revision of the byte array, so a changed byte array
+ * is never served from the cache. Every command gets its own copy of the value: immutable
+ * values are shared, dates, byte arrays and the collections and maps of the JDK are copied
+ * element by element. Values which cannot be copied are not cached, unless their type is
+ * declared as immutable.</p>
+ *
+ * <p>The cache is bounded by the number of entries and by the size of the serialized values,
+ * which is used as estimate of the memory occupied by the deserialized values. The least
+ * recently used entries are evicted first.</p>
+ */
+public class DeserializedValueCache {
+
+  public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+  public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+
+  protected static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+      String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+      Float.class, Double.class, BigDecimal.class, BigInteger.class));
+
+  protected static final Set<Class<?>> COPYABLE_COLLECTION_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+      ArrayList.class, LinkedList.class, HashSet.class, LinkedHashSet.class, TreeSet.class,
+      HashMap.class, LinkedHashMap.class, TreeMap.class));
+
+  protected final int maxEntries;
+  protected final long maxSize;
+  protected final Set<String> immutableTypeNames;
+
+  protected final LinkedHashMap<String, CachedValue> values = new LinkedHashMap<String, CachedValue>(16, 0.75f, true);
+  protected long size;
+
+  protected long hitCount;
+  protected long missCount;
+  protected long evictionCount;
+
+  public DeserializedValueCache() {
+    this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_SIZE, null);
+  }
+
+  /**
+   * @param immutableTypeNames the names of classes whose instances are never modified
+   *   after deserialization and may be shared by all commands
+   */
+  public DeserializedValueCache(int maxEntries, long maxSize, Collection<String> immutableTypeNames) {
+    this.maxEntries = maxEntries;
+    this.maxSize = maxSize;
+    this.immutableTypeNames = immutableTypeNames != null ? new HashSet<String>(immutableTypeNames) : Collections.<String>emptySet();
+  }
+
+  /**
+   * @return a copy of the value deserialized from the given revision of the byte array by
+   * the given serializer or null if it is not cached
+   */
+  public TypedValue get(String byteArrayId, int revision, TypedValueSerializer<?> serializer) {
+    CachedValue cachedValue;
+    synchronized (this) {
+      cachedValue = values.get(byteArrayId);
+      if (cachedValue == null || cachedValue.revision != revision || cachedValue.serializer != serializer) {
+        missCount++;
+        return null;
+      }
+      hitCount++;
+    }
+
+    return new ObjectValueImpl(copy(cachedValue.value), cachedValue.valueSerialized,
+        cachedValue.serializationDataFormat, cachedValue.objectTypeName, true);
+  }
+
+  /**
+   * Caches a copy of the given value if it is a deserialized object value which can be copied.
+   *
+   * @param serializedSize the size of the serialized value in bytes
+   */
+  public void put(String byteArrayId, int revision, TypedValueSerializer<?> serializer, TypedValue value, int serializedSize) {
+    if (!isCacheable(value) || serializedSize > maxSize) {
+      return;
+    }
+
+    ObjectValue objectValue = (ObjectValue) value;
+    CachedValue cachedValue = new CachedValue(revision, serializer, copy(objectValue.getValue()),
+        objectValue.getValueSerialized(), objectValue.getSerializationDataFormat(), objectValue.getObjectTypeName(), serializedSize);
+
+    synchronized (this) {
+      CachedValue previousValue = values.put(byteArrayId, cachedValue);
+      if (previousValue != null) {
+        size -= previousValue.size;
+      }
+      size += serializedSize;
+
+      evictEntries();
+    }
+  }
+
+  public synchronized void remove(String byteArrayId) {
+    CachedValue cachedValue = values.remove(byteArrayId);
+    if (cachedValue != null) {
+      size -= cachedValue.size;
+    }
+  }
+
+  public synchronized void clear() {
+    values.clear();
+    size = 0;
+  }
+
+  protected void evictEntries() {
+    Iterator<CachedValue> iterator = values.values().iterator();
+    while ((values.size() > maxEntries || size > maxSize) && iterator.hasNext()) {
+      size -= iterator.next().size;
+      iterator.remove();
+      evictionCount++;
+    }
+  }
+
+  protected boolean isCacheable(TypedValue value) {
+    if (value == null || !ValueType.OBJECT.equals(value.getType())) {
+      return false;
+    }
+    ObjectValue objectValue = (ObjectValue) value;
+    return objectValue.isDeserialized() && objectValue.getValue() != null && isCopyable(objectValue.getValue());
+  }
+
+  protected boolean isCopyable(Object value) {
+    if (value == null || isImmutable(value) || value instanceof Date || value instanceof byte[]) {
+      return true;
+    }
+    else if (COPYABLE_COLLECTION_TYPES.contains(value.getClass())) {
+      if (value instanceof Map) {
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+          if (!isCopyable(entry.getKey()) || !isCopyable(entry.getValue())) {
+            return false;
+          }
+        }
+        return true;
+      }
+      else {
+        for (Object element : (Collection<?>) value) {
+          if (!isCopyable(element)) {
+            return false;
+          }
+        }
+        return true;
+      }
+    }
+    else {
+      return false;
+    }
+  }
+
+  protected boolean isImmutable(Object value) {
+    return IMMUTABLE_TYPES.contains(value.getClass())
+        || value instanceof Enum
+        || immutableTypeNames.contains(value.getClass().getName());
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  protected Object copy(Object value) {
+    if (value == null || isImmutable(value)) {
+      return value;
+    }
+    else if (value instanceof Date) {
+      return ((Date) value).clone();
+    }
+    else if (value instanceof byte[]) {
+      return ((byte[]) value).clone();
+    }
+    else if (value instanceof TreeMap) {
+      Map copy = new TreeMap(((TreeMap) value).comparator());
+      copyEntries((Map<?, ?>) value, copy);
+      return copy;
+    }
+    else if (value instanceof Map) {
+      Map copy = value instanceof LinkedHashMap ? new LinkedHashMap() : new HashMap();
+      copyEntries((Map<?, ?>) value, copy);
+      return copy;
+    }
+    else if (value instanceof TreeSet) {
+      Collection copy = new TreeSet(((TreeSet) value).comparator());
+      copyElements((Collection<?>) value, copy);
+      return copy;
+    }
+    else {
+      Collection copy;
+      if (value instanceof List) {
+        copy = value instanceof LinkedList ? new LinkedList() : new ArrayList(((List<?>) value).size());
+      }
+      else {
+        copy = value instanceof LinkedHashSet ? new LinkedHashSet() : new HashSet();
+      }
+      copyElements((Collection<?>) value, copy);
+      return copy;
+    }
+  }
+
+  protected void copyEntries(Map<?, ?> source, Map<Object, Object> target) {
+    for (Map.Entry<?, ?> entry : source.entrySet()) {
+      target.put(copy(entry.getKey()), copy(entry.getValue()));
+    }
+  }
+
+  protected void copyElements(Collection<?> source, Collection<Object> target) {
+    for (Object element : source) {
+      target.add(copy(element));
+    }
+  }
+
+  // statistics ///////////////////////////////////////////////////////////
+
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * @return the ratio of cache hits to lookups or 0 if there was no lookup
+   */
+  public synchronized double getHitRate() {
+    long lookups = hitCount + missCount;
+    return lookups > 0 ? (double) hitCount / lookups : 0;
+  }
+
+  public synchronized int getSize() {
+    return values.size();
+  }
+
+  /**
+   * @return the size of the serialized values of all entries in bytes
+   */
+  public synchronized long getSizeInBytes() {
+    return size;
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  protected static class CachedValue {
+    protected final int revision;
+    protected final TypedValueSerializer<?> serializer;
+    protected final Object value;
+    protected final String valueSerialized;
+    protected final String serializationDataFormat;
+    protected final String objectTypeName;
+    protected final int size;
+
+    public CachedValue(int revision, TypedValueSerializer<?> serializer, Object value, String valueSerialized,
+        String serializationDataFormat, String objectTypeName, int size) {
+      this.revision = revision;
+      this.serializer = serializer;
+      this.value = value;
+      this.valueSerialized = valueSerialized;
+      this.serializationDataFormat = serializationDataFormat;
+      this.objectTypeName = objectTypeName;
+      this.size = size;
+    }
+  }
+
+}
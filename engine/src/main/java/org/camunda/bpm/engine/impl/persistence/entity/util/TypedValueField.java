@@ -23,16 +23,19 @@ import org.camunda.bpm.application.ProcessApplicationReference;
 import org.camunda.bpm.application.ProcessApplicationUnavailableException;
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.DbEntityLifecycleAware;
 import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.interceptor.CommandContextListener;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
 import org.camunda.bpm.engine.impl.variable.serializer.TypedValueSerializer;
 import org.camunda.bpm.engine.impl.variable.serializer.ValueFields;
 import org.camunda.bpm.engine.impl.variable.serializer.ValueFieldsImpl;
 import org.camunda.bpm.engine.impl.variable.serializer.VariableSerializerFactory;
 import org.camunda.bpm.engine.impl.variable.serializer.VariableSerializers;
+import org.camunda.bpm.engine.management.Metrics;
 import org.camunda.bpm.engine.variable.impl.value.UntypedValueImpl;
 import org.camunda.bpm.engine.variable.type.ValueType;
 import org.camunda.bpm.engine.variable.value.SerializableValue;
@@ -60,12 +63,24 @@ public class TypedValueField implements DbEntityLifecycleAware, CommandContextLi
   protected boolean notifyOnImplicitUpdates = false;
   protected List<TypedValueUpdateListener> updateListeners;
 
+  /** the field holding the byte array value, if deserialized values may be cached */
+  protected ByteArrayField byteArrayField;
+
   public TypedValueField(ValueFields valueFields, boolean notifyOnImplicitUpdates) {
     this.valueFields = valueFields;
     this.notifyOnImplicitUpdates = notifyOnImplicitUpdates;
     this.updateListeners = new ArrayList<TypedValueUpdateListener>();
   }
 
+  /**
+   * @param byteArrayField the field holding the byte array value of the value fields;
+   *   if set, deserialized values are read through the {@link DeserializedValueCache}
+   */
+  public TypedValueField(ValueFields valueFields, boolean notifyOnImplicitUpdates, ByteArrayField byteArrayField) {
+    this(valueFields, notifyOnImplicitUpdates);
+    this.byteArrayField = byteArrayField;
+  }
+
   public Object getValue() {
     TypedValue typedValue = getTypedValue();
     if (typedValue != null) {
@@ -90,7 +105,7 @@ public class TypedValueField implements DbEntityLifecycleAware, CommandContextLi
 
     if (cachedValue == null && errorMessage == null) {
       try {
-        cachedValue = getSerializer().readValue(valueFields, deserializeValue);
+        cachedValue = readValue(deserializeValue);
 
         if (notifyOnImplicitUpdates && isMutableValue(cachedValue)) {
           Context.getCommandContext().registerCommandContextListener(this);
@@ -105,6 +120,48 @@ public class TypedValueField implements DbEntityLifecycleAware, CommandContextLi
     return cachedValue;
   }
 
+  protected TypedValue readValue(boolean deserializeValue) {
+    TypedValueSerializer<?> serializer = getSerializer();
+
+    DeserializedValueCache deserializedValueCache = getDeserializedValueCache();
+    if (!deserializeValue || deserializedValueCache == null || byteArrayField == null
+        || !ValueType.OBJECT.equals(serializer.getType())) {
+      return serializer.readValue(valueFields, deserializeValue);
+    }
+
+    ByteArrayEntity byteArray = byteArrayField.getByteArrayEntity();
+    if (byteArray == null || byteArray.getContentVersion() != 0) {
+      // the bytes have been changed in this command and do not match the revision
+      return serializer.readValue(valueFields, deserializeValue);
+    }
+
+    TypedValue value = deserializedValueCache.get(byteArray.getId(), byteArray.getRevision(), serializer);
+    markDeserializedValueCacheOccurrence(value != null);
+
+    if (value == null) {
+      value = serializer.readValue(valueFields, deserializeValue);
+
+      byte[] bytes = byteArray.getBytes();
+      if (bytes != null) {
+        deserializedValueCache.put(byteArray.getId(), byteArray.getRevision(), serializer, value, bytes.length);
+      }
+    }
+    return value;
+  }
+
+  protected void markDeserializedValueCacheOccurrence(boolean hit) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (processEngineConfiguration.isMetricsEnabled()) {
+      processEngineConfiguration.getMetricsRegistry()
+        .markOccurrence(hit ? Metrics.DESERIALIZED_VALUE_CACHE_HITS : Metrics.DESERIALIZED_VALUE_CACHE_MISSES);
+    }
+  }
+
+  protected DeserializedValueCache getDeserializedValueCache() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    return processEngineConfiguration != null ? processEngineConfiguration.getDeserializedValueCache() : null;
+  }
+
   public TypedValue setValue(TypedValue value) {
     // determine serializer to use
     serializer = getSerializers().findSerializerForValue(value,
@@ -592,7 +592,7 @@ public abstract class TestHelper {
   }
 
   public static void clearUserOperationLog(ProcessEngineConfigurationImpl processEngineConfiguration) {
-    if (processEngineConfiguration.getHistoryLevel().equals(HistoryLevel.HISTORY_LEVEL_FULL)) {
+    if (processEngineConfiguration.getHistoryLevel().getId() == HistoryLevel.HISTORY_LEVEL_FULL.getId()) {
       HistoryService historyService = processEngineConfiguration.getHistoryService();
       List<UserOperationLogEntry> logs = historyService.createUserOperationLogQuery().list();
       for (UserOperationLogEntry log : logs) {
@@ -0,0 +1,209 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+
+/**
+ * <p>Compresses byte arrays with the deflate algorithm. Compressed content starts with
+ * {@link #COMPRESSED_HEADER} followed by the length of the uncompressed content, so that
+ * the content can be checked before it is inflated and is never inflated beyond that length.</p>
+ *
+ * <p>Whether content is compressed must be recorded separately, e.g. in a column of the
+ * table it is stored in. Content which is passed to the decompress methods but is not
+ * valid compressed content is rejected with a {@link org.camunda.bpm.engine.ProcessEngineException}.</p>
+ */
+public class CompressionUtil {
+
+  protected static final EngineUtilLogger LOG = ProcessEngineLogger.UTIL_LOGGER;
+
+  public static final byte[] COMPRESSED_HEADER = { 0x00, 'C', 'Z', 0x01 };
+
+  /** the header and the length of the uncompressed content */
+  public static final int PREFIX_LENGTH = COMPRESSED_HEADER.length + 4;
+
+  public static final int DEFAULT_MAX_DECOMPRESSED_SIZE = 128 * 1024 * 1024;
+
+  protected static final int BUFFER_SIZE = 8 * 1024;
+
+  public static byte[] compress(byte[] bytes) {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 2 + PREFIX_LENGTH);
+    outputStream.write(COMPRESSED_HEADER, 0, COMPRESSED_HEADER.length);
+    writeLength(outputStream, bytes.length);
+
+    DeflaterOutputStream deflaterStream = new DeflaterOutputStream(outputStream);
+    try {
+      deflaterStream.write(bytes);
+      deflaterStream.finish();
+    }
+    catch (IOException e) {
+      // cannot happen when writing to a byte array
+      throw new IllegalStateException(e);
+    }
+    finally {
+      IoUtil.closeSilently(deflaterStream);
+    }
+
+    return outputStream.toByteArray();
+  }
+
+  /**
+   * @return true if the given bytes start with the {@link #COMPRESSED_HEADER}
+   */
+  public static boolean isCompressed(byte[] bytes) {
+    if (bytes == null || bytes.length < PREFIX_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < COMPRESSED_HEADER.length; i++) {
+      if (bytes[i] != COMPRESSED_HEADER[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the inflated content of the given compressed bytes
+   * @throws org.camunda.bpm.engine.ProcessEngineException if the bytes are not valid compressed
+   *   content or the uncompressed content is larger than maxLength bytes
+   */
+  public static byte[] decompress(byte[] bytes, int maxLength) {
+    if (!isCompressed(bytes)) {
+      throw LOG.corruptCompressedContent("the content does not start with the compression header", null);
+    }
+
+    int length = readLength(bytes, COMPRESSED_HEADER.length, maxLength);
+    byte[] result = new byte[length];
+
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(bytes, PREFIX_LENGTH, bytes.length - PREFIX_LENGTH);
+      byte[] overflow = new byte[1];
+      int offset = 0;
+      while (!inflater.finished() && offset <= length) {
+        int inflated = offset < length
+            ? inflater.inflate(result, offset, length - offset)
+            // the remaining content must not inflate to any further bytes
+            : inflater.inflate(overflow);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        offset += inflated;
+      }
+
+      if (offset != length || !inflater.finished() || inflater.getRemaining() > 0) {
+        throw LOG.corruptCompressedContent("the inflated content does not have the length of " + length + " bytes", null);
+      }
+      return result;
+    }
+    catch (DataFormatException e) {
+      throw LOG.corruptCompressedContent(e.getMessage(), e);
+    }
+    finally {
+      inflater.end();
+    }
+  }
+
+  /**
+   * @return a stream inflating the compressed content of the given stream. Reading from the stream
+   *   fails with an {@link IOException} if the content is not valid compressed content.
+   * @throws org.camunda.bpm.engine.ProcessEngineException if the content does not start with a valid
+   *   header or the uncompressed content is larger than maxLength bytes
+   */
+  public static InputStream decompress(InputStream inputStream, int maxLength) throws IOException {
+    byte[] prefix = new byte[PREFIX_LENGTH];
+    int length = 0;
+    int bytesRead = 0;
+    while (length < prefix.length && bytesRead != -1) {
+      bytesRead = inputStream.read(prefix, length, prefix.length - length);
+      if (bytesRead > 0) {
+        length += bytesRead;
+      }
+    }
+
+    if (length < prefix.length || !isCompressed(prefix)) {
+      throw LOG.corruptCompressedContent("the content does not start with the compression header", null);
+    }
+
+    return new BoundedInflaterInputStream(inputStream, readLength(prefix, COMPRESSED_HEADER.length, maxLength));
+  }
+
+  protected static void writeLength(ByteArrayOutputStream outputStream, int length) {
+    outputStream.write((length >>> 24) & 0xFF);
+    outputStream.write((length >>> 16) & 0xFF);
+    outputStream.write((length >>> 8) & 0xFF);
+    outputStream.write(length & 0xFF);
+  }
+
+  protected static int readLength(byte[] bytes, int offset, int maxLength) {
+    long length = ((long) (bytes[offset] & 0xFF) << 24)
+        | ((bytes[offset + 1] & 0xFF) << 16)
+        | ((bytes[offset + 2] & 0xFF) << 8)
+        | (bytes[offset + 3] & 0xFF);
+
+    if (length > maxLength) {
+      throw LOG.decompressedContentTooLarge(length, maxLength);
+    }
+    return (int) length;
+  }
+
+  /**
+   * Fails if the compressed content inflates to more or fewer bytes than expected.
+   */
+  protected static class BoundedInflaterInputStream extends InflaterInputStream {
+
+    protected int expectedLength;
+    protected int inflatedLength;
+
+    public BoundedInflaterInputStream(InputStream inputStream, int expectedLength) {
+      super(inputStream, new Inflater(), BUFFER_SIZE);
+      this.expectedLength = expectedLength;
+    }
+
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      if (inflatedLength >= expectedLength) {
+        // the remaining content must not inflate to any further bytes
+        if (super.read(new byte[1], 0, 1) != -1) {
+          throw new IOException("Compressed content is larger than " + expectedLength + " bytes");
+        }
+        return -1;
+      }
+
+      int bytesRead = super.read(buffer, offset, Math.min(length, expectedLength - inflatedLength));
+      if (bytesRead == -1) {
+        throw new EOFException("Compressed content ended after " + inflatedLength + " of " + expectedLength + " bytes");
+      }
+      inflatedLength += bytesRead;
+      return bytesRead;
+    }
+
+    public void close() throws IOException {
+      try {
+        super.close();
+      }
+      finally {
+        inf.end();
+      }
+    }
+  }
+
+}
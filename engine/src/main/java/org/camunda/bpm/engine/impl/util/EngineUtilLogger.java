@@ -204,4 +204,16 @@ public class EngineUtilLogger extends ProcessEngineLogger {
         "Cannot parse duration '{}'.", expressions));
   }
 
+  public ProcessEngineException corruptCompressedContent(String reason, Exception e) {
+    return new ProcessEngineException(exceptionMessage(
+        "029",
+        "Cannot decompress content: {}", reason), e);
+  }
+
+  public ProcessEngineException decompressedContentTooLarge(long length, int maxLength) {
+    return new ProcessEngineException(exceptionMessage(
+        "030",
+        "Cannot decompress content of {} bytes. The maximum size is {} bytes.", length, maxLength));
+  }
+
 }
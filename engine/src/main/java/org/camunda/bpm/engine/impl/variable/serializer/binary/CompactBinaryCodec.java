@@ -0,0 +1,43 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer.binary;
+
+/**
+ * <p>Writes and reads the values of a type in the compact binary data format.</p>
+ *
+ * <p>The serialized data of a value starts with the {@link #getTypeTag() type tag} of its
+ * codec, so the tag must not change as long as data written by the codec exists. The
+ * fields of a value can be written with the methods of the {@link CompactBinaryWriter},
+ * including {@link CompactBinaryWriter#writeValue(Object)} for nested values.</p>
+ */
+public interface CompactBinaryCodec<T> {
+
+  /**
+   * @return the tag identifying the codec in the serialized data
+   */
+  String getTypeTag();
+
+  /**
+   * @return the type of the values the codec writes; values of subtypes are
+   * written by the codec as well unless there is a codec for the subtype
+   */
+  Class<T> getType();
+
+  void write(T value, CompactBinaryWriter writer);
+
+  /**
+   * Reads a value in the order the fields were written by {@link #write(Object, CompactBinaryWriter)}.
+   */
+  T read(CompactBinaryReader reader);
+
+}
@@ -0,0 +1,113 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer.binary;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registry of the {@link CompactBinaryCodec codecs} of the compact binary data format.
+ */
+public class CompactBinaryCodecs {
+
+  protected Map<String, CompactBinaryCodec<?>> codecsByTag = new LinkedHashMap<String, CompactBinaryCodec<?>>();
+  protected Map<Class<?>, CompactBinaryCodec<?>> codecsByType = new LinkedHashMap<Class<?>, CompactBinaryCodec<?>>();
+
+  public CompactBinaryCodecs() {
+  }
+
+  public CompactBinaryCodecs(List<CompactBinaryCodec<?>> codecs) {
+    if (codecs != null) {
+      for (CompactBinaryCodec<?> codec : codecs) {
+        addCodec(codec);
+      }
+    }
+  }
+
+  public CompactBinaryCodecs addCodec(CompactBinaryCodec<?> codec) {
+    codecsByTag.put(codec.getTypeTag(), codec);
+    codecsByType.put(codec.getType(), codec);
+    return this;
+  }
+
+  public CompactBinaryCodec<?> getCodecByTag(String typeTag) {
+    return codecsByTag.get(typeTag);
+  }
+
+  /**
+   * @return the codec of the given type or of its closest registered super type
+   */
+  public CompactBinaryCodec<?> getCodecByType(Class<?> type) {
+    CompactBinaryCodec<?> codec = codecsByType.get(type);
+    if (codec == null) {
+      for (CompactBinaryCodec<?> candidate : codecsByType.values()) {
+        if (candidate.getType().isAssignableFrom(type)
+            && (codec == null || codec.getType().isAssignableFrom(candidate.getType()))) {
+          codec = candidate;
+        }
+      }
+    }
+    return codec;
+  }
+
+  /**
+   * @return true if the given value and all of its elements can be written
+   */
+  public boolean canWrite(Object value) {
+    if (value == null || isBuiltInType(value)) {
+      return true;
+    }
+    else if (value instanceof Collection) {
+      for (Object element : (Collection<?>) value) {
+        if (!canWrite(element)) {
+          return false;
+        }
+      }
+      return value instanceof List || value instanceof Set;
+    }
+    else if (value instanceof Map) {
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        if (!canWrite(entry.getKey()) || !canWrite(entry.getValue())) {
+          return false;
+        }
+      }
+      return true;
+    }
+    else {
+      return getCodecByType(value.getClass()) != null;
+    }
+  }
+
+  protected boolean isBuiltInType(Object value) {
+    return value instanceof String
+        || value instanceof Integer
+        || value instanceof Long
+        || value instanceof Short
+        || value instanceof Byte
+        || value instanceof Boolean
+        || value instanceof Double
+        || value instanceof Float
+        || value instanceof Character
+        || value instanceof BigDecimal
+        || value instanceof BigInteger
+        || value instanceof byte[]
+        || (value instanceof Date && value.getClass() == Date.class);
+  }
+
+}
@@ -0,0 +1,52 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer.binary;
+
+/**
+ * <p>Constants of the compact binary data format.</p>
+ *
+ * <p>The data starts with the {@link #FORMAT_VERSION}, followed by the root value. Every
+ * value starts with a tag byte identifying its type. Integral numbers and lengths are
+ * written as variable-length integers, strings as UTF-8. Values written by a
+ * {@link CompactBinaryCodec} are preceded by the type tag of the codec on their first
+ * occurrence and by the index of the type tag on every further occurrence.</p>
+ */
+public final class CompactBinaryFormat {
+
+  public static final int FORMAT_VERSION = 1;
+
+  public static final byte NULL = 0;
+  public static final byte STRING = 1;
+  public static final byte INTEGER = 2;
+  public static final byte LONG = 3;
+  public static final byte SHORT = 4;
+  public static final byte BYTE = 5;
+  public static final byte TRUE = 6;
+  public static final byte FALSE = 7;
+  public static final byte DOUBLE = 8;
+  public static final byte FLOAT = 9;
+  public static final byte CHARACTER = 10;
+  public static final byte DATE = 11;
+  public static final byte BYTES = 12;
+  public static final byte BIG_DECIMAL = 13;
+  public static final byte BIG_INTEGER = 14;
+  public static final byte LIST = 15;
+  public static final byte SET = 16;
+  public static final byte MAP = 17;
+  public static final byte CODEC_DEFINITION = 18;
+  public static final byte CODEC_REFERENCE = 19;
+
+  private CompactBinaryFormat() {
+  }
+
+}
@@ -0,0 +1,120 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer.binary;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.variable.serializer.AbstractObjectValueSerializer;
+import org.camunda.bpm.engine.variable.value.SerializableValue;
+import org.camunda.bpm.engine.variable.value.TypedValue;
+
+/**
+ * <p>Serializes java objects in the {@link CompactBinaryFormat compact binary data format}.</p>
+ *
+ * <p>Strings, numbers, booleans, characters, dates, byte arrays, lists, sets and maps are
+ * supported out of the box; other types require a {@link CompactBinaryCodec}. Lists are
+ * deserialized as {@link java.util.ArrayList}, sets as {@link java.util.LinkedHashSet} and maps
+ * as {@link java.util.LinkedHashMap}.</p>
+ *
+ * <p>The serializer is used only if the data format {@link #DATA_FORMAT} is requested for an object
+ * value or configured as default serialization format of the process engine. Other values are
+ * rejected before their objects are inspected, so that the serializer neither walks the elements
+ * of every collection nor takes over values which other serializers reject.</p>
+ */
+public class CompactBinaryObjectSerializer extends AbstractObjectValueSerializer {
+
+  public static final String NAME = "compact-binary";
+
+  public static final String DATA_FORMAT = "application/x-camunda-compact-binary";
+
+  protected CompactBinaryCodecs codecs;
+
+  public CompactBinaryObjectSerializer() {
+    this(null);
+  }
+
+  public CompactBinaryObjectSerializer(List<CompactBinaryCodec<?>> codecs) {
+    super(DATA_FORMAT);
+    this.codecs = new CompactBinaryCodecs(codecs);
+  }
+
+  public String getName() {
+    return NAME;
+  }
+
+  protected boolean isSerializationTextBased() {
+    return false;
+  }
+
+  protected Object deserializeFromByteArray(byte[] bytes, String objectTypeName) throws Exception {
+    return new CompactBinaryReader(codecs, bytes).readValue();
+  }
+
+  protected byte[] serializeToByteArray(Object deserializedObject) throws Exception {
+    return new CompactBinaryWriter(codecs)
+      .writeValue(deserializedObject)
+      .toByteArray();
+  }
+
+  protected String getTypeNameForDeserialized(Object deserializedObject) {
+    // collections are deserialized as one implementation per collection type
+    if (deserializedObject instanceof List) {
+      return ArrayList.class.getName();
+    }
+    else if (deserializedObject instanceof Set) {
+      return LinkedHashSet.class.getName();
+    }
+    else if (deserializedObject instanceof Map) {
+      return LinkedHashMap.class.getName();
+    }
+    else {
+      return deserializedObject.getClass().getName();
+    }
+  }
+
+  public boolean canHandle(TypedValue value) {
+    return isDataFormatRequested(value) && super.canHandle(value);
+  }
+
+  protected boolean isDataFormatRequested(TypedValue value) {
+    String requestedDataFormat = null;
+    if (value instanceof SerializableValue) {
+      requestedDataFormat = ((SerializableValue) value).getSerializationDataFormat();
+    }
+
+    if (requestedDataFormat == null) {
+      ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+      if (processEngineConfiguration != null) {
+        requestedDataFormat = processEngineConfiguration.getDefaultSerializationFormat();
+      }
+    }
+
+    return DATA_FORMAT.equals(requestedDataFormat);
+  }
+
+  protected boolean canSerializeValue(Object value) {
+    return codecs.canWrite(value);
+  }
+
+  public CompactBinaryCodecs getCodecs() {
+    return codecs;
+  }
+
+}
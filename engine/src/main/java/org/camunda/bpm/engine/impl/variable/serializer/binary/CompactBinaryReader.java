@@ -0,0 +1,251 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer.binary;
+
+import static org.camunda.bpm.engine.impl.variable.serializer.binary.CompactBinaryFormat.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+
+/**
+ * <p>Reads values in the {@link CompactBinaryFormat compact binary data format} directly
+ * from a byte array.</p>
+ *
+ * <p>Strings are decoded from the array without intermediate copies and
+ * {@link #readByteBuffer()} returns a read-only view of the array.</p>
+ */
+public class CompactBinaryReader {
+
+  protected static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  protected CompactBinaryCodecs codecs;
+  protected List<CompactBinaryCodec<?>> readCodecs = new ArrayList<CompactBinaryCodec<?>>();
+
+  protected final byte[] bytes;
+  protected int position;
+
+  public CompactBinaryReader(CompactBinaryCodecs codecs, byte[] bytes) {
+    this.codecs = codecs;
+    this.bytes = bytes;
+
+    int version = readByte();
+    if (version != FORMAT_VERSION) {
+      throw new ProcessEngineException("Unsupported version " + version + " of the compact binary data format");
+    }
+  }
+
+  public Object readValue() {
+    byte tag = readByte();
+    switch (tag) {
+    case NULL:
+      return null;
+    case STRING:
+      return readString();
+    case INTEGER:
+      return (int) readVarLong();
+    case LONG:
+      return readVarLong();
+    case SHORT:
+      return (short) readVarLong();
+    case BYTE:
+      return readByte();
+    case TRUE:
+      return Boolean.TRUE;
+    case FALSE:
+      return Boolean.FALSE;
+    case DOUBLE:
+      return readDouble();
+    case FLOAT:
+      return readFloat();
+    case CHARACTER:
+      return (char) readVarLong();
+    case DATE:
+      return new Date(readVarLong());
+    case BYTES:
+      return readBytes();
+    case BIG_DECIMAL:
+      return new BigDecimal(readString());
+    case BIG_INTEGER:
+      return new BigInteger(readBytes());
+    case LIST:
+      return readList();
+    case SET:
+      return readSet();
+    case MAP:
+      return readMap();
+    case CODEC_DEFINITION:
+      String typeTag = readString();
+      CompactBinaryCodec<?> codec = codecs.getCodecByTag(typeTag);
+      if (codec == null) {
+        throw new ProcessEngineException("No compact binary codec registered for type tag '" + typeTag + "'");
+      }
+      readCodecs.add(codec);
+      return codec.read(this);
+    case CODEC_REFERENCE:
+      int index = (int) readVarLong();
+      if (index < 0 || index >= readCodecs.size()) {
+        throw new ProcessEngineException("Invalid compact binary type tag reference " + index);
+      }
+      return readCodecs.get(index).read(this);
+    default:
+      throw new ProcessEngineException("Invalid compact binary value tag " + tag + " at position " + (position - 1));
+    }
+  }
+
+  protected List<Object> readList() {
+    int size = readLength();
+    List<Object> list = new ArrayList<Object>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(readValue());
+    }
+    return list;
+  }
+
+  protected Set<Object> readSet() {
+    int size = readLength();
+    Set<Object> set = new LinkedHashSet<Object>();
+    for (int i = 0; i < size; i++) {
+      set.add(readValue());
+    }
+    return set;
+  }
+
+  protected Map<Object, Object> readMap() {
+    int size = readLength();
+    Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+    for (int i = 0; i < size; i++) {
+      Object key = readValue();
+      map.put(key, readValue());
+    }
+    return map;
+  }
+
+  // primitives ///////////////////////////////////////////////////////////
+
+  public byte readByte() {
+    ensureAvailable(1);
+    return bytes[position++];
+  }
+
+  public boolean readBoolean() {
+    return readByte() != 0;
+  }
+
+  public long readVarLong() {
+    long zigZag = 0;
+    int shift = 0;
+    byte b;
+    do {
+      if (shift > 63) {
+        throw new ProcessEngineException("Malformed variable-length integer at position " + position);
+      }
+      b = readByte();
+      zigZag |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+
+    return (zigZag >>> 1) ^ -(zigZag & 1);
+  }
+
+  public double readDouble() {
+    return Double.longBitsToDouble(readFixedLong());
+  }
+
+  public float readFloat() {
+    ensureAvailable(4);
+    int bits = 0;
+    for (int i = 0; i < 4; i++) {
+      bits = (bits << 8) | (bytes[position++] & 0xFF);
+    }
+    return Float.intBitsToFloat(bits);
+  }
+
+  protected long readFixedLong() {
+    ensureAvailable(8);
+    long value = 0;
+    for (int i = 0; i < 8; i++) {
+      value = (value << 8) | (bytes[position++] & 0xFF);
+    }
+    return value;
+  }
+
+  public String readString() {
+    int length = (int) readVarLong();
+    if (length < 0) {
+      return null;
+    }
+    ensureAvailable(length);
+    String value = new String(bytes, position, length, UTF_8);
+    position += length;
+    return value;
+  }
+
+  public byte[] readBytes() {
+    int length = (int) readVarLong();
+    if (length < 0) {
+      return null;
+    }
+    ensureAvailable(length);
+    byte[] value = new byte[length];
+    System.arraycopy(bytes, position, value, 0, length);
+    position += length;
+    return value;
+  }
+
+  /**
+   * Reads bytes written by {@link CompactBinaryWriter#writeBytes(byte[])} without copying them.
+   *
+   * @return a read-only view of the bytes or null
+   */
+  public ByteBuffer readByteBuffer() {
+    int length = (int) readVarLong();
+    if (length < 0) {
+      return null;
+    }
+    ensureAvailable(length);
+    ByteBuffer value = ByteBuffer.wrap(bytes, position, length).slice().asReadOnlyBuffer();
+    position += length;
+    return value;
+  }
+
+  protected int readLength() {
+    long length = readVarLong();
+    if (length < 0 || length > bytes.length - position) {
+      // every element takes at least one byte
+      throw new ProcessEngineException("Invalid compact binary length " + length + " at position " + position);
+    }
+    return (int) length;
+  }
+
+  protected void ensureAvailable(int length) {
+    if (length > bytes.length - position) {
+      throw new ProcessEngineException("Unexpected end of compact binary data at position " + position);
+    }
+  }
+
+  public boolean isAtEnd() {
+    return position == bytes.length;
+  }
+
+}
@@ -0,0 +1,235 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer.binary;
+
+import static org.camunda.bpm.engine.impl.variable.serializer.binary.CompactBinaryFormat.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+
+/**
+ * Writes values in the {@link CompactBinaryFormat compact binary data format} into a growing byte array.
+ */
+public class CompactBinaryWriter {
+
+  protected static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  protected CompactBinaryCodecs codecs;
+  protected Map<String, Integer> writtenTypeTags = new HashMap<String, Integer>();
+
+  protected byte[] buffer;
+  protected int position;
+
+  public CompactBinaryWriter(CompactBinaryCodecs codecs) {
+    this(codecs, 256);
+  }
+
+  public CompactBinaryWriter(CompactBinaryCodecs codecs, int initialCapacity) {
+    this.codecs = codecs;
+    this.buffer = new byte[initialCapacity];
+    writeByte(FORMAT_VERSION);
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public CompactBinaryWriter writeValue(Object value) {
+    if (value == null) {
+      writeByte(NULL);
+    }
+    else if (value instanceof String) {
+      writeByte(STRING);
+      writeString((String) value);
+    }
+    else if (value instanceof Integer) {
+      writeByte(INTEGER);
+      writeVarLong((Integer) value);
+    }
+    else if (value instanceof Long) {
+      writeByte(LONG);
+      writeVarLong((Long) value);
+    }
+    else if (value instanceof Short) {
+      writeByte(SHORT);
+      writeVarLong((Short) value);
+    }
+    else if (value instanceof Byte) {
+      writeByte(BYTE);
+      writeByte((Byte) value);
+    }
+    else if (value instanceof Boolean) {
+      writeByte((Boolean) value ? TRUE : FALSE);
+    }
+    else if (value instanceof Double) {
+      writeByte(DOUBLE);
+      writeDouble((Double) value);
+    }
+    else if (value instanceof Float) {
+      writeByte(FLOAT);
+      writeFloat((Float) value);
+    }
+    else if (value instanceof Character) {
+      writeByte(CHARACTER);
+      writeVarLong((Character) value);
+    }
+    else if (value instanceof Date && value.getClass() == Date.class) {
+      writeByte(DATE);
+      writeVarLong(((Date) value).getTime());
+    }
+    else if (value instanceof byte[]) {
+      writeByte(BYTES);
+      writeBytes((byte[]) value);
+    }
+    else if (value instanceof BigDecimal) {
+      writeByte(BIG_DECIMAL);
+      writeString(value.toString());
+    }
+    else if (value instanceof BigInteger) {
+      writeByte(BIG_INTEGER);
+      writeBytes(((BigInteger) value).toByteArray());
+    }
+    else if (value instanceof List || value instanceof Set) {
+      writeByte(value instanceof List ? LIST : SET);
+      Collection<?> collection = (Collection<?>) value;
+      writeVarLong(collection.size());
+      for (Object element : collection) {
+        writeValue(element);
+      }
+    }
+    else if (value instanceof Map) {
+      writeByte(MAP);
+      Map<?, ?> map = (Map<?, ?>) value;
+      writeVarLong(map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        writeValue(entry.getKey());
+        writeValue(entry.getValue());
+      }
+    }
+    else {
+      CompactBinaryCodec codec = codecs.getCodecByType(value.getClass());
+      if (codec == null) {
+        throw new ProcessEngineException("No compact binary codec registered for type '" + value.getClass().getName() + "'");
+      }
+      writeTypeTag(codec.getTypeTag());
+      codec.write(value, this);
+    }
+    return this;
+  }
+
+  protected void writeTypeTag(String typeTag) {
+    Integer index = writtenTypeTags.get(typeTag);
+    if (index == null) {
+      writeByte(CODEC_DEFINITION);
+      writeString(typeTag);
+      writtenTypeTags.put(typeTag, writtenTypeTags.size());
+    }
+    else {
+      writeByte(CODEC_REFERENCE);
+      writeVarLong(index);
+    }
+  }
+
+  // primitives ///////////////////////////////////////////////////////////
+
+  public CompactBinaryWriter writeByte(int value) {
+    ensureCapacity(1);
+    buffer[position++] = (byte) value;
+    return this;
+  }
+
+  public CompactBinaryWriter writeBoolean(boolean value) {
+    return writeByte(value ? 1 : 0);
+  }
+
+  /**
+   * Writes a zig-zag encoded variable-length integer, so that numbers with a small
+   * absolute value take few bytes.
+   */
+  public CompactBinaryWriter writeVarLong(long value) {
+    long zigZag = (value << 1) ^ (value >> 63);
+    ensureCapacity(10);
+    while ((zigZag & ~0x7FL) != 0) {
+      buffer[position++] = (byte) ((zigZag & 0x7F) | 0x80);
+      zigZag >>>= 7;
+    }
+    buffer[position++] = (byte) zigZag;
+    return this;
+  }
+
+  public CompactBinaryWriter writeDouble(double value) {
+    return writeFixedLong(Double.doubleToLongBits(value));
+  }
+
+  public CompactBinaryWriter writeFloat(float value) {
+    int bits = Float.floatToIntBits(value);
+    ensureCapacity(4);
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      buffer[position++] = (byte) (bits >>> shift);
+    }
+    return this;
+  }
+
+  protected CompactBinaryWriter writeFixedLong(long value) {
+    ensureCapacity(8);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      buffer[position++] = (byte) (value >>> shift);
+    }
+    return this;
+  }
+
+  /**
+   * Writes the given string or null.
+   */
+  public CompactBinaryWriter writeString(String value) {
+    if (value == null) {
+      return writeVarLong(-1);
+    }
+    return writeBytes(value.getBytes(UTF_8));
+  }
+
+  /**
+   * Writes the given bytes or null.
+   */
+  public CompactBinaryWriter writeBytes(byte[] value) {
+    if (value == null) {
+      return writeVarLong(-1);
+    }
+    writeVarLong(value.length);
+    ensureCapacity(value.length);
+    System.arraycopy(value, 0, buffer, position, value.length);
+    position += value.length;
+    return this;
+  }
+
+  protected void ensureCapacity(int additionalBytes) {
+    if (position + additionalBytes > buffer.length) {
+      byte[] newBuffer = new byte[Math.max(buffer.length * 2, position + additionalBytes)];
+      System.arraycopy(buffer, 0, newBuffer, 0, position);
+      buffer = newBuffer;
+    }
+  }
+
+  public byte[] toByteArray() {
+    byte[] result = new byte[position];
+    System.arraycopy(buffer, 0, result, 0, position);
+    return result;
+  }
+
+}
@@ -55,4 +55,28 @@ public class Metrics {
    */
   public final static String EXECUTED_DECISION_ELEMENTS = "executed-decision-elements";
 
+  /**
+   * Number of queries executed to prefetch the entities referenced by
+   * the executions of a process instance.
+   */
+  public final static String EXECUTION_TREE_PREFETCH_QUERIES = "execution-tree-prefetch-queries";
+
+  /**
+   * Number of per-execution lazy loads of referenced entities which are not necessary
+   * since the entities were prefetched for the whole process instance.
+   */
+  public final static String EXECUTION_TREE_LAZY_LOADS_AVOIDED = "execution-tree-lazy-loads-avoided";
+
+  /**
+   * Number of object variables which were read from the deserialized value cache
+   * instead of being deserialized.
+   */
+  public final static String DESERIALIZED_VALUE_CACHE_HITS = "deserialized-value-cache-hits";
+
+  /**
+   * Number of object variables which were deserialized since they were not contained
+   * in the deserialized value cache.
+   */
+  public final static String DESERIALIZED_VALUE_CACHE_MISSES = "deserialized-value-cache-misses";
+
 }
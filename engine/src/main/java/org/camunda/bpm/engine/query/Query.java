@@ -36,6 +36,13 @@ public interface Query<T extends Query< ? , ? >, U extends Object> {
    */
   T desc();
 
+  /**
+   * Allows the query to be executed on the read-only data source of the process
+   * engine, if one is configured. The results may then lag behind the latest
+   * committed changes. Has no effect if the query is executed within a command.
+   */
+  T readOnly();
+
   /** Executes the query and returns the number of results */
   long count();
 
@@ -17,6 +17,9 @@ values ('next.dbid', '1', 1);
 insert into ACT_GE_PROPERTY
 values ('deployment.lock', '0', 1);
 
+insert into ACT_GE_PROPERTY
+values ('history.outbox.seq', '0', 1);
+
 create table ACT_GE_BYTEARRAY (
     ID_ nvarchar(64),
     REV_ int,
@@ -24,6 +27,7 @@ create table ACT_GE_BYTEARRAY (
     DEPLOYMENT_ID_ nvarchar(64),
     BYTES_ image,
     GENERATED_ tinyint,
+    COMPRESSED_ tinyint,
     TENANT_ID_ nvarchar(64),
     primary key (ID_)
 );
@@ -280,6 +284,19 @@ create table ACT_RU_BATCH (
   primary key (ID_)
 );
 
+create table ACT_RU_HIST_OUTBOX (
+  ID_ nvarchar(64) not null,
+  REV_ int not null,
+  CREATE_TIME_ datetime2 not null,
+  SEQ_ bigint,
+  EVENT_COUNT_ int,
+  BYTES_ image,
+  ATTEMPTS_ int,
+  QUARANTINED_ tinyint,
+  EXCEPTION_MSG_ nvarchar(4000),
+  primary key (ID_)
+);
+
 create index ACT_IDX_EXEC_BUSKEY on ACT_RU_EXECUTION(BUSINESS_KEY_);
 create index ACT_IDX_EXEC_TENANT_ID on ACT_RU_EXECUTION(TENANT_ID_);
 create index ACT_IDX_TASK_CREATE on ACT_RU_TASK(CREATE_TIME_);
@@ -250,6 +250,28 @@ create table ACT_HI_BATCH (
     primary key (ID_)
 );
 
+create table ACT_HI_DURATION_AGG (
+    ID_ nvarchar(64) not null,
+    REV_ int,
+    PROC_DEF_ID_ nvarchar(64) not null,
+    PROC_DEF_KEY_ nvarchar(255),
+    TENANT_ID_ nvarchar(64),
+    YEAR_ int not null,
+    MONTH_ int not null,
+    COUNT_ numeric(19,0),
+    SUM_ numeric(19,0),
+    MIN_ numeric(19,0),
+    MAX_ numeric(19,0),
+    SKETCH_ image,
+    primary key (ID_)
+);
+
+create table ACT_HI_DURATION_QUEUE (
+    ID_ nvarchar(64) not null,
+    REV_ int,
+    primary key (ID_)
+);
+
 create index ACT_IDX_HI_PRO_INST_END on ACT_HI_PROCINST(END_TIME_);
 create index ACT_IDX_HI_PRO_I_BUSKEY on ACT_HI_PROCINST(BUSINESS_KEY_);
 create index ACT_IDX_HI_PRO_INST_TENANT_ID on ACT_HI_PROCINST(TENANT_ID_);
@@ -288,3 +310,5 @@ create index ACT_IDX_HI_JOB_LOG_JOB_DEF_ID on ACT_HI_JOB_LOG(JOB_DEF_ID_);
 
 create index ACT_IDX_HI_OP_LOG_PROCINST on ACT_HI_OP_LOG(PROC_INST_ID_);
 create index ACT_IDX_HI_OP_LOG_PROCDEF on ACT_HI_OP_LOG(PROC_DEF_ID_);
+
+create index ACT_IDX_HI_DUR_AGG_PROCDEF on ACT_HI_DURATION_AGG(PROC_DEF_ID_, YEAR_, MONTH_);
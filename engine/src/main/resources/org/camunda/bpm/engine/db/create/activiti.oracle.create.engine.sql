@@ -17,6 +17,9 @@ values ('next.dbid', '1', 1);
 insert into ACT_GE_PROPERTY
 values ('deployment.lock', '0', 1);
 
+insert into ACT_GE_PROPERTY
+values ('history.outbox.seq', '0', 1);
+
 create table ACT_GE_BYTEARRAY (
     ID_ NVARCHAR2(64),
     REV_ INTEGER,
@@ -24,6 +27,7 @@ create table ACT_GE_BYTEARRAY (
     DEPLOYMENT_ID_ NVARCHAR2(64),
     BYTES_ BLOB,
     GENERATED_ NUMBER(1,0) CHECK (GENERATED_ IN (1,0)),
+    COMPRESSED_ NUMBER(1,0) CHECK (COMPRESSED_ IN (1,0)),
     TENANT_ID_ NVARCHAR2(64),
     primary key (ID_)
 );
@@ -280,6 +284,19 @@ create table ACT_RU_BATCH (
   primary key (ID_)
 );
 
+create table ACT_RU_HIST_OUTBOX (
+  ID_ NVARCHAR2(64) not null,
+  REV_ INTEGER not null,
+  CREATE_TIME_ TIMESTAMP(6) not null,
+  SEQ_ NUMBER(19,0),
+  EVENT_COUNT_ INTEGER,
+  BYTES_ BLOB,
+  ATTEMPTS_ INTEGER,
+  QUARANTINED_ NUMBER(1,0) CHECK (QUARANTINED_ IN (1,0)),
+  EXCEPTION_MSG_ NVARCHAR2(2000),
+  primary key (ID_)
+);
+
 create index ACT_IDX_EXEC_BUSKEY on ACT_RU_EXECUTION(BUSINESS_KEY_);
 create index ACT_IDX_EXEC_TENANT_ID on ACT_RU_EXECUTION(TENANT_ID_);
 create index ACT_IDX_TASK_CREATE on ACT_RU_TASK(CREATE_TIME_);
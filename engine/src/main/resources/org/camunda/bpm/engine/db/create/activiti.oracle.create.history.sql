@@ -251,6 +251,28 @@ create table ACT_HI_BATCH (
     primary key (ID_)
 );
 
+create table ACT_HI_DURATION_AGG (
+    ID_ NVARCHAR2(64) not null,
+    REV_ INTEGER,
+    PROC_DEF_ID_ NVARCHAR2(64) not null,
+    PROC_DEF_KEY_ NVARCHAR2(255),
+    TENANT_ID_ NVARCHAR2(64),
+    YEAR_ INTEGER not null,
+    MONTH_ INTEGER not null,
+    COUNT_ NUMBER(19,0),
+    SUM_ NUMBER(19,0),
+    MIN_ NUMBER(19,0),
+    MAX_ NUMBER(19,0),
+    SKETCH_ BLOB,
+    primary key (ID_)
+);
+
+create table ACT_HI_DURATION_QUEUE (
+    ID_ NVARCHAR2(64) not null,
+    REV_ INTEGER,
+    primary key (ID_)
+);
+
 create index ACT_IDX_HI_PRO_INST_END on ACT_HI_PROCINST(END_TIME_);
 create index ACT_IDX_HI_PRO_I_BUSKEY on ACT_HI_PROCINST(BUSINESS_KEY_);
 create index ACT_IDX_HI_PRO_INST_TENANT_ID on ACT_HI_PROCINST(TENANT_ID_);
@@ -289,3 +311,5 @@ create index ACT_IDX_HI_JOB_LOG_JOB_DEF_ID on ACT_HI_JOB_LOG(JOB_DEF_ID_);
 
 create index ACT_IDX_HI_OP_LOG_PROCINST on ACT_HI_OP_LOG(PROC_INST_ID_);
 create index ACT_IDX_HI_OP_LOG_PROCDEF on ACT_HI_OP_LOG(PROC_DEF_ID_);
+
+create index ACT_IDX_HI_DUR_AGG_PROCDEF on ACT_HI_DURATION_AGG(PROC_DEF_ID_, YEAR_, MONTH_);
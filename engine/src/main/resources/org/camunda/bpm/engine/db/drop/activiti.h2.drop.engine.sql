@@ -154,4 +154,5 @@ drop table ACT_RU_FILTER if exists;
 drop table ACT_RU_METER_LOG if exists;
 drop table ACT_RU_EXT_TASK if exists;
 drop table ACT_RU_BATCH if exists;
+drop table ACT_RU_HIST_OUTBOX if exists;
 
@@ -36,6 +36,7 @@ drop index ACT_IDX_HI_JOB_LOG_JOB_DEF_ID;
 
 drop index ACT_IDX_HI_OP_LOG_PROCINST;
 drop index ACT_IDX_HI_OP_LOG_PROCDEF;
+drop index ACT_IDX_HI_DUR_AGG_PROCDEF;
 
 drop table ACT_HI_PROCINST if exists;
 drop table ACT_HI_ACTINST if exists;
@@ -48,4 +49,6 @@ drop table ACT_HI_OP_LOG if exists;
 drop table ACT_HI_INCIDENT if exists;
 drop table ACT_HI_JOB_LOG if exists;
 drop table ACT_HI_BATCH if exists;
+drop table ACT_HI_DURATION_AGG if exists;
+drop table ACT_HI_DURATION_QUEUE if exists;
 drop table ACT_HI_IDENTITYLINK if exists;
@@ -36,6 +36,7 @@ drop index ACT_IDX_HI_JOB_LOG_JOB_DEF_ID on ACT_HI_JOB_LOG;
 
 drop index ACT_IDX_HI_OP_LOG_PROCINST on ACT_HI_OP_LOG;
 drop index ACT_IDX_HI_OP_LOG_PROCDEF on ACT_HI_OP_LOG;
+drop index ACT_IDX_HI_DUR_AGG_PROCDEF on ACT_HI_DURATION_AGG;
 
 drop table if exists ACT_HI_PROCINST;
 drop table if exists ACT_HI_ACTINST;
@@ -48,4 +49,6 @@ drop table if exists ACT_HI_OP_LOG;
 drop table if exists ACT_HI_INCIDENT;
 drop table if exists ACT_HI_JOB_LOG;
 drop table if exists ACT_HI_BATCH;
+drop table if exists ACT_HI_DURATION_AGG;
+drop table if exists ACT_HI_DURATION_QUEUE;
 drop table if exists ACT_HI_IDENTITYLINK;
\ No newline at end of file
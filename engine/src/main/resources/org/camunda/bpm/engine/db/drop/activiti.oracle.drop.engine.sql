@@ -166,3 +166,4 @@ drop table  ACT_RU_FILTER;
 drop table  ACT_RU_METER_LOG;
 drop table  ACT_RU_EXT_TASK;
 drop table  ACT_RU_BATCH;
+drop table  ACT_RU_HIST_OUTBOX;
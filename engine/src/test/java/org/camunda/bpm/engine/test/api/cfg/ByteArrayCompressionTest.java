@@ -0,0 +1,242 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.impl.util.CompressionUtil;
+import org.camunda.bpm.engine.task.Task;
+
+public class ByteArrayCompressionTest extends PluggableProcessEngineTestCase {
+
+  protected Task task;
+
+  protected void setUp() throws Exception {
+    processEngineConfiguration.setByteArrayCompressionEnabled(true);
+
+    task = taskService.newTask();
+    taskService.saveTask(task);
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setByteArrayCompressionEnabled(false);
+    processEngineConfiguration.setByteArrayCompressionThreshold(1024);
+    processEngineConfiguration.setByteArrayDecompressionMaxSize(CompressionUtil.DEFAULT_MAX_DECOMPRESSED_SIZE);
+
+    taskService.deleteTask(task.getId(), true);
+  }
+
+  public void testLargeByteArrayIsCompressed() {
+    // given
+    byte[] content = createContent(10000);
+
+    // when
+    taskService.setVariable(task.getId(), "content", content);
+
+    // then
+    byte[] persistentBytes = selectPersistentBytes("content");
+    assertTrue(selectCompressed("content"));
+    assertTrue(CompressionUtil.isCompressed(persistentBytes));
+    assertTrue(persistentBytes.length < content.length);
+    assertTrue(Arrays.equals(content, (byte[]) taskService.getVariable(task.getId(), "content")));
+  }
+
+  public void testSmallByteArrayIsNotCompressed() {
+    // given
+    byte[] content = createContent(100);
+
+    // when
+    taskService.setVariable(task.getId(), "content", content);
+
+    // then
+    assertFalse(selectCompressed("content"));
+    assertTrue(Arrays.equals(content, selectPersistentBytes("content")));
+  }
+
+  public void testUncompressedByteArrayIsReadWhenCompressionIsEnabled() {
+    // given
+    byte[] content = createContent(10000);
+    processEngineConfiguration.setByteArrayCompressionEnabled(false);
+    taskService.setVariable(task.getId(), "content", content);
+    assertFalse(selectCompressed("content"));
+
+    // when
+    processEngineConfiguration.setByteArrayCompressionEnabled(true);
+
+    // then
+    assertTrue(Arrays.equals(content, (byte[]) taskService.getVariable(task.getId(), "content")));
+  }
+
+  public void testCompressedByteArrayIsReadWhenCompressionIsDisabled() {
+    // given
+    byte[] content = createContent(10000);
+    taskService.setVariable(task.getId(), "content", content);
+
+    // when
+    processEngineConfiguration.setByteArrayCompressionEnabled(false);
+
+    // then
+    assertTrue(Arrays.equals(content, (byte[]) taskService.getVariable(task.getId(), "content")));
+  }
+
+  public void testUncompressedContentStartingWithTheHeaderIsReturnedUnchanged() {
+    // given content which looks like compressed content
+    byte[] content = CompressionUtil.compress(createContent(10000));
+    processEngineConfiguration.setByteArrayCompressionEnabled(false);
+
+    // when
+    taskService.setVariable(task.getId(), "content", content);
+
+    // then it is not inflated, since the row is not flagged as compressed
+    assertFalse(selectCompressed("content"));
+    assertTrue(Arrays.equals(content, (byte[]) taskService.getVariable(task.getId(), "content")));
+  }
+
+  public void testCorruptCompressedContentIsRejected() {
+    // given
+    taskService.setVariable(task.getId(), "content", createContent(10000));
+    assertTrue(selectCompressed("content"));
+
+    // when the compressed content is corrupted
+    byte[] corrupted = selectPersistentBytes("content");
+    Arrays.fill(corrupted, CompressionUtil.PREFIX_LENGTH, corrupted.length, (byte) 0xFF);
+    updatePersistentBytes("content", corrupted);
+
+    // then
+    try {
+      taskService.getVariable(task.getId(), "content");
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // expected
+    }
+  }
+
+  public void testContentLargerThanTheMaximumIsRejected() {
+    // given
+    taskService.setVariable(task.getId(), "content", createContent(10000));
+
+    // when
+    processEngineConfiguration.setByteArrayDecompressionMaxSize(5000);
+
+    // then
+    try {
+      taskService.getVariable(task.getId(), "content");
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // expected
+    }
+  }
+
+  public void testUpdatedByteArrayIsCompressed() {
+    // given
+    processEngineConfiguration.setByteArrayCompressionEnabled(false);
+    taskService.setVariable(task.getId(), "content", createContent(10000));
+
+    // when
+    processEngineConfiguration.setByteArrayCompressionEnabled(true);
+    byte[] content = createContent(20000);
+    taskService.setVariable(task.getId(), "content", content);
+
+    // then
+    assertTrue(selectCompressed("content"));
+    assertTrue(Arrays.equals(content, (byte[]) taskService.getVariable(task.getId(), "content")));
+  }
+
+  protected byte[] selectPersistentBytes(String variableName) {
+    return (byte[]) selectByteArrayColumn(variableName, "BYTES_");
+  }
+
+  protected boolean selectCompressed(String variableName) {
+    Object compressed = selectByteArrayColumn(variableName, "COMPRESSED_");
+    // the flag is a boolean or a number, depending on the database
+    return compressed != null && (Boolean.TRUE.equals(compressed)
+        || (compressed instanceof Number && ((Number) compressed).intValue() == 1));
+  }
+
+  protected Object selectByteArrayColumn(String variableName, final String column) {
+    final String byteArrayId = getByteArrayId(variableName);
+
+    return processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Object>() {
+      public Object execute(CommandContext commandContext) {
+        String prefix = processEngineConfiguration.getDatabaseTablePrefix();
+        try {
+          PreparedStatement statement = commandContext.getDbSqlSession().getSqlSession().getConnection()
+              .prepareStatement("select " + column + " from " + prefix + "ACT_GE_BYTEARRAY where ID_ = ?");
+          try {
+            statement.setString(1, byteArrayId);
+            ResultSet resultSet = statement.executeQuery();
+            assertTrue(resultSet.next());
+            return "BYTES_".equals(column) ? resultSet.getBytes(1) : resultSet.getObject(1);
+          }
+          finally {
+            statement.close();
+          }
+        }
+        catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+    });
+  }
+
+  protected void updatePersistentBytes(String variableName, final byte[] persistentBytes) {
+    final String byteArrayId = getByteArrayId(variableName);
+
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        String prefix = processEngineConfiguration.getDatabaseTablePrefix();
+        try {
+          PreparedStatement statement = commandContext.getDbSqlSession().getSqlSession().getConnection()
+              .prepareStatement("update " + prefix + "ACT_GE_BYTEARRAY set BYTES_ = ? where ID_ = ?");
+          try {
+            statement.setBytes(1, persistentBytes);
+            statement.setString(2, byteArrayId);
+            assertEquals(1, statement.executeUpdate());
+            return null;
+          }
+          finally {
+            statement.close();
+          }
+        }
+        catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+    });
+  }
+
+  protected String getByteArrayId(String variableName) {
+    return ((VariableInstanceEntity) runtimeService.createVariableInstanceQuery()
+        .variableName(variableName)
+        .singleResult())
+        .getByteArrayValueId();
+  }
+
+  protected byte[] createContent(int length) {
+    byte[] content = new byte[length];
+    for (int i = 0; i < length; i++) {
+      content[i] = (byte) ('a' + i % 7);
+    }
+    return content;
+  }
+
+}
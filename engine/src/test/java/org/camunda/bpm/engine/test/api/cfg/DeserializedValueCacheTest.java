@@ -0,0 +1,211 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.metrics.Meter;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.util.DeserializedValueCache;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.management.Metrics;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.test.api.variables.JavaSerializable;
+
+public class DeserializedValueCacheTest extends PluggableProcessEngineTestCase {
+
+  protected static final String ONE_TASK_PROCESS = "org/camunda/bpm/engine/test/api/variables/oneTaskProcess.bpmn20.xml";
+
+  protected DeserializedValueCache deserializedValueCache;
+  protected String processInstanceId;
+
+  protected void setUp() throws Exception {
+    deserializedValueCache = new DeserializedValueCache();
+    processEngineConfiguration.setDeserializedValueCache(deserializedValueCache);
+    clearMetrics();
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setDeserializedValueCache(null);
+    clearMetrics();
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testValueIsReadFromCache() {
+    // given
+    startProcessInstance();
+    Map<String, Object> value = createValue();
+    runtimeService.setVariable(processInstanceId, "var", value);
+
+    Object first = runtimeService.getVariable(processInstanceId, "var");
+    assertEquals(0, deserializedValueCache.getHitCount());
+    assertEquals(1, deserializedValueCache.getSize());
+
+    // when
+    Object second = runtimeService.getVariable(processInstanceId, "var");
+
+    // then every command gets its own copy
+    assertEquals(1, deserializedValueCache.getHitCount());
+    assertEquals(0.5, deserializedValueCache.getHitRate(), 0.0001);
+    assertEquals(value, second);
+    assertNotSame(first, second);
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testCachedValueIsNotModifiedByCommands() {
+    // given
+    startProcessInstance();
+    runtimeService.setVariable(processInstanceId, "var", createValue());
+    runtimeService.getVariable(processInstanceId, "var");
+
+    // when a command modifies the value and fails
+    try {
+      processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+        @SuppressWarnings("unchecked")
+        public Void execute(CommandContext commandContext) {
+          ExecutionEntity execution = commandContext.getExecutionManager().findExecutionById(processInstanceId);
+          Map<String, Object> value = (Map<String, Object>) execution.getVariable("var");
+          value.put("foo", "changed");
+          ((List<Object>) value.get("list")).add("changed");
+
+          throw new IllegalStateException("rollback");
+        }
+      });
+      fail("exception expected");
+    }
+    catch (IllegalStateException e) {
+      // expected
+    }
+
+    // then
+    assertEquals(createValue(), runtimeService.getVariable(processInstanceId, "var"));
+    assertEquals(2, deserializedValueCache.getHitCount());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testChangedValueIsNotReadFromCache() {
+    // given
+    startProcessInstance();
+    runtimeService.setVariable(processInstanceId, "var", createValue());
+    runtimeService.getVariable(processInstanceId, "var");
+
+    // when
+    Map<String, Object> changedValue = createValue();
+    changedValue.put("foo", "baz");
+    runtimeService.setVariable(processInstanceId, "var", changedValue);
+
+    // then
+    assertEquals(changedValue, runtimeService.getVariable(processInstanceId, "var"));
+    assertEquals(changedValue, runtimeService.getVariable(processInstanceId, "var"));
+    assertEquals(1, deserializedValueCache.getHitCount());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testValueWhichCannotBeCopiedIsNotCached() {
+    // given
+    startProcessInstance();
+    runtimeService.setVariable(processInstanceId, "var", new JavaSerializable("foo"));
+
+    // when
+    runtimeService.getVariable(processInstanceId, "var");
+
+    // then
+    assertEquals(0, deserializedValueCache.getSize());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testValueOfImmutableTypeIsCached() {
+    // given
+    deserializedValueCache = new DeserializedValueCache(DeserializedValueCache.DEFAULT_MAX_ENTRIES,
+        DeserializedValueCache.DEFAULT_MAX_SIZE, Collections.singletonList(JavaSerializable.class.getName()));
+    processEngineConfiguration.setDeserializedValueCache(deserializedValueCache);
+
+    startProcessInstance();
+    runtimeService.setVariable(processInstanceId, "var", new JavaSerializable("foo"));
+
+    // when
+    runtimeService.getVariable(processInstanceId, "var");
+    Object value = runtimeService.getVariable(processInstanceId, "var");
+
+    // then
+    assertEquals(1, deserializedValueCache.getHitCount());
+    assertEquals(new JavaSerializable("foo"), value);
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testLeastRecentlyUsedValueIsEvicted() {
+    // given
+    deserializedValueCache = new DeserializedValueCache(1, DeserializedValueCache.DEFAULT_MAX_SIZE, null);
+    processEngineConfiguration.setDeserializedValueCache(deserializedValueCache);
+
+    startProcessInstance();
+    runtimeService.setVariable(processInstanceId, "var1", createValue());
+    runtimeService.setVariable(processInstanceId, "var2", createValue());
+
+    // when
+    runtimeService.getVariable(processInstanceId, "var1");
+    runtimeService.getVariable(processInstanceId, "var2");
+
+    // then
+    assertEquals(1, deserializedValueCache.getSize());
+    assertEquals(1, deserializedValueCache.getEvictionCount());
+    assertTrue(deserializedValueCache.getSizeInBytes() > 0);
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testMetrics() {
+    // given
+    startProcessInstance();
+    runtimeService.setVariable(processInstanceId, "var", createValue());
+
+    // when
+    runtimeService.getVariable(processInstanceId, "var");
+    runtimeService.getVariable(processInstanceId, "var");
+    runtimeService.getVariable(processInstanceId, "var");
+    processEngineConfiguration.getDbMetricsReporter().reportNow();
+
+    // then
+    assertEquals(2, managementService.createMetricsQuery().name(Metrics.DESERIALIZED_VALUE_CACHE_HITS).sum());
+    assertEquals(1, managementService.createMetricsQuery().name(Metrics.DESERIALIZED_VALUE_CACHE_MISSES).sum());
+  }
+
+  protected void clearMetrics() {
+    for (Meter meter : processEngineConfiguration.getMetricsRegistry().getMeters().values()) {
+      meter.getAndClear();
+    }
+    managementService.deleteMetrics(null);
+  }
+
+  protected void startProcessInstance() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    processInstanceId = processInstance.getId();
+  }
+
+  protected Map<String, Object> createValue() {
+    Map<String, Object> value = new HashMap<String, Object>();
+    value.put("foo", "bar");
+    value.put("date", new Date(1000));
+    value.put("list", new ArrayList<Object>(Arrays.asList(1, 2L, "three")));
+    return value;
+  }
+
+}
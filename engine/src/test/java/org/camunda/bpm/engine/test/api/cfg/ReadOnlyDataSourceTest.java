@@ -0,0 +1,171 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.PropertyEntity;
+import org.camunda.bpm.engine.test.ProcessEngineRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class ReadOnlyDataSourceTest {
+
+  protected static CountingDataSource readOnlyDataSource;
+
+  protected ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      // the replica is the same in-memory database in this test
+      readOnlyDataSource = new CountingDataSource(configuration.getJdbcDriver(), configuration.getJdbcUrl(),
+          configuration.getJdbcUsername(), configuration.getJdbcPassword());
+      configuration.setReadOnlyDataSource(readOnlyDataSource);
+      return configuration;
+    }
+  };
+  protected ProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(bootstrapRule).around(engineRule).around(testRule);
+
+  protected RuntimeService runtimeService;
+  protected HistoryService historyService;
+
+  @Before
+  public void setUp() {
+    runtimeService = engineRule.getRuntimeService();
+    historyService = engineRule.getHistoryService();
+
+    testRule.deploy(Bpmn.createExecutableProcess("process")
+        .startEvent()
+        .userTask()
+        .endEvent()
+        .done());
+    runtimeService.startProcessInstanceByKey("process");
+  }
+
+  @Test
+  public void testHistoryQueryIsExecutedOnReadOnlyDataSource() {
+    int connections = readOnlyDataSource.getOpenedConnections();
+
+    // when
+    long count = historyService.createHistoricProcessInstanceQuery().count();
+
+    // then
+    assertEquals(1, count);
+    assertEquals(connections + 1, readOnlyDataSource.getOpenedConnections());
+  }
+
+  @Test
+  public void testRuntimeQueryIsExecutedOnPrimaryDataSource() {
+    int connections = readOnlyDataSource.getOpenedConnections();
+
+    // when
+    runtimeService.createProcessInstanceQuery().list();
+    runtimeService.startProcessInstanceByKey("process");
+
+    // then
+    assertEquals(connections, readOnlyDataSource.getOpenedConnections());
+  }
+
+  @Test
+  public void testReadOnlyHint() {
+    int connections = readOnlyDataSource.getOpenedConnections();
+
+    // when
+    long count = runtimeService.createProcessInstanceQuery().readOnly().count();
+
+    // then
+    assertEquals(1, count);
+    assertEquals(connections + 1, readOnlyDataSource.getOpenedConnections());
+  }
+
+  @Test
+  public void testQueryWithinCommandIsExecutedOnPrimaryDataSource() {
+    int connections = readOnlyDataSource.getOpenedConnections();
+
+    // when
+    long count = engineRule.getProcessEngineConfiguration().getCommandExecutorTxRequired().execute(new Command<Long>() {
+      public Long execute(CommandContext commandContext) {
+        return historyService.createHistoricProcessInstanceQuery().count();
+      }
+    });
+
+    // then
+    assertEquals(1, count);
+    assertEquals(connections, readOnlyDataSource.getOpenedConnections());
+  }
+
+  @Test
+  public void testReadOnlyCommandCannotWrite() {
+    final String propertyName = "readOnlyDataSourceTest";
+
+    // when
+    try {
+      engineRule.getProcessEngineConfiguration().getCommandExecutorReadOnly().execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          commandContext.getDbEntityManager().insert(new PropertyEntity(propertyName, "value"));
+          return null;
+        }
+      });
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      assertTrue(e.getMessage().contains("read-only data source"));
+    }
+
+    // then
+    assertNull(engineRule.getManagementService().getProperties().get(propertyName));
+  }
+
+  public static class CountingDataSource extends PooledDataSource {
+
+    protected int openedConnections;
+
+    public CountingDataSource(String driver, String url, String username, String password) {
+      super(driver, url, username, password);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      openedConnections++;
+      return super.getConnection();
+    }
+
+    public int getOpenedConnections() {
+      return openedConnections;
+    }
+  }
+
+}
@@ -0,0 +1,116 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import org.camunda.bpm.engine.impl.cmd.ValidateSharedEntityCacheCmd;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.SharedEntityCache;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.PropertyEntity;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+
+public class SharedEntityCacheTest extends PluggableProcessEngineTestCase {
+
+  protected static final String PROPERTY_NAME = "shared.cache.test";
+
+  protected SharedEntityCache sharedEntityCache;
+
+  protected void setUp() throws Exception {
+    sharedEntityCache = new SharedEntityCache();
+    processEngineConfiguration.setSharedEntityCache(sharedEntityCache);
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setSharedEntityCache(null);
+    managementService.deleteProperty(PROPERTY_NAME);
+  }
+
+  public void testEntityIsReadFromCache() {
+    // given
+    PropertyEntity first = findProperty("schema.version");
+    assertEquals(0, sharedEntityCache.getHitCount(PropertyEntity.class));
+    assertEquals(1, sharedEntityCache.getSize(PropertyEntity.class));
+
+    // when
+    PropertyEntity second = findProperty("schema.version");
+
+    // then every command works on its own copy
+    assertEquals(1, sharedEntityCache.getHitCount(PropertyEntity.class));
+    assertNotSame(first, second);
+    assertEquals(first.getValue(), second.getValue());
+  }
+
+  public void testNextDbIdIsNotCached() {
+    // when
+    findProperty("next.dbid");
+
+    // then
+    assertEquals(0, sharedEntityCache.getSize(PropertyEntity.class));
+  }
+
+  public void testChangedEntityIsInvalidated() {
+    // given
+    managementService.setProperty(PROPERTY_NAME, "foo");
+    assertEquals("foo", findProperty(PROPERTY_NAME).getValue());
+    assertEquals("foo", findProperty(PROPERTY_NAME).getValue());
+
+    // when
+    managementService.setProperty(PROPERTY_NAME, "bar");
+
+    // then
+    assertEquals("bar", findProperty(PROPERTY_NAME).getValue());
+  }
+
+  public void testDeletedEntityIsInvalidated() {
+    // given
+    managementService.setProperty(PROPERTY_NAME, "foo");
+    assertNotNull(findProperty(PROPERTY_NAME));
+
+    // when
+    managementService.deleteProperty(PROPERTY_NAME);
+
+    // then
+    assertNull(findProperty(PROPERTY_NAME));
+  }
+
+  public void testValidationEvictsStaleEntities() {
+    // given a cached property
+    managementService.setProperty(PROPERTY_NAME, "foo");
+    assertEquals("foo", findProperty(PROPERTY_NAME).getValue());
+
+    // which is changed by another engine of the cluster
+    processEngineConfiguration.setSharedEntityCache(null);
+    try {
+      managementService.setProperty(PROPERTY_NAME, "bar");
+    }
+    finally {
+      processEngineConfiguration.setSharedEntityCache(sharedEntityCache);
+    }
+    assertEquals("foo", findProperty(PROPERTY_NAME).getValue());
+
+    // when
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new ValidateSharedEntityCacheCmd(sharedEntityCache));
+
+    // then
+    assertEquals("bar", findProperty(PROPERTY_NAME).getValue());
+  }
+
+  protected PropertyEntity findProperty(final String name) {
+    return processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<PropertyEntity>() {
+      public PropertyEntity execute(CommandContext commandContext) {
+        return commandContext.getPropertyManager().findPropertyById(name);
+      }
+    });
+  }
+
+}
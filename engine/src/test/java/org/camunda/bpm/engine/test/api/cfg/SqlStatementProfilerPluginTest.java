@@ -0,0 +1,144 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cmd.GetPropertiesCmd;
+import org.camunda.bpm.engine.impl.db.sql.profiler.CommandStatementStatistics;
+import org.camunda.bpm.engine.impl.db.sql.profiler.SqlStatementProfiler;
+import org.camunda.bpm.engine.impl.db.sql.profiler.SqlStatementProfilerPlugin;
+import org.camunda.bpm.engine.impl.db.sql.profiler.SqlStatementStatistics;
+import org.camunda.bpm.engine.test.ProcessEngineRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class SqlStatementProfilerPluginTest {
+
+  protected ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    @Override
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.getProcessEnginePlugins().add(new SqlStatementProfilerPlugin());
+      return configuration;
+    }
+  };
+  protected ProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(bootstrapRule).around(engineRule);
+
+  protected SqlStatementProfiler profiler;
+
+  @Before
+  public void setUp() {
+    profiler = engineRule.getProcessEngineConfiguration().getSqlStatementProfiler();
+    profiler.reset();
+  }
+
+  @Test
+  public void testStatementsAreProfiled() {
+    // when
+    engineRule.getManagementService().getProperties();
+    engineRule.getManagementService().getProperties();
+
+    // then
+    SqlStatementStatistics statistics = findStatementStatistics("selectProperties");
+    assertNotNull(statistics);
+    assertEquals(2, statistics.getExecutionCount());
+    assertTrue(statistics.getRowCount() > 0);
+
+    long histogramCount = 0;
+    for (long count : statistics.getLatencyHistogram()) {
+      histogramCount += count;
+    }
+    assertEquals(2, histogramCount);
+  }
+
+  @Test
+  public void testStatementsPerCommandAreCounted() {
+    // when
+    engineRule.getManagementService().getProperties();
+
+    // then
+    CommandStatementStatistics statistics = findCommandStatistics(GetPropertiesCmd.class.getName());
+    assertNotNull(statistics);
+    assertEquals(1, statistics.getCommandCount());
+    assertEquals(1, statistics.getStatementCount());
+  }
+
+  @Test
+  public void testSampling() {
+    // given
+    profiler.setSampleRate(2);
+
+    // when
+    for (int i = 0; i < 4; i++) {
+      engineRule.getManagementService().getProperties();
+    }
+
+    // then
+    assertEquals(2, findStatementStatistics("selectProperties").getExecutionCount());
+    assertEquals(2, findCommandStatistics(GetPropertiesCmd.class.getName()).getCommandCount());
+  }
+
+  @Test
+  public void testMBeanIsRegistered() throws Exception {
+    ObjectName name = new ObjectName(SqlStatementProfiler.MBEAN_DOMAIN + ":type=SqlStatementProfiler,name="
+        + ObjectName.quote(engineRule.getProcessEngine().getName()));
+
+    assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    assertEquals(1, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "SampleRate"));
+  }
+
+  @Test
+  public void testInterceptorIsRegisteredOnce() {
+    ProcessEngineConfigurationImpl configuration = engineRule.getProcessEngineConfiguration();
+
+    // when the plugin is applied again
+    new SqlStatementProfilerPlugin().postInit(configuration);
+
+    // then
+    assertEquals(1, configuration.getSqlSessionFactory().getConfiguration().getInterceptors().size());
+  }
+
+  protected SqlStatementStatistics findStatementStatistics(String statement) {
+    for (SqlStatementStatistics statistics : profiler.getStatementStatistics()) {
+      if (statistics.getStatementId().endsWith(statement)) {
+        return statistics;
+      }
+    }
+    return null;
+  }
+
+  protected CommandStatementStatistics findCommandStatistics(String commandName) {
+    for (CommandStatementStatistics statistics : profiler.getCommandStatistics()) {
+      if (statistics.getCommandName().equals(commandName)) {
+        return statistics;
+      }
+    }
+    return null;
+  }
+
+}
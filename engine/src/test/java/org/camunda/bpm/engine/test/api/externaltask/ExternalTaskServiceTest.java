@@ -19,6 +19,7 @@ import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.exception.NotFoundException;
 import org.camunda.bpm.engine.exception.NullValueException;
 import org.camunda.bpm.engine.externaltask.ExternalTask;
+import org.camunda.bpm.engine.externaltask.ExternalTaskOperationResult;
 import org.camunda.bpm.engine.externaltask.ExternalTaskQueryBuilder;
 import org.camunda.bpm.engine.externaltask.LockedExternalTask;
 import org.camunda.bpm.engine.history.HistoricIncident;
@@ -36,8 +37,11 @@ import org.camunda.bpm.engine.variable.Variables;
 import org.joda.time.DateTime;
 import org.junit.Assert;
 
+import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.camunda.bpm.engine.test.util.ActivityInstanceAssert.assertThat;
 import static org.camunda.bpm.engine.test.util.ActivityInstanceAssert.describeActivityInstanceTree;
@@ -1723,6 +1727,193 @@ public class ExternalTaskServiceTest extends PluggableProcessEngineTestCase {
     }
   }
 
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testCompleteAll() {
+    // given
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+
+    List<LockedExternalTask> externalTasks = externalTaskService.fetchAndLock(2, WORKER_ID)
+      .topic(TOPIC_NAME, LOCK_TIME)
+      .execute();
+    String notLockedTaskId = externalTaskService.createExternalTaskQuery().notLocked().singleResult().getId();
+
+    // when
+    List<ExternalTaskOperationResult> results = externalTaskService.completeAll(
+        Arrays.asList(externalTasks.get(0).getId(), notLockedTaskId, "unknownId", externalTasks.get(1).getId()), WORKER_ID);
+
+    // then the locked tasks are completed and the others are reported
+    assertEquals(4, results.size());
+    assertTrue(results.get(0).isSuccessful());
+    assertFalse(results.get(1).isSuccessful());
+    assertTextPresent("cannot be completed by worker '" + WORKER_ID, results.get(1).getErrorMessage());
+    assertFalse(results.get(2).isSuccessful());
+    assertTextPresent("Cannot find external task with id unknownId", results.get(2).getErrorMessage());
+    assertTrue(results.get(3).isSuccessful());
+
+    assertEquals(1, externalTaskService.createExternalTaskQuery().count());
+    assertEquals(1, runtimeService.createProcessInstanceQuery().count());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testCompleteAllWithVariables() {
+    // given
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    List<LockedExternalTask> externalTasks = externalTaskService.fetchAndLock(1, WORKER_ID)
+      .topic(TOPIC_NAME, LOCK_TIME)
+      .execute();
+
+    Map<String, Map<String, Object>> variablesByExternalTaskId = new LinkedHashMap<String, Map<String, Object>>();
+    variablesByExternalTaskId.put(externalTasks.get(0).getId(), Variables.createVariables().putValue("var", 42));
+
+    // when
+    List<ExternalTaskOperationResult> results = externalTaskService.completeAll(variablesByExternalTaskId, "anotherWorkerId");
+
+    // then nothing is completed by the wrong worker
+    assertFalse(results.get(0).isSuccessful());
+    assertEquals(1, externalTaskService.createExternalTaskQuery().count());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testCompleteAllDuplicateId() {
+    // given
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    String externalTaskId = externalTaskService.fetchAndLock(1, WORKER_ID)
+      .topic(TOPIC_NAME, LOCK_TIME)
+      .execute()
+      .get(0)
+      .getId();
+
+    // when
+    List<ExternalTaskOperationResult> results = externalTaskService.completeAll(Arrays.asList(externalTaskId, externalTaskId), WORKER_ID);
+
+    // then
+    assertTrue(results.get(0).isSuccessful());
+    assertFalse(results.get(1).isSuccessful());
+    assertEquals(0, externalTaskService.createExternalTaskQuery().count());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testHandleFailures() {
+    // given
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    List<LockedExternalTask> externalTasks = externalTaskService.fetchAndLock(2, WORKER_ID)
+      .topic(TOPIC_NAME, LOCK_TIME)
+      .execute();
+
+    // when
+    List<ExternalTaskOperationResult> results = externalTaskService.handleFailures(
+        Arrays.asList(externalTasks.get(0).getId(), externalTasks.get(1).getId()), WORKER_ID, "error", "details", 3, 3000L);
+
+    // then
+    assertTrue(results.get(0).isSuccessful());
+    assertTrue(results.get(1).isSuccessful());
+
+    List<ExternalTask> tasks = externalTaskService.createExternalTaskQuery().list();
+    assertEquals(2, tasks.size());
+    for (ExternalTask task : tasks) {
+      assertEquals(3, (int) task.getRetries());
+      assertEquals("error", task.getErrorMessage());
+      AssertUtil.assertEqualsSecondPrecision(nowPlus(3000L), task.getLockExpirationTime());
+    }
+  }
+
+  public void testHandleFailuresNegativeRetries() {
+    try {
+      externalTaskService.handleFailures(Arrays.asList("anId"), WORKER_ID, "error", null, -1, 0L);
+      fail("exception expected");
+    } catch (ProcessEngineException e) {
+      assertTextPresent("retries is not greater than or equal to 0", e.getMessage());
+    }
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testExtendLock() {
+    // given
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    String externalTaskId = externalTaskService.fetchAndLock(1, WORKER_ID)
+      .topic(TOPIC_NAME, LOCK_TIME)
+      .execute()
+      .get(0)
+      .getId();
+
+    // when
+    externalTaskService.extendLock(externalTaskId, WORKER_ID, 2 * LOCK_TIME);
+
+    // then
+    ExternalTask task = externalTaskService.createExternalTaskQuery().singleResult();
+    AssertUtil.assertEqualsSecondPrecision(nowPlus(2 * LOCK_TIME), task.getLockExpirationTime());
+    assertEquals(WORKER_ID, task.getWorkerId());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testExtendLockOfOtherWorker() {
+    // given
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    String externalTaskId = externalTaskService.fetchAndLock(1, WORKER_ID)
+      .topic(TOPIC_NAME, LOCK_TIME)
+      .execute()
+      .get(0)
+      .getId();
+
+    // then
+    try {
+      externalTaskService.extendLock(externalTaskId, "anotherWorkerId", LOCK_TIME);
+      fail("exception expected");
+    } catch (BadUserRequestException e) {
+      assertTextPresent("cannot be extended by worker 'anotherWorkerId'", e.getMessage());
+    }
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testExtendExpiredLock() {
+    // given
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    String externalTaskId = externalTaskService.fetchAndLock(1, WORKER_ID)
+      .topic(TOPIC_NAME, LOCK_TIME)
+      .execute()
+      .get(0)
+      .getId();
+
+    // when the lock expires
+    ClockUtil.setCurrentTime(nowPlus(LOCK_TIME + 1000L));
+
+    // then
+    try {
+      externalTaskService.extendLock(externalTaskId, WORKER_ID, LOCK_TIME);
+      fail("exception expected");
+    } catch (BadUserRequestException e) {
+      assertTextPresent("has already expired", e.getMessage());
+    }
+
+    List<ExternalTaskOperationResult> results = externalTaskService.extendLocks(Arrays.asList(externalTaskId), WORKER_ID, LOCK_TIME);
+    assertFalse(results.get(0).isSuccessful());
+    assertTextPresent("has already expired", results.get(0).getErrorMessage());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testExtendLocks() {
+    // given
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    List<LockedExternalTask> externalTasks = externalTaskService.fetchAndLock(2, WORKER_ID)
+      .topic(TOPIC_NAME, LOCK_TIME)
+      .execute();
+
+    // when
+    List<ExternalTaskOperationResult> results = externalTaskService.extendLocks(
+        Arrays.asList(externalTasks.get(0).getId(), externalTasks.get(1).getId()), WORKER_ID, 2 * LOCK_TIME);
+
+    // then
+    assertTrue(results.get(0).isSuccessful());
+    assertTrue(results.get(1).isSuccessful());
+    for (ExternalTask task : externalTaskService.createExternalTaskQuery().list()) {
+      AssertUtil.assertEqualsSecondPrecision(nowPlus(2 * LOCK_TIME), task.getLockExpirationTime());
+    }
+  }
+
   protected Date nowPlus(long millis) {
     return new Date(ClockUtil.getCurrentTime().getTime() + millis);
   }
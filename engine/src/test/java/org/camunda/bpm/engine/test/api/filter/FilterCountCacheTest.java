@@ -0,0 +1,201 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.filter;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.camunda.bpm.engine.authorization.Authorization;
+import org.camunda.bpm.engine.authorization.Permissions;
+import org.camunda.bpm.engine.authorization.Resources;
+import org.camunda.bpm.engine.filter.Filter;
+import org.camunda.bpm.engine.impl.filter.FilterCountCache;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.Deployment;
+
+public class FilterCountCacheTest extends PluggableProcessEngineTestCase {
+
+  protected FilterCountCache filterCountCache;
+  protected Filter filter;
+
+  public void setUp() {
+    filterCountCache = new FilterCountCache(100, 10000);
+    processEngineConfiguration.setFilterCountCache(filterCountCache);
+
+    filter = filterService.newTaskFilter("filter")
+      .setQuery(taskService.createTaskQuery().taskAssignee("kermit"));
+    filterService.saveFilter(filter);
+  }
+
+  public void tearDown() {
+    processEngineConfiguration.setFilterCountCache(null);
+    ClockUtil.reset();
+
+    for (Filter filter : filterService.createTaskFilterQuery().list()) {
+      filterService.deleteFilter(filter.getId());
+    }
+    for (Task task : taskService.createTaskQuery().list()) {
+      taskService.deleteTask(task.getId(), true);
+    }
+  }
+
+  public void testCountIsCached() {
+    createTask("kermit");
+
+    assertEquals(1, (long) filterService.count(filter.getId()));
+    assertEquals(1, (long) filterService.count(filter.getId()));
+
+    assertEquals(1, filterCountCache.getHitCount());
+    assertEquals(1, filterCountCache.getMissCount());
+  }
+
+  public void testCountIsInvalidatedOnTaskInsert() {
+    assertEquals(0, (long) filterService.count(filter.getId()));
+
+    createTask("kermit");
+
+    assertEquals(1, (long) filterService.count(filter.getId()));
+    assertEquals(0, filterCountCache.getHitCount());
+  }
+
+  public void testCountIsInvalidatedOnTaskUpdate() {
+    Task task = createTask("kermit");
+    assertEquals(1, (long) filterService.count(filter.getId()));
+
+    taskService.setAssignee(task.getId(), "gonzo");
+
+    assertEquals(0, (long) filterService.count(filter.getId()));
+    assertEquals(0, filterCountCache.getHitCount());
+  }
+
+  public void testCountIsInvalidatedOnTaskDelete() {
+    Task task = createTask("kermit");
+    assertEquals(1, (long) filterService.count(filter.getId()));
+
+    taskService.deleteTask(task.getId(), true);
+
+    assertEquals(0, (long) filterService.count(filter.getId()));
+    assertEquals(0, filterCountCache.getHitCount());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml")
+  public void testCountIsInvalidatedOnTaskCompletion() {
+    Filter processTaskFilter = filterService.newTaskFilter("process tasks")
+      .setQuery(taskService.createTaskQuery().processDefinitionKey("oneTaskProcess"));
+    filterService.saveFilter(processTaskFilter);
+
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    assertEquals(1, (long) filterService.count(processTaskFilter.getId()));
+
+    Task task = taskService.createTaskQuery().processDefinitionKey("oneTaskProcess").singleResult();
+    taskService.complete(task.getId());
+
+    assertEquals(0, (long) filterService.count(processTaskFilter.getId()));
+  }
+
+  public void testCountIsInvalidatedOnFilterUpdate() {
+    createTask("kermit");
+    assertEquals(1, (long) filterService.count(filter.getId()));
+
+    filter.setQuery(taskService.createTaskQuery().taskAssignee("gonzo"));
+    filterService.saveFilter(filter);
+
+    assertEquals(0, (long) filterService.count(filter.getId()));
+  }
+
+  public void testCountsOfOtherFiltersAreKeptOnFilterUpdate() {
+    Filter otherFilter = filterService.newTaskFilter("other filter")
+      .setQuery(taskService.createTaskQuery().taskAssignee("gonzo"));
+    filterService.saveFilter(otherFilter);
+
+    createTask("kermit");
+    assertEquals(1, (long) filterService.count(filter.getId()));
+    assertEquals(0, (long) filterService.count(otherFilter.getId()));
+
+    filter.setName("renamed filter");
+    filterService.saveFilter(filter);
+
+    assertEquals(1, filterCountCache.getSize());
+    assertEquals(0, (long) filterService.count(otherFilter.getId()));
+    assertEquals(1, filterCountCache.getHitCount());
+  }
+
+  public void testCountIsInvalidatedOnAuthorizationUpdate() {
+    createTask("kermit");
+    assertEquals(1, (long) filterService.count(filter.getId()));
+
+    Authorization authorization = authorizationService.createNewAuthorization(Authorization.AUTH_TYPE_GRANT);
+    authorization.setUserId("kermit");
+    authorization.setResource(Resources.FILTER);
+    authorization.setResourceId(filter.getId());
+    authorization.addPermission(Permissions.READ);
+    authorizationService.saveAuthorization(authorization);
+
+    try {
+      assertEquals(0, filterCountCache.getSize());
+    }
+    finally {
+      authorizationService.deleteAuthorization(authorization.getId());
+    }
+  }
+
+  public void testCountExpires() {
+    Date now = new Date();
+    ClockUtil.setCurrentTime(now);
+
+    createTask("kermit");
+    assertEquals(1, (long) filterService.count(filter.getId()));
+
+    ClockUtil.setCurrentTime(new Date(now.getTime() + 10001));
+
+    assertEquals(1, (long) filterService.count(filter.getId()));
+    assertEquals(0, filterCountCache.getHitCount());
+  }
+
+  public void testCountIsCachedPerAuthentication() {
+    createTask("kermit");
+    assertEquals(1, (long) filterService.count(filter.getId()));
+
+    identityService.setAuthentication("kermit", Arrays.asList("accounting"));
+    try {
+      assertEquals(1, (long) filterService.count(filter.getId()));
+      assertEquals(0, filterCountCache.getHitCount());
+      assertEquals(2, filterCountCache.getSize());
+    }
+    finally {
+      identityService.clearAuthentication();
+    }
+  }
+
+  public void testCountIsCachedPerExtendingQuery() {
+    createTask("kermit");
+
+    assertEquals(1, (long) filterService.count(filter.getId(), taskService.createTaskQuery()));
+    assertEquals(0, (long) filterService.count(filter.getId(), taskService.createTaskQuery().taskName("unknown")));
+    assertEquals(1, (long) filterService.count(filter.getId()));
+    assertEquals(3, filterCountCache.getSize());
+
+    assertEquals(0, (long) filterService.count(filter.getId(), taskService.createTaskQuery().taskName("unknown")));
+    assertEquals(1, filterCountCache.getHitCount());
+  }
+
+  protected Task createTask(String assignee) {
+    Task task = taskService.newTask();
+    task.setAssignee(assignee);
+    taskService.saveTask(task);
+    return task;
+  }
+
+}
@@ -0,0 +1,153 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.mgmt;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSessionFactory;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryPartitionManager;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryPartitionedTable;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.test.Deployment;
+
+public class HistoryPartitioningTest extends PluggableProcessEngineTestCase {
+
+  protected void tearDown() throws Exception {
+    ClockUtil.reset();
+
+    if (isHistoryPartitioningEnabled()) {
+      // drops all monthly partitions created by the tests
+      managementService.deleteHistoryPartitions(HistoryPartitionManager.addMonths(new Date(), 2));
+    }
+
+    super.tearDown();
+  }
+
+  public void testCreatePartitionsFailsOnUnsupportedDatabase() {
+    if (isHistoryPartitioningSupported()) {
+      return;
+    }
+
+    try {
+      managementService.createHistoryPartitions(new Date());
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      assertTextPresent("History partitioning is not supported", e.getMessage());
+    }
+  }
+
+  public void testArchivePartitionsFailsOnUnsupportedDatabase() {
+    if (isHistoryPartitioningSupported()) {
+      return;
+    }
+
+    try {
+      managementService.archiveHistoryPartitions(new Date());
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      assertTextPresent("History partitioning is not supported", e.getMessage());
+    }
+  }
+
+  public void testCreatePartitionsRequiresDate() {
+    try {
+      managementService.createHistoryPartitions(null);
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      assertTextPresent("until is null", e.getMessage());
+    }
+  }
+
+  public void testCreatePartitions() {
+    if (!isHistoryPartitioningEnabled()) {
+      return;
+    }
+
+    Date currentMonth = HistoryPartitionManager.getMonth(new Date());
+    Date nextMonth = HistoryPartitionManager.addMonths(currentMonth, 1);
+
+    List<String> createdPartitions = managementService.createHistoryPartitions(nextMonth);
+
+    assertEquals(2 * HistoryPartitionManager.PARTITIONED_TABLES.size(), createdPartitions.size());
+    for (HistoryPartitionedTable table : HistoryPartitionManager.PARTITIONED_TABLES) {
+      assertEquals(Arrays.asList(currentMonth, nextMonth), findHistoryPartitionMonths(table));
+    }
+
+    // existing partitions are not created again
+    assertTrue(managementService.createHistoryPartitions(nextMonth).isEmpty());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml")
+  public void testCreatePartitionOfRowsInDefaultPartition() throws Exception {
+    if (!isHistoryPartitioningEnabled() || !DbSqlSessionFactory.POSTGRES.equals(processEngineConfiguration.getDatabaseType())) {
+      return;
+    }
+
+    // the rows of a month which was not partitioned in time are stored in the default partition
+    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+    ClockUtil.setCurrentTime(format.parse("2000-01-15"));
+    String processInstanceId = runtimeService.startProcessInstanceByKey("oneTaskProcess").getId();
+    ClockUtil.reset();
+
+    List<String> createdPartitions = managementService.createHistoryPartitions(format.parse("2000-01-31"));
+
+    assertTrue(createdPartitions.contains("ACT_HI_ACTINST_P200001"));
+    assertEquals(2, historyService.createHistoricActivityInstanceQuery().processInstanceId(processInstanceId).count());
+    assertEquals(Arrays.asList(format.parse("2000-01-01")), findHistoryPartitionMonths(HistoryPartitionManager.PARTITIONED_TABLES.get(0)));
+  }
+
+  public void testParsePartitionMonth() throws Exception {
+    Date expected = new SimpleDateFormat("yyyy-MM-dd").parse("2016-09-01");
+
+    assertEquals(expected, HistoryPartitionManager.parsePartitionMonth("ACT_HI_ACTINST_P201609"));
+    assertEquals(expected, HistoryPartitionManager.parsePartitionMonth("act_hi_actinst_p201609"));
+    assertEquals(expected, HistoryPartitionManager.parsePartitionMonth("P201609"));
+    assertNull(HistoryPartitionManager.parsePartitionMonth("ACT_HI_ACTINST_DEFAULT"));
+    assertNull(HistoryPartitionManager.parsePartitionMonth("PMAX"));
+    assertNull(HistoryPartitionManager.parsePartitionMonth("P201613"));
+  }
+
+  public void testGetMonth() throws Exception {
+    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+    assertEquals(format.parse("2016-09-01 00:00:00"), HistoryPartitionManager.getMonth(format.parse("2016-09-17 13:45:12")));
+    assertEquals(format.parse("2017-01-01 00:00:00"), HistoryPartitionManager.addMonths(format.parse("2016-12-01 00:00:00"), 1));
+  }
+
+  protected boolean isHistoryPartitioningSupported() {
+    return HistoryPartitionManager.isHistoryPartitioningSupported(processEngineConfiguration.getDatabaseType());
+  }
+
+  protected boolean isHistoryPartitioningEnabled() {
+    return isHistoryPartitioningSupported() && processEngineConfiguration.isHistoryPartitioningEnabled();
+  }
+
+  protected List<Date> findHistoryPartitionMonths(final HistoryPartitionedTable table) {
+    return processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<List<Date>>() {
+      public List<Date> execute(CommandContext commandContext) {
+        return commandContext.getHistoryPartitionManager().findHistoryPartitionMonths(table);
+      }
+    });
+  }
+
+}
@@ -0,0 +1,255 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.mgmt;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.management.RuntimeStatisticsCache;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.management.ActivityStatistics;
+import org.camunda.bpm.engine.management.IncidentStatistics;
+import org.camunda.bpm.engine.management.ProcessDefinitionStatistics;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+
+public class RuntimeStatisticsCacheTest extends PluggableProcessEngineTestCase {
+
+  protected static final String FAILED_JOBS_PROCESS = "org/camunda/bpm/engine/test/api/mgmt/StatisticsTest.testStatisticsQueryWithFailedJobs.bpmn20.xml";
+
+  protected static final BpmnModelInstance PARALLEL_TASKS_PROCESS = Bpmn.createExecutableProcess("process")
+    .startEvent()
+    .parallelGateway("fork")
+      .userTask("task1")
+      .parallelGateway("join")
+      .endEvent()
+    .moveToNode("fork")
+      .userTask("task2")
+      .connectTo("join")
+    .done();
+
+  protected RuntimeStatisticsCache runtimeStatisticsCache;
+
+  protected void setUp() throws Exception {
+    runtimeStatisticsCache = new RuntimeStatisticsCache();
+    processEngineConfiguration.setRuntimeStatisticsCache(runtimeStatisticsCache);
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setRuntimeStatisticsCache(null);
+  }
+
+  public void testProcessInstancesAndActivityInstances() {
+    // given
+    deployment(PARALLEL_TASKS_PROCESS);
+    runtimeService.startProcessInstanceByKey("process");
+    runtimeService.startProcessInstanceByKey("process");
+
+    // then
+    assertStatisticsMatchDatabase();
+
+    ProcessDefinitionStatistics definitionStatistics = managementService.createProcessDefinitionStatisticsQuery().singleResult();
+    assertEquals(2, definitionStatistics.getInstances());
+
+    List<ActivityStatistics> activityStatistics = managementService
+        .createActivityStatisticsQuery(definitionStatistics.getId())
+        .list();
+    assertEquals(2, activityStatistics.size());
+    assertEquals("task1", activityStatistics.get(0).getId());
+    assertEquals(2, activityStatistics.get(0).getInstances());
+    assertEquals("task2", activityStatistics.get(1).getId());
+    assertEquals(2, activityStatistics.get(1).getInstances());
+  }
+
+  public void testCountsAreUpdatedIncrementally() {
+    // given the cache is initialized
+    deployment(PARALLEL_TASKS_PROCESS);
+    runtimeService.startProcessInstanceByKey("process");
+    runtimeService.startProcessInstanceByKey("process");
+    assertStatisticsMatchDatabase();
+
+    // when
+    Task task = taskService.createTaskQuery().taskDefinitionKey("task1").listPage(0, 1).get(0);
+    taskService.complete(task.getId());
+
+    // then
+    assertStatisticsMatchDatabase();
+
+    // when the first process instance is completed
+    String processInstanceId = task.getProcessInstanceId();
+    task = taskService.createTaskQuery().processInstanceId(processInstanceId).singleResult();
+    taskService.complete(task.getId());
+
+    // then
+    assertStatisticsMatchDatabase();
+    assertEquals(1, managementService.createProcessDefinitionStatisticsQuery().singleResult().getInstances());
+  }
+
+  public void testDeletedProcessInstances() {
+    // given
+    deployment(PARALLEL_TASKS_PROCESS);
+    String processInstanceId = runtimeService.startProcessInstanceByKey("process").getId();
+    assertStatisticsMatchDatabase();
+
+    // when
+    runtimeService.deleteProcessInstance(processInstanceId, null);
+
+    // then
+    assertStatisticsMatchDatabase();
+    assertEquals(0, managementService.createProcessDefinitionStatisticsQuery().singleResult().getInstances());
+  }
+
+  @Deployment(resources = FAILED_JOBS_PROCESS)
+  public void testFailedJobsAndIncidents() {
+    // given
+    assertStatisticsMatchDatabase();
+    runtimeService.startProcessInstanceByKey("ExampleProcess", Variables.createVariables().putValue("fail", true));
+    runtimeService.startProcessInstanceByKey("ExampleProcess", Variables.createVariables().putValue("fail", false));
+
+    // when
+    executeAvailableJobs();
+
+    // then
+    assertStatisticsMatchDatabase();
+
+    ProcessDefinitionStatistics definitionStatistics = managementService.createProcessDefinitionStatisticsQuery()
+        .includeFailedJobs()
+        .includeIncidents()
+        .singleResult();
+    assertEquals(1, definitionStatistics.getFailedJobs());
+    assertEquals(1, definitionStatistics.getIncidentStatistics().size());
+    assertEquals(1, definitionStatistics.getIncidentStatistics().get(0).getIncidentCount());
+
+    // when the job is retried
+    String jobId = managementService.createJobQuery().withException().singleResult().getId();
+    managementService.setJobRetries(jobId, 1);
+
+    // then
+    assertStatisticsMatchDatabase();
+  }
+
+  public void testInvalidatedCacheIsInitializedAgain() {
+    // given
+    deployment(PARALLEL_TASKS_PROCESS);
+    runtimeService.startProcessInstanceByKey("process");
+    assertStatisticsMatchDatabase();
+
+    // when
+    runtimeStatisticsCache.invalidate();
+    runtimeService.startProcessInstanceByKey("process");
+
+    // then
+    assertStatisticsMatchDatabase();
+    assertEquals(2, managementService.createProcessDefinitionStatisticsQuery().singleResult().getInstances());
+  }
+
+  public void testNotInitializedByTransactionWithFlushedChanges() {
+    // given
+    deployment(PARALLEL_TASKS_PROCESS);
+    runtimeService.startProcessInstanceByKey("process");
+    runtimeStatisticsCache.invalidate();
+
+    // when a transaction queries the statistics after flushing own changes
+    long instances = processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Long>() {
+      public Long execute(CommandContext commandContext) {
+        runtimeService.startProcessInstanceByKey("process");
+        commandContext.getDbEntityManager().flush();
+        return managementService.createProcessDefinitionStatisticsQuery().singleResult().getInstances();
+      }
+    });
+
+    // then the own changes are counted once
+    assertEquals(2, instances);
+    assertStatisticsMatchDatabase();
+    assertEquals(2, managementService.createProcessDefinitionStatisticsQuery().singleResult().getInstances());
+  }
+
+  protected void assertStatisticsMatchDatabase() {
+    List<ProcessDefinitionStatistics> cachedDefinitionStatistics = managementService.createProcessDefinitionStatisticsQuery()
+        .includeFailedJobs()
+        .includeIncidents()
+        .list();
+
+    processEngineConfiguration.setRuntimeStatisticsCache(null);
+    List<ProcessDefinitionStatistics> definitionStatistics;
+    try {
+      definitionStatistics = managementService.createProcessDefinitionStatisticsQuery()
+          .includeFailedJobs()
+          .includeIncidents()
+          .list();
+    }
+    finally {
+      processEngineConfiguration.setRuntimeStatisticsCache(runtimeStatisticsCache);
+    }
+
+    assertEquals(definitionStatistics.size(), cachedDefinitionStatistics.size());
+    for (int i = 0; i < definitionStatistics.size(); i++) {
+      ProcessDefinitionStatistics expected = definitionStatistics.get(i);
+      ProcessDefinitionStatistics actual = cachedDefinitionStatistics.get(i);
+      assertEquals(expected.getId(), actual.getId());
+      assertEquals(expected.getInstances(), actual.getInstances());
+      assertEquals(expected.getFailedJobs(), actual.getFailedJobs());
+      assertIncidentStatistics(expected.getIncidentStatistics(), actual.getIncidentStatistics());
+
+      assertActivityStatisticsMatchDatabase(expected.getId());
+    }
+  }
+
+  protected void assertActivityStatisticsMatchDatabase(String processDefinitionId) {
+    List<ActivityStatistics> cachedActivityStatistics = managementService.createActivityStatisticsQuery(processDefinitionId)
+        .includeFailedJobs()
+        .includeIncidents()
+        .list();
+
+    processEngineConfiguration.setRuntimeStatisticsCache(null);
+    List<ActivityStatistics> activityStatistics;
+    try {
+      activityStatistics = managementService.createActivityStatisticsQuery(processDefinitionId)
+          .includeFailedJobs()
+          .includeIncidents()
+          .list();
+    }
+    finally {
+      processEngineConfiguration.setRuntimeStatisticsCache(runtimeStatisticsCache);
+    }
+
+    assertEquals(activityStatistics.size(), cachedActivityStatistics.size());
+    for (int i = 0; i < activityStatistics.size(); i++) {
+      ActivityStatistics expected = activityStatistics.get(i);
+      ActivityStatistics actual = cachedActivityStatistics.get(i);
+      assertEquals(expected.getId(), actual.getId());
+      assertEquals(expected.getInstances(), actual.getInstances());
+      assertEquals(expected.getFailedJobs(), actual.getFailedJobs());
+      assertIncidentStatistics(expected.getIncidentStatistics(), actual.getIncidentStatistics());
+    }
+  }
+
+  protected void assertIncidentStatistics(List<IncidentStatistics> expected, List<IncidentStatistics> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (IncidentStatistics expectedStatistics : expected) {
+      boolean found = false;
+      for (IncidentStatistics actualStatistics : actual) {
+        if (expectedStatistics.getIncidentType().equals(actualStatistics.getIncidentType())) {
+          assertEquals(expectedStatistics.getIncidentCount(), actualStatistics.getIncidentCount());
+          found = true;
+        }
+      }
+      assertTrue("missing incident statistics of type " + expectedStatistics.getIncidentType(), found);
+    }
+  }
+
+}
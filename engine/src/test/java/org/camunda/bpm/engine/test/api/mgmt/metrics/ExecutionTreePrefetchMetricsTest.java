@@ -0,0 +1,112 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.mgmt.metrics;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionTreePrefetchProfile;
+import org.camunda.bpm.engine.management.Metrics;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+
+public class ExecutionTreePrefetchMetricsTest extends AbstractMetricsTest {
+
+  protected static final BpmnModelInstance PARALLEL_TASKS_PROCESS = Bpmn.createExecutableProcess("process")
+    .startEvent()
+    .parallelGateway("fork")
+      .userTask("task1")
+      .parallelGateway("join")
+      .endEvent()
+    .moveToNode("fork")
+      .userTask("task2")
+      .connectTo("join")
+    .done();
+
+  protected ExecutionTreePrefetchProfile prefetchProfile;
+
+  protected void setUp() throws Exception {
+    super.setUp();
+    prefetchProfile = processEngineConfiguration.getExecutionTreePrefetchProfile();
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setExecutionTreePrefetchProfile(prefetchProfile);
+    super.tearDown();
+  }
+
+  public void testPrefetchMetricReporting() {
+    // given
+    processEngineConfiguration.setExecutionTreePrefetchProfile(ExecutionTreePrefetchProfile.parse("all"));
+    deployment(PARALLEL_TASKS_PROCESS);
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("foo", "bar"));
+
+    // when
+    List<Task> tasks = taskService.createTaskQuery().list();
+    for (Task task : tasks) {
+      taskService.complete(task.getId());
+    }
+    processEngineConfiguration.getDbMetricsReporter().reportNow();
+
+    // then the process instance was completed
+    assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+
+    // and the prefetch was reported
+    assertTrue(managementService.createMetricsQuery().name(Metrics.EXECUTION_TREE_PREFETCH_QUERIES).sum() > 0);
+    assertTrue(managementService.createMetricsQuery().name(Metrics.EXECUTION_TREE_LAZY_LOADS_AVOIDED).sum() > 0);
+  }
+
+  public void testNoPrefetchMetricReportingByDefault() {
+    // given
+    deployment(PARALLEL_TASKS_PROCESS);
+    runtimeService.startProcessInstanceByKey("process");
+
+    // when
+    for (Task task : taskService.createTaskQuery().list()) {
+      taskService.complete(task.getId());
+    }
+    processEngineConfiguration.getDbMetricsReporter().reportNow();
+
+    // then
+    assertEquals(0, managementService.createMetricsQuery().name(Metrics.EXECUTION_TREE_PREFETCH_QUERIES).sum());
+    assertEquals(0, managementService.createMetricsQuery().name(Metrics.EXECUTION_TREE_LAZY_LOADS_AVOIDED).sum());
+  }
+
+  public void testParseProfile() {
+    ExecutionTreePrefetchProfile profile = ExecutionTreePrefetchProfile.parse("variables, tasks");
+
+    assertTrue(profile.isVariables());
+    assertTrue(profile.isTasks());
+    assertFalse(profile.isJobs());
+    assertFalse(profile.isEventSubscriptions());
+    assertFalse(profile.isIncidents());
+    assertFalse(profile.isExternalTasks());
+    assertEquals(2, profile.getNumberOfQueries());
+
+    assertEquals(6, ExecutionTreePrefetchProfile.parse("all").getNumberOfQueries());
+    assertTrue(ExecutionTreePrefetchProfile.parse(null).isEmpty());
+  }
+
+  public void testParseInvalidProfile() {
+    try {
+      ExecutionTreePrefetchProfile.parse("variables,unknown");
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      assertTextPresent("unknown entity type 'unknown'", e.getMessage());
+    }
+  }
+
+}
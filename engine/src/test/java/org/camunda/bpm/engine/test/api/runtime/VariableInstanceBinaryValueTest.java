@@ -0,0 +1,255 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.exception.NotFoundException;
+import org.camunda.bpm.engine.history.HistoricDetail;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.camunda.bpm.engine.history.HistoricVariableUpdate;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.runtime.VariableInstance;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.engine.variable.value.FileValue;
+
+public class VariableInstanceBinaryValueTest extends PluggableProcessEngineTestCase {
+
+  protected static final String ONE_TASK_PROCESS = "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml";
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testWriteBinaryValue() {
+    // given
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("bytes", "some bytes".getBytes()));
+    VariableInstance variableInstance = getVariableInstance(processInstance, "bytes");
+
+    // when
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    boolean hasContent = runtimeService.writeVariableInstanceBinaryValue(variableInstance.getId(), outputStream);
+
+    // then
+    assertTrue(hasContent);
+    assertEquals("some bytes", new String(outputStream.toByteArray()));
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testWriteNullBinaryValue() {
+    // given
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValueTyped("bytes", Variables.byteArrayValue(null)));
+    VariableInstance variableInstance = getVariableInstance(processInstance, "bytes");
+
+    // when
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    boolean hasContent = runtimeService.writeVariableInstanceBinaryValue(variableInstance.getId(), outputStream);
+
+    // then
+    assertFalse(hasContent);
+    assertEquals(0, outputStream.size());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSetBinaryValue() {
+    // given
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("bytes", "some bytes".getBytes()));
+    VariableInstance variableInstance = getVariableInstance(processInstance, "bytes");
+
+    // when
+    byte[] content = "other bytes".getBytes();
+    runtimeService.setVariableInstanceBinaryValue(variableInstance.getId(), new ByteArrayInputStream(content), content.length);
+
+    // then
+    byte[] value = (byte[]) runtimeService.getVariable(processInstance.getId(), "bytes");
+    assertEquals("other bytes", new String(value));
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSetNullBinaryValue() {
+    // given
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValueTyped("bytes", Variables.byteArrayValue(null)));
+    VariableInstance variableInstance = getVariableInstance(processInstance, "bytes");
+
+    // when
+    byte[] content = "some bytes".getBytes();
+    runtimeService.setVariableInstanceBinaryValue(variableInstance.getId(), new ByteArrayInputStream(content), content.length);
+
+    // then
+    byte[] value = (byte[]) runtimeService.getVariable(processInstance.getId(), "bytes");
+    assertEquals("some bytes", new String(value));
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSetFileValue() {
+    // given
+    FileValue fileValue = Variables.fileValue("file.txt")
+      .file("some content".getBytes())
+      .mimeType("text/plain")
+      .create();
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValueTyped("file", fileValue));
+    VariableInstance variableInstance = getVariableInstance(processInstance, "file");
+
+    // when
+    byte[] content = "other content".getBytes();
+    runtimeService.setVariableInstanceBinaryValue(variableInstance.getId(), new ByteArrayInputStream(content), content.length);
+
+    // then the content is replaced and the metadata is kept
+    FileValue value = runtimeService.getVariableTyped(processInstance.getId(), "file");
+    assertEquals("file.txt", value.getFilename());
+    assertEquals("text/plain", value.getMimeType());
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    runtimeService.writeVariableInstanceBinaryValue(variableInstance.getId(), outputStream);
+    assertEquals("other content", new String(outputStream.toByteArray()));
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSetBinaryValueProducesHistoryEvent() {
+    // given
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("bytes", "some bytes".getBytes()));
+    VariableInstance variableInstance = getVariableInstance(processInstance, "bytes");
+
+    // when
+    byte[] content = "other bytes".getBytes();
+    runtimeService.setVariableInstanceBinaryValue(variableInstance.getId(), new ByteArrayInputStream(content), content.length);
+
+    // then the historic variable instance has the new content
+    if (processEngineConfiguration.getHistoryLevel().getId() >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
+      HistoricVariableInstance historicVariableInstance = historyService.createHistoricVariableInstanceQuery()
+        .variableId(variableInstance.getId())
+        .singleResult();
+      assertEquals("other bytes", new String((byte[]) historicVariableInstance.getValue()));
+    }
+
+    // and an update is recorded
+    if (processEngineConfiguration.getHistoryLevel().getId() >= ProcessEngineConfigurationImpl.HISTORYLEVEL_FULL) {
+      assertEquals(Arrays.asList("some bytes", "other bytes"), getHistoricDetailValues(variableInstance));
+    }
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testHistoryKeepsSetBinaryValue() {
+    // given
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("bytes", "some bytes".getBytes()));
+    VariableInstance variableInstance = getVariableInstance(processInstance, "bytes");
+
+    byte[] content = "other bytes".getBytes();
+    runtimeService.setVariableInstanceBinaryValue(variableInstance.getId(), new ByteArrayInputStream(content), content.length);
+
+    // when the runtime byte array is updated again
+    runtimeService.setVariable(processInstance.getId(), "bytes", "more bytes".getBytes());
+
+    // then the history of the streamed value has its own copy of the content
+    if (processEngineConfiguration.getHistoryLevel().getId() >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
+      HistoricVariableInstance historicVariableInstance = historyService.createHistoricVariableInstanceQuery()
+        .variableId(variableInstance.getId())
+        .singleResult();
+      assertEquals("more bytes", new String((byte[]) historicVariableInstance.getValue()));
+    }
+
+    if (processEngineConfiguration.getHistoryLevel().getId() >= ProcessEngineConfigurationImpl.HISTORYLEVEL_FULL) {
+      assertEquals(Arrays.asList("some bytes", "other bytes", "more bytes"), getHistoricDetailValues(variableInstance));
+    }
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSetBinaryValueReplacesCompressedContent() {
+    // given a variable whose content is stored compressed
+    byte[] compressibleContent = new byte[4 * 1024];
+    Arrays.fill(compressibleContent, (byte) 'a');
+
+    ProcessInstance processInstance;
+    processEngineConfiguration.setByteArrayCompressionEnabled(true);
+    try {
+      processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+          Variables.createVariables().putValue("bytes", compressibleContent));
+    }
+    finally {
+      processEngineConfiguration.setByteArrayCompressionEnabled(false);
+    }
+    VariableInstance variableInstance = getVariableInstance(processInstance, "bytes");
+
+    // when
+    byte[] content = "other bytes".getBytes();
+    runtimeService.setVariableInstanceBinaryValue(variableInstance.getId(), new ByteArrayInputStream(content), content.length);
+
+    // then the streamed content is not inflated when it is read
+    byte[] value = (byte[]) runtimeService.getVariable(processInstance.getId(), "bytes");
+    assertEquals("other bytes", new String(value));
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testNonBinaryVariable() {
+    // given
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("string", "a string"));
+    VariableInstance variableInstance = getVariableInstance(processInstance, "string");
+
+    // when
+    try {
+      runtimeService.writeVariableInstanceBinaryValue(variableInstance.getId(), new ByteArrayOutputStream());
+      fail("exception expected");
+    }
+    // then
+    catch (ProcessEngineException e) {
+      assertTextPresent("Only the content of binary variables can be streamed", e.getMessage());
+    }
+  }
+
+  public void testNonExistingVariable() {
+    try {
+      runtimeService.setVariableInstanceBinaryValue("nonExisting", new ByteArrayInputStream(new byte[0]), 0);
+      fail("exception expected");
+    }
+    catch (NotFoundException e) {
+      assertTextPresent("Cannot find variable instance with id nonExisting", e.getMessage());
+    }
+  }
+
+  protected VariableInstance getVariableInstance(ProcessInstance processInstance, String name) {
+    return runtimeService.createVariableInstanceQuery()
+      .processInstanceIdIn(processInstance.getId())
+      .variableName(name)
+      .disableBinaryFetching()
+      .singleResult();
+  }
+
+  protected List<String> getHistoricDetailValues(VariableInstance variableInstance) {
+    List<HistoricDetail> details = historyService.createHistoricDetailQuery()
+      .variableInstanceId(variableInstance.getId())
+      .variableUpdates()
+      .orderPartiallyByOccurrence()
+      .asc()
+      .list();
+
+    List<String> values = new ArrayList<String>();
+    for (HistoricDetail detail : details) {
+      values.add(new String((byte[]) ((HistoricVariableUpdate) detail).getValue()));
+    }
+    return values;
+  }
+
+}
@@ -22,11 +22,14 @@ import java.util.List;
 
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.management.JobDefinition;
 import org.camunda.bpm.engine.migration.MigrationPlan;
 import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.camunda.bpm.engine.runtime.Job;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.engine.runtime.ProcessInstanceQuery;
 import org.camunda.bpm.engine.test.ProcessEngineRule;
+import org.camunda.bpm.engine.test.api.runtime.migration.models.AsyncProcessModels;
 import org.camunda.bpm.engine.test.api.runtime.migration.models.ProcessModels;
 import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
 import org.hamcrest.CoreMatchers;
@@ -376,4 +379,35 @@ public class MigrationProcessInstanceTest {
     assertEquals(2, targetProcessInstanceQuery.count());
   }
 
+  @Test
+  public void testMigrateMultipleProcessInstancesWithJobs() {
+    ProcessDefinition sourceProcessDefinition = testHelper.deployAndGetDefinition(AsyncProcessModels.ASYNC_BEFORE_USER_TASK_PROCESS);
+    ProcessDefinition targetProcessDefinition = testHelper.deployAndGetDefinition(AsyncProcessModels.ASYNC_BEFORE_USER_TASK_PROCESS);
+
+    MigrationPlan migrationPlan = runtimeService.createMigrationPlan(sourceProcessDefinition.getId(), targetProcessDefinition.getId())
+      .mapEqualActivities()
+      .build();
+
+    ProcessInstance processInstance1 = runtimeService.startProcessInstanceById(sourceProcessDefinition.getId());
+    ProcessInstance processInstance2 = runtimeService.startProcessInstanceById(sourceProcessDefinition.getId());
+    ProcessInstance processInstance3 = runtimeService.startProcessInstanceById(sourceProcessDefinition.getId());
+
+    // when the instances are migrated with the same compiled migration plan
+    runtimeService.newMigration(migrationPlan)
+      .processInstanceIds(processInstance1.getId(), processInstance2.getId(), processInstance3.getId())
+      .execute();
+
+    // then every job is migrated to the job definition of the target process definition
+    JobDefinition targetJobDefinition = rule.getManagementService().createJobDefinitionQuery()
+      .processDefinitionId(targetProcessDefinition.getId())
+      .singleResult();
+
+    List<Job> jobs = rule.getManagementService().createJobQuery().list();
+    assertEquals(3, jobs.size());
+    for (Job job : jobs) {
+      assertEquals(targetJobDefinition.getId(), job.getJobDefinitionId());
+      assertEquals(targetProcessDefinition.getId(), job.getProcessDefinitionId());
+    }
+  }
+
 }
@@ -33,10 +33,13 @@ import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.RuntimeService;
 import org.camunda.bpm.engine.batch.Batch;
 import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.camunda.bpm.engine.impl.batch.BatchEntity;
 import org.camunda.bpm.engine.impl.batch.BatchSeedJobHandler;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.migration.batch.MigrationBatchConfiguration;
+import org.camunda.bpm.engine.impl.migration.batch.MigrationBatchJobHandler;
 import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
 import org.camunda.bpm.engine.impl.util.ClockUtil;
@@ -444,6 +447,60 @@ public class BatchMigrationTest {
     assertNull(helper.getSeedJob(batch));
   }
 
+  @Test
+  public void testProcessInstanceIdsAreStoredInChunks() {
+    ProcessEngineConfigurationImpl configuration = engineRule.getProcessEngineConfiguration();
+    configuration.setBatchJobsPerSeed(2);
+
+    Batch batch = helper.migrateProcessInstancesAsync(5);
+
+    // then the batch configuration does not contain the process instance ids
+    MigrationBatchConfiguration batchConfiguration = getBatchConfiguration(batch);
+    assertEquals(0, batchConfiguration.getProcessInstanceIds().size());
+    String firstChunkId = batchConfiguration.getProcessInstanceIdChunkId();
+    assertNotNull(firstChunkId);
+
+    // and the chunks are named after the batch
+    ByteArrayEntity firstChunk = configuration.getCommandExecutorTxRequired().execute(new GetByteArrayCommand(firstChunkId));
+    assertEquals(batch.getId(), firstChunk.getName());
+
+    // when the seed job is executed
+    helper.executeSeedJob(batch);
+
+    // then the first chunk was removed and the configuration references the next chunk
+    assertNull(configuration.getCommandExecutorTxRequired().execute(new GetByteArrayCommand(firstChunkId)));
+    String secondChunkId = getBatchConfiguration(batch).getProcessInstanceIdChunkId();
+    assertNotNull(secondChunkId);
+    assertThat(secondChunkId, CoreMatchers.not(firstChunkId));
+
+    // when the seed job is executed until all jobs are created
+    helper.executeSeedJob(batch);
+    helper.executeSeedJob(batch);
+
+    // then all jobs were created and no chunk is left
+    assertEquals(5, helper.getMigrationJobs(batch).size());
+    assertNull(getBatchConfiguration(batch).getProcessInstanceIdChunkId());
+    assertNull(helper.getSeedJob(batch));
+  }
+
+  @Test
+  public void testBatchDeletionRemovesProcessInstanceIdChunks() {
+    ProcessEngineConfigurationImpl configuration = engineRule.getProcessEngineConfiguration();
+    configuration.setBatchJobsPerSeed(2);
+
+    Batch batch = helper.migrateProcessInstancesAsync(10);
+    helper.executeSeedJob(batch);
+
+    String chunkId = getBatchConfiguration(batch).getProcessInstanceIdChunkId();
+    assertNotNull(chunkId);
+
+    // when
+    managementService.deleteBatch(batch.getId(), true);
+
+    // then the remaining chunks were deleted
+    assertNull(configuration.getCommandExecutorTxRequired().execute(new GetByteArrayCommand(chunkId)));
+  }
+
   @Test
   public void testMonitorJobPollingForCompletion() {
     Batch batch = helper.migrateProcessInstancesAsync(10);
@@ -880,6 +937,20 @@ public class BatchMigrationTest {
     assertEquals(defaultInvocationsPerBatchJob, batch.getInvocationsPerBatchJob());
   }
 
+  protected MigrationBatchConfiguration getBatchConfiguration(final Batch batch) {
+    return engineRule.getProcessEngineConfiguration().getCommandExecutorTxRequired()
+      .execute(new Command<MigrationBatchConfiguration>() {
+        public MigrationBatchConfiguration execute(CommandContext commandContext) {
+          BatchEntity batchEntity = commandContext.getBatchManager().findBatchById(batch.getId());
+          MigrationBatchJobHandler batchJobHandler = (MigrationBatchJobHandler) commandContext.getProcessEngineConfiguration()
+            .getBatchHandlers()
+            .get(batch.getType());
+
+          return batchJobHandler.readConfiguration(batchEntity.getConfigurationBytes());
+        }
+      });
+  }
+
   public class GetByteArrayCommand implements Command<ByteArrayEntity> {
 
     protected String byteArrayId;
@@ -0,0 +1,139 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.variables;
+
+import static org.camunda.bpm.engine.test.util.TypedValueAssert.assertObjectValueDeserialized;
+import static org.camunda.bpm.engine.variable.Variables.objectValue;
+import static org.camunda.bpm.engine.variable.Variables.serializedObjectValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.digest._apacheCommonsCodec.Base64;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.impl.util.StringUtil;
+import org.camunda.bpm.engine.impl.variable.serializer.binary.CompactBinaryCodecs;
+import org.camunda.bpm.engine.impl.variable.serializer.binary.CompactBinaryObjectSerializer;
+import org.camunda.bpm.engine.impl.variable.serializer.binary.CompactBinaryWriter;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.value.ObjectValue;
+
+public class CompactBinarySerializationTest extends PluggableProcessEngineTestCase {
+
+  protected static final String ONE_TASK_PROCESS = "org/camunda/bpm/engine/test/api/variables/oneTaskProcess.bpmn20.xml";
+
+  protected static final String DATA_FORMAT = CompactBinaryObjectSerializer.DATA_FORMAT;
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSerializationAsCompactBinary() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    Map<String, Object> map = new LinkedHashMap<String, Object>();
+    map.put("name", "foo");
+    map.put("amount", 42L);
+    map.put("dueDate", new Date(1000));
+    map.put("items", new ArrayList<Object>(Arrays.asList("a", "b")));
+
+    runtimeService.setVariable(instance.getId(), "map", objectValue(map).serializationDataFormat(DATA_FORMAT).create());
+
+    // validate untyped value
+    assertEquals(map, runtimeService.getVariable(instance.getId(), "map"));
+
+    // validate typed value
+    ObjectValue typedValue = runtimeService.getVariableTyped(instance.getId(), "map");
+    assertObjectValueDeserialized(typedValue, map);
+    assertEquals(DATA_FORMAT, typedValue.getSerializationDataFormat());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testCollectionsAreDeserializedAsDefaultImplementation() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    Map<String, Object> map = new HashMap<String, Object>();
+    map.put("foo", "bar");
+
+    runtimeService.setVariable(instance.getId(), "map", objectValue(map).serializationDataFormat(DATA_FORMAT).create());
+
+    ObjectValue typedValue = runtimeService.getVariableTyped(instance.getId(), "map");
+    assertEquals(map, typedValue.getValue());
+    assertEquals(LinkedHashMap.class.getName(), typedValue.getObjectTypeName());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSetCompactBinaryObjectSerialized() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    byte[] bytes = new CompactBinaryWriter(new CompactBinaryCodecs()).writeValue(Arrays.asList(1, 2, 3)).toByteArray();
+    String serializedValue = StringUtil.fromBytes(Base64.encodeBase64(bytes), processEngine);
+
+    runtimeService.setVariable(instance.getId(), "list",
+        serializedObjectValue(serializedValue)
+        .serializationDataFormat(DATA_FORMAT)
+        .objectTypeName(ArrayList.class.getName())
+        .create());
+
+    assertEquals(Arrays.asList(1, 2, 3), runtimeService.getVariable(instance.getId(), "list"));
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testJavaSerializationRemainsDefault() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    runtimeService.setVariable(instance.getId(), "list", new ArrayList<Object>(Arrays.asList("foo")));
+
+    ObjectValue typedValue = runtimeService.getVariableTyped(instance.getId(), "list", false);
+    assertEquals(processEngineConfiguration.getDefaultSerializationFormat(), typedValue.getSerializationDataFormat());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testNonSerializableCollectionIsNotSerializedAsCompactBinary() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    // a view which is not serializable
+    List<String> list = new ArrayList<String>(Arrays.asList("foo", "bar")).subList(0, 1);
+
+    try {
+      runtimeService.setVariable(instance.getId(), "list", list);
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      assertTextPresent("Cannot find serializer for value", e.getMessage());
+    }
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testCompactBinaryAsDefaultSerializationFormat() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    String defaultSerializationFormat = processEngineConfiguration.getDefaultSerializationFormat();
+    processEngineConfiguration.setDefaultSerializationFormat(DATA_FORMAT);
+    try {
+      runtimeService.setVariable(instance.getId(), "list", new ArrayList<String>(Arrays.asList("foo", "bar")).subList(0, 1));
+    }
+    finally {
+      processEngineConfiguration.setDefaultSerializationFormat(defaultSerializationFormat);
+    }
+
+    ObjectValue typedValue = runtimeService.getVariableTyped(instance.getId(), "list");
+    assertEquals(DATA_FORMAT, typedValue.getSerializationDataFormat());
+    assertEquals(Arrays.asList("foo"), typedValue.getValue());
+  }
+
+}
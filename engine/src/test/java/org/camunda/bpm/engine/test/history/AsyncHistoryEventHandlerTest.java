@@ -0,0 +1,360 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.history;
+
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.impl.history.handler.AsyncHistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.AsyncHistoryEventWriter;
+import org.camunda.bpm.engine.impl.history.handler.BatchDbHistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryOutboxEntryEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoryOutboxManager;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.test.RequiredHistoryLevel;
+import org.camunda.bpm.engine.variable.Variables;
+
+@RequiredHistoryLevel(ProcessEngineConfiguration.HISTORY_FULL)
+public class AsyncHistoryEventHandlerTest extends PluggableProcessEngineTestCase {
+
+  protected static final String ONE_TASK_PROCESS = "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml";
+
+  protected HistoryEventHandler defaultHistoryEventHandler;
+  protected AsyncHistoryEventWriter defaultAsyncHistoryEventWriter;
+  protected AsyncHistoryEventHandler asyncHistoryEventHandler;
+  protected AsyncHistoryEventWriter asyncHistoryEventWriter;
+
+  protected void setUp() throws Exception {
+    defaultHistoryEventHandler = processEngineConfiguration.getHistoryEventHandler();
+    defaultAsyncHistoryEventWriter = processEngineConfiguration.getAsyncHistoryEventWriter();
+
+    asyncHistoryEventHandler = new AsyncHistoryEventHandler();
+    asyncHistoryEventWriter = createWriter(asyncHistoryEventHandler);
+
+    processEngineConfiguration.setHistoryEventHandler(asyncHistoryEventHandler);
+    processEngineConfiguration.setAsyncHistoryEventWriter(asyncHistoryEventWriter);
+  }
+
+  protected void tearDown() throws Exception {
+    asyncHistoryEventWriter.stop();
+    asyncHistoryEventWriter.setMaxAttempts(1);
+    asyncHistoryEventWriter.flush();
+    deleteQuarantinedEntries();
+
+    processEngineConfiguration.setHistoryEventHandler(defaultHistoryEventHandler);
+    processEngineConfiguration.setAsyncHistoryEventWriter(defaultAsyncHistoryEventWriter);
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testHistoryIsWrittenOnFlush() {
+    // given
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("foo", "bar"));
+
+    // then no history is written by the runtime transaction
+    assertEquals(0, historyService.createHistoricProcessInstanceQuery().count());
+    // but all its events are in a single outbox entry
+    assertEquals(1, getPendingEntryIds().size());
+
+    // when
+    asyncHistoryEventWriter.flush();
+
+    // then
+    assertTrue(getPendingEntryIds().isEmpty());
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().processInstanceId(processInstance.getId()).count());
+    assertEquals(1, historyService.createHistoricVariableInstanceQuery().variableName("foo").count());
+    assertEquals(1, historyService.createHistoricTaskInstanceQuery().count());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testUpdatesOfEventsInTheSameBatch() {
+    // given a process instance which is started and completed before the history is written
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    Task task = taskService.createTaskQuery().singleResult();
+    taskService.complete(task.getId());
+
+    // when
+    asyncHistoryEventWriter.flush();
+
+    // then the end events are applied to the events inserted by the same batch
+    HistoricProcessInstance historicProcessInstance = historyService.createHistoricProcessInstanceQuery()
+      .processInstanceId(processInstance.getId())
+      .singleResult();
+    assertNotNull(historicProcessInstance.getStartTime());
+    assertNotNull(historicProcessInstance.getEndTime());
+
+    HistoricActivityInstance userTask = historyService.createHistoricActivityInstanceQuery()
+      .activityId("theTask")
+      .singleResult();
+    assertNotNull(userTask.getStartTime());
+    assertNotNull(userTask.getEndTime());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testUpdatesOfEventsInDifferentBatches() {
+    // given
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    asyncHistoryEventWriter.flush();
+
+    // when
+    Task task = taskService.createTaskQuery().singleResult();
+    taskService.complete(task.getId());
+    asyncHistoryEventWriter.flush();
+
+    // then
+    HistoricProcessInstance historicProcessInstance = historyService.createHistoricProcessInstanceQuery()
+      .processInstanceId(processInstance.getId())
+      .singleResult();
+    assertNotNull(historicProcessInstance.getStartTime());
+    assertNotNull(historicProcessInstance.getEndTime());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testEventsOfRolledBackTransactionsAreDiscarded() {
+    // given
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    asyncHistoryEventWriter.flush();
+
+    // when a transaction fails
+    Task task = taskService.createTaskQuery().singleResult();
+    try {
+      taskService.complete(task.getId(), Variables.createVariables().putValue("foo", new NonSerializable()));
+      fail("exception expected");
+    }
+    catch (Exception e) {
+      // expected
+    }
+
+    // then
+    assertTrue(getPendingEntryIds().isEmpty());
+    assertTrue(asyncHistoryEventHandler.getCommittedEntryIds().isEmpty());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testWriterThreadWritesHistory() {
+    // given
+    asyncHistoryEventWriter.setPollInterval(10);
+    asyncHistoryEventWriter.start();
+
+    // when
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    asyncHistoryEventWriter.stop();
+
+    // then all events are written at the latest when the writer is stopped
+    assertFalse(asyncHistoryEventWriter.isActive());
+    assertTrue(getPendingEntryIds().isEmpty());
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().count());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testEventsAreKeptWhenWriterIsLost() {
+    // given events which are committed but not written
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    // when they are written by a new writer, e.g. after a restart of the process engine
+    createWriter(new AsyncHistoryEventHandler()).flush();
+
+    // then
+    assertTrue(getPendingEntryIds().isEmpty());
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().count());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testCommitDoesNotWaitForFullQueue() {
+    // given
+    asyncHistoryEventHandler = new AsyncHistoryEventHandler(1);
+    asyncHistoryEventWriter = createWriter(asyncHistoryEventHandler);
+    processEngineConfiguration.setHistoryEventHandler(asyncHistoryEventHandler);
+    processEngineConfiguration.setAsyncHistoryEventWriter(asyncHistoryEventWriter);
+
+    // when more transactions commit than the queue can hold
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    // then
+    assertEquals(1, asyncHistoryEventHandler.getCommittedEntryIds().size());
+    assertEquals(2, getPendingEntryIds().size());
+
+    // and the writer reads all entries from the outbox
+    asyncHistoryEventWriter.flush();
+    assertEquals(2, historyService.createHistoricProcessInstanceQuery().count());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testFailingEntryIsQuarantined() {
+    // given an entry which cannot be written and a later entry
+    String failingEntryId = insertCorruptEntry();
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    asyncHistoryEventWriter.setMaxAttempts(2);
+
+    // when the entry fails the first time
+    try {
+      asyncHistoryEventWriter.flush();
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      assertTextPresent(failingEntryId, e.getMessage());
+    }
+
+    // then the later entry waits
+    assertEquals(0, historyService.createHistoricProcessInstanceQuery().count());
+
+    // when the entry fails again
+    asyncHistoryEventWriter.flush();
+
+    // then it is quarantined and the later entry is written
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().count());
+    assertTrue(getPendingEntryIds().isEmpty());
+
+    List<HistoryOutboxEntryEntity> quarantinedEntries = getQuarantinedEntries();
+    assertEquals(1, quarantinedEntries.size());
+    assertEquals(failingEntryId, quarantinedEntries.get(0).getId());
+    assertEquals(2, quarantinedEntries.get(0).getAttempts());
+    assertNotNull(quarantinedEntries.get(0).getExceptionMessage());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testEntriesAreWrittenInCommitOrder() {
+    // given an entry which is created first but committed after a later entry
+    String firstCreatedEntryId = processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<String>() {
+      public String execute(CommandContext commandContext) {
+        runtimeService.startProcessInstanceByKey("oneTaskProcess");
+        String entryId = commandContext.getHistoryOutboxManager().getCurrentEntry().getId();
+
+        processEngineConfiguration.getCommandExecutorTxRequiresNew().execute(new Command<Void>() {
+          public Void execute(CommandContext commandContext) {
+            runtimeService.startProcessInstanceByKey("oneTaskProcess");
+            return null;
+          }
+        });
+
+        return entryId;
+      }
+    });
+
+    // then
+    List<String> pendingEntryIds = getPendingEntryIds();
+    assertEquals(2, pendingEntryIds.size());
+    assertEquals(firstCreatedEntryId, pendingEntryIds.get(1));
+  }
+
+  public void testDeleteDiscardsPendingEvents() {
+    // given a process instance whose events are not written yet
+    String deletedDeploymentId = repositoryService.createDeployment()
+      .addClasspathResource(ONE_TASK_PROCESS)
+      .deploy()
+      .getId();
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    // when its history is deleted together with the deployment
+    repositoryService.deleteDeployment(deletedDeploymentId, true);
+
+    // then the pending events are discarded without writing them
+    assertEquals(1, getPendingEntryIds().size());
+
+    // and do not bring back the deleted history
+    asyncHistoryEventWriter.flush();
+    assertEquals(0, historyService.createHistoricProcessInstanceQuery().count());
+    assertEquals(0, historyService.createHistoricActivityInstanceQuery().count());
+    assertEquals(0, historyService.createHistoricTaskInstanceQuery().count());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testDeleteKeepsPendingEventsOfOtherInstances() {
+    // given a pending entry with the events of two process instances
+    String deletedDeploymentId = repositoryService.createDeployment()
+      .addClasspathResource(ONE_TASK_PROCESS)
+      .deploy()
+      .getId();
+    final String keptProcessDefinitionId = repositoryService.createProcessDefinitionQuery()
+      .deploymentId(deploymentId)
+      .singleResult()
+      .getId();
+
+    String keptProcessInstanceId = processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<String>() {
+      public String execute(CommandContext commandContext) {
+        runtimeService.startProcessInstanceByKey("oneTaskProcess");
+        return runtimeService.startProcessInstanceById(keptProcessDefinitionId).getId();
+      }
+    });
+
+    // when the history of one of them is deleted together with its deployment
+    repositoryService.deleteDeployment(deletedDeploymentId, true);
+
+    // then only the events of the deleted instance are discarded
+    asyncHistoryEventWriter.flush();
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().count());
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().processInstanceId(keptProcessInstanceId).count());
+    assertEquals(1, historyService.createHistoricTaskInstanceQuery().count());
+  }
+
+  protected AsyncHistoryEventWriter createWriter(AsyncHistoryEventHandler historyEventHandler) {
+    return new AsyncHistoryEventWriter(historyEventHandler.getCommittedEntryIds(),
+        processEngineConfiguration.getCommandExecutorTxRequiresNew(), new BatchDbHistoryEventHandler());
+  }
+
+  protected List<String> getPendingEntryIds() {
+    return processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<List<String>>() {
+      public List<String> execute(CommandContext commandContext) {
+        return commandContext.getHistoryOutboxManager().findPendingHistoryOutboxEntryIds(Integer.MAX_VALUE);
+      }
+    });
+  }
+
+  protected List<HistoryOutboxEntryEntity> getQuarantinedEntries() {
+    return processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<List<HistoryOutboxEntryEntity>>() {
+      public List<HistoryOutboxEntryEntity> execute(CommandContext commandContext) {
+        return commandContext.getHistoryOutboxManager().findQuarantinedHistoryOutboxEntries();
+      }
+    });
+  }
+
+  protected String insertCorruptEntry() {
+    return processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<String>() {
+      public String execute(CommandContext commandContext) {
+        HistoryOutboxEntryEntity entry = new HistoryOutboxEntryEntity();
+        entry.setCreateTime(new Date(0));
+        entry.setSequence(0L);
+        entry.setBytes(new byte[] { 1, 2, 3 });
+        commandContext.getDbEntityManager().insert(entry);
+        return entry.getId();
+      }
+    });
+  }
+
+  protected void deleteQuarantinedEntries() {
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        HistoryOutboxManager historyOutboxManager = commandContext.getHistoryOutboxManager();
+        for (HistoryOutboxEntryEntity entry : historyOutboxManager.findQuarantinedHistoryOutboxEntries()) {
+          historyOutboxManager.deleteHistoryOutboxEntry(entry);
+        }
+        return null;
+      }
+    });
+  }
+
+  protected static class NonSerializable {
+  }
+
+}
@@ -0,0 +1,331 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.history;
+
+import static org.camunda.bpm.engine.query.PeriodUnit.MONTH;
+import static org.camunda.bpm.engine.query.PeriodUnit.QUARTER;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.history.DurationReportResult;
+import org.camunda.bpm.engine.history.HistoricProcessInstanceReport;
+import org.camunda.bpm.engine.impl.cmd.AggregateHistoricDurationsCmd;
+import org.camunda.bpm.engine.impl.db.ListQueryParameterObject;
+import org.camunda.bpm.engine.impl.history.report.DurationSketch;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.DurationReportResultEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricDurationQueueEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.PropertyEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.ReportManager;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.query.PeriodUnit;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.RequiredHistoryLevel;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+
+@RequiredHistoryLevel(ProcessEngineConfiguration.HISTORY_ACTIVITY)
+public class HistoricDurationAggregationTest extends PluggableProcessEngineTestCase {
+
+  protected static final BpmnModelInstance PROCESS = Bpmn.createExecutableProcess("process")
+    .startEvent()
+    .userTask()
+    .endEvent()
+    .done();
+
+  protected void setUp() throws Exception {
+    processEngineConfiguration.setHistoricDurationAggregationEnabled(true);
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setHistoricDurationAggregationEnabled(false);
+
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      @SuppressWarnings("unchecked")
+      public Void execute(CommandContext commandContext) {
+        List<HistoricDurationQueueEntity> entries = commandContext.getDbEntityManager()
+          .selectList("selectHistoricDurationQueueEntries", new ListQueryParameterObject(null, 0, Integer.MAX_VALUE));
+        for (HistoricDurationQueueEntity entry : entries) {
+          commandContext.getDbEntityManager().delete(entry);
+        }
+
+        PropertyEntity property = commandContext.getPropertyManager()
+          .findPropertyById(ReportManager.DURATION_AGGREGATION_PROPERTY);
+        if (property != null) {
+          commandContext.getDbEntityManager().delete(property);
+        }
+        return null;
+      }
+    });
+  }
+
+  public void testAggregatedReportMatchesReport() {
+    // given
+    deployment(PROCESS);
+    startAndCompleteProcessInstance(2016, 0, 1, 10);
+    startAndCompleteProcessInstance(2016, 0, 15, 100);
+    startAndCompleteProcessInstance(2016, 1, 3, 20);
+    startAndCompleteProcessInstance(2016, 4, 7, 30);
+
+    // when
+    assertEquals(4, aggregate(10));
+
+    // then
+    assertReportMatchesDatabase(MONTH, null, null);
+    assertReportMatchesDatabase(QUARTER, null, null);
+    assertReportMatchesDatabase(MONTH, startOfMonth(2016, 1), startOfMonth(2016, 5));
+  }
+
+  public void testAggregatedReportWithinMonthsMatchesReport() {
+    // given
+    deployment(PROCESS);
+    startAndCompleteProcessInstance(2016, 0, 1, 10);
+    startAndCompleteProcessInstance(2016, 0, 15, 100);
+    startAndCompleteProcessInstance(2016, 1, 3, 20);
+    startAndCompleteProcessInstance(2016, 4, 7, 30);
+    startAndCompleteProcessInstance(2016, 4, 20, 40);
+
+    // when
+    assertEquals(5, aggregate(10));
+
+    // then the instances of the months of the bounds are selected one by one
+    assertReportMatchesDatabase(MONTH, dayOfMonth(2016, 0, 10), dayOfMonth(2016, 4, 10));
+    assertReportMatchesDatabase(QUARTER, dayOfMonth(2016, 0, 10), dayOfMonth(2016, 4, 10));
+    assertReportMatchesDatabase(MONTH, dayOfMonth(2016, 0, 10), dayOfMonth(2016, 0, 20));
+  }
+
+  public void testNotAggregatedInstancesAreIncluded() {
+    // given some of the instances are aggregated
+    deployment(PROCESS);
+    startAndCompleteProcessInstance(2016, 0, 1, 10);
+    startAndCompleteProcessInstance(2016, 0, 2, 20);
+    aggregate(10);
+
+    // when
+    startAndCompleteProcessInstance(2016, 0, 3, 30);
+
+    // then
+    assertReportMatchesDatabase(MONTH, null, null);
+    assertEquals(30 * 60 * 1000, historyService.createHistoricProcessInstanceReport().duration(MONTH).get(0).getMaximum());
+  }
+
+  public void testAggregationInBatches() {
+    // given
+    deployment(PROCESS);
+    startAndCompleteProcessInstance(2016, 0, 1, 10);
+    startAndCompleteProcessInstance(2016, 0, 2, 20);
+    startAndCompleteProcessInstance(2016, 0, 3, 30);
+
+    // when
+    assertEquals(2, aggregate(2));
+    assertEquals(1, aggregate(2));
+    assertEquals(0, aggregate(2));
+
+    // then every instance is aggregated exactly once
+    assertReportMatchesDatabase(MONTH, null, null);
+  }
+
+  public void testLateCommittedInstanceIsAggregated() {
+    // given an instance which ended after the last aggregation
+    deployment(PROCESS);
+    startAndCompleteProcessInstance(2016, 0, 10, 10);
+    aggregate(10);
+
+    // when an instance is committed late, with an end time before the last aggregated one
+    startAndCompleteProcessInstance(2016, 0, 1, 20);
+
+    // then it is aggregated nevertheless
+    assertEquals(1, aggregate(10));
+    assertReportMatchesDatabase(MONTH, null, null);
+  }
+
+  public void testRebuildAggregates() {
+    // given instances which completed while the aggregation was disabled
+    deployment(PROCESS);
+    processEngineConfiguration.setHistoricDurationAggregationEnabled(false);
+    startAndCompleteProcessInstance(2016, 0, 1, 10);
+    startAndCompleteProcessInstance(2016, 1, 1, 20);
+    processEngineConfiguration.setHistoricDurationAggregationEnabled(true);
+
+    // when the aggregates are built for the first time
+    int aggregated = aggregate(10);
+
+    // then all completed instances are aggregated
+    assertEquals(2, aggregated);
+    assertReportMatchesDatabase(MONTH, null, null);
+  }
+
+  public void testDeletedInstanceIsRemovedFromAggregates() {
+    // given
+    deployment(PROCESS);
+    startAndCompleteProcessInstance(2016, 0, 1, 10);
+    startAndCompleteProcessInstance(2016, 0, 2, 20);
+    String processInstanceId = startAndCompleteProcessInstance(2016, 0, 3, 30);
+    String otherProcessInstanceId = startAndCompleteProcessInstance(2016, 1, 1, 40);
+    aggregate(10);
+
+    // when
+    historyService.deleteHistoricProcessInstance(processInstanceId);
+    historyService.deleteHistoricProcessInstance(otherProcessInstanceId);
+
+    // then the maximum is recalculated and the empty month is removed
+    assertReportMatchesDatabase(MONTH, null, null);
+    assertEquals(20 * 60 * 1000, historyService.createHistoricProcessInstanceReport().duration(MONTH).get(0).getMaximum());
+  }
+
+  public void testDeletedInstanceIsRemovedFromQueue() {
+    // given
+    deployment(PROCESS);
+    startAndCompleteProcessInstance(2016, 0, 1, 10);
+    aggregate(10);
+    String processInstanceId = startAndCompleteProcessInstance(2016, 0, 2, 20);
+
+    // when
+    historyService.deleteHistoricProcessInstance(processInstanceId);
+
+    // then
+    assertEquals(0, aggregate(10));
+    assertReportMatchesDatabase(MONTH, null, null);
+  }
+
+  public void testPercentiles() {
+    // given
+    deployment(PROCESS);
+    for (int i = 1; i <= 10; i++) {
+      startAndCompleteProcessInstance(2016, 0, i, i);
+    }
+    aggregate(100);
+
+    // when
+    DurationReportResultEntity result = (DurationReportResultEntity) historyService.createHistoricProcessInstanceReport().duration(MONTH).get(0);
+
+    // then
+    assertEquals(5 * 60 * 1000, result.getPercentile(50), 5 * 60 * 1000 * DurationSketch.RELATIVE_ACCURACY);
+    assertEquals(10 * 60 * 1000, result.getPercentile(100), 10 * 60 * 1000 * DurationSketch.RELATIVE_ACCURACY);
+  }
+
+  public void testPercentilesAreNotAvailableIfNotAggregated() {
+    // given
+    deployment(PROCESS);
+    startAndCompleteProcessInstance(2016, 0, 1, 10);
+    processEngineConfiguration.setHistoricDurationAggregationEnabled(false);
+
+    // when
+    DurationReportResultEntity result = (DurationReportResultEntity) historyService.createHistoricProcessInstanceReport().duration(MONTH).get(0);
+
+    // then
+    assertEquals(-1, result.getPercentile(50));
+  }
+
+  public void testSketchSerialization() {
+    DurationSketch sketch = new DurationSketch();
+    sketch.add(0);
+    sketch.add(1000, 3);
+    sketch.add(50000);
+
+    DurationSketch deserialized = DurationSketch.fromBytes(sketch.toBytes());
+
+    assertEquals(5, deserialized.getCount());
+    assertEquals(0, deserialized.getPercentile(20));
+    assertEquals(sketch.getPercentile(50), deserialized.getPercentile(50));
+    assertEquals(sketch.getPercentile(100), deserialized.getPercentile(100));
+  }
+
+  protected String startAndCompleteProcessInstance(int year, int month, int dayOfMonth, int durationInMinutes) {
+    Calendar calendar = Calendar.getInstance();
+    calendar.clear();
+    calendar.set(year, month, dayOfMonth, 10, 0);
+    ClockUtil.setCurrentTime(calendar.getTime());
+
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process");
+
+    calendar.add(Calendar.MINUTE, durationInMinutes);
+    ClockUtil.setCurrentTime(calendar.getTime());
+
+    Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+    taskService.complete(task.getId());
+
+    return processInstance.getId();
+  }
+
+  protected int aggregate(int batchSize) {
+    return processEngineConfiguration.getCommandExecutorTxRequired()
+      .execute(new AggregateHistoricDurationsCmd(batchSize));
+  }
+
+  protected Date startOfMonth(int year, int month) {
+    return dayOfMonth(year, month, 1);
+  }
+
+  protected Date dayOfMonth(int year, int month, int dayOfMonth) {
+    Calendar calendar = Calendar.getInstance();
+    calendar.clear();
+    calendar.set(year, month, dayOfMonth);
+    return calendar.getTime();
+  }
+
+  protected void assertReportMatchesDatabase(PeriodUnit periodUnit, Date startedAfter, Date startedBefore) {
+    // the bound of the report is inclusive
+    Date startedBeforeEndOfMonth = startedBefore != null ? new Date(startedBefore.getTime() - 1) : null;
+
+    List<DurationReportResult> aggregatedResult = createReport(periodUnit, startedAfter, startedBeforeEndOfMonth);
+
+    processEngineConfiguration.setHistoricDurationAggregationEnabled(false);
+    List<DurationReportResult> result;
+    try {
+      result = createReport(periodUnit, startedAfter, startedBeforeEndOfMonth);
+    }
+    finally {
+      processEngineConfiguration.setHistoricDurationAggregationEnabled(true);
+    }
+
+    assertEquals(result.size(), aggregatedResult.size());
+    for (DurationReportResult expected : result) {
+      DurationReportResult actual = findPeriod(aggregatedResult, expected.getPeriod());
+      assertEquals(expected.getPeriodUnit(), actual.getPeriodUnit());
+      assertEquals(expected.getMinimum(), actual.getMinimum());
+      assertEquals(expected.getMaximum(), actual.getMaximum());
+      // databases may round the average differently
+      assertEquals(expected.getAverage(), actual.getAverage(), 1);
+      assertTrue(((DurationReportResultEntity) actual).getPercentile(50) >= 0);
+    }
+  }
+
+  protected DurationReportResult findPeriod(List<DurationReportResult> results, int period) {
+    for (DurationReportResult result : results) {
+      if (result.getPeriod() == period) {
+        return result;
+      }
+    }
+    fail("missing result for period " + period);
+    return null;
+  }
+
+  protected List<DurationReportResult> createReport(PeriodUnit periodUnit, Date startedAfter, Date startedBefore) {
+    HistoricProcessInstanceReport report = historyService.createHistoricProcessInstanceReport();
+    if (startedAfter != null) {
+      report.startedAfter(startedAfter);
+    }
+    if (startedBefore != null) {
+      report.startedBefore(startedBefore);
+    }
+    return report.duration(periodUnit);
+  }
+
+}
@@ -0,0 +1,337 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.impl.history.event.HistoricProcessInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.log.HistoryEventLog;
+import org.camunda.bpm.engine.impl.history.log.HistoryEventLogHandler;
+import org.camunda.bpm.engine.impl.history.log.HistoryEventLogReader;
+import org.camunda.bpm.engine.impl.history.log.HistoryEventLogRecord;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.test.RequiredHistoryLevel;
+
+@RequiredHistoryLevel(ProcessEngineConfiguration.HISTORY_FULL)
+public class HistoryEventLogTest extends PluggableProcessEngineTestCase {
+
+  protected static final String ONE_TASK_PROCESS = "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml";
+
+  protected static final int SEGMENT_SIZE = 1024;
+
+  protected File directory;
+  protected HistoryEventLog log;
+  protected HistoryEventHandler defaultHistoryEventHandler;
+
+  protected void setUp() throws Exception {
+    directory = File.createTempFile("history-event-log", "");
+    directory.delete();
+
+    log = new HistoryEventLog(directory, SEGMENT_SIZE);
+    log.open();
+
+    defaultHistoryEventHandler = processEngineConfiguration.getHistoryEventHandler();
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setHistoryEventHandler(defaultHistoryEventHandler);
+    log.close();
+    for (File file : directory.listFiles()) {
+      file.delete();
+    }
+    directory.delete();
+  }
+
+  public void testAppendAndRead() {
+    // when
+    long first = log.append("first".getBytes());
+    long second = log.append("second".getBytes());
+
+    // then
+    List<HistoryEventLogRecord> records = new HistoryEventLogReader(directory).read(first, 10);
+    assertEquals(2, records.size());
+    assertEquals(first, records.get(0).getSequence());
+    assertEquals("first", new String(records.get(0).getPayload()));
+    assertEquals(second, records.get(1).getSequence());
+    assertEquals("second", new String(records.get(1).getPayload()));
+  }
+
+  public void testReadFromSequence() {
+    // given
+    for (int i = 0; i < 5; i++) {
+      log.append(("record" + i).getBytes());
+    }
+
+    // when
+    List<HistoryEventLogRecord> records = new HistoryEventLogReader(directory).read(3, 2);
+
+    // then
+    assertEquals(2, records.size());
+    assertEquals("record2", new String(records.get(0).getPayload()));
+    assertEquals("record3", new String(records.get(1).getPayload()));
+  }
+
+  public void testSegmentRotation() {
+    // given records which do not fit into a single segment
+    byte[] payload = new byte[200];
+    for (int i = 0; i < 20; i++) {
+      log.append(payload);
+    }
+
+    // then
+    List<File> segments = HistoryEventLog.getSegments(directory);
+    assertTrue(segments.size() > 1);
+    assertEquals(1, HistoryEventLog.getFirstSequence(segments.get(0)));
+
+    HistoryEventLogReader reader = new HistoryEventLogReader(directory);
+    assertEquals(20, reader.read(1, 100).size());
+
+    // and reading can start in a later segment
+    long firstSequenceOfLastSegment = HistoryEventLog.getFirstSequence(segments.get(segments.size() - 1));
+    List<HistoryEventLogRecord> records = reader.read(firstSequenceOfLastSegment, 100);
+    assertEquals(firstSequenceOfLastSegment, records.get(0).getSequence());
+    assertEquals(20, records.get(records.size() - 1).getSequence());
+  }
+
+  public void testReopen() {
+    // given
+    log.append("first".getBytes());
+    log.close();
+
+    // when
+    log = new HistoryEventLog(directory, SEGMENT_SIZE);
+    log.open();
+    long sequence = log.append("second".getBytes());
+
+    // then
+    assertEquals(2, sequence);
+    assertEquals(2, new HistoryEventLogReader(directory).read(1, 10).size());
+  }
+
+  public void testRecordExceedsSegmentSize() {
+    try {
+      log.append(new byte[SEGMENT_SIZE]);
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      assertTextPresent("exceeds the segment size", e.getMessage());
+    }
+  }
+
+  public void testCorruptRecordIsSkipped() throws IOException {
+    // given
+    for (int i = 0; i < 3; i++) {
+      log.append(("record" + i).getBytes());
+    }
+
+    // when the payload of the second record is corrupted
+    int secondRecordPosition = HistoryEventLog.SEGMENT_HEADER_SIZE + HistoryEventLog.RECORD_HEADER_SIZE + 7;
+    writeSegment(secondRecordPosition + HistoryEventLog.RECORD_HEADER_SIZE, 0);
+
+    // then the other records are read
+    List<HistoryEventLogRecord> records = new HistoryEventLogReader(directory).read(1, 10);
+    assertEquals(2, records.size());
+    assertEquals("record0", new String(records.get(0).getPayload()));
+    assertEquals("record2", new String(records.get(1).getPayload()));
+  }
+
+  public void testReadingContinuesAtNextIndexedRecordAfterCorruptLength() throws IOException {
+    // given a segment with more records than the index interval
+    log.close();
+    log = new HistoryEventLog(directory, 64 * 1024);
+    log.open();
+
+    int recordCount = 2 * HistoryEventLog.INDEX_INTERVAL;
+    for (int i = 0; i < recordCount; i++) {
+      log.append(new byte[] { (byte) i });
+    }
+
+    // when the length of the second record is corrupted
+    int secondRecordPosition = HistoryEventLog.SEGMENT_HEADER_SIZE + HistoryEventLog.RECORD_HEADER_SIZE + 1;
+    writeSegment(secondRecordPosition, Integer.MAX_VALUE);
+
+    // then reading continues with the first indexed record after the corrupt one
+    List<HistoryEventLogRecord> records = new HistoryEventLogReader(directory).read(1, recordCount);
+    assertEquals(1 + HistoryEventLog.INDEX_INTERVAL, records.size());
+    assertEquals(1, records.get(0).getSequence());
+    assertEquals(1 + HistoryEventLog.INDEX_INTERVAL, records.get(1).getSequence());
+    assertEquals(recordCount, records.get(records.size() - 1).getSequence());
+  }
+
+  public void testReadFromIndexedSequence() {
+    // given
+    log.close();
+    log = new HistoryEventLog(directory, 64 * 1024);
+    log.open();
+
+    for (int i = 0; i < 3 * HistoryEventLog.INDEX_INTERVAL; i++) {
+      log.append(("record" + i).getBytes());
+    }
+
+    // when
+    long sequence = 2 * HistoryEventLog.INDEX_INTERVAL + 10;
+    List<HistoryEventLogRecord> records = new HistoryEventLogReader(directory).read(sequence, 1);
+
+    // then
+    assertEquals(1, records.size());
+    assertEquals(sequence, records.get(0).getSequence());
+    assertEquals("record" + (sequence - 1), new String(records.get(0).getPayload()));
+  }
+
+  public void testFailedAppendIsRetried() {
+    // given
+    HistoryEventLogHandler handler = new HistoryEventLogHandler(log);
+    log.close();
+
+    // when the log cannot be appended to
+    handler.handleEvent(createHistoryEvent("first"));
+
+    // then the event is kept
+    assertEquals(1, handler.getPendingRecordCount());
+
+    // when the next event is appended
+    log.open();
+    handler.handleEvent(createHistoryEvent("second"));
+
+    // then both events are appended in order
+    assertEquals(0, handler.getPendingRecordCount());
+    List<HistoryEventLogRecord> records = new HistoryEventLogReader(directory).read(1, 10);
+    assertEquals(2, records.size());
+    assertEquals("first", records.get(0).getHistoryEvent().getId());
+    assertEquals("second", records.get(1).getHistoryEvent().getId());
+  }
+
+  public void testPendingEventsAreLimited() {
+    // given
+    HistoryEventLogHandler handler = new HistoryEventLogHandler(log);
+    handler.setMaxPendingRecords(1);
+    log.close();
+
+    // when
+    handler.handleEvent(createHistoryEvent("first"));
+    handler.handleEvent(createHistoryEvent("second"));
+
+    // then the oldest event is dropped
+    assertEquals(1, handler.getPendingRecordCount());
+    assertEquals(1, handler.getDroppedRecordCount());
+
+    log.open();
+    handler.handleEvent(createHistoryEvent("third"));
+
+    List<HistoryEventLogRecord> records = new HistoryEventLogReader(directory).read(1, 10);
+    assertEquals(2, records.size());
+    assertEquals("second", records.get(0).getHistoryEvent().getId());
+    assertEquals("third", records.get(1).getHistoryEvent().getId());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testHistoryIsOnlyWrittenToLog() {
+    // given
+    useLogWithDefaultSegmentSize();
+
+    // when
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    // then
+    assertEquals(0, historyService.createHistoricProcessInstanceQuery().count());
+
+    final List<HistoryEvent> historyEvents = new ArrayList<HistoryEvent>();
+    new HistoryEventLogReader(directory).replay(1, new CollectingHistoryEventHandler(historyEvents));
+    assertFalse(historyEvents.isEmpty());
+
+    HistoricProcessInstanceEventEntity processInstanceStartEvent = (HistoricProcessInstanceEventEntity) historyEvents.get(0);
+    assertEquals(processInstance.getId(), processInstanceStartEvent.getProcessInstanceId());
+    assertEquals("oneTaskProcess", processInstanceStartEvent.getProcessDefinitionKey());
+    assertNotNull(processInstanceStartEvent.getStartTime());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testReplayIntoDatabase() {
+    // given
+    useLogWithDefaultSegmentSize();
+
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    Task task = taskService.createTaskQuery().singleResult();
+    taskService.complete(task.getId());
+
+    processEngineConfiguration.setHistoryEventHandler(defaultHistoryEventHandler);
+
+    // when
+    long nextSequence = new HistoryEventLogReader(directory)
+      .replay(1, processEngineConfiguration.getCommandExecutorTxRequiresNew());
+
+    // then
+    assertEquals(log.getNextSequence(), nextSequence);
+
+    HistoricProcessInstance historicProcessInstance = historyService.createHistoricProcessInstanceQuery()
+      .processInstanceId(processInstance.getId())
+      .singleResult();
+    assertNotNull(historicProcessInstance.getStartTime());
+    assertNotNull(historicProcessInstance.getEndTime());
+    assertEquals(1, historyService.createHistoricTaskInstanceQuery().count());
+  }
+
+  protected void writeSegment(int position, int value) throws IOException {
+    RandomAccessFile segment = new RandomAccessFile(HistoryEventLog.getSegments(directory).get(0), "rw");
+    try {
+      segment.seek(position);
+      segment.writeInt(value);
+    }
+    finally {
+      segment.close();
+    }
+  }
+
+  protected HistoryEvent createHistoryEvent(String id) {
+    HistoricProcessInstanceEventEntity historyEvent = new HistoricProcessInstanceEventEntity();
+    historyEvent.setId(id);
+    return historyEvent;
+  }
+
+  protected void useLogWithDefaultSegmentSize() {
+    log.close();
+    log = new HistoryEventLog(directory);
+    log.open();
+    processEngineConfiguration.setHistoryEventHandler(new HistoryEventLogHandler(log));
+  }
+
+  protected static class CollectingHistoryEventHandler implements HistoryEventHandler {
+
+    protected List<HistoryEvent> historyEvents;
+
+    public CollectingHistoryEventHandler(List<HistoryEvent> historyEvents) {
+      this.historyEvents = historyEvents;
+    }
+
+    public void handleEvent(HistoryEvent historyEvent) {
+      historyEvents.add(historyEvent);
+    }
+
+    public void handleEvents(List<HistoryEvent> historyEvents) {
+      this.historyEvents.addAll(historyEvents);
+    }
+  }
+
+}
@@ -0,0 +1,194 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.history;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.engine.impl.history.ProcessDefinitionHistoryLevel;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.RequiredHistoryLevel;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.model.bpmn.impl.BpmnModelConstants;
+import org.camunda.bpm.model.bpmn.instance.Process;
+
+@RequiredHistoryLevel(ProcessEngineConfiguration.HISTORY_FULL)
+public class ProcessDefinitionHistoryLevelTest extends PluggableProcessEngineTestCase {
+
+  protected HistoryLevel engineHistoryLevel;
+  protected Map<String, String> processDefinitionHistoryLevels;
+
+  protected void setUp() throws Exception {
+    engineHistoryLevel = processEngineConfiguration.getHistoryLevel();
+    processDefinitionHistoryLevels = processEngineConfiguration.getProcessDefinitionHistoryLevels();
+
+    processEngineConfiguration.setProcessDefinitionHistoryLevelEnabled(true);
+    processEngineConfiguration.setHistoryLevel(new ProcessDefinitionHistoryLevel(engineHistoryLevel));
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setProcessDefinitionHistoryLevelEnabled(false);
+    processEngineConfiguration.setHistoryLevel(engineHistoryLevel);
+    processEngineConfiguration.setProcessDefinitionHistoryLevels(processDefinitionHistoryLevels);
+  }
+
+  public void testHistoryLevelOfProcessDefinition() {
+    // given
+    deployment(createProcess("technicalProcess", ProcessEngineConfiguration.HISTORY_NONE));
+
+    // when
+    runtimeService.startProcessInstanceByKey("technicalProcess", Variables.createVariables().putValue("foo", "bar"));
+    completeTask();
+
+    // then no history is produced
+    assertEquals(0, historyService.createHistoricProcessInstanceQuery().count());
+    assertEquals(0, historyService.createHistoricActivityInstanceQuery().count());
+    assertEquals(0, historyService.createHistoricTaskInstanceQuery().count());
+    assertEquals(0, historyService.createHistoricVariableInstanceQuery().count());
+  }
+
+  public void testHistoryLevelOfEngineAppliesToOtherProcessDefinitions() {
+    // given
+    deployment(createProcess("technicalProcess", ProcessEngineConfiguration.HISTORY_NONE),
+        createProcess("auditedProcess", null));
+
+    // when
+    runtimeService.startProcessInstanceByKey("technicalProcess");
+    runtimeService.startProcessInstanceByKey("auditedProcess", Variables.createVariables().putValue("foo", "bar"));
+
+    // then
+    assertEquals(0, historyService.createHistoricProcessInstanceQuery().processDefinitionKey("technicalProcess").count());
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().processDefinitionKey("auditedProcess").count());
+    assertEquals(1, historyService.createHistoricTaskInstanceQuery().processDefinitionKey("auditedProcess").count());
+    assertEquals(1, historyService.createHistoricVariableInstanceQuery().variableName("foo").count());
+  }
+
+  public void testHistoryLevelOfConfigurationOverridesAttribute() {
+    // given
+    Map<String, String> historyLevels = new HashMap<String, String>();
+    historyLevels.put("process", ProcessEngineConfiguration.HISTORY_ACTIVITY);
+    processEngineConfiguration.setProcessDefinitionHistoryLevels(historyLevels);
+
+    deployment(createProcess("process", ProcessEngineConfiguration.HISTORY_NONE));
+
+    // when
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("foo", "bar"));
+
+    // then process and activity instances are written, but no variables
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().count());
+    assertTrue(historyService.createHistoricActivityInstanceQuery().count() > 0);
+    assertEquals(0, historyService.createHistoricVariableInstanceQuery().count());
+  }
+
+  public void testInvalidHistoryLevel() {
+    try {
+      deployment(createProcess("process", "unknown"));
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      assertTextPresent("invalid history level 'unknown' of process definition 'process'", e.getMessage());
+    }
+  }
+
+  public void testAttributeIsIgnoredIfDisabled() {
+    // given
+    processEngineConfiguration.setProcessDefinitionHistoryLevelEnabled(false);
+    processEngineConfiguration.setHistoryLevel(engineHistoryLevel);
+    deployment(createProcess("technicalProcess", ProcessEngineConfiguration.HISTORY_NONE));
+
+    // when
+    runtimeService.startProcessInstanceByKey("technicalProcess");
+
+    // then
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().count());
+  }
+
+  public void testHistoryLevelOfProcessDefinitionAfterCacheEviction() {
+    // given
+    deployment(createProcess("technicalProcess", ProcessEngineConfiguration.HISTORY_NONE));
+    runtimeService.startProcessInstanceByKey("technicalProcess");
+
+    // when the process definition is parsed again
+    processEngineConfiguration.getDeploymentCache().discardProcessDefinitionCache();
+    completeTask();
+
+    // then still no history is produced
+    assertEquals(0, historyService.createHistoricTaskInstanceQuery().count());
+    assertEquals(0, historyService.createHistoricProcessInstanceQuery().count());
+  }
+
+  public void testHistoryLevelOfProcessDefinitionRequiresEngineHistory() {
+    // given a process engine without history
+    ProcessEngineConfigurationImpl configuration = (ProcessEngineConfigurationImpl) ProcessEngineConfiguration
+      .createStandaloneInMemProcessEngineConfiguration()
+      .setProcessEngineName(getClass().getSimpleName())
+      .setJdbcUrl("jdbc:h2:mem:camunda" + getClass().getSimpleName())
+      .setHistory(ProcessEngineConfiguration.HISTORY_NONE);
+    configuration.setProcessDefinitionHistoryLevelEnabled(true);
+
+    ProcessEngine processEngine = configuration.buildProcessEngine();
+    try {
+      // when
+      processEngine.getRepositoryService()
+        .createDeployment()
+        .addModelInstance("process.bpmn", createProcess("process", ProcessEngineConfiguration.HISTORY_FULL))
+        .deploy();
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // then
+      assertTextPresent("history level 'full' of process definition 'process' requires a history level", e.getMessage());
+    }
+    finally {
+      processEngine.close();
+    }
+  }
+
+  public void testHistoryLevelEqualsEngineHistoryLevel() {
+    HistoryLevel historyLevel = processEngineConfiguration.getHistoryLevel();
+
+    assertEquals(historyLevel, engineHistoryLevel);
+    assertEquals(engineHistoryLevel, historyLevel);
+    assertEquals(engineHistoryLevel.hashCode(), historyLevel.hashCode());
+    assertEquals(engineHistoryLevel.getId(), historyLevel.getId());
+  }
+
+  protected void completeTask() {
+    Task task = taskService.createTaskQuery().singleResult();
+    taskService.complete(task.getId());
+  }
+
+  protected BpmnModelInstance createProcess(String key, String historyLevel) {
+    BpmnModelInstance modelInstance = Bpmn.createExecutableProcess(key)
+      .startEvent()
+      .userTask()
+      .endEvent()
+      .done();
+
+    if (historyLevel != null) {
+      Process process = modelInstance.getModelElementById(key);
+      process.setAttributeValueNs(BpmnModelConstants.CAMUNDA_NS, "historyLevel", historyLevel);
+    }
+
+    return modelInstance;
+  }
+
+}
@@ -0,0 +1,253 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.jobexecutor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquiredJobs;
+import org.camunda.bpm.engine.impl.jobexecutor.AdaptiveJobAcquisitionStrategy;
+import org.camunda.bpm.engine.impl.jobexecutor.DefaultJobExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.JobAcquisitionContext;
+import org.camunda.bpm.engine.impl.jobexecutor.JobAcquisitionDecision.Reason;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorLane;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdaptiveJobAcquisitionStrategyTest {
+
+  protected static final String ENGINE_NAME = "engine";
+  protected static final int BASE_NUM_JOBS_TO_ACQUIRE = 3;
+
+  protected CapacityJobExecutor jobExecutor;
+  protected AdaptiveJobAcquisitionStrategy strategy;
+  protected JobAcquisitionContext context;
+
+  @Before
+  public void setUp() {
+    jobExecutor = new CapacityJobExecutor();
+    jobExecutor.setMaxJobsPerAcquisition(BASE_NUM_JOBS_TO_ACQUIRE);
+    jobExecutor.setMaxAdaptiveJobsPerAcquisition(20);
+    // no idle and backoff wait times
+    jobExecutor.setWaitTimeInMillis(0);
+
+    strategy = new AdaptiveJobAcquisitionStrategy(jobExecutor);
+    context = new JobAcquisitionContext();
+  }
+
+  @Test
+  public void testIncreaseWhileAllJobsAreAcquired() {
+    // when all requested jobs are acquired
+    reconfigure(buildAcquiredJobs(BASE_NUM_JOBS_TO_ACQUIRE, BASE_NUM_JOBS_TO_ACQUIRE, 0));
+
+    // then more jobs are acquired next time
+    assertEquals(4, strategy.getNumJobsToAcquire(ENGINE_NAME));
+    assertEquals(Reason.INCREASE, getReason());
+
+    // and again
+    reconfigure(buildAcquiredJobs(4, 4, 0));
+    assertEquals(6, strategy.getNumJobsToAcquire(ENGINE_NAME));
+  }
+
+  @Test
+  public void testIncreaseIsLimitedByMaximum() {
+    for (int i = 0; i < 20; i++) {
+      int numJobs = strategy.getNumJobsToAcquire(ENGINE_NAME);
+      reconfigure(buildAcquiredJobs(numJobs, numJobs, 0));
+    }
+
+    assertEquals(20, strategy.getNumJobsToAcquire(ENGINE_NAME));
+  }
+
+  @Test
+  public void testSteadyIfFewerJobsAreAvailable() {
+    reconfigure(buildAcquiredJobs(BASE_NUM_JOBS_TO_ACQUIRE, 1, 0));
+
+    assertEquals(BASE_NUM_JOBS_TO_ACQUIRE, strategy.getNumJobsToAcquire(ENGINE_NAME));
+    assertEquals(Reason.STEADY, getReason());
+  }
+
+  @Test
+  public void testDecreaseOnLockContention() {
+    // when half of the jobs cannot be locked
+    reconfigure(buildAcquiredJobs(BASE_NUM_JOBS_TO_ACQUIRE * 2, BASE_NUM_JOBS_TO_ACQUIRE * 2, BASE_NUM_JOBS_TO_ACQUIRE));
+
+    // then fewer jobs are acquired
+    assertEquals(1, strategy.getNumJobsToAcquire(ENGINE_NAME));
+    assertEquals(Reason.LOCK_CONTENTION, getReason());
+  }
+
+  @Test
+  public void testLimitedByFreeCapacity() {
+    jobExecutor.freeCapacity = 2;
+
+    reconfigure(buildAcquiredJobs(BASE_NUM_JOBS_TO_ACQUIRE, BASE_NUM_JOBS_TO_ACQUIRE, 0));
+
+    assertEquals(2, strategy.getNumJobsToAcquire(ENGINE_NAME));
+  }
+
+  @Test
+  public void testDecreaseOnSaturation() {
+    jobExecutor.freeCapacity = 0;
+
+    reconfigure(buildAcquiredJobs(BASE_NUM_JOBS_TO_ACQUIRE, BASE_NUM_JOBS_TO_ACQUIRE, 0));
+
+    // then the minimum number of jobs is acquired to detect free capacity
+    assertEquals(1, strategy.getNumJobsToAcquire(ENGINE_NAME));
+    assertEquals(Reason.SATURATED, getReason());
+  }
+
+  @Test
+  public void testSaturatedIfDefaultThreadPoolIsFullWhileLanesAreIdle() throws Exception {
+    // given a full default thread pool
+    final CountDownLatch jobStarted = new CountDownLatch(1);
+    final CountDownLatch releaseJobs = new CountDownLatch(1);
+    Runnable blockingJob = new Runnable() {
+      public void run() {
+        jobStarted.countDown();
+        try {
+          releaseJobs.await();
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+
+    ThreadPoolExecutor defaultThreadPool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(1));
+    defaultThreadPool.execute(blockingJob);
+    jobStarted.await();
+    defaultThreadPool.execute(blockingJob);
+
+    // and an idle lane
+    JobExecutorLane lane = new JobExecutorLane("lane");
+    lane.start();
+
+    DefaultJobExecutor laneJobExecutor = new DefaultJobExecutor();
+    laneJobExecutor.setThreadPoolExecutor(defaultThreadPool);
+    laneJobExecutor.setLanes(Collections.singletonList(lane));
+    laneJobExecutor.setMaxJobsPerAcquisition(BASE_NUM_JOBS_TO_ACQUIRE);
+    strategy = new AdaptiveJobAcquisitionStrategy(laneJobExecutor);
+
+    try {
+      // when
+      reconfigure(buildAcquiredJobs(BASE_NUM_JOBS_TO_ACQUIRE, BASE_NUM_JOBS_TO_ACQUIRE, 0));
+
+      // then the free capacity of the lane does not count for the jobs of the default thread pool
+      assertEquals(0, laneJobExecutor.getFreeExecutionCapacity());
+      assertEquals(Reason.SATURATED, getReason());
+      assertEquals(1, strategy.getNumJobsToAcquire(ENGINE_NAME));
+    }
+    finally {
+      releaseJobs.countDown();
+      defaultThreadPool.shutdown();
+      lane.shutdown();
+    }
+  }
+
+  @Test
+  public void testStopIncreaseOnIncreasingExecutionTime() {
+    jobExecutor.getJobExecutionStatistics().jobExecuted(ENGINE_NAME, 10);
+    reconfigure(buildAcquiredJobs(BASE_NUM_JOBS_TO_ACQUIRE, BASE_NUM_JOBS_TO_ACQUIRE, 0));
+    assertEquals(4, strategy.getNumJobsToAcquire(ENGINE_NAME));
+
+    // when the jobs take considerably longer to execute
+    for (int i = 0; i < 10; i++) {
+      jobExecutor.getJobExecutionStatistics().jobExecuted(ENGINE_NAME, 100);
+    }
+    reconfigure(buildAcquiredJobs(4, 4, 0));
+
+    // then fewer jobs are acquired
+    assertEquals(3, strategy.getNumJobsToAcquire(ENGINE_NAME));
+    assertEquals(Reason.LATENCY, getReason());
+
+    // and the number of jobs grows again if the execution time is stable
+    reconfigure(buildAcquiredJobs(3, 3, 0));
+    assertEquals(Reason.INCREASE, getReason());
+  }
+
+  @Test
+  public void testSaturationWaitTimeFollowsExecutionTime() {
+    jobExecutor.getJobExecutionStatistics().jobExecuted(ENGINE_NAME, 50);
+
+    // when all jobs are rejected
+    AcquiredJobs acquiredJobs = buildAcquiredJobs(BASE_NUM_JOBS_TO_ACQUIRE, BASE_NUM_JOBS_TO_ACQUIRE, 0);
+    context.reset();
+    context.submitAcquiredJobs(ENGINE_NAME, acquiredJobs);
+    for (List<String> jobIds : acquiredJobs.getJobIdBatches()) {
+      context.submitRejectedBatch(ENGINE_NAME, jobIds);
+    }
+    strategy.reconfigure(context);
+
+    // then the acquisition waits for about the execution time of a job
+    assertEquals(50, strategy.getWaitTime());
+    assertEquals(0, strategy.getNumJobsToAcquire(ENGINE_NAME));
+  }
+
+  protected void reconfigure(AcquiredJobs acquiredJobs) {
+    context.reset();
+    context.submitAcquiredJobs(ENGINE_NAME, acquiredJobs);
+    strategy.reconfigure(context);
+  }
+
+  protected Reason getReason() {
+    return strategy.getDecisions().get(ENGINE_NAME).getReason();
+  }
+
+  /**
+   * numJobsToAcquire >= numJobsAcquired >= numJobsFailedToLock must hold
+   */
+  protected AcquiredJobs buildAcquiredJobs(int numJobsToAcquire, int numJobsAcquired, int numJobsFailedToLock) {
+    AcquiredJobs acquiredJobs = new AcquiredJobs(numJobsToAcquire);
+    for (int i = 0; i < numJobsAcquired; i++) {
+      acquiredJobs.addJobIdBatch(Arrays.asList(Integer.toString(i)));
+    }
+
+    for (int i = 0; i < numJobsFailedToLock; i++) {
+      acquiredJobs.removeJobId(Integer.toString(i));
+    }
+
+    return acquiredJobs;
+  }
+
+  public static class CapacityJobExecutor extends JobExecutor {
+
+    protected int freeCapacity = -1;
+
+    protected void startExecutingJobs() {
+      // do nothing
+    }
+
+    protected void stopExecutingJobs() {
+      // do nothing
+    }
+
+    public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+      // do nothing
+    }
+
+    public int getFreeExecutionCapacity() {
+      return freeCapacity;
+    }
+  }
+
+}
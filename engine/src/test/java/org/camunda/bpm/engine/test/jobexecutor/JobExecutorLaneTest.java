@@ -0,0 +1,179 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.jobexecutor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.camunda.bpm.engine.history.HistoricJobLog;
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.cmd.AcquireJobsCmd;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquiredJobs;
+import org.camunda.bpm.engine.impl.jobexecutor.DefaultJobExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorLane;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.MessageEntity;
+import org.camunda.bpm.engine.runtime.Job;
+
+public class JobExecutorLaneTest extends JobExecutorTestCase {
+
+  protected CommandExecutor commandExecutor;
+  protected DefaultJobExecutor jobExecutor;
+
+  protected String lowPriorityJobId;
+  protected String highPriorityJobId;
+
+  public void setUp() throws Exception {
+    super.setUp();
+    commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+    jobExecutor = new DefaultJobExecutor();
+
+    lowPriorityJobId = createTweetMessage("low", 0);
+    highPriorityJobId = createTweetMessage("high", 10);
+  }
+
+  public void tearDown() throws Exception {
+    for (Job job : managementService.createJobQuery().list()) {
+      managementService.deleteJob(job.getId());
+    }
+
+    commandExecutor.execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        List<HistoricJobLog> historicJobLogs = historyService.createHistoricJobLogQuery().list();
+        for (HistoricJobLog historicJobLog : historicJobLogs) {
+          commandContext.getHistoricJobLogManager().deleteHistoricJobLogById(historicJobLog.getId());
+        }
+        return null;
+      }
+    });
+
+    super.tearDown();
+  }
+
+  public void testAcquireJobsByPriorityLane() {
+    JobExecutorLane highPriorityLane = new JobExecutorLane("high-priority");
+    highPriorityLane.setPriorityMin(5L);
+    jobExecutor.setLanes(Collections.singletonList(highPriorityLane));
+
+    AcquiredJobs defaultLaneJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor, 10, null));
+    assertEquals(Arrays.asList(lowPriorityJobId), getJobIds(defaultLaneJobs));
+
+    AcquiredJobs highPriorityLaneJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor, 10, highPriorityLane));
+    assertEquals(Arrays.asList(highPriorityJobId), getJobIds(highPriorityLaneJobs));
+  }
+
+  public void testAcquireJobsByJobHandlerTypeLane() {
+    JobExecutorLane tweetLane = new JobExecutorLane("tweets");
+    tweetLane.setJobHandlerTypes(new HashSet<String>(Arrays.asList(tweetHandler.getType())));
+    jobExecutor.setLanes(Collections.singletonList(tweetLane));
+
+    AcquiredJobs defaultLaneJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor, 10, null));
+    assertEquals(0, defaultLaneJobs.size());
+
+    AcquiredJobs tweetLaneJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor, 10, tweetLane));
+    assertEquals(2, tweetLaneJobs.size());
+  }
+
+  public void testAcquireJobsByMaximumPriorityLane() {
+    JobExecutorLane lowPriorityLane = new JobExecutorLane("low-priority");
+    lowPriorityLane.setPriorityMax(5L);
+    jobExecutor.setLanes(Collections.singletonList(lowPriorityLane));
+
+    AcquiredJobs defaultLaneJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor, 10, null));
+    assertEquals(Arrays.asList(highPriorityJobId), getJobIds(defaultLaneJobs));
+  }
+
+  public void testAcquireJobsWithLaneWithoutCriteria() {
+    jobExecutor.setLanes(Collections.singletonList(new JobExecutorLane("all")));
+
+    AcquiredJobs defaultLaneJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor, 10, null));
+    assertEquals(0, defaultLaneJobs.size());
+  }
+
+  public void testJobsRejectedByLaneAreUnlocked() {
+    // given jobs acquired for a lane which does not accept them
+    JobExecutorLane tweetLane = new JobExecutorLane("tweets");
+    tweetLane.setJobHandlerTypes(new HashSet<String>(Arrays.asList(tweetHandler.getType())));
+    jobExecutor.setLanes(Collections.singletonList(tweetLane));
+
+    AcquiredJobs tweetLaneJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor, 10, tweetLane));
+    List<String> jobIds = getJobIds(tweetLaneJobs);
+    assertNotNull(findJob(jobIds.get(0)).getLockOwner());
+
+    // when
+    jobExecutor.executeJobs(jobIds, (ProcessEngineImpl) processEngine, tweetLane);
+
+    // then the jobs are not executed outside of the lane but unlocked
+    for (String jobId : jobIds) {
+      JobEntity job = findJob(jobId);
+      assertNull(job.getLockOwner());
+      assertNull(job.getLockExpirationTime());
+    }
+  }
+
+  public void testAcquireJobsWithoutLanes() {
+    AcquiredJobs acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor, 10, null));
+    assertEquals(2, acquiredJobs.size());
+  }
+
+  public void testFreeCapacityOfLane() {
+    JobExecutorLane lane = new JobExecutorLane("lane");
+    lane.setQueueSize(2);
+    lane.setCorePoolSize(1);
+    lane.setMaxPoolSize(1);
+
+    assertEquals(0, lane.getFreeCapacity());
+
+    lane.start();
+    try {
+      assertEquals(3, lane.getFreeCapacity());
+    }
+    finally {
+      lane.shutdown();
+    }
+  }
+
+  protected String createTweetMessage(final String msg, final long priority) {
+    return commandExecutor.execute(new Command<String>() {
+      public String execute(CommandContext commandContext) {
+        MessageEntity message = createTweetMessage(msg);
+        message.setPriority(priority);
+        commandContext.getJobManager().send(message);
+        return message.getId();
+      }
+    });
+  }
+
+  protected JobEntity findJob(final String jobId) {
+    return commandExecutor.execute(new Command<JobEntity>() {
+      public JobEntity execute(CommandContext commandContext) {
+        return commandContext.getJobManager().findJobById(jobId);
+      }
+    });
+  }
+
+  protected List<String> getJobIds(AcquiredJobs acquiredJobs) {
+    List<String> jobIds = new ArrayList<String>();
+    for (List<String> batch : acquiredJobs.getJobIdBatches()) {
+      jobIds.addAll(batch);
+    }
+    return jobIds;
+  }
+
+}
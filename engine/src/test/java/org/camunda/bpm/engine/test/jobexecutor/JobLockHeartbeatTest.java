@@ -0,0 +1,133 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.jobexecutor;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.history.HistoricJobLog;
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.cmd.AcquireJobsCmd;
+import org.camunda.bpm.engine.impl.cmd.ExtendJobLocksCmd;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquiredJobs;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.JobLockHeartbeat;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.MessageEntity;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+
+public class JobLockHeartbeatTest extends JobExecutorTestCase {
+
+  protected static final long START_TIME = 928374923546L;
+
+  protected CommandExecutor commandExecutor;
+  protected JobExecutor jobExecutor;
+  protected String jobId;
+  protected AcquiredJobs acquiredJobs;
+
+  public void setUp() throws Exception {
+    super.setUp();
+    ClockUtil.setCurrentTime(new Date(START_TIME));
+
+    commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+    jobExecutor = processEngineConfiguration.getJobExecutor();
+
+    jobId = commandExecutor.execute(new Command<String>() {
+      public String execute(CommandContext commandContext) {
+        MessageEntity message = createTweetMessage("i'm coding a test");
+        commandContext.getJobManager().send(message);
+        return message.getId();
+      }
+    });
+
+    acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor));
+  }
+
+  public void tearDown() throws Exception {
+    managementService.deleteJob(jobId);
+
+    commandExecutor.execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        List<HistoricJobLog> historicJobLogs = historyService.createHistoricJobLogQuery().list();
+        for (HistoricJobLog historicJobLog : historicJobLogs) {
+          commandContext.getHistoricJobLogManager().deleteHistoricJobLogById(historicJobLog.getId());
+        }
+        return null;
+      }
+    });
+
+    ClockUtil.reset();
+    super.tearDown();
+  }
+
+  public void testExtendLockOfOwnJob() {
+    ClockUtil.setCurrentTime(new Date(START_TIME + 60000));
+
+    commandExecutor.execute(new ExtendJobLocksCmd(Arrays.asList(jobId), jobExecutor.getLockOwner(), 1000));
+
+    JobEntity job = (JobEntity) managementService.createJobQuery().jobId(jobId).singleResult();
+    assertEquals(jobExecutor.getLockOwner(), job.getLockOwner());
+    assertEquals(new Date(START_TIME + 61000), job.getLockExpirationTime());
+  }
+
+  public void testDoNotExtendLockOfOtherOwner() {
+    JobEntity job = (JobEntity) managementService.createJobQuery().jobId(jobId).singleResult();
+    Date lockExpirationTime = job.getLockExpirationTime();
+
+    ClockUtil.setCurrentTime(new Date(START_TIME + 60000));
+
+    commandExecutor.execute(new ExtendJobLocksCmd(Arrays.asList(jobId), "otherLockOwner", 1000));
+
+    job = (JobEntity) managementService.createJobQuery().jobId(jobId).singleResult();
+    assertEquals(lockExpirationTime, job.getLockExpirationTime());
+  }
+
+  public void testExtendLockDoesNotIncrementRevision() {
+    JobEntity job = (JobEntity) managementService.createJobQuery().jobId(jobId).singleResult();
+    int revision = job.getRevision();
+
+    commandExecutor.execute(new ExtendJobLocksCmd(Arrays.asList(jobId), jobExecutor.getLockOwner(), 1000));
+
+    job = (JobEntity) managementService.createJobQuery().jobId(jobId).singleResult();
+    assertEquals(revision, job.getRevision());
+  }
+
+  public void testHeartbeatRenewsLocksOfAcquiredJobs() {
+    ProcessEngineImpl engine = (ProcessEngineImpl) processEngine;
+    int lockTimeInMillis = jobExecutor.getLockTimeInMillis();
+
+    // the job waits for execution
+    JobLockHeartbeat heartbeat = new JobLockHeartbeat(jobExecutor);
+    heartbeat.jobsAcquired(engine, acquiredJobs);
+    assertTrue(heartbeat.getAcquiredJobs(engine.getName()).contains(jobId));
+
+    ClockUtil.setCurrentTime(new Date(START_TIME + 60000));
+    heartbeat.renewLocks();
+
+    JobEntity job = (JobEntity) managementService.createJobQuery().jobId(jobId).singleResult();
+    assertEquals(new Date(START_TIME + 60000 + lockTimeInMillis), job.getLockExpirationTime());
+
+    // the lock of a finished job is not renewed anymore
+    heartbeat.jobFinished(engine, jobId);
+    ClockUtil.setCurrentTime(new Date(START_TIME + 120000));
+    heartbeat.renewLocks();
+
+    job = (JobEntity) managementService.createJobQuery().jobId(jobId).singleResult();
+    assertEquals(new Date(START_TIME + 60000 + lockTimeInMillis), job.getLockExpirationTime());
+  }
+
+}
@@ -0,0 +1,176 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.jobexecutor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.camunda.bpm.engine.impl.jobexecutor.PrioritizedJobsRunnable;
+import org.camunda.bpm.engine.impl.jobexecutor.PriorityJobQueue;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PriorityJobQueueTest {
+
+  @Before
+  public void setUp() {
+    ClockUtil.setCurrentTime(new Date());
+  }
+
+  @After
+  public void tearDown() {
+    ClockUtil.reset();
+  }
+
+  @Test
+  public void testHighestPriorityFirst() {
+    PriorityJobQueue queue = new PriorityJobQueue(10, 0);
+
+    PrioritizedJobsRunnable low = createRunnable("low", 1);
+    PrioritizedJobsRunnable high = createRunnable("high", 10);
+    PrioritizedJobsRunnable medium = createRunnable("medium", 5);
+
+    queue.offer(low);
+    queue.offer(high);
+    queue.offer(medium);
+
+    assertSame(high, queue.poll());
+    assertSame(medium, queue.poll());
+    assertSame(low, queue.poll());
+  }
+
+  @Test
+  public void testSamePriorityInQueueOrder() {
+    PriorityJobQueue queue = new PriorityJobQueue(10, 0);
+
+    PrioritizedJobsRunnable first = createRunnable("first", 5);
+    PrioritizedJobsRunnable second = createRunnable("second", 5);
+    PrioritizedJobsRunnable third = createRunnable("third", 5);
+
+    queue.offer(first);
+    queue.offer(second);
+    queue.offer(third);
+
+    assertSame(first, queue.poll());
+    assertSame(second, queue.poll());
+    assertSame(third, queue.poll());
+  }
+
+  @Test
+  public void testBounded() {
+    PriorityJobQueue queue = new PriorityJobQueue(2, 0);
+
+    assertTrue(queue.offer(createRunnable("1", 0)));
+    assertTrue(queue.offer(createRunnable("2", 0)));
+    assertEquals(0, queue.remainingCapacity());
+
+    assertFalse(queue.offer(createRunnable("3", 0)));
+    assertEquals(2, queue.size());
+  }
+
+  @Test
+  public void testHigherPriorityDisplacesLowestPriority() {
+    PriorityJobQueue queue = new PriorityJobQueue(2, 0);
+
+    PrioritizedJobsRunnable low = createRunnable("low", 1);
+    PrioritizedJobsRunnable medium = createRunnable("medium", 5);
+    PrioritizedJobsRunnable high = createRunnable("high", 10);
+    queue.offer(low);
+    queue.offer(medium);
+
+    // when
+    Runnable rejected = queue.offerOrDisplace(high);
+
+    // then
+    assertSame(low, rejected);
+    assertSame(high, queue.poll());
+    assertSame(medium, queue.poll());
+  }
+
+  @Test
+  public void testLowerPriorityDoesNotDisplace() {
+    PriorityJobQueue queue = new PriorityJobQueue(1, 0);
+
+    PrioritizedJobsRunnable medium = createRunnable("medium", 5);
+    PrioritizedJobsRunnable low = createRunnable("low", 1);
+    queue.offer(medium);
+
+    assertSame(low, queue.offerOrDisplace(low));
+    assertSame(medium, queue.poll());
+  }
+
+  @Test
+  public void testOfferOrDisplaceWithFreeCapacity() {
+    PriorityJobQueue queue = new PriorityJobQueue(1, 0);
+
+    assertNull(queue.offerOrDisplace(createRunnable("1", 0)));
+    assertEquals(1, queue.size());
+  }
+
+  @Test
+  public void testWaitingJobsAge() {
+    // one priority point every second
+    PriorityJobQueue queue = new PriorityJobQueue(10, 1000);
+
+    PrioritizedJobsRunnable low = createRunnable("low", 1);
+    queue.offer(low);
+
+    // a job with two points more which is queued three seconds later
+    ClockUtil.setCurrentTime(new Date(ClockUtil.getCurrentTime().getTime() + 3000));
+    PrioritizedJobsRunnable high = createRunnable("high", 3);
+    queue.offer(high);
+
+    // a job with four points more which is queued at the same time
+    PrioritizedJobsRunnable higher = createRunnable("higher", 5);
+    queue.offer(higher);
+
+    assertSame(higher, queue.poll());
+    assertSame(low, queue.poll());
+    assertSame(high, queue.poll());
+  }
+
+  @Test
+  public void testUnprioritizedRunnableHasDefaultPriority() {
+    PriorityJobQueue queue = new PriorityJobQueue(10, 0);
+
+    final boolean[] executed = new boolean[1];
+    queue.offer(new Runnable() {
+      public void run() {
+        executed[0] = true;
+      }
+    });
+    PrioritizedJobsRunnable high = createRunnable("high", 10);
+    queue.offer(high);
+
+    assertSame(high, queue.poll());
+    queue.poll().run();
+    assertTrue(executed[0]);
+  }
+
+  protected PrioritizedJobsRunnable createRunnable(String jobId, long priority) {
+    Runnable noop = new Runnable() {
+      public void run() {
+      }
+    };
+    return new PrioritizedJobsRunnable(noop, Arrays.asList(jobId), null, priority);
+  }
+
+}
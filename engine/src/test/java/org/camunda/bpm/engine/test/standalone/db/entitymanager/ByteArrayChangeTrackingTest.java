@@ -0,0 +1,83 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.standalone.db.entitymanager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.CachedDbEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ByteArrayChangeTrackingTest {
+
+  protected ByteArrayEntity byteArray;
+  protected CachedDbEntity cachedEntity;
+
+  @Before
+  public void setup() {
+    byteArray = new ByteArrayEntity("name", "some bytes".getBytes());
+
+    cachedEntity = new CachedDbEntity();
+    cachedEntity.setEntity(byteArray);
+    cachedEntity.makeCopy();
+  }
+
+  @Test
+  public void testUnchangedEntityIsNotDirty() {
+    assertFalse(cachedEntity.isDirty());
+  }
+
+  @Test
+  public void testEqualContentIsNotDirty() {
+    byteArray.setBytes("some bytes".getBytes());
+
+    assertFalse(cachedEntity.isDirty());
+  }
+
+  @Test
+  public void testChangedContentIsDirty() {
+    byteArray.setBytes("other bytes".getBytes());
+
+    assertTrue(cachedEntity.isDirty());
+  }
+
+  @Test
+  public void testNullContentIsDirty() {
+    byteArray.setBytes(null);
+
+    assertTrue(cachedEntity.isDirty());
+  }
+
+  @Test
+  public void testCompressedContentIsNotInflatedOnChange() {
+    // given a row which is flagged as compressed, but holds bytes which cannot be inflated
+    ByteArrayEntity compressedByteArray = new ByteArrayEntity();
+    compressedByteArray.setPersistentBytes("not deflated".getBytes());
+    compressedByteArray.setCompressed(true);
+
+    CachedDbEntity compressedEntity = new CachedDbEntity();
+    compressedEntity.setEntity(compressedByteArray);
+    compressedEntity.makeCopy();
+
+    // when
+    compressedByteArray.setBytes("other bytes".getBytes());
+
+    // then
+    assertTrue(compressedEntity.isDirty());
+    assertArrayEquals("other bytes".getBytes(), compressedByteArray.getBytes());
+  }
+
+}
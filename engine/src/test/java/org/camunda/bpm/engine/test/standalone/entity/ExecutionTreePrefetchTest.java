@@ -0,0 +1,102 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.standalone.entity;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionTreePrefetchProfile;
+import org.camunda.bpm.engine.impl.persistence.entity.ExternalTaskEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+
+public class ExecutionTreePrefetchTest extends PluggableProcessEngineTestCase {
+
+  protected static final BpmnModelInstance USER_TASK_PROCESS = Bpmn.createExecutableProcess("process")
+    .startEvent()
+    .userTask("task")
+    .endEvent()
+    .done();
+
+  protected static final BpmnModelInstance EXTERNAL_TASK_PROCESS = Bpmn.createExecutableProcess("process")
+    .startEvent()
+    .serviceTask("externalTask")
+      .camundaType("external")
+      .camundaTopic("topic")
+    .endEvent()
+    .done();
+
+  protected ExecutionTreePrefetchProfile prefetchProfile;
+
+  protected void setUp() throws Exception {
+    prefetchProfile = processEngineConfiguration.getExecutionTreePrefetchProfile();
+    processEngineConfiguration.setExecutionTreePrefetchProfile(ExecutionTreePrefetchProfile.parse("all"));
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setExecutionTreePrefetchProfile(prefetchProfile);
+  }
+
+  public void testDeletedTaskIsNotRestored() {
+    // given
+    deployment(USER_TASK_PROCESS);
+    final String processInstanceId = runtimeService.startProcessInstanceByKey("process").getId();
+    final String taskId = taskService.createTaskQuery().singleResult().getId();
+
+    // when the tree is restored after the task was deleted in the same command
+    List<TaskEntity> tasks = processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<List<TaskEntity>>() {
+      public List<TaskEntity> execute(CommandContext commandContext) {
+        TaskEntity task = commandContext.getTaskManager().findTaskById(taskId);
+        commandContext.getTaskManager().delete(task);
+
+        ExecutionEntity processInstance = commandContext.getExecutionManager().findExecutionById(processInstanceId);
+        // initializes the execution tree
+        processInstance.getExecutions();
+
+        return processInstance.getTasks();
+      }
+    });
+
+    // then
+    assertTrue(tasks.isEmpty());
+  }
+
+  public void testExternalTaskIsNotAddedTwice() {
+    // given
+    deployment(EXTERNAL_TASK_PROCESS);
+    final String processInstanceId = runtimeService.startProcessInstanceByKey("process").getId();
+
+    // when the tree is restored twice
+    List<ExternalTaskEntity> externalTasks = processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<List<ExternalTaskEntity>>() {
+      public List<ExternalTaskEntity> execute(CommandContext commandContext) {
+        ExecutionEntity processInstance = commandContext.getExecutionManager().findExecutionById(processInstanceId);
+        processInstance.getExecutions();
+
+        List<ExecutionEntity> executions = Collections.singletonList(processInstance);
+        List<ExternalTaskEntity> externalTasks = commandContext.getExternalTaskManager().findExternalTasksByProcessInstanceId(processInstanceId);
+        processInstance.restoreProcessInstance(executions, null, null, null, null, null, externalTasks);
+
+        return processInstance.getExternalTasks();
+      }
+    });
+
+    // then
+    assertEquals(1, externalTasks.size());
+  }
+
+}
@@ -0,0 +1,150 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.standalone.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.util.CompressionUtil;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+import org.junit.Test;
+
+public class CompressionUtilTest {
+
+  protected static final byte[] CONTENT = createContent();
+  protected static final int MAX_LENGTH = CompressionUtil.DEFAULT_MAX_DECOMPRESSED_SIZE;
+
+  @Test
+  public void testCompressAndDecompress() {
+    byte[] compressed = CompressionUtil.compress(CONTENT);
+
+    assertTrue(CompressionUtil.isCompressed(compressed));
+    assertTrue(compressed.length < CONTENT.length);
+    assertArrayEquals(CONTENT, CompressionUtil.decompress(compressed, MAX_LENGTH));
+  }
+
+  @Test
+  public void testCompressAndDecompressEmptyContent() {
+    byte[] compressed = CompressionUtil.compress(new byte[0]);
+
+    assertArrayEquals(new byte[0], CompressionUtil.decompress(compressed, MAX_LENGTH));
+  }
+
+  @Test
+  public void testUncompressedContentIsRejected() {
+    assertFalse(CompressionUtil.isCompressed(CONTENT));
+
+    try {
+      CompressionUtil.decompress(CONTENT, MAX_LENGTH);
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testCorruptContentIsRejected() {
+    byte[] bytes = CompressionUtil.compress(CONTENT);
+    for (int i = CompressionUtil.PREFIX_LENGTH; i < bytes.length; i++) {
+      bytes[i] = (byte) 0xFF;
+    }
+
+    try {
+      CompressionUtil.decompress(bytes, MAX_LENGTH);
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testContentWhichDoesNotMatchItsLengthIsRejected() throws IOException {
+    byte[] bytes = CompressionUtil.compress(CONTENT);
+    // declare one byte less than the content inflates to
+    bytes[CompressionUtil.PREFIX_LENGTH - 1]--;
+
+    try {
+      CompressionUtil.decompress(bytes, MAX_LENGTH);
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // expected
+    }
+
+    try {
+      IoUtil.readInputStream(CompressionUtil.decompress(new ByteArrayInputStream(bytes), MAX_LENGTH), "compressed");
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // expected: the IOException of the stream is wrapped by IoUtil
+    }
+  }
+
+  @Test
+  public void testContentLargerThanMaximumIsRejected() throws IOException {
+    byte[] compressed = CompressionUtil.compress(CONTENT);
+
+    try {
+      CompressionUtil.decompress(compressed, CONTENT.length - 1);
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // expected
+    }
+
+    try {
+      CompressionUtil.decompress(new ByteArrayInputStream(compressed), CONTENT.length - 1);
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // expected: the length is checked before the content is inflated
+    }
+  }
+
+  @Test
+  public void testDecompressStream() throws IOException {
+    byte[] compressed = CompressionUtil.compress(CONTENT);
+
+    byte[] decompressed = IoUtil.readInputStream(CompressionUtil.decompress(new ByteArrayInputStream(compressed), MAX_LENGTH), "compressed");
+
+    assertArrayEquals(CONTENT, decompressed);
+  }
+
+  @Test
+  public void testDecompressShortStreamIsRejected() throws IOException {
+    try {
+      CompressionUtil.decompress(new ByteArrayInputStream(new byte[] { 1, 2 }), MAX_LENGTH);
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // expected
+    }
+  }
+
+  protected static byte[] createContent() {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      builder.append("{\"name\":\"value").append(i % 10).append("\"},");
+    }
+    return builder.toString().getBytes();
+  }
+
+}
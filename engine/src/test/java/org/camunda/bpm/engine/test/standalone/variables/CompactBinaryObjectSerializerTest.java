@@ -0,0 +1,258 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.standalone.variables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.variable.serializer.binary.CompactBinaryCodec;
+import org.camunda.bpm.engine.impl.variable.serializer.binary.CompactBinaryCodecs;
+import org.camunda.bpm.engine.impl.variable.serializer.binary.CompactBinaryObjectSerializer;
+import org.camunda.bpm.engine.impl.variable.serializer.binary.CompactBinaryReader;
+import org.camunda.bpm.engine.impl.variable.serializer.binary.CompactBinaryWriter;
+import org.camunda.bpm.engine.variable.Variables;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompactBinaryObjectSerializerTest {
+
+  protected CompactBinaryCodecs codecs;
+
+  @Before
+  public void setUp() {
+    codecs = new CompactBinaryCodecs();
+    codecs.addCodec(new PointCodec());
+  }
+
+  @Test
+  public void testBuiltInTypes() {
+    List<Object> values = Arrays.<Object>asList(null, "foo", "", "äöü €",
+        0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE,
+        (short) -42, (byte) 7, true, false, 3.14d, Double.NaN, 2.5f, 'x',
+        new Date(1234567890L), new byte[] { 1, 2, 3 },
+        new BigDecimal("12345678901234567890.0987654321"), new BigInteger("-98765432109876543210"));
+
+    for (Object value : values) {
+      Object result = roundTrip(value);
+      if (value instanceof byte[]) {
+        assertTrue(Arrays.equals((byte[]) value, (byte[]) result));
+      }
+      else {
+        assertEquals(value, result);
+      }
+    }
+  }
+
+  @Test
+  public void testNestedCollections() {
+    Map<String, Object> value = new HashMap<String, Object>();
+    value.put("list", Arrays.asList(1, "two", 3L));
+    value.put("set", new HashSet<Object>(Arrays.asList("a", "b")));
+    value.put("map", Collections.singletonMap(1, Collections.emptyList()));
+    value.put("null", null);
+
+    Object result = roundTrip(value);
+
+    assertEquals(value, result);
+    assertTrue(result instanceof LinkedHashMap);
+  }
+
+  @Test
+  public void testCustomCodec() {
+    List<Point> value = new ArrayList<Point>();
+    for (int i = 0; i < 10; i++) {
+      value.add(new Point(i, -i));
+    }
+
+    byte[] bytes = new CompactBinaryWriter(codecs).writeValue(value).toByteArray();
+
+    assertEquals(value, read(bytes));
+
+    // the type tag is written once and referenced afterwards
+    String content = new String(bytes);
+    assertEquals(content.indexOf(PointCodec.TYPE_TAG), content.lastIndexOf(PointCodec.TYPE_TAG));
+  }
+
+  @Test
+  public void testCanWrite() {
+    assertTrue(codecs.canWrite(new Point(1, 2)));
+    assertTrue(codecs.canWrite(Collections.singletonMap("point", new Point(1, 2))));
+
+    assertFalse(codecs.canWrite(new Object()));
+    assertFalse(codecs.canWrite(Collections.singletonList(new Object())));
+    assertFalse(new CompactBinaryCodecs().canWrite(new Point(1, 2)));
+  }
+
+  @Test
+  public void testUnknownTypeCannotBeWritten() {
+    try {
+      new CompactBinaryWriter(codecs).writeValue(new Object());
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testUnknownCodecCannotBeRead() {
+    byte[] bytes = new CompactBinaryWriter(codecs).writeValue(new Point(1, 2)).toByteArray();
+
+    try {
+      new CompactBinaryReader(new CompactBinaryCodecs(), bytes).readValue();
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testTruncatedContent() {
+    byte[] bytes = new CompactBinaryWriter(codecs).writeValue("foo bar").toByteArray();
+
+    try {
+      read(Arrays.copyOf(bytes, bytes.length - 1));
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testReadByteBuffer() {
+    byte[] bytes = new CompactBinaryWriter(codecs)
+      .writeBytes(new byte[] { 1, 2, 3 })
+      .writeBytes(null)
+      .toByteArray();
+
+    CompactBinaryReader reader = new CompactBinaryReader(codecs, bytes);
+    ByteBuffer buffer = reader.readByteBuffer();
+    assertEquals(3, buffer.remaining());
+    assertEquals(1, buffer.get(0));
+    assertEquals(3, buffer.get(2));
+    assertTrue(buffer.isReadOnly());
+
+    assertNull(reader.readByteBuffer());
+    assertTrue(reader.isAtEnd());
+  }
+
+  @Test
+  public void testSmallerThanJavaSerialization() throws Exception {
+    Map<String, Object> value = new HashMap<String, Object>();
+    for (int i = 0; i < 100; i++) {
+      value.put("key" + i, Arrays.asList(i, (long) i * 1000, "value" + i));
+    }
+
+    ByteArrayOutputStream javaSerialized = new ByteArrayOutputStream();
+    ObjectOutputStream outputStream = new ObjectOutputStream(javaSerialized);
+    outputStream.writeObject(value);
+    outputStream.close();
+
+    byte[] bytes = new CompactBinaryWriter(codecs).writeValue(value).toByteArray();
+
+    assertTrue(bytes.length < javaSerialized.size());
+  }
+
+  @Test
+  public void testSerializerHandlesOnlyItsDataFormat() {
+    CompactBinaryObjectSerializer serializer = new CompactBinaryObjectSerializer();
+
+    assertTrue(serializer.canHandle(Variables.objectValue(Collections.singletonList("foo"))
+        .serializationDataFormat(CompactBinaryObjectSerializer.DATA_FORMAT).create()));
+    assertFalse(serializer.canHandle(Variables.objectValue(Collections.singletonList("foo"))
+        .serializationDataFormat(Variables.SerializationDataFormats.JAVA.getName()).create()));
+    assertFalse(serializer.canHandle(Variables.objectValue(new Point(1, 2))
+        .serializationDataFormat(CompactBinaryObjectSerializer.DATA_FORMAT).create()));
+    // neither requested nor configured as default
+    assertFalse(serializer.canHandle(Variables.objectValue(Collections.singletonList("foo")).create()));
+    assertFalse(serializer.canHandle(Variables.untypedValue(Collections.singletonList("foo"))));
+  }
+
+  protected Object roundTrip(Object value) {
+    return read(new CompactBinaryWriter(codecs).writeValue(value).toByteArray());
+  }
+
+  protected Object read(byte[] bytes) {
+    CompactBinaryReader reader = new CompactBinaryReader(codecs, bytes);
+    Object value = reader.readValue();
+    assertTrue(reader.isAtEnd());
+    return value;
+  }
+
+  public static class Point {
+
+    protected final long x;
+    protected final long y;
+
+    public Point(long x, long y) {
+      this.x = x;
+      this.y = y;
+    }
+
+    public int hashCode() {
+      return (int) (31 * x + y);
+    }
+
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Point)) {
+        return false;
+      }
+      Point other = (Point) obj;
+      return x == other.x && y == other.y;
+    }
+  }
+
+  public static class PointCodec implements CompactBinaryCodec<Point> {
+
+    public static final String TYPE_TAG = "test:point";
+
+    public String getTypeTag() {
+      return TYPE_TAG;
+    }
+
+    public Class<Point> getType() {
+      return Point.class;
+    }
+
+    public void write(Point value, CompactBinaryWriter writer) {
+      writer.writeVarLong(value.x);
+      writer.writeVarLong(value.y);
+    }
+
+    public Point read(CompactBinaryReader reader) {
+      return new Point(reader.readVarLong(), reader.readVarLong());
+    }
+  }
+
+}
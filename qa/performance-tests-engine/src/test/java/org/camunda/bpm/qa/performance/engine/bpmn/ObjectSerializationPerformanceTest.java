@@ -0,0 +1,162 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.bpmn;
+
+import static org.camunda.bpm.qa.performance.engine.steps.PerfTestConstants.PROCESS_INSTANCE_ID;
+import static org.camunda.bpm.qa.performance.engine.steps.PerfTestConstants.RUN_ID;
+import static org.camunda.bpm.qa.performance.engine.steps.PerfTestConstants.VARIABLE1;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.variable.serializer.binary.CompactBinaryObjectSerializer;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestRunContext;
+import org.camunda.bpm.qa.performance.engine.junit.ProcessEnginePerformanceTestCase;
+import org.camunda.bpm.qa.performance.engine.steps.ProcessEngineAwareStep;
+import org.camunda.bpm.qa.performance.engine.steps.StartProcessInstanceStep;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Test;
+
+/**
+ * Compares the serialization formats of object variables: every run writes an object
+ * variable and reads it back deserialized.
+ */
+public class ObjectSerializationPerformanceTest extends ProcessEnginePerformanceTestCase {
+
+  protected static final String SINGLE_TASK_PROCESS = "org/camunda/bpm/qa/performance/engine/bpmn/UserTaskPerformanceTest.singleTask.bpmn";
+
+  @Test
+  @Deployment(resources = SINGLE_TASK_PROCESS)
+  public void javaSerializedObjectVar() {
+    performanceTest()
+      .step(new StartProcessInstanceStep(engine, "process", objectVariable(Variables.SerializationDataFormats.JAVA.getName())))
+      .step(new GetVariableStep(engine))
+    .run();
+  }
+
+  @Test
+  @Deployment(resources = SINGLE_TASK_PROCESS)
+  public void compactBinaryObjectVar() {
+    performanceTest()
+      .step(new StartProcessInstanceStep(engine, "process", objectVariable(CompactBinaryObjectSerializer.DATA_FORMAT)))
+      .step(new GetVariableStep(engine))
+    .run();
+  }
+
+  @Test
+  @Deployment(resources = SINGLE_TASK_PROCESS)
+  public void jsonStringVar() {
+    performanceTest()
+      .step(new StartProcessInstanceWithJsonVariableStep(engine, "process", createPayload()))
+      .step(new GetJsonVariableStep(engine))
+    .run();
+  }
+
+  protected Map<String, Object> objectVariable(String serializationDataFormat) {
+    Map<String, Object> variables = new HashMap<String, Object>();
+    variables.put(VARIABLE1, Variables.objectValue(createPayload())
+        .serializationDataFormat(serializationDataFormat)
+        .create());
+    return variables;
+  }
+
+  protected static Map<String, Object> createPayload() {
+    Map<String, Object> payload = new LinkedHashMap<String, Object>();
+    payload.put("customerId", "customer-4711");
+    payload.put("orderDate", new Date(1456704000000L));
+    payload.put("express", true);
+
+    List<Object> items = new ArrayList<Object>();
+    for (int i = 0; i < 20; i++) {
+      Map<String, Object> item = new LinkedHashMap<String, Object>();
+      item.put("articleId", "article-" + i);
+      item.put("quantity", i % 5 + 1);
+      item.put("price", 9.99d * i);
+      items.add(item);
+    }
+    payload.put("items", items);
+
+    return payload;
+  }
+
+  public static class GetVariableStep extends ProcessEngineAwareStep {
+
+    public GetVariableStep(ProcessEngine processEngine) {
+      super(processEngine);
+    }
+
+    public void execute(PerfTestRunContext context) {
+      String processInstanceId = context.getVariable(PROCESS_INSTANCE_ID);
+      runtimeService.getVariable(processInstanceId, VARIABLE1);
+    }
+  }
+
+  public static class StartProcessInstanceWithJsonVariableStep extends ProcessEngineAwareStep {
+
+    protected static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    protected String processDefinitionKey;
+    protected Object payload;
+
+    public StartProcessInstanceWithJsonVariableStep(ProcessEngine processEngine, String processDefinitionKey, Object payload) {
+      super(processEngine);
+      this.processDefinitionKey = processDefinitionKey;
+      this.payload = payload;
+    }
+
+    public void execute(PerfTestRunContext context) {
+      Map<String, Object> variables = new HashMap<String, Object>();
+      try {
+        variables.put(VARIABLE1, OBJECT_MAPPER.writeValueAsString(payload));
+      }
+      catch (IOException e) {
+        throw new ProcessEngineException(e);
+      }
+      variables.put(RUN_ID, context.getVariable(RUN_ID));
+
+      ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(processDefinitionKey, variables);
+      context.setVariable(PROCESS_INSTANCE_ID, processInstance.getId());
+    }
+  }
+
+  public static class GetJsonVariableStep extends ProcessEngineAwareStep {
+
+    protected static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public GetJsonVariableStep(ProcessEngine processEngine) {
+      super(processEngine);
+    }
+
+    public void execute(PerfTestRunContext context) {
+      String processInstanceId = context.getVariable(PROCESS_INSTANCE_ID);
+      String json = (String) runtimeService.getVariable(processInstanceId, VARIABLE1);
+      try {
+        OBJECT_MAPPER.readValue(json, Map.class);
+      }
+      catch (IOException e) {
+        throw new ProcessEngineException(e);
+      }
+    }
+  }
+
+}